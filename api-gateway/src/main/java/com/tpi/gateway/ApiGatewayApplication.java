@@ -16,6 +16,7 @@ import org.springframework.context.annotation.Bean;
  * - CORS
  * - Circuit Breaker para resiliencia
  * - Rate Limiting
+ * - Caché de respuestas GET por ruta (filtro CacheRespuestas)
  * 
  * @author TPI Backend Team
  * @version 1.0.0
@@ -0,0 +1,151 @@
+package com.tpi.gateway.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Almacenamiento en memoria de las respuestas GET cacheadas por el Gateway.
+ *
+ * - Memoria acotada: se limita la suma de bytes de las entradas y se descartan las usadas menos recientemente (LRU)
+ * - Las entradas vencidas se conservan mientras haya lugar para poder revalidarlas con su ETag
+ * - Publica métricas de aciertos/fallos por ruta (gateway.cache.consultas) y el tamaño ocupado
+ * - Cada invalidación avanza la generación de la ruta: una respuesta pedida al backend antes de la invalidación
+ *   no se guarda aunque termine de llegar después (traería los datos anteriores a la escritura)
+ *
+ * @author TPI Backend Team
+ */
+@Slf4j
+@Component
+public class CacheRespuestas {
+
+    /**
+     * Resultado de una consulta a la caché, usado como tag de las métricas
+     */
+    public enum Resultado { HIT, MISS, REVALIDADO, OMITIDO }
+
+    /**
+     * Respuesta almacenada. Los headers se guardan sin los de conexión (Transfer-Encoding, etc.)
+     */
+    public record Entrada(HttpStatusCode estado, HttpHeaders headers, byte[] cuerpo, String etag,
+                          long almacenadaEnMs, long venceEnMs) {
+
+        public boolean vigente(long ahoraMs) {
+            return ahoraMs < venceEnMs;
+        }
+
+        long tamanoBytes() {
+            // Aproximación del espacio de los headers para no subestimar entradas con cuerpo chico
+            return cuerpo.length + 64L * headers.size();
+        }
+    }
+
+    private final long tamanoMaximoBytes;
+    private final long tamanoMaximoEntradaBytes;
+    private final MeterRegistry meterRegistry;
+
+    // Orden de acceso: el primer elemento es el menos usado recientemente
+    private final LinkedHashMap<String, Entrada> entradas = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<String, Counter> contadores = new ConcurrentHashMap<>();
+    private final Map<String, Long> generaciones = new HashMap<>();
+    private long tamanoActualBytes;
+
+    public CacheRespuestas(@Value("${gateway.cache.tamano-maximo:16MB}") DataSize tamanoMaximo,
+                           @Value("${gateway.cache.tamano-maximo-entrada:512KB}") DataSize tamanoMaximoEntrada,
+                           MeterRegistry meterRegistry) {
+        this.tamanoMaximoBytes = tamanoMaximo.toBytes();
+        this.tamanoMaximoEntradaBytes = tamanoMaximoEntrada.toBytes();
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("gateway.cache.entradas", this, cache -> cache.cantidadEntradas());
+        meterRegistry.gauge("gateway.cache.bytes", this, cache -> cache.tamanoBytes());
+    }
+
+    public synchronized Entrada obtener(String clave) {
+        return entradas.get(clave);
+    }
+
+    /**
+     * Generación actual de la ruta; se toma antes de pedir la respuesta al backend y se pasa a guardar
+     */
+    public synchronized long generacion(String rutaId) {
+        return generaciones.getOrDefault(rutaId, 0L);
+    }
+
+    /**
+     * Guarda la respuesta y descarta las entradas menos usadas hasta volver al límite de memoria.
+     * No la guarda si la ruta se invalidó después de tomar la generación indicada.
+     */
+    public synchronized void guardar(String rutaId, long generacion, String clave, Entrada entrada) {
+        if (entrada.tamanoBytes() > tamanoMaximoEntradaBytes || generacion != generacion(rutaId)) {
+            return;
+        }
+        Entrada anterior = entradas.put(clave, entrada);
+        if (anterior != null) {
+            tamanoActualBytes -= anterior.tamanoBytes();
+        }
+        tamanoActualBytes += entrada.tamanoBytes();
+
+        Iterator<Map.Entry<String, Entrada>> menosUsadas = entradas.entrySet().iterator();
+        while (tamanoActualBytes > tamanoMaximoBytes && menosUsadas.hasNext()) {
+            Entrada descartada = menosUsadas.next().getValue();
+            tamanoActualBytes -= descartada.tamanoBytes();
+            menosUsadas.remove();
+        }
+    }
+
+    /**
+     * Elimina todas las respuestas de una ruta (después de una escritura sobre ella)
+     */
+    public synchronized void invalidarRuta(String rutaId) {
+        generaciones.merge(rutaId, 1L, Long::sum);
+        String prefijo = rutaId + " ";
+        Iterator<Map.Entry<String, Entrada>> iterador = entradas.entrySet().iterator();
+        int eliminadas = 0;
+        while (iterador.hasNext()) {
+            Map.Entry<String, Entrada> entrada = iterador.next();
+            if (entrada.getKey().startsWith(prefijo)) {
+                tamanoActualBytes -= entrada.getValue().tamanoBytes();
+                iterador.remove();
+                eliminadas++;
+            }
+        }
+        if (eliminadas > 0) {
+            log.debug("Cache invalidated for route {}: {} entries removed", rutaId, eliminadas);
+        }
+    }
+
+    public long tamanoMaximoEntradaBytes() {
+        return tamanoMaximoEntradaBytes;
+    }
+
+    /**
+     * Cuenta una consulta para la tasa de aciertos por ruta
+     */
+    public void registrar(String rutaId, Resultado resultado) {
+        contadores.computeIfAbsent(rutaId + "|" + resultado, clave -> Counter.builder("gateway.cache.consultas")
+                        .description("Consultas GET a la caché de respuestas del Gateway")
+                        .tag("ruta", rutaId)
+                        .tag("resultado", resultado.name())
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    private synchronized int cantidadEntradas() {
+        return entradas.size();
+    }
+
+    private synchronized long tamanoBytes() {
+        return tamanoActualBytes;
+    }
+}
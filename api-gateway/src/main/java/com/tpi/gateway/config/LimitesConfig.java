@@ -0,0 +1,64 @@
+package com.tpi.gateway.config;
+
+import com.tpi.gateway.limites.AlmacenTokens;
+import com.tpi.gateway.limites.AlmacenTokensLocal;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Configuración del control de admisión del Gateway: limitador de tasa por cliente y límite de concurrencia.
+ *
+ * @author TPI Backend Team
+ */
+@Configuration
+@EnableConfigurationProperties(LimitesProperties.class)
+public class LimitesConfig {
+
+    /**
+     * Clave del limitador: rol prioritario y subject del JWT ("ROL|subject").
+     * Los roles son las authorities que arma SecurityConfig.grantedAuthoritiesExtractor a partir de
+     * realm_access y resource_access; los pedidos sin autenticar se identifican por IP.
+     */
+    @Bean
+    @Primary
+    public KeyResolver claveClienteKeyResolver(LimitesProperties limites) {
+        return exchange -> exchange.getPrincipal()
+                .filter(Authentication.class::isInstance)
+                .cast(Authentication.class)
+                .map(auth -> rolPrioritario(auth, limites) + "|" + auth.getName())
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    InetSocketAddress remoto = exchange.getRequest().getRemoteAddress();
+                    return "ANONIMO|" + (remoto != null ? remoto.getAddress().getHostAddress() : "desconocido");
+                }));
+    }
+
+    /**
+     * Baldes en memoria del proceso, salvo que se declare otro AlmacenTokens compartido entre instancias
+     */
+    @Bean
+    @ConditionalOnMissingBean(AlmacenTokens.class)
+    public AlmacenTokens almacenTokens() {
+        return new AlmacenTokensLocal();
+    }
+
+    private static String rolPrioritario(Authentication auth, LimitesProperties limites) {
+        Set<String> authorities = auth.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toSet());
+        return limites.getPorRol().keySet().stream()
+                .filter(rol -> authorities.contains("ROLE_" + rol))
+                .findFirst()
+                .orElse("OTRO");
+    }
+}
@@ -0,0 +1,47 @@
+package com.tpi.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Límites de admisión de solicitudes del Gateway (prefijo gateway.limites en application.yml).
+ *
+ * @author TPI Backend Team
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.limites")
+public class LimitesProperties {
+
+    /**
+     * Balde de tokens para los usuarios sin ninguno de los roles de porRol
+     */
+    private Balde porDefecto = new Balde(40, 20);
+
+    /**
+     * Baldes por rol, en orden de prioridad: un usuario con varios roles usa el primero que tenga
+     */
+    private Map<String, Balde> porRol = new LinkedHashMap<>();
+
+    /**
+     * Solicitudes en curso admitidas por backend antes de rechazar con 429.
+     * Menor que los hilos del Tomcat de cada servicio (200) para cortar antes de que se encolen.
+     */
+    private int concurrenciaMaximaPorBackend = 150;
+
+    @Data
+    public static class Balde {
+        private int capacidad; // Ráfaga máxima
+        private double reposicionPorSegundo; // Tasa sostenida
+
+        public Balde() {
+        }
+
+        public Balde(int capacidad, double reposicionPorSegundo) {
+            this.capacidad = capacidad;
+            this.reposicionPorSegundo = reposicionPorSegundo;
+        }
+    }
+}
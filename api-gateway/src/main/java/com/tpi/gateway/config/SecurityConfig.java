@@ -69,6 +69,9 @@ public class SecurityConfig {
                     .hasAnyRole("ADMIN", "FLOTA_MANAGER")
                 .pathMatchers(HttpMethod.DELETE, "/api/flota/**")
                     .hasRole("ADMIN")
+                // Lote de disponibilidad - sólo la cuenta de servicio de servicio-operaciones (outbox)
+                .pathMatchers(HttpMethod.PATCH, "/api/flota/camiones/disponibilidad")
+                    .hasRole("SERVICIO")
                 
                 // ===== Servicio Operaciones =====
                 // Lectura de operaciones - cualquier usuario autenticado
@@ -0,0 +1,317 @@
+package com.tpi.gateway.filter;
+
+import com.tpi.gateway.cache.CacheRespuestas;
+import com.tpi.gateway.cache.CacheRespuestas.Entrada;
+import com.tpi.gateway.cache.CacheRespuestas.Resultado;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Filtro de ruta que cachea las respuestas GET en el Gateway.
+ *
+ * Uso en application.yml: {@code - name: CacheRespuestas} con args {@code ttl} (por defecto 30s)
+ * y {@code porUsuario} (por defecto true: cada usuario autenticado tiene sus propias entradas).
+ *
+ * - Respeta Cache-Control: no cachea no-store ni respuestas private compartidas; max-age acota el TTL de la ruta
+ * - Una entrada vencida con ETag se revalida con If-None-Match: si el backend responde 304 se sirve lo cacheado
+ * - Responde 304 al cliente cuando su If-None-Match coincide con la entrada vigente
+ * - Cualquier escritura exitosa (POST, PUT, PATCH, DELETE) sobre la ruta invalida sus entradas, y también
+ *   descarta las respuestas que se estaban pidiendo al backend en ese momento
+ * - Informa el resultado en el header X-Cache (HIT, MISS, REVALIDADO)
+ *
+ * @author TPI Backend Team
+ */
+@Slf4j
+@Component
+public class CacheRespuestasGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<CacheRespuestasGatewayFilterFactory.Config> {
+
+    private static final String HEADER_CACHE = "X-Cache";
+
+    // Headers que no se guardan: los de conexión y los que el Gateway agrega en cada respuesta (CORS)
+    private static final Set<String> HEADERS_NO_ALMACENABLES = Set.of(
+            "transfer-encoding", "content-length", "connection", "keep-alive", "set-cookie", "vary",
+            HEADER_CACHE.toLowerCase(Locale.ROOT));
+
+    private final CacheRespuestas cache;
+
+    public CacheRespuestasGatewayFilterFactory(CacheRespuestas cache) {
+        super(Config.class);
+        this.cache = cache;
+    }
+
+    @Data
+    public static class Config {
+        private Duration ttl = Duration.ofSeconds(30); // Vigencia máxima de una respuesta cacheada
+        private boolean porUsuario = true; // Separar las entradas por usuario autenticado
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("ttl", "porUsuario");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        // Antes de NettyWriteResponseFilter, que escribe en la respuesta del exchange que recibe: si corriera
+        // después no vería el decorador (mismo orden que usa ModifyResponseBody)
+        return new OrderedGatewayFilter((exchange, chain) -> filtrar(exchange, chain, config),
+                NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private Mono<Void> filtrar(ServerWebExchange exchange, GatewayFilterChain chain, Config config) {
+        Route ruta = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String rutaId = ruta != null ? ruta.getId() : "sin-ruta";
+        HttpMethod metodo = exchange.getRequest().getMethod();
+
+        if (!HttpMethod.GET.equals(metodo)) {
+            if (HttpMethod.HEAD.equals(metodo) || HttpMethod.OPTIONS.equals(metodo)) {
+                return chain.filter(exchange);
+            }
+            // Una escritura exitosa deja desactualizadas las lecturas cacheadas de la ruta
+            return chain.filter(exchange).doOnSuccess(v -> {
+                HttpStatusCode estado = exchange.getResponse().getStatusCode();
+                if (estado != null && estado.is2xxSuccessful()) {
+                    cache.invalidarRuta(rutaId);
+                }
+            });
+        }
+
+        String cacheControl = valorCacheControl(exchange.getRequest().getHeaders());
+        if (cacheControl.contains("no-store")) {
+            cache.registrar(rutaId, Resultado.OMITIDO);
+            return chain.filter(exchange);
+        }
+        boolean clientePideFresco = cacheControl.contains("no-cache");
+        // Se copian antes de agregar el If-None-Match de la revalidación (el request mutado comparte los headers)
+        List<String> etagsCliente = List.copyOf(exchange.getRequest().getHeaders().getIfNoneMatch());
+
+        return alcance(exchange, config).flatMap(alcance -> {
+            String clave = rutaId + " " + alcance + " " + exchange.getRequest().getURI().getRawPath()
+                    + "?" + exchange.getRequest().getURI().getRawQuery()
+                    + " " + exchange.getRequest().getHeaders().getAccept();
+            long ahora = System.currentTimeMillis();
+            long generacion = cache.generacion(rutaId);
+            Entrada entrada = cache.obtener(clave);
+
+            if (entrada != null && !clientePideFresco && entrada.vigente(ahora)) {
+                cache.registrar(rutaId, Resultado.HIT);
+                return escribir(exchange.getResponse(), etagsCliente, entrada, Resultado.HIT, ahora);
+            }
+
+            // Entrada vencida con ETag: se pide al backend sólo si cambió
+            boolean revalidando = entrada != null && entrada.etag() != null;
+            ServerWebExchange aEnviar = revalidando
+                    ? exchange.mutate().request(r -> r.headers(h -> h.setIfNoneMatch(entrada.etag()))).build()
+                    : exchange;
+            ServerHttpResponse respuesta = new RespuestaCacheable(
+                    aEnviar.getResponse(), etagsCliente, config, rutaId, generacion, clave, revalidando ? entrada : null);
+            return chain.filter(aEnviar.mutate().response(respuesta).build());
+        });
+    }
+
+    /**
+     * Decorador que copia el cuerpo mientras se envía al cliente y lo guarda al terminar si es cacheable
+     */
+    private class RespuestaCacheable extends ServerHttpResponseDecorator {
+
+        private final List<String> etagsCliente;
+        private final Config config;
+        private final String rutaId;
+        private final long generacion; // De la ruta al pedir la respuesta al backend
+        private final String clave;
+        private final Entrada aRevalidar;
+
+        RespuestaCacheable(ServerHttpResponse delegada, List<String> etagsCliente, Config config,
+                           String rutaId, long generacion, String clave, Entrada aRevalidar) {
+            super(delegada);
+            this.etagsCliente = etagsCliente;
+            this.config = config;
+            this.rutaId = rutaId;
+            this.generacion = generacion;
+            this.clave = clave;
+            this.aRevalidar = aRevalidar;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (aRevalidar != null && HttpStatus.NOT_MODIFIED.equals(getStatusCode())) {
+                return Flux.from(body).doOnNext(DataBufferUtils::release).then(servirRevalidada());
+            }
+            cache.registrar(rutaId, Resultado.MISS);
+            getHeaders().set(HEADER_CACHE, Resultado.MISS.name());
+
+            long ttlMs = ttlAlmacenable(getStatusCode(), getHeaders(), config);
+            long limite = cache.tamanoMaximoEntradaBytes();
+            if (ttlMs < 0 || getHeaders().getContentLength() > limite) {
+                return super.writeWith(body);
+            }
+
+            HttpStatusCode estado = getStatusCode();
+            HttpHeaders headers = headersAlmacenables(getHeaders());
+            String etag = getHeaders().getETag();
+            ByteArrayOutputStream copia = new ByteArrayOutputStream();
+            boolean[] excedido = {false};
+            Flux<DataBuffer> cuerpo = Flux.<DataBuffer>from(body)
+                    .doOnNext(buffer -> {
+                        int cantidad = buffer.readableByteCount();
+                        if (excedido[0] || copia.size() + cantidad > limite) {
+                            excedido[0] = true;
+                            return;
+                        }
+                        // Copia sin consumir el buffer que se envía al cliente
+                        byte[] bytes = new byte[cantidad];
+                        int posicion = buffer.readPosition();
+                        buffer.read(bytes);
+                        buffer.readPosition(posicion);
+                        copia.write(bytes, 0, cantidad);
+                    })
+                    .doOnComplete(() -> {
+                        if (!excedido[0]) {
+                            long ahora = System.currentTimeMillis();
+                            cache.guardar(rutaId, generacion, clave,
+                                    new Entrada(estado, headers, copia.toByteArray(), etag, ahora, ahora + ttlMs));
+                        }
+                    });
+            return super.writeWith(cuerpo);
+        }
+
+        @Override
+        public Mono<Void> setComplete() {
+            if (aRevalidar != null && HttpStatus.NOT_MODIFIED.equals(getStatusCode())) {
+                return servirRevalidada();
+            }
+            return super.setComplete();
+        }
+
+        /**
+         * El backend confirmó (304) que la entrada sigue siendo válida: se renueva y se sirve desde la caché
+         */
+        private Mono<Void> servirRevalidada() {
+            long ahora = System.currentTimeMillis();
+            long ttlMs = Math.max(0, ttlAlmacenable(HttpStatus.OK, getHeaders(), config));
+            Entrada renovada = new Entrada(aRevalidar.estado(), aRevalidar.headers(), aRevalidar.cuerpo(),
+                    aRevalidar.etag(), ahora, ahora + ttlMs);
+            cache.guardar(rutaId, generacion, clave, renovada);
+            cache.registrar(rutaId, Resultado.REVALIDADO);
+            getHeaders().clear();
+            return escribir(getDelegate(), etagsCliente, renovada, Resultado.REVALIDADO, ahora);
+        }
+    }
+
+    /**
+     * Escribe una entrada cacheada en la respuesta, o 304 si el cliente ya tiene esa versión
+     */
+    private Mono<Void> escribir(ServerHttpResponse respuesta, List<String> etagsCliente, Entrada entrada,
+                                Resultado resultado, long ahora) {
+        HttpHeaders headers = respuesta.getHeaders();
+        entrada.headers().forEach(headers::put);
+        headers.set(HEADER_CACHE, resultado.name());
+        headers.set(HttpHeaders.AGE, String.valueOf(Math.max(0, (ahora - entrada.almacenadaEnMs()) / 1000)));
+
+        if (entrada.etag() != null && etagsCliente.contains(entrada.etag())) {
+            respuesta.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return respuesta.setComplete();
+        }
+        respuesta.setStatusCode(entrada.estado());
+        headers.setContentLength(entrada.cuerpo().length);
+        return respuesta.writeWith(Mono.just(respuesta.bufferFactory().wrap(entrada.cuerpo())));
+    }
+
+    /**
+     * Vigencia en milisegundos con que se puede guardar la respuesta, o -1 si no se debe cachear
+     */
+    private long ttlAlmacenable(HttpStatusCode estado, HttpHeaders headers, Config config) {
+        if (estado == null || !estado.isSameCodeAs(HttpStatus.OK) || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return -1;
+        }
+        String cacheControl = valorCacheControl(headers);
+        if (cacheControl.contains("no-store") || (cacheControl.contains("private") && !config.isPorUsuario())) {
+            return -1;
+        }
+        long ttlMs = config.getTtl().toMillis();
+        if (cacheControl.contains("no-cache")) {
+            ttlMs = 0;
+        } else {
+            Long maxAge = directivaSegundos(cacheControl, "s-maxage");
+            if (maxAge == null) {
+                maxAge = directivaSegundos(cacheControl, "max-age");
+            }
+            if (maxAge != null) {
+                ttlMs = Math.min(ttlMs, maxAge * 1000);
+            }
+        }
+        // Sin vigencia sólo tiene sentido guardarla si se puede revalidar
+        return ttlMs > 0 || headers.getETag() != null ? ttlMs : -1;
+    }
+
+    /**
+     * Clave de alcance: el usuario autenticado o una entrada compartida por todos
+     */
+    private Mono<String> alcance(ServerWebExchange exchange, Config config) {
+        if (!config.isPorUsuario()) {
+            return Mono.just("compartido");
+        }
+        return exchange.getPrincipal()
+                .map(Principal::getName)
+                .map(nombre -> "usuario:" + nombre)
+                .defaultIfEmpty("anonimo");
+    }
+
+    private static HttpHeaders headersAlmacenables(HttpHeaders headers) {
+        HttpHeaders copia = new HttpHeaders();
+        headers.forEach((nombre, valores) -> {
+            String minuscula = nombre.toLowerCase(Locale.ROOT);
+            if (!HEADERS_NO_ALMACENABLES.contains(minuscula) && !minuscula.startsWith("access-control-")) {
+                copia.put(nombre, new ArrayList<>(valores));
+            }
+        });
+        return copia;
+    }
+
+    private static String valorCacheControl(HttpHeaders headers) {
+        return String.join(",", headers.getOrEmpty(HttpHeaders.CACHE_CONTROL)).toLowerCase(Locale.ROOT);
+    }
+
+    private static Long directivaSegundos(String cacheControl, String directiva) {
+        for (String parte : cacheControl.split(",")) {
+            String valor = parte.trim();
+            if (valor.startsWith(directiva + "=")) {
+                try {
+                    return Long.parseLong(valor.substring(directiva.length() + 1).replace("\"", ""));
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,105 @@
+package com.tpi.gateway.filter;
+
+import com.tpi.gateway.config.LimitesProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Filtro que limita las solicitudes en curso hacia cada backend (host:puerto de la ruta).
+ *
+ * Al superar el máximo responde 429 con Retry-After en lugar de dejar que el pedido espere en la cola
+ * del servicio: así un pico no satura los hilos del backend y los pedidos admitidos mantienen su latencia.
+ * Las rutas con metadata {@code sin-limite-concurrencia: true} (ej: operaciones-seguimiento, streams SSE) no cuentan:
+ * sus conexiones quedan abiertas mucho tiempo sin ocupar un hilo del backend, que limita sus suscripciones por su
+ * cuenta. La excepción se decide por ruta y no por headers del pedido, que el cliente controla.
+ *
+ * Uso en application.yml: {@code - name: LimiteConcurrencia} con arg opcional {@code maximo}
+ * (por defecto gateway.limites.concurrencia-maxima-por-backend).
+ * Métricas: gateway.concurrencia.activas{backend} y gateway.concurrencia.rechazadas{backend}.
+ *
+ * @author TPI Backend Team
+ */
+@Slf4j
+@Component
+public class LimiteConcurrenciaGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<LimiteConcurrenciaGatewayFilterFactory.Config> {
+
+    public static final String METADATA_SIN_LIMITE = "sin-limite-concurrencia";
+
+    private final LimitesProperties limites;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AtomicInteger> activasPorBackend = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rechazosPorBackend = new ConcurrentHashMap<>();
+
+    public LimiteConcurrenciaGatewayFilterFactory(LimitesProperties limites, MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.limites = limites;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Data
+    public static class Config {
+        private Integer maximo; // Solicitudes en curso por backend; null = valor global
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            Route ruta = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            if (ruta == null || ruta.getUri() == null || ruta.getUri().getAuthority() == null) {
+                // Rutas forward: no hay backend remoto que proteger
+                return chain.filter(exchange);
+            }
+            if (sinLimite(ruta)) {
+                return chain.filter(exchange);
+            }
+            String backend = ruta.getUri().getAuthority();
+            int maximo = config.getMaximo() != null ? config.getMaximo() : limites.getConcurrenciaMaximaPorBackend();
+            AtomicInteger activas = activas(backend);
+
+            if (activas.incrementAndGet() > maximo) {
+                activas.decrementAndGet();
+                rechazos(backend).increment();
+                log.warn("Concurrency limit {} reached for backend {}, rejecting {} {}",
+                        maximo, backend, exchange.getRequest().getMethod(), exchange.getRequest().getPath());
+                exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+                return exchange.getResponse().setComplete();
+            }
+            // doFinally cubre también cancelaciones (cliente que corta la conexión)
+            return chain.filter(exchange).doFinally(senal -> activas.decrementAndGet());
+        };
+    }
+
+    private static boolean sinLimite(Route ruta) {
+        // Boolean desde application.yml, String si se define por variables de entorno o propiedades
+        return Boolean.parseBoolean(String.valueOf(ruta.getMetadata().get(METADATA_SIN_LIMITE)));
+    }
+
+    private AtomicInteger activas(String backend) {
+        return activasPorBackend.computeIfAbsent(backend, clave -> meterRegistry.gauge(
+                "gateway.concurrencia.activas", Tags.of("backend", clave),
+                new AtomicInteger()));
+    }
+
+    private Counter rechazos(String backend) {
+        return rechazosPorBackend.computeIfAbsent(backend, clave -> Counter.builder("gateway.concurrencia.rechazadas")
+                .description("Solicitudes rechazadas por el límite de concurrencia del Gateway")
+                .tag("backend", clave)
+                .register(meterRegistry));
+    }
+}
@@ -1,128 +1,117 @@
 package com.tpi.gateway.filter;
 
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
 import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.server.reactive.ServerHttpRequest;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.ReactiveSecurityContextHolder;
-import org.springframework.security.core.context.SecurityContext;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 
-import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Mono;
 
-import java.util.Collection;
-import java.util.List;
-import java.util.UUID;
+import java.net.InetSocketAddress;
+import java.security.Principal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
 
 /**
- * Filtro global para logging de todas las requests que pasan por el Gateway.
- * 
+ * Filtro global de log de acceso de todas las requests que pasan por el Gateway.
+ *
  * Este filtro:
- * - Genera un ID único de correlación para cada request
- * - Logea información de la request (método, path, usuario)
- * - Propaga headers de autenticación
- * - Mide el tiempo de respuesta
- * 
+ * - Genera un ID de correlación para cada request (aleatorio de 64 bits, sin SecureRandom), o conserva
+ *   el X-Request-Id recibido si es válido
+ * - Propaga el ID al backend en el header X-Request-Id y lo devuelve al cliente en la respuesta; los
+ *   servicios lo usan en sus logs y en sus trazas (/api/trazas/{requestId})
+ * - Emite un único registro estructurado (clave=valor) al terminar la request, en el logger
+ *   "com.tpi.gateway.acceso" (appender asíncrono en logback-spring.xml)
+ * - Permite muestrear las requests exitosas; los errores y las requests lentas se registran siempre
+ *
+ * Las latencias por ruta se publican en la métrica spring.cloud.gateway.requests (histograma en application.yml).
+ *
  * @author TPI Backend Team
  */
-@Slf4j
 @Component
 public class LoggingGlobalFilter implements GlobalFilter, Ordered {
-    
+
+    private static final Logger accesoLog = LoggerFactory.getLogger("com.tpi.gateway.acceso");
+    private static final String HEADER_REQUEST_ID = "X-Request-Id";
+    // Se acepta el ID recibido sólo si es corto y sin caracteres raros (va a logs y headers)
+    private static final Pattern REQUEST_ID_VALIDO = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    private final double muestreo;
+    private final long umbralLentoNanos;
+
+    public LoggingGlobalFilter(@Value("${gateway.access-log.muestreo:1.0}") double muestreo,
+                               @Value("${gateway.access-log.umbral-lento-ms:1000}") long umbralLentoMs) {
+        this.muestreo = muestreo;
+        this.umbralLentoNanos = umbralLentoMs * 1_000_000;
+    }
+
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-        long startTime = System.currentTimeMillis();
-        
-        ServerHttpRequest request = exchange.getRequest();
-        String requestId = UUID.randomUUID().toString();
-        
-        // Agregar request ID al header para trazabilidad
-        ServerHttpRequest modifiedRequest = request.mutate()
-            .header("X-Request-Id", requestId)
-            .build();
-        
+        long inicio = System.nanoTime();
+        String recibido = exchange.getRequest().getHeaders().getFirst(HEADER_REQUEST_ID);
+        String requestId = recibido != null && REQUEST_ID_VALIDO.matcher(recibido).matches() ? recibido : nuevoRequestId();
+
+        // Agregar request ID al header para trazabilidad (reemplaza un valor recibido inválido)
         ServerWebExchange modifiedExchange = exchange.mutate()
-            .request(modifiedRequest)
+            .request(request -> request.headers(headers -> headers.set(HEADER_REQUEST_ID, requestId)))
             .build();
-        
-        // Log inicial
-        log.info("[{}] Incoming request: {} {} from {}",
-            requestId,
-            request.getMethod(),
-            request.getPath(),
-            request.getRemoteAddress());
-        
-        // Obtener información del usuario autenticado si existe
-        return ReactiveSecurityContextHolder.getContext()
-            .map(SecurityContext::getAuthentication)
-            .defaultIfEmpty(new NoAuthentication())
-            .flatMap(auth -> {
-                if (auth.isAuthenticated() && !(auth instanceof NoAuthentication)) {
-                    log.info("[{}] Authenticated user: {} with roles: {}",
-                        requestId,
-                        auth.getName(),
-                        auth.getAuthorities());
-                } else {
-                    log.info("[{}] Unauthenticated request", requestId);
-                }
-                
-                return chain.filter(modifiedExchange)
-                    .doFinally(signalType -> {
-                        long duration = System.currentTimeMillis() - startTime;
-                        log.info("[{}] Request completed in {}ms with status: {}",
-                            requestId,
-                            duration,
-                            exchange.getResponse().getStatusCode());
-                    });
-            });
+        modifiedExchange.getResponse().getHeaders().set(HEADER_REQUEST_ID, requestId);
+
+        // El usuario se resuelve una sola vez; el registro se emite al completar (o cancelar) la request
+        return exchange.getPrincipal()
+            .map(Principal::getName)
+            .defaultIfEmpty("-")
+            .flatMap(usuario -> chain.filter(modifiedExchange)
+                .doFinally(signalType -> registrar(modifiedExchange, requestId, usuario, System.nanoTime() - inicio)));
     }
 
-    @Override
-    public int getOrder() {
-        return -1; // Alta prioridad para ejecutarse primero
+    private void registrar(ServerWebExchange exchange, String requestId, String usuario, long duracionNanos) {
+        if (!accesoLog.isInfoEnabled()) {
+            return;
+        }
+        HttpStatusCode estado = exchange.getResponse().getStatusCode();
+        boolean siempre = estado == null || estado.isError() || duracionNanos >= umbralLentoNanos;
+        if (!siempre && muestreo < 1.0 && ThreadLocalRandom.current().nextDouble() >= muestreo) {
+            return;
+        }
+
+        ServerHttpRequest request = exchange.getRequest();
+        Route ruta = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        InetSocketAddress remoto = request.getRemoteAddress();
+
+        StringBuilder registro = new StringBuilder(192)
+            .append("id=").append(requestId)
+            .append(" metodo=").append(request.getMethod().name())
+            .append(" path=").append(request.getPath().value())
+            .append(" ruta=").append(ruta != null ? ruta.getId() : "-")
+            .append(" estado=").append(estado != null ? estado.value() : 0)
+            .append(" ms=").append(duracionNanos / 1_000_000)
+            .append(" usuario=").append(usuario)
+            .append(" ip=").append(remoto != null ? remoto.getHostString() : "-");
+        accesoLog.info(registro.toString());
     }
-    
+
     /**
-     * Clase interna para representar ausencia de autenticación
+     * 16 dígitos hexadecimales aleatorios: únicos en la práctica y sin la contención de UUID.randomUUID()
      */
-    private static class NoAuthentication implements Authentication {
-        @Override
-        public String getName() {
-            return "anonymous";
-        }
-        
-        @Override
-        public Collection getAuthorities() {
-            return List.of();
-        }
-        
-        @Override
-        public Object getCredentials() {
-            return null;
-        }
-        
-        @Override
-        public Object getDetails() {
-            return null;
-        }
-        
-        @Override
-        public Object getPrincipal() {
-            return "anonymous";
-        }
-        
-        @Override
-        public boolean isAuthenticated() {
-            return false;
-        }
-        
-        @Override
-        public void setAuthenticated(boolean isAuthenticated) {
-            // No-op
-        }
+    private static String nuevoRequestId() {
+        String hex = Long.toHexString(ThreadLocalRandom.current().nextLong());
+        return hex.length() == 16 ? hex : "0".repeat(16 - hex.length()) + hex;
+    }
+
+    @Override
+    public int getOrder() {
+        // Alta prioridad para ejecutarse primero (también antes de la caché de respuestas, que puede cortar la cadena)
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 2;
     }
 }
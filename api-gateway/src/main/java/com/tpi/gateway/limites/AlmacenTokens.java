@@ -0,0 +1,34 @@
+package com.tpi.gateway.limites;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Almacén de los baldes de tokens del limitador de solicitudes.
+ *
+ * La implementación por defecto ({@link AlmacenTokensLocal}) guarda los baldes en memoria del proceso:
+ * con varias instancias del Gateway cada una aplica el límite por separado. Para un límite compartido
+ * alcanza con declarar otro bean de este tipo (por ejemplo, respaldado por Redis) y reemplaza al local.
+ *
+ * @author TPI Backend Team
+ */
+public interface AlmacenTokens {
+
+    /**
+     * Resultado de intentar consumir un token
+     *
+     * @param permitido  Si había un token disponible
+     * @param restantes  Tokens que quedan en el balde después del intento
+     * @param esperaMs   Tiempo hasta que haya un token disponible (0 si se permitió)
+     */
+    record Consumo(boolean permitido, long restantes, long esperaMs) {
+    }
+
+    /**
+     * Consume un token del balde de la clave, reponiéndolo antes según el tiempo transcurrido
+     *
+     * @param clave                 Identificador del balde (cliente y ruta)
+     * @param capacidad             Máximo de tokens acumulables (ráfaga permitida)
+     * @param reposicionPorSegundo  Tokens que se reponen por segundo (tasa sostenida)
+     */
+    Mono<Consumo> consumir(String clave, int capacidad, double reposicionPorSegundo);
+}
@@ -0,0 +1,57 @@
+package com.tpi.gateway.limites;
+
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Baldes de tokens en memoria del proceso.
+ *
+ * La reposición se calcula al consumir (tokens += segundos transcurridos × tasa), sin tareas en segundo plano.
+ * Cada tanto se descartan los baldes sin uso que ya se habrían llenado: equivalen a un balde nuevo.
+ *
+ * @author TPI Backend Team
+ */
+public class AlmacenTokensLocal implements AlmacenTokens {
+
+    private static final int CONSUMOS_ENTRE_LIMPIEZAS = 4096;
+
+    private final Map<String, Balde> baldes = new ConcurrentHashMap<>();
+    private final AtomicLong consumos = new AtomicLong();
+
+    private static final class Balde {
+        private double tokens;
+        private long actualizadoNanos;
+        private final double nanosHastaLlenarse;
+
+        private Balde(int capacidad, double reposicionPorSegundo, long ahoraNanos) {
+            this.tokens = capacidad;
+            this.actualizadoNanos = ahoraNanos;
+            this.nanosHastaLlenarse = capacidad / reposicionPorSegundo * 1_000_000_000d;
+        }
+    }
+
+    @Override
+    public Mono<Consumo> consumir(String clave, int capacidad, double reposicionPorSegundo) {
+        long ahora = System.nanoTime();
+        if (consumos.incrementAndGet() % CONSUMOS_ENTRE_LIMPIEZAS == 0) {
+            baldes.values().removeIf(balde -> ahora - balde.actualizadoNanos > balde.nanosHastaLlenarse);
+        }
+
+        Balde balde = baldes.computeIfAbsent(clave, c -> new Balde(capacidad, reposicionPorSegundo, ahora));
+        synchronized (balde) {
+            double transcurridos = Math.max(0, ahora - balde.actualizadoNanos) / 1_000_000_000d;
+            balde.tokens = Math.min(capacidad, balde.tokens + transcurridos * reposicionPorSegundo);
+            balde.actualizadoNanos = ahora;
+
+            if (balde.tokens >= 1) {
+                balde.tokens -= 1;
+                return Mono.just(new Consumo(true, (long) balde.tokens, 0));
+            }
+            long esperaMs = (long) Math.ceil((1 - balde.tokens) / reposicionPorSegundo * 1000);
+            return Mono.just(new Consumo(false, 0, esperaMs));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.tpi.gateway.limites;
+
+import com.tpi.gateway.config.LimitesProperties;
+import com.tpi.gateway.config.LimitesProperties.Balde;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Limitador de solicitudes por cliente (balde de tokens) para el filtro RequestRateLimiter.
+ *
+ * La clave la arma LimitesConfig con el rol prioritario y el subject del JWT ("ROL|subject"): cada usuario
+ * tiene su propio balde, con la capacidad y tasa configuradas para su rol en gateway.limites.por-rol.
+ *
+ * Publica gateway.limites.solicitudes{ruta, rol, resultado} (el subject no se usa como tag para no
+ * multiplicar las series; los rechazos se registran en el log con el usuario).
+ *
+ * @author TPI Backend Team
+ */
+@Slf4j
+@Component
+public class LimitadorPorCliente implements RateLimiter<Balde> {
+
+    static final String SEPARADOR = "|";
+
+    private final AlmacenTokens almacen;
+    private final LimitesProperties limites;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> contadores = new ConcurrentHashMap<>();
+
+    public LimitadorPorCliente(AlmacenTokens almacen, LimitesProperties limites, MeterRegistry meterRegistry) {
+        this.almacen = almacen;
+        this.limites = limites;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        int separador = id.indexOf(SEPARADOR);
+        String rol = separador > 0 ? id.substring(0, separador) : "";
+        Balde balde = limites.getPorRol().getOrDefault(rol, limites.getPorDefecto());
+
+        return almacen.consumir(id, balde.getCapacidad(), balde.getReposicionPorSegundo()).map(consumo -> {
+            contador(routeId, rol, consumo.permitido()).increment();
+
+            Map<String, String> headers = new LinkedHashMap<>();
+            headers.put("X-RateLimit-Limit", String.valueOf(balde.getCapacidad()));
+            headers.put("X-RateLimit-Remaining", String.valueOf(consumo.restantes()));
+            if (!consumo.permitido()) {
+                headers.put(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (consumo.esperaMs() + 999) / 1000)));
+                log.warn("Rate limit exceeded for {} on route {}", id, routeId);
+            }
+            return new Response(consumo.permitido(), headers);
+        });
+    }
+
+    private Counter contador(String ruta, String rol, boolean permitida) {
+        String resultado = permitida ? "PERMITIDA" : "RECHAZADA";
+        return contadores.computeIfAbsent(ruta + SEPARADOR + rol + SEPARADOR + resultado,
+                clave -> Counter.builder("gateway.limites.solicitudes")
+                        .description("Solicitudes evaluadas por el limitador de tasa del Gateway")
+                        .tag("ruta", ruta)
+                        .tag("rol", rol)
+                        .tag("resultado", resultado)
+                        .register(meterRegistry));
+    }
+
+    @Override
+    public Map<String, Balde> getConfig() {
+        // Los límites se toman de gateway.limites, no de argumentos de cada ruta
+        return Map.of();
+    }
+
+    @Override
+    public Class<Balde> getConfigClass() {
+        return Balde.class;
+    }
+
+    @Override
+    public Balde newConfig() {
+        return new Balde();
+    }
+}
@@ -0,0 +1,291 @@
+package com.tpi.gateway.openapi;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinitionLocator;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Documento OpenAPI agregado de todos los microservicios, calculado una vez y mantenido en memoria.
+ *
+ * - Los backends se descubren en las rutas del Gateway: cada ruta {@code Path=/api/<servicio>/**} aporta
+ *   el servicio y su URI, y sus paths se publican con el prefijo {@code /api/<servicio>/}
+ * - Se refresca en segundo plano cada gateway.openapi.intervalo-refresco y cuando cambian las rutas;
+ *   el documento agregado sólo se vuelve a armar si cambió la definición de algún backend
+ * - Si un backend no responde se conserva su última definición conocida
+ * - El ETag del documento es un hash de su contenido: es estable mientras los backends no cambien
+ *
+ * @author TPI Backend Team
+ */
+@Slf4j
+@Component
+public class AgregadorOpenApi {
+
+    private static final Pattern RUTA_SERVICIO = Pattern.compile("^/api/([^/*]+)/\\*\\*$");
+    private static final String PATH_API_DOCS = "/v3/api-docs";
+
+    /**
+     * Documento agregado listo para servir
+     */
+    public record Documento(byte[] json, String etag) {
+    }
+
+    /**
+     * Última definición recibida de un backend y el hash con que se detectan cambios
+     */
+    private record DefinicionBackend(Map<String, Object> contenido, String hash, String etag) {
+    }
+
+    private final RouteDefinitionLocator routeDefinitionLocator;
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+    private final Duration intervaloRefresco;
+    private final Duration timeoutBackend;
+
+    private final AtomicReference<Documento> documento = new AtomicReference<>();
+    private final Map<String, DefinicionBackend> definiciones = new ConcurrentHashMap<>();
+    private Mono<Documento> refrescoEnCurso;
+    private Disposable refrescoPeriodico;
+
+    public AgregadorOpenApi(RouteDefinitionLocator routeDefinitionLocator,
+                            WebClient.Builder webClientBuilder,
+                            ObjectMapper objectMapper,
+                            @Value("${gateway.openapi.intervalo-refresco:60s}") Duration intervaloRefresco,
+                            @Value("${gateway.openapi.timeout-backend:5s}") Duration timeoutBackend) {
+        this.routeDefinitionLocator = routeDefinitionLocator;
+        this.webClient = webClientBuilder.build();
+        this.objectMapper = objectMapper;
+        this.intervaloRefresco = intervaloRefresco;
+        this.timeoutBackend = timeoutBackend;
+    }
+
+    /**
+     * Documento agregado; la primera vez (antes del primer refresco) lo calcula en el momento
+     */
+    public Mono<Documento> obtener() {
+        Documento actual = documento.get();
+        return actual != null ? Mono.just(actual) : refrescar();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciarRefrescoPeriodico() {
+        refrescoPeriodico = Flux.interval(Duration.ZERO, intervaloRefresco)
+                .onBackpressureDrop()
+                .concatMap(tick -> refrescar().onErrorResume(e -> {
+                    log.warn("Could not refresh aggregated OpenAPI: {}", e.getMessage());
+                    return Mono.empty();
+                }))
+                .subscribe();
+    }
+
+    /**
+     * Las rutas pueden cambiar de backend (actuator/gateway/refresh): se vuelve a agregar enseguida
+     */
+    @EventListener(RefreshRoutesResultEvent.class)
+    public void rutasActualizadas() {
+        if (refrescoPeriodico != null) {
+            refrescar().subscribe(d -> { }, e -> log.warn("Could not refresh aggregated OpenAPI: {}", e.getMessage()));
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        if (refrescoPeriodico != null) {
+            refrescoPeriodico.dispose();
+        }
+    }
+
+    /**
+     * Consulta los backends y rearma el documento si alguno cambió. Los pedidos simultáneos comparten
+     * el mismo refresco en curso en lugar de consultar cada uno a los backends.
+     */
+    private synchronized Mono<Documento> refrescar() {
+        if (refrescoEnCurso == null) {
+            refrescoEnCurso = backends()
+                    .flatMap(backend -> consultar(backend.getKey(), backend.getValue()))
+                    .reduce(false, (cambio, cambioBackend) -> cambio || cambioBackend)
+                    .map(cambio -> {
+                        Documento actual = documento.get();
+                        if (cambio || actual == null) {
+                            actual = armar();
+                            documento.set(actual);
+                            log.info("Aggregated OpenAPI rebuilt from {} ({})", definiciones.keySet(), actual.etag());
+                        }
+                        return actual;
+                    })
+                    .doFinally(senal -> terminarRefresco())
+                    .cache();
+        }
+        return refrescoEnCurso;
+    }
+
+    private synchronized void terminarRefresco() {
+        refrescoEnCurso = null;
+    }
+
+    /**
+     * Servicio → URI del backend, tomado de las rutas Path=/api/<servicio>/**
+     */
+    private Flux<Map.Entry<String, URI>> backends() {
+        return routeDefinitionLocator.getRouteDefinitions()
+                .collectList()
+                .flatMapIterable(rutas -> {
+                    Map<String, URI> backends = new TreeMap<>();
+                    for (RouteDefinition ruta : rutas) {
+                        for (PredicateDefinition predicado : ruta.getPredicates()) {
+                            if (!"Path".equals(predicado.getName())) {
+                                continue;
+                            }
+                            for (String patron : predicado.getArgs().values()) {
+                                Matcher matcher = RUTA_SERVICIO.matcher(patron.trim());
+                                if (matcher.matches()) {
+                                    backends.putIfAbsent(matcher.group(1), ruta.getUri());
+                                }
+                            }
+                        }
+                    }
+                    return backends.entrySet();
+                });
+    }
+
+    /**
+     * Pide la definición de un backend (condicional si ya tenemos su ETag)
+     *
+     * @return true si la definición cambió respecto de la anterior
+     */
+    private Mono<Boolean> consultar(String servicio, URI uri) {
+        DefinicionBackend anterior = definiciones.get(servicio);
+        return webClient.get()
+                .uri(uri.resolve(PATH_API_DOCS))
+                .headers(headers -> {
+                    if (anterior != null && anterior.etag() != null) {
+                        headers.setIfNoneMatch(anterior.etag());
+                    }
+                })
+                .exchangeToMono(respuesta -> {
+                    if (respuesta.statusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                        return respuesta.releaseBody().thenReturn(false);
+                    }
+                    if (!respuesta.statusCode().is2xxSuccessful()) {
+                        return respuesta.createError();
+                    }
+                    String etag = respuesta.headers().asHttpHeaders().getETag();
+                    return respuesta.bodyToMono(byte[].class).map(cuerpo -> registrar(servicio, cuerpo, etag, anterior));
+                })
+                .timeout(timeoutBackend)
+                .onErrorResume(e -> {
+                    log.warn("OpenAPI of {} ({}) unavailable, keeping last known definition: {}", servicio, uri, e.getMessage());
+                    return Mono.just(false);
+                });
+    }
+
+    private boolean registrar(String servicio, byte[] cuerpo, String etag, DefinicionBackend anterior) {
+        String hash = hash(cuerpo);
+        if (anterior != null && anterior.hash().equals(hash)) {
+            return false;
+        }
+        try {
+            Map<String, Object> contenido = objectMapper.readValue(cuerpo, new TypeReference<>() { });
+            definiciones.put(servicio, new DefinicionBackend(contenido, hash, etag));
+            return true;
+        } catch (IOException e) {
+            log.warn("Invalid OpenAPI document from {}: {}", servicio, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Combina las definiciones conocidas en un solo documento (ordenado para que el ETag sea estable)
+     */
+    @SuppressWarnings("unchecked")
+    private Documento armar() {
+        Map<String, Object> aggregated = new LinkedHashMap<>();
+        aggregated.put("openapi", "3.0.1");
+
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("title", "TPI Backend - Todos los Servicios");
+        info.put("description", "API Gateway con todos los endpoints de Flota y Operaciones agregados");
+        info.put("version", "1.0.0");
+        aggregated.put("info", info);
+
+        Map<String, Object> allPaths = new TreeMap<>();
+        Map<String, Object> schemas = new TreeMap<>();
+        new TreeMap<>(definiciones).forEach((servicio, definicion) -> {
+            Map<String, Object> contenido = definicion.contenido();
+            // Cambiar /api/camiones a /api/flota/camiones
+            if (contenido.get("paths") instanceof Map<?, ?> paths) {
+                ((Map<String, Object>) paths).forEach((path, value) ->
+                        allPaths.put(path.replace("/api/", "/api/" + servicio + "/"), value));
+            }
+            if (contenido.get("components") instanceof Map<?, ?> components
+                    && components.get("schemas") instanceof Map<?, ?> schemasServicio) {
+                schemas.putAll((Map<String, Object>) schemasServicio);
+            }
+        });
+        aggregated.put("paths", allPaths);
+
+        // Agregar security scheme para JWT
+        Map<String, Object> bearerAuth = new LinkedHashMap<>();
+        bearerAuth.put("type", "http");
+        bearerAuth.put("scheme", "bearer");
+        bearerAuth.put("bearerFormat", "JWT");
+        bearerAuth.put("description", "Ingrese el token JWT obtenido de Keycloak");
+
+        Map<String, Object> components = new LinkedHashMap<>();
+        components.put("schemas", schemas);
+        components.put("securitySchemes", Map.of("bearer-jwt", bearerAuth));
+        aggregated.put("components", components);
+
+        // Agregar seguridad global - todos los endpoints requieren JWT
+        Map<String, Object> securityRequirement = new HashMap<>();
+        securityRequirement.put("bearer-jwt", new ArrayList<>());
+        aggregated.put("security", List.of(securityRequirement));
+
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(aggregated);
+            return new Documento(json, "\"" + hash(json) + "\"");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el OpenAPI agregado", e);
+        }
+    }
+
+    private static String hash(byte[] contenido) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(contenido);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
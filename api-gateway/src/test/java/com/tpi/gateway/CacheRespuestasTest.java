@@ -0,0 +1,219 @@
+package com.tpi.gateway;
+
+import com.tpi.gateway.cache.CacheRespuestas;
+import com.tpi.gateway.filter.CacheRespuestasGatewayFilterFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Filtro CacheRespuestas sobre una ruta con el backend simulado por la cadena de filtros: MISS y HIT,
+ * 304 al cliente que ya tiene la versión vigente, revalidación con If-None-Match de una entrada vencida,
+ * invalidación por una escritura y descarte de la respuesta que se estaba pidiendo cuando llegó la escritura.
+ * Se arma sin contexto de Spring.
+ */
+class CacheRespuestasTest {
+
+    private static final String RUTA = "flota-tarifas";
+    private static final String PATH = "/api/flota/tarifas/activa";
+    private static final String ETAG = "\"v1\"";
+
+    private final Route ruta = Route.async().id(RUTA).uri("http://localhost:8081").predicate(exchange -> true).build();
+    private final List<String> pedidosAlBackend = new ArrayList<>();
+    private SimpleMeterRegistry meterRegistry;
+    private CacheRespuestas cache;
+
+    @BeforeEach
+    void crearCache() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new CacheRespuestas(DataSize.ofMegabytes(1), DataSize.ofKilobytes(64), meterRegistry);
+    }
+
+    @Test
+    void laPrimeraConsultaVaAlBackendYLaSiguienteSeSirveDeLaCache() {
+        GatewayFilter filtro = filtro(Duration.ofSeconds(30));
+        GatewayFilterChain backend = backend("tarifa 1", null, null);
+
+        MockServerWebExchange primera = get();
+        filtro.filter(primera, backend).block();
+        MockServerWebExchange segunda = get();
+        filtro.filter(segunda, backend).block();
+
+        assertEquals("MISS", primera.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("HIT", segunda.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals(HttpStatus.OK, segunda.getResponse().getStatusCode());
+        assertEquals("tarifa 1", cuerpo(segunda));
+        assertEquals(List.of("GET"), pedidosAlBackend);
+        assertEquals(1.0, contador("HIT"));
+        assertEquals(1.0, contador("MISS"));
+    }
+
+    @Test
+    void alClienteQueYaTieneLaVersionVigenteSeLeResponde304() {
+        GatewayFilter filtro = filtro(Duration.ofSeconds(30));
+        GatewayFilterChain backend = backend("tarifa 1", ETAG, null);
+        filtro.filter(get(), backend).block();
+
+        MockServerWebExchange condicional = MockServerWebExchange.from(
+                MockServerHttpRequest.get(PATH).header(HttpHeaders.IF_NONE_MATCH, ETAG));
+        condicional.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, ruta);
+        filtro.filter(condicional, backend).block();
+
+        assertEquals(HttpStatus.NOT_MODIFIED, condicional.getResponse().getStatusCode());
+        assertEquals("HIT", condicional.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals(List.of("GET"), pedidosAlBackend);
+    }
+
+    @Test
+    void unaEntradaVencidaConEtagSeRevalidaConElBackend() {
+        GatewayFilter filtro = filtro(Duration.ofSeconds(30));
+        // max-age=0: se guarda vencida, sólo para revalidarla
+        GatewayFilterChain backend = backend("tarifa 1", ETAG, "max-age=0");
+        filtro.filter(get(), backend).block();
+
+        MockServerWebExchange revalidada = get();
+        filtro.filter(revalidada, backend).block();
+
+        assertEquals(List.of("GET", "GET If-None-Match " + ETAG), pedidosAlBackend);
+        assertEquals(HttpStatus.OK, revalidada.getResponse().getStatusCode());
+        assertEquals("REVALIDADO", revalidada.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("tarifa 1", cuerpo(revalidada));
+        assertEquals(1.0, contador("REVALIDADO"));
+    }
+
+    @Test
+    void unaEscrituraExitosaInvalidaLasEntradasDeLaRuta() {
+        GatewayFilter filtro = filtro(Duration.ofSeconds(30));
+        GatewayFilterChain backend = backend("tarifa 1", null, null);
+        filtro.filter(get(), backend).block();
+
+        filtro.filter(post(), backend).block();
+        MockServerWebExchange despues = get();
+        filtro.filter(despues, backend).block();
+
+        assertEquals("MISS", despues.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals(List.of("GET", "POST", "GET"), pedidosAlBackend);
+    }
+
+    @Test
+    void laRespuestaPedidaAntesDeUnaEscrituraNoSeGuarda() throws Exception {
+        GatewayFilter filtro = filtro(Duration.ofSeconds(30));
+        Sinks.One<String> cuerpoDemorado = Sinks.one();
+        GatewayFilterChain backendLento = exchange -> {
+            pedidosAlBackend.add("GET");
+            ServerHttpResponse respuesta = exchange.getResponse();
+            respuesta.setStatusCode(HttpStatus.OK);
+            return respuesta.writeWith(cuerpoDemorado.asMono().map(texto -> buffer(respuesta, texto)));
+        };
+
+        // El GET ya leyó los datos anteriores en el backend, pero su cuerpo llega después de la escritura
+        CompletableFuture<Void> enCurso = filtro.filter(get(), backendLento).toFuture();
+        filtro.filter(post(), backend("", null, null)).block();
+        cuerpoDemorado.tryEmitValue("tarifa anterior");
+        enCurso.get(5, TimeUnit.SECONDS);
+
+        MockServerWebExchange despues = get();
+        filtro.filter(despues, backend("tarifa nueva", null, null)).block();
+
+        assertEquals("MISS", despues.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("tarifa nueva", cuerpo(despues));
+        assertEquals(List.of("GET", "POST", "GET"), pedidosAlBackend);
+    }
+
+    @Test
+    void unaRespuestaNoStoreNoSeGuarda() {
+        GatewayFilter filtro = filtro(Duration.ofSeconds(30));
+        GatewayFilterChain backend = backend("tarifa 1", ETAG, "no-store");
+
+        filtro.filter(get(), backend).block();
+        MockServerWebExchange segunda = get();
+        filtro.filter(segunda, backend).block();
+
+        assertEquals("MISS", segunda.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals(List.of("GET", "GET"), pedidosAlBackend);
+    }
+
+    private GatewayFilter filtro(Duration ttl) {
+        CacheRespuestasGatewayFilterFactory.Config config = new CacheRespuestasGatewayFilterFactory.Config();
+        config.setTtl(ttl);
+        config.setPorUsuario(false);
+        return new CacheRespuestasGatewayFilterFactory(cache).apply(config);
+    }
+
+    /**
+     * Backend simulado: responde 200 con el cuerpo indicado, o 304 si el pedido trae el ETag vigente.
+     * Las escrituras responden 201 sin cuerpo. Registra cada pedido en pedidosAlBackend.
+     */
+    private GatewayFilterChain backend(String cuerpo, String etag, String cacheControl) {
+        return exchange -> {
+            ServerHttpResponse respuesta = exchange.getResponse();
+            List<String> ifNoneMatch = exchange.getRequest().getHeaders().getIfNoneMatch();
+            String metodo = exchange.getRequest().getMethod().name();
+            pedidosAlBackend.add(ifNoneMatch.isEmpty() ? metodo : metodo + " If-None-Match " + String.join(",", ifNoneMatch));
+
+            if (!"GET".equals(metodo)) {
+                respuesta.setStatusCode(HttpStatus.CREATED);
+                return respuesta.setComplete();
+            }
+            if (etag != null) {
+                respuesta.getHeaders().setETag(etag);
+            }
+            if (cacheControl != null) {
+                respuesta.getHeaders().setCacheControl(cacheControl);
+            }
+            if (etag != null && ifNoneMatch.contains(etag)) {
+                respuesta.setStatusCode(HttpStatus.NOT_MODIFIED);
+                return respuesta.setComplete();
+            }
+            respuesta.setStatusCode(HttpStatus.OK);
+            return respuesta.writeWith(Mono.just(buffer(respuesta, cuerpo)));
+        };
+    }
+
+    private MockServerWebExchange get() {
+        return conRuta(MockServerWebExchange.from(MockServerHttpRequest.get(PATH)));
+    }
+
+    private MockServerWebExchange post() {
+        return conRuta(MockServerWebExchange.from(MockServerHttpRequest.post(PATH)));
+    }
+
+    private MockServerWebExchange conRuta(MockServerWebExchange exchange) {
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, ruta);
+        return exchange;
+    }
+
+    private double contador(String resultado) {
+        return meterRegistry.get("gateway.cache.consultas").tag("ruta", RUTA).tag("resultado", resultado).counter().count();
+    }
+
+    private static DataBuffer buffer(ServerHttpResponse respuesta, String texto) {
+        return respuesta.bufferFactory().wrap(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String cuerpo(MockServerWebExchange exchange) {
+        return exchange.getResponse().getBodyAsString().block();
+    }
+}
@@ -0,0 +1,99 @@
+package com.tpi.gateway;
+
+import com.tpi.gateway.config.LimitesProperties;
+import com.tpi.gateway.limites.AlmacenTokensLocal;
+import com.tpi.gateway.limites.LimitadorPorCliente;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter.Response;
+import org.springframework.http.HttpHeaders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Limitador de solicitudes por cliente con los baldes de tokens en memoria: ráfaga hasta la capacidad,
+ * rechazo con Retry-After, reposición según el tiempo transcurrido, un balde por cliente y la capacidad
+ * del rol. Se arma sin contexto de Spring.
+ */
+class LimitadorPorClienteTest {
+
+    private static final String RUTA = "operaciones-solicitudes";
+
+    private SimpleMeterRegistry meterRegistry;
+    private LimitadorPorCliente limitador;
+
+    @BeforeEach
+    void crearLimitador() {
+        LimitesProperties limites = new LimitesProperties();
+        limites.setPorDefecto(new LimitesProperties.Balde(3, 1));
+        limites.getPorRol().put("OPERADOR", new LimitesProperties.Balde(5, 1));
+        limites.getPorRol().put("TRANSPORTISTA", new LimitesProperties.Balde(1, 20));
+        meterRegistry = new SimpleMeterRegistry();
+        limitador = new LimitadorPorCliente(new AlmacenTokensLocal(), limites, meterRegistry);
+    }
+
+    @Test
+    void seAdmiteUnaRafagaHastaLaCapacidadYLuegoSeRechaza() {
+        for (int restantes = 2; restantes >= 0; restantes--) {
+            Response respuesta = consultar("OTRO|cliente-1");
+            assertTrue(respuesta.isAllowed());
+            assertEquals("3", respuesta.getHeaders().get("X-RateLimit-Limit"));
+            assertEquals(String.valueOf(restantes), respuesta.getHeaders().get("X-RateLimit-Remaining"));
+            assertNull(respuesta.getHeaders().get(HttpHeaders.RETRY_AFTER));
+        }
+
+        Response rechazada = consultar("OTRO|cliente-1");
+        assertFalse(rechazada.isAllowed());
+        assertEquals("0", rechazada.getHeaders().get("X-RateLimit-Remaining"));
+        // Un token por segundo
+        assertEquals("1", rechazada.getHeaders().get(HttpHeaders.RETRY_AFTER));
+
+        assertEquals(3.0, contador("OTRO", "PERMITIDA"));
+        assertEquals(1.0, contador("OTRO", "RECHAZADA"));
+    }
+
+    @Test
+    void cadaClienteTieneSuPropioBalde() {
+        for (int i = 0; i < 3; i++) {
+            consultar("OTRO|cliente-1");
+        }
+
+        assertFalse(consultar("OTRO|cliente-1").isAllowed());
+        assertTrue(consultar("OTRO|cliente-2").isAllowed());
+    }
+
+    @Test
+    void laCapacidadSeTomaDelRolDelCliente() {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(consultar("OPERADOR|operador-1").isAllowed());
+        }
+        assertFalse(consultar("OPERADOR|operador-1").isAllowed());
+
+        // Sin rol reconocido se usa el balde por defecto
+        assertEquals("3", consultar("DESCONOCIDO|cliente-3").getHeaders().get("X-RateLimit-Limit"));
+    }
+
+    @Test
+    void losTokensSeReponenSegunElTiempoTranscurrido() throws InterruptedException {
+        assertTrue(consultar("TRANSPORTISTA|transportista-1").isAllowed());
+        assertFalse(consultar("TRANSPORTISTA|transportista-1").isAllowed());
+
+        // 20 tokens por segundo: en 100 ms se repone más de uno
+        Thread.sleep(100);
+        assertTrue(consultar("TRANSPORTISTA|transportista-1").isAllowed());
+    }
+
+    private Response consultar(String clave) {
+        return limitador.isAllowed(RUTA, clave).block();
+    }
+
+    private double contador(String rol, String resultado) {
+        return meterRegistry.get("gateway.limites.solicitudes")
+                .tag("ruta", RUTA).tag("rol", rol).tag("resultado", resultado)
+                .counter().count();
+    }
+}
@@ -0,0 +1,66 @@
+package utn.frc.isi.backend.tpi_Integrador.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import utn.frc.isi.backend.tpi_Integrador.dtos.PaginaDTO;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Arma las respuestas HTTP de los listados paginados y de las exportaciones NDJSON
+ */
+final class RespuestasPaginadas {
+
+    static final String HEADER_SIGUIENTE_CURSOR = "X-Next-Cursor";
+    static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private RespuestasPaginadas() {
+    }
+
+    /**
+     * 200 con los elementos de la página en el cuerpo (mismo formato que antes: un array JSON)
+     * y el cursor de la página siguiente en los headers X-Next-Cursor y Link (rel="next")
+     */
+    static <T> ResponseEntity<List<T>> ok(PaginaDTO<T> pagina) {
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+        if (pagina.getSiguienteCursor() != null) {
+            String siguiente = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("cursor", pagina.getSiguienteCursor())
+                    .toUriString();
+            respuesta.header(HEADER_SIGUIENTE_CURSOR, pagina.getSiguienteCursor())
+                     .header("Link", "<" + siguiente + ">; rel=\"next\"");
+        }
+        return respuesta.body(pagina.getItems());
+    }
+
+    /**
+     * Respuesta NDJSON (un objeto JSON por línea) que se escribe a medida que el productor
+     * entrega filas, sin acumular el listado en memoria
+     *
+     * @param productor Recibe el consumidor al que debe entregar cada fila
+     */
+    static ResponseEntity<StreamingResponseBody> ndjson(ObjectMapper objectMapper, Consumer<Consumer<Object>> productor) {
+        StreamingResponseBody cuerpo = salida -> {
+            try {
+                productor.accept(fila -> {
+                    try {
+                        salida.write(objectMapper.writeValueAsBytes(fila));
+                        salida.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            salida.flush();
+        };
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(cuerpo);
+    }
+}
@@ -0,0 +1,65 @@
+package utn.frc.isi.backend.tpi_Integrador.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import utn.frc.isi.backend.tpi_Integrador.dtos.TrazaDTO;
+import utn.frc.isi.backend.tpi_Integrador.trazas.RegistroTrazas;
+
+import java.util.List;
+
+@Tag(name = "Trazas", description = "Visor en memoria de las trazas de las últimas requests (entornos locales)")
+@RestController
+@RequestMapping("/api/trazas")
+public class TrazaController {
+
+    private static final int LIMITE_MAXIMO = 200;
+
+    private final RegistroTrazas registroTrazas;
+
+    public TrazaController(RegistroTrazas registroTrazas) {
+        this.registroTrazas = registroTrazas;
+    }
+
+    @Operation(summary = "Últimas trazas",
+               description = "Devuelve las trazas de las últimas requests atendidas, de la más reciente a la más antigua. " +
+                             "Vacío si trazas.habilitadas=false")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Trazas devueltas exitosamente",
+                     content = @Content(mediaType = "application/json",
+                     schema = @Schema(implementation = TrazaDTO.class)))
+    })
+    @GetMapping
+    public ResponseEntity<List<TrazaDTO>> obtenerRecientes(
+            @Parameter(description = "Cantidad máxima de trazas (máximo " + LIMITE_MAXIMO + ")")
+            @RequestParam(defaultValue = "50") int limite) {
+        return ResponseEntity.ok(registroTrazas.recientes(Math.max(0, Math.min(limite, LIMITE_MAXIMO))));
+    }
+
+    @Operation(summary = "Obtener traza por request ID",
+               description = "Devuelve la traza de la request con el X-Request-Id indicado: duración total, " +
+                             "tiempo en repositorios y en llamadas HTTP, y cada span medido")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Traza encontrada",
+                     content = @Content(mediaType = "application/json",
+                     schema = @Schema(implementation = TrazaDTO.class))),
+        @ApiResponse(responseCode = "404", description = "Traza no encontrada (o ya descartada del buffer)",
+                     content = @Content)
+    })
+    @GetMapping("/{requestId}")
+    public ResponseEntity<TrazaDTO> obtenerPorRequestId(@PathVariable String requestId) {
+        return registroTrazas.buscar(requestId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
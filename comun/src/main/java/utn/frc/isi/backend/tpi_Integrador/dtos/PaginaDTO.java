@@ -0,0 +1,20 @@
+package utn.frc.isi.backend.tpi_Integrador.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página de resultados de un listado con paginación por cursor (keyset)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaDTO<T> {
+
+    private List<T> items; // Elementos de la página, en el orden pedido
+
+    private String siguienteCursor; // Cursor para pedir la página siguiente (null si es la última)
+}
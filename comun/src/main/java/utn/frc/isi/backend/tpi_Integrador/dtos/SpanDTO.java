@@ -0,0 +1,20 @@
+package utn.frc.isi.backend.tpi_Integrador.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de un tramo medido dentro de una traza (consulta a repositorio o llamada HTTP saliente)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpanDTO {
+
+    private String tipo; // REPOSITORIO o HTTP
+    private String nombre; // Repositorio.metodo o "GET host/path"
+    private double inicioMs; // Desde el comienzo de la request
+    private double duracionMs;
+    private boolean error;
+}
@@ -0,0 +1,28 @@
+package utn.frc.isi.backend.tpi_Integrador.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO de la traza de una request atendida por el servicio (visor de trazas en memoria)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrazaDTO {
+
+    private String requestId; // X-Request-Id recibido del Gateway (o generado)
+    private String metodo;
+    private String path;
+    private int estado; // Código HTTP de la respuesta
+    private LocalDateTime inicio;
+    private double duracionMs;
+    private double tiempoRepositoriosMs; // Suma de los spans REPOSITORIO
+    private double tiempoHttpMs; // Suma de los spans HTTP
+    private int spansDescartados; // Spans no guardados por superar el máximo por traza
+    private List<SpanDTO> spans;
+}
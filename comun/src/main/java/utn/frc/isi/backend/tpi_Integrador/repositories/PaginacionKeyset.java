@@ -0,0 +1,270 @@
+package utn.frc.isi.backend.tpi_Integrador.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import utn.frc.isi.backend.tpi_Integrador.dtos.PaginaDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Utilidades para listar entidades con paginación por cursor (keyset) y para exportarlas en streaming.
+ * Es código común de servicio-flota y servicio-operaciones (directorio comun/, que ambos compilan).
+ *
+ * En lugar de OFFSET, cada página se pide "a partir de" la última fila de la anterior:
+ * WHERE (campo > valor) OR (campo = valor AND id > ultimoId), ordenando por campo e id.
+ * El costo de cada página no crece con la posición y no hace falta contar la tabla.
+ * El cursor es el par (valor, id) de la última fila, codificado en Base64 URL-safe.
+ *
+ * Los campos de orden pueden tener nulos: las filas con el campo en null van siempre al final
+ * (NULLS LAST, en ambas direcciones), el cursor distingue un valor nulo de un texto "null" y,
+ * una vez que la página llegó a los nulos, se sigue sólo por id.
+ *
+ * Las asociaciones que necesita el mapper se pasan como grafo para traerlas con un join
+ * en la misma consulta, y los mappers por lote permiten resolver datos dependientes
+ * (por ejemplo los tramos de cada ruta) con una consulta por página en lugar de una por fila.
+ */
+public final class PaginacionKeyset {
+
+    public static final int LIMITE_POR_DEFECTO = 50;
+    public static final int LIMITE_MAXIMO = 500;
+
+    // Cada cuántas filas exportadas se vacía el contexto de persistencia
+    private static final int FILAS_POR_LOTE_EXPORTACION = 500;
+
+    // Prefijo del valor en el cursor: distingue un campo nulo de cualquier texto
+    private static final char CURSOR_NULO = 'N';
+    private static final char CURSOR_VALOR = 'V';
+
+    private PaginacionKeyset() {
+    }
+
+    /**
+     * Posición de la última fila devuelta: valor del campo de orden (como texto, null si el campo es nulo) e id
+     */
+    public record Cursor(String valor, Long id) {
+    }
+
+    /**
+     * Obtiene una página de entidades a partir del cursor
+     *
+     * @param repository Repositorio con soporte de Specifications
+     * @param camposPermitidos Campos por los que se permite ordenar
+     * @param asociaciones Asociaciones a cargar con la página (entity graph); lista vacía si no hace falta
+     * @param cursor Cursor devuelto por la página anterior (null para la primera)
+     * @param limite Cantidad de elementos por página (se acota a LIMITE_MAXIMO)
+     * @param ordenarPor Campo de orden
+     * @param direccion Dirección del orden
+     * @param mapper Conversión de entidad a DTO
+     * @return Página con los DTOs y el cursor de la página siguiente
+     */
+    public static <T, D> PaginaDTO<D> paginar(JpaSpecificationExecutor<T> repository, Set<String> camposPermitidos,
+                                              List<String> asociaciones, String cursor, int limite,
+                                              String ordenarPor, Sort.Direction direccion, Function<T, D> mapper) {
+        return paginarEnLote(repository, camposPermitidos, asociaciones, cursor, limite, ordenarPor, direccion,
+                porFila(mapper));
+    }
+
+    /**
+     * Igual que paginar, pero el mapper recibe todas las entidades de la página juntas
+     * y devuelve los DTOs en el mismo orden
+     */
+    public static <T, D> PaginaDTO<D> paginarEnLote(JpaSpecificationExecutor<T> repository, Set<String> camposPermitidos,
+                                                    List<String> asociaciones, String cursor, int limite,
+                                                    String ordenarPor, Sort.Direction direccion,
+                                                    Function<List<T>, List<D>> mapperLote) {
+        validarCampo(ordenarPor, camposPermitidos);
+        int tamanio = Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+        Specification<T> pagina = PaginacionKeyset.<T>ordenadoPor(ordenarPor, direccion)
+                .and(despuesDe(ordenarPor, direccion, decodificar(cursor)));
+
+        // Se pide una fila de más para saber si existe una página siguiente.
+        // El orden lo fija la Specification: Sort no admite NULLS LAST en consultas Criteria
+        List<T> filas = repository.findBy(pagina,
+                consulta -> consulta.project(asociaciones).limit(tamanio + 1).all());
+
+        String siguienteCursor = null;
+        if (filas.size() > tamanio) {
+            filas = filas.subList(0, tamanio);
+            siguienteCursor = codificar(filas.get(tamanio - 1), ordenarPor);
+        }
+        return new PaginaDTO<>(mapperLote.apply(filas), siguienteCursor);
+    }
+
+    /**
+     * Recorre un Stream de entidades del repositorio entregando cada DTO al consumidor
+     * a medida que se lee, y vacía el contexto de persistencia cada cierto número de filas
+     * para que la memoria no crezca con el tamaño de la tabla.
+     * Debe llamarse dentro de una transacción de solo lectura.
+     *
+     * @return Cantidad de filas exportadas
+     */
+    public static <T, D> long exportar(Stream<T> filas, EntityManager entityManager,
+                                       Function<T, D> mapper, Consumer<? super D> consumidor) {
+        return exportarEnLote(filas, entityManager, porFila(mapper), consumidor);
+    }
+
+    /**
+     * Igual que exportar, pero las filas se acumulan en lotes y cada lote se mapea junto,
+     * así el mapper puede resolver datos dependientes con una consulta por lote
+     */
+    public static <T, D> long exportarEnLote(Stream<T> filas, EntityManager entityManager,
+                                             Function<List<T>, List<D>> mapperLote, Consumer<? super D> consumidor) {
+        List<T> lote = new ArrayList<>(FILAS_POR_LOTE_EXPORTACION);
+        long cantidad = 0;
+        try (filas) {
+            Iterator<T> iterador = filas.iterator();
+            while (iterador.hasNext()) {
+                lote.add(iterador.next());
+                if (lote.size() == FILAS_POR_LOTE_EXPORTACION || !iterador.hasNext()) {
+                    mapperLote.apply(lote).forEach(consumidor);
+                    cantidad += lote.size();
+                    lote.clear();
+                    entityManager.clear();
+                }
+            }
+        }
+        return cantidad;
+    }
+
+    private static <T, D> Function<List<T>, List<D>> porFila(Function<T, D> mapper) {
+        return entidades -> entidades.stream().map(mapper).toList();
+    }
+
+    /**
+     * Orden total por el campo pedido y, para desempatar, por id.
+     * Para las exportaciones, que no usan cursor: los nulos quedan donde los ponga la base.
+     */
+    public static Sort ordenar(String ordenarPor, Sort.Direction direccion) {
+        Sort orden = Sort.by(direccion, ordenarPor);
+        return "id".equals(ordenarPor) ? orden : orden.and(Sort.by(direccion, "id"));
+    }
+
+    public static void validarCampo(String ordenarPor, Set<String> camposPermitidos) {
+        if (!camposPermitidos.contains(ordenarPor)) {
+            throw new IllegalArgumentException("No se puede ordenar por '" + ordenarPor
+                    + "'. Campos permitidos: " + String.join(", ", camposPermitidos));
+        }
+    }
+
+    /**
+     * Mismo orden que ordenar, pero con el campo NULLS LAST para que coincida con despuesDe
+     */
+    private static <T> Specification<T> ordenadoPor(String campo, Sort.Direction direccion) {
+        return (root, query, cb) -> {
+            HibernateCriteriaBuilder hcb = (HibernateCriteriaBuilder) cb;
+            boolean ascendente = direccion.isAscending();
+            List<Order> orden = new ArrayList<>(2);
+            if (!"id".equals(campo)) {
+                // nullsFirst = false en ambas direcciones
+                orden.add(ascendente ? hcb.asc(root.get(campo), false) : hcb.desc(root.get(campo), false));
+            }
+            orden.add(ascendente ? cb.asc(root.get("id")) : cb.desc(root.get("id")));
+            query.orderBy(orden);
+            return null;
+        };
+    }
+
+    private static <T> Specification<T> despuesDe(String campo, Sort.Direction direccion, Cursor cursor) {
+        return (root, query, cb) -> {
+            if (cursor == null) {
+                return null;
+            }
+            Path<Long> id = root.get("id");
+            boolean ascendente = direccion.isAscending();
+            Predicate despuesDelId = ascendente ? cb.greaterThan(id, cursor.id()) : cb.lessThan(id, cursor.id());
+            if ("id".equals(campo)) {
+                return despuesDelId;
+            }
+
+            Path<Comparable<Object>> path = root.get(campo);
+            if (cursor.valor() == null) {
+                // La página terminó entre los nulos (al final): quedan los nulos siguientes por id
+                return cb.and(cb.isNull(path), despuesDelId);
+            }
+            Comparable<Object> valor = convertir(cursor.valor(), path.getJavaType());
+            return cb.or(
+                    ascendente ? cb.greaterThan(path, valor) : cb.lessThan(path, valor),
+                    cb.and(cb.equal(path, valor), despuesDelId),
+                    cb.isNull(path));
+        };
+    }
+
+    static String codificar(Object entidad, String campo) {
+        BeanWrapperImpl wrapper = new BeanWrapperImpl(entidad);
+        Object valor = wrapper.getPropertyValue(campo);
+        String texto;
+        if (valor == null) {
+            texto = CURSOR_NULO + "|" + wrapper.getPropertyValue("id");
+        } else {
+            String valorTexto = valor instanceof Enum<?> constante ? constante.name() : valor.toString();
+            texto = CURSOR_VALOR + valorTexto + "|" + wrapper.getPropertyValue("id");
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Cursor decodificar(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = texto.lastIndexOf('|');
+            String valor = switch (texto.charAt(0)) {
+                case CURSOR_NULO -> {
+                    if (separador != 1) {
+                        throw new IllegalArgumentException();
+                    }
+                    yield null;
+                }
+                case CURSOR_VALOR -> texto.substring(1, separador);
+                default -> throw new IllegalArgumentException();
+            };
+            return new Cursor(valor, Long.parseLong(texto.substring(separador + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido");
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparable<Object> convertir(String valor, Class<?> tipo) {
+        try {
+            Object convertido;
+            if (tipo == String.class) {
+                convertido = valor;
+            } else if (tipo == Long.class || tipo == long.class) {
+                convertido = Long.valueOf(valor);
+            } else if (tipo == Integer.class || tipo == int.class) {
+                convertido = Integer.valueOf(valor);
+            } else if (tipo == Double.class || tipo == double.class) {
+                convertido = Double.valueOf(valor);
+            } else if (tipo == Boolean.class || tipo == boolean.class) {
+                convertido = Boolean.valueOf(valor);
+            } else if (tipo == LocalDateTime.class) {
+                convertido = LocalDateTime.parse(valor);
+            } else if (tipo.isEnum()) {
+                convertido = Enum.valueOf((Class<Enum>) tipo, valor);
+            } else {
+                throw new IllegalArgumentException("Tipo de campo no soportado para paginar: " + tipo.getSimpleName());
+            }
+            return (Comparable<Object>) convertido;
+        } catch (IllegalArgumentException | java.time.format.DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido");
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package utn.frc.isi.backend.tpi_Integrador.trazas;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import utn.frc.isi.backend.tpi_Integrador.dtos.SpanDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.TrazaDTO;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+
+/**
+ * Trazas en memoria de las últimas requests, para ver en qué se va el tiempo de cada una.
+ *
+ * La traza en curso vive en el hilo que atiende la request (ThreadLocal): los spans que se registran desde
+ * ese hilo (repositorios, llamadas HTTP), o desde tareas envueltas con propagar, quedan asociados a ella.
+ * Al terminar (en una request asíncrona, cuando se completa la respuesta) se guarda en un buffer acotado
+ * de las últimas trazas (trazas.capacidad).
+ * Deshabilitado (trazas.habilitadas=false) no registra nada.
+ */
+@Component
+public class RegistroTrazas {
+
+    public static final String HEADER_REQUEST_ID = "X-Request-Id";
+    public static final String MDC_REQUEST_ID = "requestId";
+
+    public static final String TIPO_REPOSITORIO = "REPOSITORIO";
+    public static final String TIPO_HTTP = "HTTP";
+
+    private static final int MAX_SPANS_POR_TRAZA = 500;
+
+    private final boolean habilitado;
+    private final int capacidad;
+
+    private final ThreadLocal<TrazaEnCurso> actual = new ThreadLocal<>();
+    private final LinkedHashMap<String, TrazaDTO> recientes = new LinkedHashMap<>();
+
+    public RegistroTrazas(@Value("${trazas.habilitadas:false}") boolean habilitado,
+                          @Value("${trazas.capacidad:200}") int capacidad) {
+        this.habilitado = habilitado;
+        this.capacidad = capacidad;
+    }
+
+    private static final class TrazaEnCurso {
+        private final String requestId;
+        private final String metodo;
+        private final String path;
+        private final LocalDateTime inicio = LocalDateTime.now();
+        private final long inicioNanos = System.nanoTime();
+        private final List<SpanDTO> spans = new ArrayList<>();
+        private int descartados;
+
+        private TrazaEnCurso(String requestId, String metodo, String path) {
+            this.requestId = requestId;
+            this.metodo = metodo;
+            this.path = path;
+        }
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    public void iniciar(String requestId, String metodo, String path) {
+        if (habilitado) {
+            actual.set(new TrazaEnCurso(requestId, metodo, path));
+        }
+    }
+
+    /**
+     * Registra un span que terminó recién, en la traza del hilo actual (si hay una)
+     */
+    public void registrarSpan(String tipo, String nombre, long duracionNanos, boolean error) {
+        TrazaEnCurso traza = actual.get();
+        if (traza == null) {
+            return;
+        }
+        long inicioSpan = System.nanoTime() - duracionNanos - traza.inicioNanos;
+        synchronized (traza) {
+            if (traza.spans.size() >= MAX_SPANS_POR_TRAZA) {
+                traza.descartados++;
+                return;
+            }
+            traza.spans.add(new SpanDTO(tipo, nombre, milisegundos(inicioSpan), milisegundos(duracionNanos), error));
+        }
+    }
+
+    /**
+     * Envuelve una tarea que va a correr en otro hilo para que sus spans queden en la traza del hilo actual
+     */
+    public <T> Callable<T> propagar(Callable<T> tarea) {
+        TrazaEnCurso traza = actual.get();
+        if (traza == null) {
+            return tarea;
+        }
+        return () -> {
+            actual.set(traza);
+            try {
+                return tarea.call();
+            } finally {
+                actual.remove();
+            }
+        };
+    }
+
+    public void finalizar(int estado) {
+        TrazaEnCurso traza = actual.get();
+        if (traza == null) {
+            return;
+        }
+        actual.remove();
+        guardar(traza, estado);
+    }
+
+    /**
+     * Desprende la traza en curso del hilo actual sin cerrarla, para una request cuya respuesta sigue
+     * abierta después de liberar el hilo (procesamiento asíncrono, SSE). La traza se guarda al llamar
+     * al finalizador devuelto con el estado final; llamarlo más de una vez no tiene efecto.
+     */
+    public IntConsumer suspender() {
+        TrazaEnCurso traza = actual.get();
+        if (traza == null) {
+            return estado -> { };
+        }
+        actual.remove();
+        AtomicBoolean finalizada = new AtomicBoolean();
+        return estado -> {
+            if (finalizada.compareAndSet(false, true)) {
+                guardar(traza, estado);
+            }
+        };
+    }
+
+    private void guardar(TrazaEnCurso traza, int estado) {
+        // Una tarea propagada que superó su plazo todavía puede registrar spans desde su hilo
+        List<SpanDTO> spans;
+        int descartados;
+        synchronized (traza) {
+            spans = List.copyOf(traza.spans);
+            descartados = traza.descartados;
+        }
+        double tiempoRepositorios = 0;
+        double tiempoHttp = 0;
+        for (SpanDTO span : spans) {
+            if (TIPO_REPOSITORIO.equals(span.getTipo())) {
+                tiempoRepositorios += span.getDuracionMs();
+            } else if (TIPO_HTTP.equals(span.getTipo())) {
+                tiempoHttp += span.getDuracionMs();
+            }
+        }
+        TrazaDTO completa = new TrazaDTO(traza.requestId, traza.metodo, traza.path, estado, traza.inicio,
+                milisegundos(System.nanoTime() - traza.inicioNanos), redondear(tiempoRepositorios),
+                redondear(tiempoHttp), descartados, spans);
+
+        synchronized (recientes) {
+            recientes.remove(traza.requestId);
+            recientes.put(traza.requestId, completa);
+            Iterator<Map.Entry<String, TrazaDTO>> masViejas = recientes.entrySet().iterator();
+            while (recientes.size() > capacidad && masViejas.hasNext()) {
+                masViejas.next();
+                masViejas.remove();
+            }
+        }
+    }
+
+    public Optional<TrazaDTO> buscar(String requestId) {
+        synchronized (recientes) {
+            return Optional.ofNullable(recientes.get(requestId));
+        }
+    }
+
+    /**
+     * Últimas trazas, de la más reciente a la más antigua
+     */
+    public List<TrazaDTO> recientes(int limite) {
+        List<TrazaDTO> resultado;
+        synchronized (recientes) {
+            resultado = new ArrayList<>(recientes.values());
+        }
+        List<TrazaDTO> ultimas = new ArrayList<>(Math.min(limite, resultado.size()));
+        for (int i = resultado.size() - 1; i >= 0 && ultimas.size() < limite; i--) {
+            ultimas.add(resultado.get(i));
+        }
+        return ultimas;
+    }
+
+    private static double milisegundos(long nanos) {
+        return redondear(nanos / 1_000_000d);
+    }
+
+    private static double redondear(double ms) {
+        return Math.round(ms * 100) / 100d;
+    }
+}
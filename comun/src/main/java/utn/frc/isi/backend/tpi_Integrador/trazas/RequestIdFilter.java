@@ -0,0 +1,88 @@
+package utn.frc.isi.backend.tpi_Integrador.trazas;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HexFormat;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
+import java.util.regex.Pattern;
+
+/**
+ * Toma el X-Request-Id que agrega el Gateway (o genera uno si la request llega directo), lo deja en el MDC
+ * para que aparezca en cada línea de log, lo devuelve en la respuesta y abre la traza de la request.
+ * La traza se cierra al volver la cadena de filtros o, si la request pasó a procesamiento asíncrono
+ * (SSE), cuando el contenedor completa la respuesta.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestIdFilter extends OncePerRequestFilter {
+
+    // Se acepta el ID recibido sólo si es corto y sin caracteres raros (va a logs y headers)
+    private static final Pattern REQUEST_ID_VALIDO = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    private final RegistroTrazas registroTrazas;
+
+    public RequestIdFilter(RegistroTrazas registroTrazas) {
+        this.registroTrazas = registroTrazas;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String recibido = request.getHeader(RegistroTrazas.HEADER_REQUEST_ID);
+        String requestId = recibido != null && REQUEST_ID_VALIDO.matcher(recibido).matches()
+                ? recibido
+                : HexFormat.of().toHexDigits(ThreadLocalRandom.current().nextLong());
+
+        MDC.put(RegistroTrazas.MDC_REQUEST_ID, requestId);
+        response.setHeader(RegistroTrazas.HEADER_REQUEST_ID, requestId);
+        registroTrazas.iniciar(requestId, request.getMethod(), request.getRequestURI());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new FinalizarTraza(registroTrazas.suspender(), response));
+            } else {
+                registroTrazas.finalizar(response.getStatus());
+            }
+            MDC.remove(RegistroTrazas.MDC_REQUEST_ID);
+        }
+    }
+
+    /**
+     * Cierra una traza suspendida cuando termina el procesamiento asíncrono; el contenedor llama a onComplete
+     * también después de un timeout o un error, con el estado final ya fijado
+     */
+    private record FinalizarTraza(IntConsumer finalizador, HttpServletResponse response) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            finalizador.accept(response.getStatus());
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Un nuevo ciclo asíncrono sobre la misma request reemplaza los listeners: hay que volver a registrarse
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
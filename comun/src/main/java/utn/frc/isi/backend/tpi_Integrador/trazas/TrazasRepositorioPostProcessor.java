@@ -0,0 +1,39 @@
+package utn.frc.isi.backend.tpi_Integrador.trazas;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener.RepositoryMethodInvocationResult.State;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registra un span por cada llamada a un método de repositorio (Spring Data informa la duración de cada
+ * invocación a los RepositoryMethodInvocationListener del repositorio). Con las trazas deshabilitadas
+ * no se agrega ningún listener.
+ */
+@Component
+public class TrazasRepositorioPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<RegistroTrazas> registroTrazas;
+
+    public TrazasRepositorioPostProcessor(ObjectProvider<RegistroTrazas> registroTrazas) {
+        this.registroTrazas = registroTrazas;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            RegistroTrazas registro = registroTrazas.getObject();
+            if (registro.isHabilitado()) {
+                factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addInvocationListener(invocacion ->
+                        registro.registrarSpan(RegistroTrazas.TIPO_REPOSITORIO,
+                                invocacion.getRepositoryInterface().getSimpleName() + "." + invocacion.getMethod().getName(),
+                                invocacion.getDuration(TimeUnit.NANOSECONDS),
+                                invocacion.getResult() != null && invocacion.getResult().getState() == State.ERROR)));
+            }
+        }
+        return bean;
+    }
+}
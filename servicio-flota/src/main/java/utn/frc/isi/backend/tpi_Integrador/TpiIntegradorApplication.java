@@ -2,8 +2,10 @@ package utn.frc.isi.backend.tpi_Integrador;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling // Depuración de las claves de idempotencia de disponibilidad ya vencidas
 public class TpiIntegradorApplication {
 
 	public static void main(String[] args) {
@@ -72,10 +72,18 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.GET, "/api/tarifas/actual").permitAll()
                 
                 // ===== Endpoints de API =====
-                // Lectura (GET) - cualquier usuario autenticado
+                // Visor de trazas en memoria - sólo administradores
+                .requestMatchers("/api/trazas/**").hasRole("ADMIN")
+
+                // Lectura (GET) - cualquier usuario autenticado y la cuenta de servicio de servicio-operaciones
+                // (replicación desde el feed de cambios)
                 .requestMatchers(HttpMethod.GET, "/api/**")
-                    .hasAnyRole("ADMIN", "FLOTA_MANAGER", "OPERACIONES_MANAGER", "USER")
+                    .hasAnyRole("ADMIN", "FLOTA_MANAGER", "OPERACIONES_MANAGER", "USER", "SERVICIO")
                 
+                // Reserva de camiones - también operaciones (asignación de camiones a tramos)
+                .requestMatchers(HttpMethod.POST, "/api/camiones/*/reserva")
+                    .hasAnyRole("ADMIN", "FLOTA_MANAGER", "OPERACIONES_MANAGER")
+
                 // Creación (POST) - solo managers
                 .requestMatchers(HttpMethod.POST, "/api/**")
                     .hasAnyRole("ADMIN", "FLOTA_MANAGER")
@@ -88,6 +96,10 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.DELETE, "/api/**")
                     .hasRole("ADMIN")
                 
+                // Lote de disponibilidad - sólo la cuenta de servicio de servicio-operaciones (outbox)
+                .requestMatchers(HttpMethod.PATCH, "/api/camiones/disponibilidad")
+                    .hasRole("SERVICIO")
+                
                 // Cualquier otra petición requiere autenticación
                 .anyRequest().authenticated()
             )
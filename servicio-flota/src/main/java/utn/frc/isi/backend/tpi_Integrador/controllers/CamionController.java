@@ -1,18 +1,28 @@
 package utn.frc.isi.backend.tpi_Integrador.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import utn.frc.isi.backend.tpi_Integrador.dtos.CamionCreateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.CamionDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.CamionUpdateDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.CriterioSeleccionCamion;
+import utn.frc.isi.backend.tpi_Integrador.dtos.ActualizacionDisponibilidadDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.DisponibilidadDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.ResultadoDisponibilidadDTO;
+import utn.frc.isi.backend.tpi_Integrador.repositories.PaginacionKeyset;
 import utn.frc.isi.backend.tpi_Integrador.services.CamionService;
 
 import java.util.List;
@@ -23,22 +33,80 @@ import java.util.List;
 public class CamionController {
 
     private final CamionService camionService;
+    private final ObjectMapper objectMapper;
 
-    public CamionController(CamionService camionService) {
+    public CamionController(CamionService camionService, ObjectMapper objectMapper) {
         this.camionService = camionService;
+        this.objectMapper = objectMapper;
     }
 
-    @Operation(summary = "Obtener todos los camiones", 
-               description = "Devuelve una lista completa de todos los camiones registrados en el sistema")
+    @Operation(summary = "Obtener camiones (paginado)", 
+               description = "Devuelve una página de camiones ordenada por el campo indicado (paginación por cursor). " +
+                             "El cursor de la página siguiente se informa en el header X-Next-Cursor y en Link (rel=\"next\")")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Lista de camiones devuelta exitosamente",
+        @ApiResponse(responseCode = "200", description = "Página de camiones devuelta exitosamente",
                      content = @Content(mediaType = "application/json",
-                     schema = @Schema(implementation = CamionDTO.class)))
+                     schema = @Schema(implementation = CamionDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Cursor o campo de orden inválido",
+                     content = @Content)
     })
     @GetMapping
-    public ResponseEntity<List<CamionDTO>> obtenerTodos() {
-        List<CamionDTO> camiones = camionService.obtenerTodos();
-        return ResponseEntity.ok(camiones);
+    public ResponseEntity<List<CamionDTO>> obtenerTodos(
+            @Parameter(description = "Cursor devuelto en X-Next-Cursor por la página anterior (vacío para la primera)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Cantidad de elementos por página (máximo " + PaginacionKeyset.LIMITE_MAXIMO + ")")
+            @RequestParam(defaultValue = "" + PaginacionKeyset.LIMITE_POR_DEFECTO) int limite,
+            @Parameter(description = "Campo de orden: id, dominio, nombreTransportista, capacidadPeso, capacidadVolumen, costoPorKm")
+            @RequestParam(defaultValue = "id") String ordenarPor,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direccion) {
+        try {
+            return RespuestasPaginadas.ok(camionService.obtenerPagina(cursor, limite, ordenarPor, direccion));
+        } catch (IllegalArgumentException e) {
+            // Cursor o campo de orden inválido
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @Operation(summary = "Exportar camiones (NDJSON)", 
+               description = "Devuelve todos los camiones en formato NDJSON (un objeto JSON por línea), " +
+                             "escritos a medida que se leen de la base de datos")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Exportación en curso",
+                     content = @Content(mediaType = "application/x-ndjson",
+                     schema = @Schema(implementation = CamionDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Campo de orden inválido",
+                     content = @Content)
+    })
+    @GetMapping(value = "/exportar", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestParam(defaultValue = "id") String ordenarPor,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direccion) {
+        if (!CamionService.CAMPOS_ORDENABLES.contains(ordenarPor)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return RespuestasPaginadas.ndjson(objectMapper,
+                consumidor -> camionService.exportar(ordenarPor, direccion, consumidor));
+    }
+
+    @Operation(summary = "Obtener varios camiones por ID", 
+               description = "Devuelve en una sola consulta los camiones cuyos IDs se indican (hasta " +
+                             CamionService.MAX_IDS_POR_CONSULTA + "). Los IDs inexistentes se omiten de la respuesta")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Camiones encontrados, ordenados por ID",
+                     content = @Content(mediaType = "application/json",
+                     schema = @Schema(implementation = CamionDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Se pidieron más IDs de los permitidos",
+                     content = @Content)
+    })
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<CamionDTO>> obtenerPorIds(
+            @Parameter(description = "IDs separados por coma, ej: 1,2,3")
+            @RequestParam List<Long> ids) {
+        try {
+            return ResponseEntity.ok(camionService.obtenerPorIds(ids));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @Operation(summary = "Obtener un camión por ID", 
@@ -81,13 +149,20 @@ public class CamionController {
         @ApiResponse(responseCode = "404", description = "Camión no encontrado",
                      content = @Content),
         @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos",
+                     content = @Content),
+        @ApiResponse(responseCode = "409", description = "El camión fue modificado concurrentemente; reintentar",
                      content = @Content)
     })
     @PutMapping("/{id}")
     public ResponseEntity<CamionDTO> actualizarCamion(
             @PathVariable Long id, 
             @Valid @RequestBody CamionUpdateDTO camionUpdateDTO) {
-        CamionDTO camionActualizado = camionService.actualizarCamion(id, camionUpdateDTO);
+        CamionDTO camionActualizado;
+        try {
+            camionActualizado = camionService.actualizarCamion(id, camionUpdateDTO);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
         if (camionActualizado != null) {
             return ResponseEntity.ok(camionActualizado);
         } else {
@@ -96,7 +171,8 @@ public class CamionController {
     }
 
     @Operation(summary = "Obtener camiones disponibles con filtros", 
-               description = "Busca camiones disponibles para asignación, opcionalmente filtrando por capacidad mínima de peso y/o volumen")
+               description = "Busca camiones disponibles para asignación, opcionalmente filtrando por capacidad mínima de peso y/o volumen. " +
+                             "Se ordenan del que mejor se ajusta (menor capacidad) al más grande")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Lista de camiones disponibles devuelta exitosamente",
                      content = @Content(mediaType = "application/json",
@@ -111,6 +187,29 @@ public class CamionController {
         return ResponseEntity.ok(camionesDisponibles);
     }
 
+    @Operation(summary = "Elegir el mejor camión disponible para una carga", 
+               description = "Devuelve el camión disponible que cumple la capacidad mínima de peso y volumen según el criterio: " +
+                             "MENOR_CAPACIDAD (el más chico que alcanza) o MENOR_COSTO (el de menor costo por km)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Camión elegido",
+                     content = @Content(mediaType = "application/json",
+                     schema = @Schema(implementation = CamionDTO.class))),
+        @ApiResponse(responseCode = "404", description = "Ningún camión disponible alcanza la capacidad pedida",
+                     content = @Content),
+        @ApiResponse(responseCode = "400", description = "Parámetros inválidos",
+                     content = @Content)
+    })
+    @GetMapping("/disponibles/mejor")
+    public ResponseEntity<CamionDTO> obtenerMejorCamionDisponible(
+            @RequestParam(defaultValue = "0") double pesoMinimo,
+            @RequestParam(defaultValue = "0") double volumenMinimo,
+            @RequestParam(defaultValue = "MENOR_CAPACIDAD") CriterioSeleccionCamion criterio) {
+
+        return camionService.buscarMejorDisponible(pesoMinimo, volumenMinimo, criterio)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     @Operation(summary = "Eliminar un camión", 
                description = "Elimina un camión del sistema de forma permanente")
     @ApiResponses(value = {
@@ -134,15 +233,64 @@ public class CamionController {
         @ApiResponse(responseCode = "404", description = "Camión no encontrado",
                      content = @Content),
         @ApiResponse(responseCode = "400", description = "Datos de disponibilidad inválidos",
+                     content = @Content),
+        @ApiResponse(responseCode = "409", description = "El camión fue modificado concurrentemente; reintentar",
                      content = @Content)
     })
     @PatchMapping("/{id}/disponibilidad")
     public ResponseEntity<CamionDTO> actualizarDisponibilidadCamion(
             @PathVariable Long id,
             @Valid @RequestBody DisponibilidadDTO disponibilidadDTO) {
+        try {
+            return camionService.actualizarDisponibilidad(id, disponibilidadDTO.getDisponible())
+                    .map(ResponseEntity::ok) // Si el servicio devuelve el DTO, responde 200 OK
+                    .orElseGet(() -> ResponseEntity.notFound().build()); // Si devuelve Optional vacío, responde 404
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
 
-        return camionService.actualizarDisponibilidad(id, disponibilidadDTO.getDisponible())
-                .map(ResponseEntity::ok) // Si el servicio devuelve el DTO, responde 200 OK
-                .orElseGet(() -> ResponseEntity.notFound().build()); // Si devuelve Optional vacío, responde 404
+    @Operation(summary = "Reservar un camión", 
+               description = "Marca el camión como no disponible solo si todavía está disponible, en una única actualización atómica. " +
+                             "Entre reservas concurrentes del mismo camión exactamente una obtiene 200; las demás reciben 409")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Camión reservado exitosamente",
+                     content = @Content(mediaType = "application/json",
+                     schema = @Schema(implementation = CamionDTO.class))),
+        @ApiResponse(responseCode = "404", description = "Camión no encontrado",
+                     content = @Content),
+        @ApiResponse(responseCode = "409", description = "El camión no está disponible",
+                     content = @Content)
+    })
+    @PostMapping("/{id}/reserva")
+    public ResponseEntity<CamionDTO> reservarCamion(@PathVariable Long id) {
+        try {
+            return camionService.reservar(id)
+                    .map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @Operation(summary = "Actualizar disponibilidad de varios camiones", 
+               description = "Aplica un lote de actualizaciones de disponibilidad (hasta " + CamionService.MAX_IDS_POR_CONSULTA +
+                             ") en orden. Cada una lleva una clave de idempotencia: las ya aplicadas se informan como DUPLICADA " +
+                             "sin volver a aplicarse, de modo que el lote se puede reenviar. Usado por el outbox de servicio-operaciones")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Resultado de cada actualización (APLICADA, DUPLICADA o CAMION_NO_ENCONTRADO)",
+                     content = @Content(mediaType = "application/json",
+                     schema = @Schema(implementation = ResultadoDisponibilidadDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Lote demasiado grande o actualizaciones incompletas",
+                     content = @Content)
+    })
+    @PatchMapping("/disponibilidad")
+    public ResponseEntity<List<ResultadoDisponibilidadDTO>> actualizarDisponibilidades(
+            @RequestBody List<ActualizacionDisponibilidadDTO> actualizaciones) {
+        try {
+            return ResponseEntity.ok(camionService.actualizarDisponibilidades(actualizaciones));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
-}
\ No newline at end of file
+}
@@ -9,6 +9,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import utn.frc.isi.backend.tpi_Integrador.dtos.DepositoCercanoDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.DepositoCreateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.DepositoDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.DepositoUpdateDTO;
@@ -40,6 +41,69 @@ public class DepositoController {
         return ResponseEntity.ok(depositos);
     }
 
+    @Operation(summary = "Buscar depósitos en un radio", 
+               description = "Devuelve los depósitos a no más de radioKm del punto indicado, ordenados por distancia")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Depósitos encontrados",
+                     content = @Content(mediaType = "application/json",
+                     schema = @Schema(implementation = DepositoCercanoDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Parámetros inválidos",
+                     content = @Content)
+    })
+    @GetMapping("/radio")
+    public ResponseEntity<List<DepositoCercanoDTO>> buscarEnRadio(
+            @RequestParam double latitud,
+            @RequestParam double longitud,
+            @RequestParam double radioKm) {
+        if (radioKm < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(depositoService.buscarDepositosPorUbicacion(latitud, longitud, radioKm));
+    }
+
+    @Operation(summary = "Buscar los depósitos más cercanos", 
+               description = "Devuelve los depósitos más cercanos al punto indicado, ordenados por distancia")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Depósitos encontrados",
+                     content = @Content(mediaType = "application/json",
+                     schema = @Schema(implementation = DepositoCercanoDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Parámetros inválidos",
+                     content = @Content)
+    })
+    @GetMapping("/cercanos")
+    public ResponseEntity<List<DepositoCercanoDTO>> buscarMasCercanos(
+            @RequestParam double latitud,
+            @RequestParam double longitud,
+            @RequestParam(defaultValue = "5") int cantidad) {
+        if (cantidad <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(depositoService.buscarDepositosMasCercanos(latitud, longitud, cantidad));
+    }
+
+    @Operation(summary = "Buscar depósitos en el corredor de una ruta", 
+               description = "Devuelve los depósitos a no más de anchoKm del segmento origen-destino, ordenados por su distancia al segmento")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Depósitos encontrados",
+                     content = @Content(mediaType = "application/json",
+                     schema = @Schema(implementation = DepositoCercanoDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Parámetros inválidos",
+                     content = @Content)
+    })
+    @GetMapping("/corredor")
+    public ResponseEntity<List<DepositoCercanoDTO>> buscarEnCorredor(
+            @RequestParam double latitudOrigen,
+            @RequestParam double longitudOrigen,
+            @RequestParam double latitudDestino,
+            @RequestParam double longitudDestino,
+            @RequestParam(defaultValue = "50") double anchoKm) {
+        if (anchoKm < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(depositoService.buscarDepositosEnCorredor(
+                latitudOrigen, longitudOrigen, latitudDestino, longitudDestino, anchoKm));
+    }
+
     @Operation(summary = "Obtener un depósito por ID", 
                description = "Busca y devuelve un depósito específico mediante su identificador único")
     @ApiResponses(value = {
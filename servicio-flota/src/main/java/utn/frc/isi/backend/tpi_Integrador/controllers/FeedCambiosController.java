@@ -0,0 +1,54 @@
+package utn.frc.isi.backend.tpi_Integrador.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import utn.frc.isi.backend.tpi_Integrador.dtos.FeedCambiosDTO;
+import utn.frc.isi.backend.tpi_Integrador.services.FeedCambiosService;
+
+@Tag(name = "Cambios", description = "Feed de cambios de camiones y depósitos para replicación en otros servicios")
+@RestController
+@RequestMapping("/api/cambios")
+public class FeedCambiosController {
+
+    private final FeedCambiosService feedCambiosService;
+
+    public FeedCambiosController(FeedCambiosService feedCambiosService) {
+        this.feedCambiosService = feedCambiosService;
+    }
+
+    @Operation(summary = "Obtener cambios de camiones y depósitos", 
+               description = "Devuelve en orden los cambios con secuencia mayor a 'desde', cada uno con el estado actual de la entidad. " +
+                             "Si no hay cambios espera hasta 'esperaSegundos' a que ocurra alguno (long-poll). " +
+                             "Si el idFeed de la respuesta difiere del procesado antes, el feed se reinició y hay que leer desde 0")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Página del feed (sin cambios si se agotó la espera)",
+                     content = @Content(mediaType = "application/json",
+                     schema = @Schema(implementation = FeedCambiosDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Parámetros fuera de rango",
+                     content = @Content)
+    })
+    @GetMapping
+    public ResponseEntity<FeedCambiosDTO> obtenerCambios(
+            @Parameter(description = "Última secuencia procesada (0 para leer desde el principio)")
+            @RequestParam(defaultValue = "0") long desde,
+            @Parameter(description = "Cantidad máxima de cambios (1 a " + FeedCambiosService.MAX_CAMBIOS_POR_PAGINA + ")")
+            @RequestParam(defaultValue = "100") int limite,
+            @Parameter(description = "Segundos a esperar si no hay cambios (0 a " + FeedCambiosService.MAX_ESPERA_SEGUNDOS + ")")
+            @RequestParam(defaultValue = "0") int esperaSegundos) {
+        try {
+            return ResponseEntity.ok(feedCambiosService.obtenerCambios(desde, limite, esperaSegundos));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
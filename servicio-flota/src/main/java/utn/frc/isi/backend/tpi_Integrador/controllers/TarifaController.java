@@ -1,18 +1,26 @@
 package utn.frc.isi.backend.tpi_Integrador.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import utn.frc.isi.backend.tpi_Integrador.dtos.TarifaCreateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.TarifaUpdateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.TarifaDTO;
+import utn.frc.isi.backend.tpi_Integrador.repositories.PaginacionKeyset;
 import utn.frc.isi.backend.tpi_Integrador.services.TarifaService;
 
 import java.util.List;
@@ -24,38 +32,89 @@ import java.util.List;
 public class TarifaController {
 
     private final TarifaService tarifaService;
+    private final ObjectMapper objectMapper;
 
-    public TarifaController(TarifaService tarifaService) {
+    public TarifaController(TarifaService tarifaService, ObjectMapper objectMapper) {
         this.tarifaService = tarifaService;
+        this.objectMapper = objectMapper;
     }
 
     @Operation(summary = "Obtener la tarifa activa vigente", 
-               description = "Devuelve la tarifa actualmente en vigor para cálculos de costos de transporte")
+               description = "Devuelve la tarifa actualmente en vigor para cálculos de costos de transporte. " +
+                             "La respuesta incluye un ETag que cambia con cada modificación de tarifas; " +
+                             "enviándolo en If-None-Match se obtiene 304 si la tarifa no cambió")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Tarifa activa encontrada y devuelta",
                      content = @Content(mediaType = "application/json",
                      schema = @Schema(implementation = TarifaDTO.class))),
+        @ApiResponse(responseCode = "304", description = "La tarifa activa no cambió desde el ETag indicado",
+                     content = @Content),
         @ApiResponse(responseCode = "404", description = "No existe tarifa activa en el sistema",
                      content = @Content)
     })
     @GetMapping("/actual")
-    public ResponseEntity<TarifaDTO> obtenerTarifaActiva() {
-        return tarifaService.obtenerTarifaActivaDTO()
-                .map(tarifaDTO -> ResponseEntity.ok(tarifaDTO))
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<TarifaDTO> obtenerTarifaActiva(
+            @Parameter(description = "ETags de la tarifa activa ya recibida (se aceptan W/\"...\", listas y *)")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        TarifaService.TarifaActivaVersionada actual = tarifaService.obtenerTarifaActivaVersionada();
+        if (actual.tarifa() == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (coincideIfNoneMatch(ifNoneMatch, actual.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(actual.etag()).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(actual.etag())
+                .cacheControl(CacheControl.noCache())
+                .body(actual.tarifa());
     }
 
-    @Operation(summary = "Obtener todas las tarifas", 
-               description = "Devuelve el histórico completo de tarifas ordenadas por fecha de vigencia")
+    @Operation(summary = "Obtener tarifas (paginado)", 
+               description = "Devuelve una página de tarifas ordenada por el campo indicado (paginación por cursor). " +
+                             "El cursor de la página siguiente se informa en el header X-Next-Cursor y en Link (rel=\"next\")")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Lista de tarifas devuelta exitosamente",
+        @ApiResponse(responseCode = "200", description = "Página de tarifas devuelta exitosamente",
                      content = @Content(mediaType = "application/json",
-                     schema = @Schema(implementation = TarifaDTO.class)))
+                     schema = @Schema(implementation = TarifaDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Cursor o campo de orden inválido",
+                     content = @Content)
     })
     @GetMapping
-    public ResponseEntity<List<TarifaDTO>> obtenerTodas() {
-        List<TarifaDTO> tarifas = tarifaService.obtenerTodasDTO();
-        return ResponseEntity.ok(tarifas);
+    public ResponseEntity<List<TarifaDTO>> obtenerTodas(
+            @Parameter(description = "Cursor devuelto en X-Next-Cursor por la página anterior (vacío para la primera)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Cantidad de elementos por página (máximo " + PaginacionKeyset.LIMITE_MAXIMO + ")")
+            @RequestParam(defaultValue = "" + PaginacionKeyset.LIMITE_POR_DEFECTO) int limite,
+            @Parameter(description = "Campo de orden: id, vigenciaDesde, costoKmBase")
+            @RequestParam(defaultValue = "vigenciaDesde") String ordenarPor,
+            @RequestParam(defaultValue = "DESC") Sort.Direction direccion) {
+        try {
+            return RespuestasPaginadas.ok(tarifaService.obtenerPagina(cursor, limite, ordenarPor, direccion));
+        } catch (IllegalArgumentException e) {
+            // Cursor o campo de orden inválido
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @Operation(summary = "Exportar tarifas (NDJSON)", 
+               description = "Devuelve todas las tarifas en formato NDJSON (un objeto JSON por línea), " +
+                             "escritos a medida que se leen de la base de datos")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Exportación en curso",
+                     content = @Content(mediaType = "application/x-ndjson",
+                     schema = @Schema(implementation = TarifaDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Campo de orden inválido",
+                     content = @Content)
+    })
+    @GetMapping(value = "/exportar", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestParam(defaultValue = "vigenciaDesde") String ordenarPor,
+            @RequestParam(defaultValue = "DESC") Sort.Direction direccion) {
+        if (!TarifaService.CAMPOS_ORDENABLES.contains(ordenarPor)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return RespuestasPaginadas.ndjson(objectMapper,
+                consumidor -> tarifaService.exportar(ordenarPor, direccion, consumidor));
     }
 
     @Operation(summary = "Obtener una tarifa por ID", 
@@ -156,4 +215,17 @@ public class TarifaController {
         boolean existe = tarifaService.existeTarifaActiva();
         return ResponseEntity.ok(existe);
     }
-}
\ No newline at end of file
+
+    /**
+     * If-None-Match según RFC 9110: comparación débil (W/"x" coincide con "x"), lista de ETags
+     * separados por coma y * (hay una tarifa activa, así que siempre coincide)
+     */
+    private static boolean coincideIfNoneMatch(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        ETag actual = ETag.create(etag);
+        return ETag.parse(ifNoneMatch).stream()
+                .anyMatch(pedido -> pedido.isWildcard() || pedido.compare(actual, false));
+    }
+}
@@ -0,0 +1,18 @@
+package utn.frc.isi.backend.tpi_Integrador.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Una actualización de disponibilidad dentro de un lote
+ * Usado por el endpoint PATCH /api/camiones/disponibilidad
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActualizacionDisponibilidadDTO {
+    private String claveIdempotencia; // Identifica la actualización; si ya se aplicó, se informa como duplicada
+    private Long camionId;
+    private Boolean disponible;
+}
@@ -0,0 +1,21 @@
+package utn.frc.isi.backend.tpi_Integrador.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cambio del feed de flota con el estado actual de la entidad
+ * (camion o deposito según el tipo; ambos null si la entidad ya no existe)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CambioFlotaDTO {
+    private Long secuencia;
+    private String tipo; // CAMION o DEPOSITO
+    private Long entidadId;
+    private String operacion; // ALTA, MODIFICACION o BAJA
+    private CamionDTO camion;
+    private DepositoDTO deposito;
+}
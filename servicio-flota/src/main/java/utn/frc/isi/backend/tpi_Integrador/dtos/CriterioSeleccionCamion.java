@@ -0,0 +1,9 @@
+package utn.frc.isi.backend.tpi_Integrador.dtos;
+
+/**
+ * Criterio para elegir el mejor camión disponible que cumple una capacidad mínima
+ */
+public enum CriterioSeleccionCamion {
+    MENOR_CAPACIDAD, // El camión más chico que alcanza (menor peso y, a igual peso, menor volumen)
+    MENOR_COSTO      // El de menor costo por km
+}
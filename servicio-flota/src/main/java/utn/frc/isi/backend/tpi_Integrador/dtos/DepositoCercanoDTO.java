@@ -0,0 +1,21 @@
+package utn.frc.isi.backend.tpi_Integrador.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO para devolver un Depósito junto con su distancia al punto (o corredor) consultado
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DepositoCercanoDTO {
+
+    private Long id;
+    private String nombre;
+    private String direccion;
+    private double latitud;
+    private double longitud;
+    private double distanciaKm; // Distancia en línea recta al punto o corredor consultado
+}
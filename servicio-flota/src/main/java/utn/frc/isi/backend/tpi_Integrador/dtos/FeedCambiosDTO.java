@@ -0,0 +1,20 @@
+package utn.frc.isi.backend.tpi_Integrador.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página del feed de cambios de camiones y depósitos (GET /api/cambios)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeedCambiosDTO {
+    private String idFeed; // Cambia si el feed se reinicia (ej: base en memoria recreada); el consumidor debe volver a leer desde 0
+    private Long ultimaSecuencia; // Secuencia desde la que pedir la próxima página
+    private boolean hayMas; // true si quedaron cambios sin incluir por el límite
+    private List<CambioFlotaDTO> cambios;
+}
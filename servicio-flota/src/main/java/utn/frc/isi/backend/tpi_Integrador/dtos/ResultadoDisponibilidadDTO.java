@@ -0,0 +1,22 @@
+package utn.frc.isi.backend.tpi_Integrador.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de una actualización de disponibilidad enviada en un lote
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoDisponibilidadDTO {
+
+    public static final String APLICADA = "APLICADA";
+    public static final String DUPLICADA = "DUPLICADA"; // Ya se había aplicado con la misma clave
+    public static final String CAMION_NO_ENCONTRADO = "CAMION_NO_ENCONTRADO";
+
+    private String claveIdempotencia;
+    private Long camionId;
+    private String resultado; // APLICADA, DUPLICADA o CAMION_NO_ENCONTRADO
+}
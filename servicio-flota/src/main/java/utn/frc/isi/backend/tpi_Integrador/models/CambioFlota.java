@@ -0,0 +1,38 @@
+package utn.frc.isi.backend.tpi_Integrador.models;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entrada del registro de cambios (change feed) de camiones y depósitos.
+ * Cada alta, modificación o baja agrega una fila con un número de secuencia creciente;
+ * los consumidores (servicio-operaciones) leen a partir de la última secuencia que procesaron.
+ */
+@Entity // Marca esta clase como una entidad que se mapeará a una tabla en la BD
+@Data   // Genera automáticamente getters, setters, toString, etc.
+public class CambioFlota {
+
+    public static final String CAMION = "CAMION";
+    public static final String DEPOSITO = "DEPOSITO";
+
+    public static final String ALTA = "ALTA";
+    public static final String MODIFICACION = "MODIFICACION";
+    public static final String BAJA = "BAJA";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long secuencia; // Posición del cambio en el feed
+
+    private String tipo; // CAMION o DEPOSITO
+
+    private Long entidadId; // ID del camión o depósito modificado
+
+    private String operacion; // ALTA, MODIFICACION o BAJA
+
+    private LocalDateTime fecha; // Momento del cambio
+}
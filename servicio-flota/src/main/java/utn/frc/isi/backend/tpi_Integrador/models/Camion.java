@@ -4,6 +4,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Version;
 import lombok.Data;
 
 @Entity // Marca esta clase como una entidad que se mapeará a una tabla en la BD
@@ -30,4 +31,7 @@ public class Camion {
 
     // Podríamos agregar más adelante un campo para los costos de traslado por km
     private double costoPorKm; 
+
+    @Version
+    private long version; // Control de concurrencia optimista: una actualización con datos desactualizados falla
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package utn.frc.isi.backend.tpi_Integrador.models;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registro de una actualización de disponibilidad ya aplicada, identificada por su clave de idempotencia.
+ * Permite que servicio-operaciones reintente el envío de un lote sin que una actualización se aplique dos veces.
+ * Se conserva mientras el emisor pueda reintentar (camiones.disponibilidad.retencion-horas) y después se elimina.
+ */
+@Entity
+@Table(indexes = {
+    @Index(name = "idx_disponibilidad_aplicada_fecha", columnList = "fechaAplicacion") // Depuración por antigüedad
+})
+@Data
+public class DisponibilidadAplicada {
+
+    @Id
+    private String claveIdempotencia; // Clave generada por el emisor para cada actualización
+
+    private Long camionId; // Camión al que se aplicó la actualización
+
+    private boolean disponible; // Disponibilidad aplicada
+
+    private LocalDateTime fechaAplicacion; // Momento en que se aplicó
+}
@@ -0,0 +1,23 @@
+package utn.frc.isi.backend.tpi_Integrador.repositories;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import utn.frc.isi.backend.tpi_Integrador.models.CambioFlota;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository // Buena práctica para indicar que es un componente de persistencia
+public interface CambioFlotaRepository extends JpaRepository<CambioFlota, Long> {
+
+    /**
+     * Cambios con secuencia entre desde y hasta (ambas excluidas), en orden (recorre la clave primaria)
+     */
+    List<CambioFlota> findBySecuenciaGreaterThanAndSecuenciaLessThanOrderBySecuenciaAsc(Long desde, Long hasta, Pageable pageable);
+
+    /**
+     * Último cambio registrado
+     */
+    Optional<CambioFlota> findTopByOrderBySecuenciaDesc();
+}
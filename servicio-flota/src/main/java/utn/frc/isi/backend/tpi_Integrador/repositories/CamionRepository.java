@@ -1,10 +1,20 @@
 package utn.frc.isi.backend.tpi_Integrador.repositories;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import utn.frc.isi.backend.tpi_Integrador.models.Camion;
 
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository // Buena práctica para indicar que es un componente de persistencia
 public interface CamionRepository extends JpaRepository<Camion, Long>, JpaSpecificationExecutor<Camion> {
     // Con solo esta línea, Spring Data JPA nos dará métodos como:
@@ -13,4 +23,26 @@ public interface CamionRepository extends JpaRepository<Camion, Long>, JpaSpecif
     // - findAll()
     // - deleteById()
     // ¡Y muchos más, sin necesidad de implementarlos!
+    
+    /**
+     * Recorre todos los camiones en el orden indicado sin cargar la tabla completa en memoria.
+     * Usado por la exportación NDJSON; debe consumirse dentro de una transacción.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Camion> streamAllBy(Sort sort);
+
+    // Carga inicial del índice de camiones disponibles
+    List<Camion> findByDisponibleTrue();
+
+    /**
+     * Reserva el camión de forma atómica: lo marca no disponible solo si todavía está disponible.
+     * Con reservas concurrentes del mismo camión, exactamente una modifica la fila.
+     * @return 1 si se reservó, 0 si no existe o ya no estaba disponible
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Camion c SET c.disponible = false, c.version = c.version + 1 WHERE c.id = :id AND c.disponible = true")
+    int reservar(@Param("id") Long id);
 }
\ No newline at end of file
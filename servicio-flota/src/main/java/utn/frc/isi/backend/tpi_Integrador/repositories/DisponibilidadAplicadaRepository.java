@@ -0,0 +1,24 @@
+package utn.frc.isi.backend.tpi_Integrador.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import utn.frc.isi.backend.tpi_Integrador.models.DisponibilidadAplicada;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface DisponibilidadAplicadaRepository extends JpaRepository<DisponibilidadAplicada, String> {
+
+    /**
+     * Elimina los registros de actualizaciones aplicadas antes de la fecha indicada
+     * @return Cantidad de filas eliminadas
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM DisponibilidadAplicada d WHERE d.fechaAplicacion < :limite")
+    int eliminarAplicadasAntesDe(@Param("limite") LocalDateTime limite);
+}
@@ -1,16 +1,22 @@
 package utn.frc.isi.backend.tpi_Integrador.repositories;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import utn.frc.isi.backend.tpi_Integrador.models.Tarifa;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface TarifaRepository extends JpaRepository<Tarifa, Long> {
+public interface TarifaRepository extends JpaRepository<Tarifa, Long>, JpaSpecificationExecutor<Tarifa> {
     
     /**
      * Buscar la única tarifa que está marcada como activa
@@ -39,4 +45,14 @@ public interface TarifaRepository extends JpaRepository<Tarifa, Long> {
      * @return true si existe al menos una tarifa activa
      */
     boolean existsByActiva(boolean activa);
+    
+    /**
+     * Recorre todas las tarifas en el orden indicado sin cargar la tabla completa en memoria.
+     * Usado por la exportación NDJSON; debe consumirse dentro de una transacción.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Tarifa> streamAllBy(Sort sort);
 }
\ No newline at end of file
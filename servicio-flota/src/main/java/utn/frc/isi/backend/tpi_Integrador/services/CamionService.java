@@ -1,19 +1,41 @@
 package utn.frc.isi.backend.tpi_Integrador.services;
 
+import jakarta.persistence.EntityManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import utn.frc.isi.backend.tpi_Integrador.dtos.ActualizacionDisponibilidadDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.CamionCreateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.CamionDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.CamionUpdateDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.CriterioSeleccionCamion;
+import utn.frc.isi.backend.tpi_Integrador.dtos.PaginaDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.ResultadoDisponibilidadDTO;
 import utn.frc.isi.backend.tpi_Integrador.mappers.CamionMapper;
+import utn.frc.isi.backend.tpi_Integrador.models.CambioFlota;
 import utn.frc.isi.backend.tpi_Integrador.models.Camion;
+import utn.frc.isi.backend.tpi_Integrador.models.DisponibilidadAplicada;
 import utn.frc.isi.backend.tpi_Integrador.repositories.CamionRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.DisponibilidadAplicadaRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.PaginacionKeyset;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service // Marca esta clase como un componente de servicio de Spring
@@ -21,23 +43,66 @@ public class CamionService {
 
     private static final Logger logger = LoggerFactory.getLogger(CamionService.class);
 
+    // Campos por los que se puede ordenar el listado (si admiten nulos, esas filas van al final)
+    public static final Set<String> CAMPOS_ORDENABLES = Set.of("id", "dominio", "nombreTransportista", "capacidadPeso", "capacidadVolumen", "costoPorKm");
+
+    // Máximo de IDs aceptados por la consulta por lote
+    public static final int MAX_IDS_POR_CONSULTA = 500;
+
     private final CamionRepository camionRepository;
+    private final DisponibilidadAplicadaRepository disponibilidadAplicadaRepository;
     private final CamionMapper camionMapper;
+    private final FeedCambiosService feedCambiosService;
+    private final IndiceCamionesDisponibles indiceDisponibles;
+    private final EntityManager entityManager;
+    private final Duration retencionDisponibilidades;
 
     // Inyección de dependencias a través del constructor (práctica recomendada)
-    public CamionService(CamionRepository camionRepository, CamionMapper camionMapper) {
+    public CamionService(CamionRepository camionRepository,
+                         DisponibilidadAplicadaRepository disponibilidadAplicadaRepository,
+                         CamionMapper camionMapper, FeedCambiosService feedCambiosService,
+                         IndiceCamionesDisponibles indiceDisponibles, EntityManager entityManager,
+                         @Value("${camiones.disponibilidad.retencion-horas:168}") long retencionHoras) {
         this.camionRepository = camionRepository;
+        this.disponibilidadAplicadaRepository = disponibilidadAplicadaRepository;
         this.camionMapper = camionMapper;
+        this.feedCambiosService = feedCambiosService;
+        this.indiceDisponibles = indiceDisponibles;
+        this.entityManager = entityManager;
+        this.retencionDisponibilidades = Duration.ofHours(retencionHoras);
     }
 
-    public List<CamionDTO> obtenerTodos() {
-        logger.info("Obteniendo todos los camiones");
-        List<CamionDTO> camiones = camionRepository.findAll()
-                .stream()
-                .map(camionMapper::toDTO)
-                .collect(Collectors.toList());
-        logger.info("Se encontraron {} camiones", camiones.size());
-        return camiones;
+    /**
+     * Obtiene una página de camiones con paginación por cursor (keyset)
+     * @param cursor Cursor devuelto por la página anterior (null para la primera)
+     * @param limite Cantidad de elementos por página
+     * @param ordenarPor Campo de orden (uno de CAMPOS_ORDENABLES)
+     * @param direccion Dirección del orden
+     * @return PaginaDTO con la página de camiones y el cursor de la siguiente
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<CamionDTO> obtenerPagina(String cursor, int limite, String ordenarPor, Sort.Direction direccion) {
+        logger.info("Obteniendo página de camiones (limite={}, orden={} {})", limite, ordenarPor, direccion);
+        PaginaDTO<CamionDTO> pagina = PaginacionKeyset.paginar(camionRepository, CAMPOS_ORDENABLES, List.of(),
+                cursor, limite, ordenarPor, direccion, camionMapper::toDTO);
+        logger.info("Se devolvieron {} camiones", pagina.getItems().size());
+        return pagina;
+    }
+
+    /**
+     * Exporta todos los camiones entregando cada fila al consumidor a medida que se lee
+     * de la base de datos, sin cargar la tabla completa en memoria
+     * @param ordenarPor Campo de orden (uno de CAMPOS_ORDENABLES)
+     * @param direccion Dirección del orden
+     * @param consumidor Receptor de cada CamionDTO
+     */
+    @Transactional(readOnly = true)
+    public void exportar(String ordenarPor, Sort.Direction direccion, Consumer<? super CamionDTO> consumidor) {
+        PaginacionKeyset.validarCampo(ordenarPor, CAMPOS_ORDENABLES);
+        long cantidad = PaginacionKeyset.exportar(
+                camionRepository.streamAllBy(PaginacionKeyset.ordenar(ordenarPor, direccion)),
+                entityManager, camionMapper::toDTO, consumidor);
+        logger.info("Se exportaron {} camiones", cantidad);
     }
 
     public Optional<CamionDTO> obtenerPorId(Long id) {
@@ -50,16 +115,39 @@ public class CamionService {
         return camionOpt;
     }
 
+    /**
+     * Obtiene varios camiones por ID en una sola consulta
+     * @param ids IDs a buscar (se ignoran repetidos)
+     * @return Camiones encontrados, ordenados por ID; los IDs inexistentes se omiten
+     */
+    @Transactional(readOnly = true)
+    public List<CamionDTO> obtenerPorIds(Collection<Long> ids) {
+        if (ids.size() > MAX_IDS_POR_CONSULTA) {
+            throw new IllegalArgumentException("Se pueden consultar hasta " + MAX_IDS_POR_CONSULTA + " camiones por vez");
+        }
+        List<CamionDTO> camiones = camionRepository.findAllById(new LinkedHashSet<>(ids)).stream()
+                .sorted(Comparator.comparing(Camion::getId))
+                .map(camionMapper::toDTO)
+                .collect(Collectors.toList());
+        logger.info("Consulta por lote: {} IDs pedidos, {} camiones encontrados", ids.size(), camiones.size());
+        return camiones;
+    }
+
+    @Transactional
     public CamionDTO crearCamion(CamionCreateDTO dto) {
         logger.info("Creando nuevo camion con dominio: {}", dto.getDominio());
         // Aquí podríamos agregar lógica de negocio.
         // Por ejemplo: antes de guardar, verificar que la patente no exista.
         Camion camion = camionMapper.toEntity(dto);
         Camion camionGuardado = camionRepository.save(camion);
+        feedCambiosService.registrar(CambioFlota.CAMION, camionGuardado.getId(), CambioFlota.ALTA);
+        CamionDTO camionDTO = camionMapper.toDTO(camionGuardado);
+        indiceDisponibles.guardar(camionDTO);
         logger.info("Camion creado exitosamente con ID: {}", camionGuardado.getId());
-        return camionMapper.toDTO(camionGuardado);
+        return camionDTO;
     }
 
+    @Transactional
     public CamionDTO actualizarCamion(Long id, CamionUpdateDTO dto) {
         logger.info("Actualizando camion con ID: {}", id);
         // Buscar el camión existente
@@ -73,49 +161,47 @@ public class CamionService {
         Camion camion = camionOpt.get();
         camionMapper.updateEntity(dto, camion);
         Camion camionActualizado = camionRepository.save(camion);
+        feedCambiosService.registrar(CambioFlota.CAMION, id, CambioFlota.MODIFICACION);
+        CamionDTO camionDTO = camionMapper.toDTO(camionActualizado);
+        indiceDisponibles.guardar(camionDTO);
         logger.info("Camion con ID: {} actualizado exitosamente", id);
-        return camionMapper.toDTO(camionActualizado);
+        return camionDTO;
     }
 
+    @Transactional
     public void eliminarCamion(Long id) {
         logger.info("Eliminando camion con ID: {}", id);
         camionRepository.deleteById(id);
+        feedCambiosService.registrar(CambioFlota.CAMION, id, CambioFlota.BAJA);
+        indiceDisponibles.eliminar(id);
         logger.info("Camion con ID: {} eliminado exitosamente", id);
     }
 
     /**
-     * Buscar camiones disponibles con filtros opcionales de capacidad
+     * Buscar camiones disponibles con filtros opcionales de capacidad.
+     * Se resuelve con el índice en memoria de camiones disponibles, sin consultar la base
      * @param pesoMinimo filtro opcional para capacidad mínima de peso
      * @param volumenMinimo filtro opcional para capacidad mínima de volumen
-     * @return lista de camiones que cumplen los criterios
+     * @return lista de camiones que cumplen los criterios, del que mejor se ajusta (más chico) al más grande
      */
     public List<CamionDTO> buscarDisponibles(Double pesoMinimo, Double volumenMinimo) {
         logger.info("Buscando camiones disponibles - pesoMinimo: {}, volumenMinimo: {}", pesoMinimo, volumenMinimo);
-        // Crear especificación base: camión debe estar disponible
-        Specification<Camion> spec = (root, query, cb) -> 
-            cb.isTrue(root.get("disponible"));
-
-        // Agregar filtro de peso mínimo si se proporciona
-        if (pesoMinimo != null) {
-            spec = spec.and((root, query, cb) -> 
-                cb.greaterThanOrEqualTo(root.get("capacidadPeso"), pesoMinimo)
-            );
-        }
-
-        // Agregar filtro de volumen mínimo si se proporciona
-        if (volumenMinimo != null) {
-            spec = spec.and((root, query, cb) -> 
-                cb.greaterThanOrEqualTo(root.get("capacidadVolumen"), volumenMinimo)
-            );
-        }
-
-        List<CamionDTO> camiones = camionRepository.findAll(spec)
-                .stream()
-                .map(camionMapper::toDTO)
-                .collect(Collectors.toList());
+        List<CamionDTO> camiones = indiceDisponibles.buscar(
+                pesoMinimo != null ? pesoMinimo : 0, volumenMinimo != null ? volumenMinimo : 0);
         logger.info("Se encontraron {} camiones disponibles con los criterios especificados", camiones.size());
         return camiones;
     }
+
+    /**
+     * Elige el mejor camión disponible para una carga
+     * @param pesoMinimo capacidad mínima de peso requerida
+     * @param volumenMinimo capacidad mínima de volumen requerida
+     * @param criterio MENOR_CAPACIDAD (el más chico que alcanza) o MENOR_COSTO (el más barato por km que alcanza)
+     * @return Optional con el camión elegido, vacío si ninguno disponible alcanza
+     */
+    public Optional<CamionDTO> buscarMejorDisponible(double pesoMinimo, double volumenMinimo, CriterioSeleccionCamion criterio) {
+        return indiceDisponibles.buscarMejor(pesoMinimo, volumenMinimo, criterio);
+    }
     
     /**
      * Actualiza la disponibilidad de un camión
@@ -133,11 +219,116 @@ public class CamionService {
             Camion camion = camionOpt.get();
             camion.setDisponible(disponible);
             Camion camionGuardado = camionRepository.save(camion);
+            feedCambiosService.registrar(CambioFlota.CAMION, id, CambioFlota.MODIFICACION);
+            CamionDTO camionDTO = camionMapper.toDTO(camionGuardado);
+            indiceDisponibles.guardar(camionDTO);
             logger.info("Disponibilidad del camion ID: {} actualizada exitosamente", id);
-            return Optional.of(camionMapper.toDTO(camionGuardado));
+            return Optional.of(camionDTO);
         } else {
             logger.warn("Camion con ID: {} no encontrado para actualizar disponibilidad", id);
             return Optional.empty(); // Camión no encontrado
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Reserva un camión para una asignación con una actualización condicional atómica
+     * (UPDATE ... WHERE disponible = true), de modo que dos reservas concurrentes no obtienen el mismo camión
+     *
+     * @param id ID del camión a reservar
+     * @return Optional con el CamionDTO reservado, o vacío si no se encuentra
+     * @throws IllegalStateException si el camión ya no está disponible
+     */
+    @Transactional
+    public Optional<CamionDTO> reservar(Long id) {
+        logger.info("Reservando camion ID: {}", id);
+        if (camionRepository.reservar(id) == 0) {
+            if (!camionRepository.existsById(id)) {
+                logger.warn("Camion con ID: {} no encontrado para reservar", id);
+                return Optional.empty();
+            }
+            throw new IllegalStateException("El camión " + id + " no está disponible");
+        }
+        feedCambiosService.registrar(CambioFlota.CAMION, id, CambioFlota.MODIFICACION);
+        logger.info("Camion ID: {} reservado exitosamente", id);
+        Optional<CamionDTO> camionDTO = camionRepository.findById(id).map(camionMapper::toDTO);
+        camionDTO.ifPresent(indiceDisponibles::guardar);
+        return camionDTO;
+    }
+
+    /**
+     * Aplica un lote de actualizaciones de disponibilidad en una sola transacción, en el orden recibido.
+     * Cada actualización trae una clave de idempotencia: las que ya se aplicaron (reintentos del emisor)
+     * no se vuelven a aplicar y se informan como duplicadas.
+     *
+     * @param actualizaciones Actualizaciones a aplicar (hasta MAX_IDS_POR_CONSULTA)
+     * @return Resultado de cada actualización, en el mismo orden
+     * @throws IllegalArgumentException si el lote es demasiado grande o alguna actualización está incompleta
+     */
+    @Transactional
+    public List<ResultadoDisponibilidadDTO> actualizarDisponibilidades(List<ActualizacionDisponibilidadDTO> actualizaciones) {
+        if (actualizaciones.size() > MAX_IDS_POR_CONSULTA) {
+            throw new IllegalArgumentException("Se pueden enviar hasta " + MAX_IDS_POR_CONSULTA + " actualizaciones por vez");
+        }
+        for (ActualizacionDisponibilidadDTO actualizacion : actualizaciones) {
+            if (actualizacion.getClaveIdempotencia() == null || actualizacion.getClaveIdempotencia().isBlank()
+                    || actualizacion.getCamionId() == null || actualizacion.getDisponible() == null) {
+                throw new IllegalArgumentException("Cada actualización requiere claveIdempotencia, camionId y disponible");
+            }
+        }
+
+        // Claves ya aplicadas y camiones del lote, en una consulta cada uno
+        Set<String> clavesAplicadas = disponibilidadAplicadaRepository.findAllById(
+                        actualizaciones.stream().map(ActualizacionDisponibilidadDTO::getClaveIdempotencia).toList())
+                .stream()
+                .map(DisponibilidadAplicada::getClaveIdempotencia)
+                .collect(Collectors.toCollection(HashSet::new));
+        Map<Long, Camion> camiones = camionRepository.findAllById(
+                        actualizaciones.stream().map(ActualizacionDisponibilidadDTO::getCamionId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Camion::getId, Function.identity()));
+
+        List<ResultadoDisponibilidadDTO> resultados = new ArrayList<>(actualizaciones.size());
+        List<DisponibilidadAplicada> aplicadas = new ArrayList<>();
+        for (ActualizacionDisponibilidadDTO actualizacion : actualizaciones) {
+            String clave = actualizacion.getClaveIdempotencia();
+            Camion camion = camiones.get(actualizacion.getCamionId());
+            String resultado;
+            if (!clavesAplicadas.add(clave)) {
+                resultado = ResultadoDisponibilidadDTO.DUPLICADA;
+            } else if (camion == null) {
+                resultado = ResultadoDisponibilidadDTO.CAMION_NO_ENCONTRADO;
+            } else {
+                camion.setDisponible(actualizacion.getDisponible());
+                feedCambiosService.registrar(CambioFlota.CAMION, camion.getId(), CambioFlota.MODIFICACION);
+                indiceDisponibles.guardar(camionMapper.toDTO(camion));
+                DisponibilidadAplicada aplicada = new DisponibilidadAplicada();
+                aplicada.setClaveIdempotencia(clave);
+                aplicada.setCamionId(camion.getId());
+                aplicada.setDisponible(actualizacion.getDisponible());
+                aplicada.setFechaAplicacion(LocalDateTime.now());
+                aplicadas.add(aplicada);
+                resultado = ResultadoDisponibilidadDTO.APLICADA;
+            }
+            resultados.add(new ResultadoDisponibilidadDTO(clave, actualizacion.getCamionId(), resultado));
+        }
+        disponibilidadAplicadaRepository.saveAll(aplicadas);
+
+        logger.info("Lote de disponibilidad: {} actualizaciones recibidas, {} aplicadas",
+                    actualizaciones.size(), aplicadas.size());
+        return resultados;
+    }
+
+    /**
+     * Elimina periódicamente las claves de idempotencia aplicadas hace más de camiones.disponibilidad.retencion-horas.
+     * La retención debe superar el tiempo durante el que servicio-operaciones reintenta un envío
+     * (servicio-flota.outbox.max-intentos × reintento-max-ms); pasado ese plazo una clave ya no vuelve a llegar.
+     */
+    @Scheduled(fixedDelay = 3_600_000, initialDelay = 3_600_000)
+    public void depurarDisponibilidadesAplicadas() {
+        int eliminadas = disponibilidadAplicadaRepository.eliminarAplicadasAntesDe(
+                LocalDateTime.now().minus(retencionDisponibilidades));
+        if (eliminadas > 0) {
+            logger.info("Se eliminaron {} claves de idempotencia de disponibilidad vencidas", eliminadas);
+        }
+    }
+}
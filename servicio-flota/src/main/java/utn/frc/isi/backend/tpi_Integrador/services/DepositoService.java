@@ -3,10 +3,13 @@ package utn.frc.isi.backend.tpi_Integrador.services;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import utn.frc.isi.backend.tpi_Integrador.dtos.DepositoCercanoDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.DepositoCreateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.DepositoDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.DepositoUpdateDTO;
 import utn.frc.isi.backend.tpi_Integrador.mappers.DepositoMapper;
+import utn.frc.isi.backend.tpi_Integrador.models.CambioFlota;
 import utn.frc.isi.backend.tpi_Integrador.models.Deposito;
 import utn.frc.isi.backend.tpi_Integrador.repositories.DepositoRepository;
 
@@ -21,11 +24,16 @@ public class DepositoService {
 
     private final DepositoRepository depositoRepository;
     private final DepositoMapper depositoMapper;
+    private final IndiceEspacialDepositos indiceEspacial;
+    private final FeedCambiosService feedCambiosService;
 
     // Inyección de dependencias a través del constructor (práctica recomendada)
-    public DepositoService(DepositoRepository depositoRepository, DepositoMapper depositoMapper) {
+    public DepositoService(DepositoRepository depositoRepository, DepositoMapper depositoMapper,
+                           IndiceEspacialDepositos indiceEspacial, FeedCambiosService feedCambiosService) {
         this.depositoRepository = depositoRepository;
         this.depositoMapper = depositoMapper;
+        this.indiceEspacial = indiceEspacial;
+        this.feedCambiosService = feedCambiosService;
     }
 
     public List<DepositoDTO> obtenerTodos() {
@@ -48,16 +56,21 @@ public class DepositoService {
         return depositoOpt;
     }
 
+    @Transactional
     public DepositoDTO crearDeposito(DepositoCreateDTO dto) {
         logger.info("Creando nuevo deposito: {}", dto.getNombre());
         // Aquí podríamos agregar lógica de negocio.
         // Por ejemplo: validar coordenadas, verificar que no exista otro depósito en la misma ubicación, etc.
         Deposito deposito = depositoMapper.toEntity(dto);
         Deposito depositoGuardado = depositoRepository.save(deposito);
+        feedCambiosService.registrar(CambioFlota.DEPOSITO, depositoGuardado.getId(), CambioFlota.ALTA);
         logger.info("Deposito creado exitosamente con ID: {}", depositoGuardado.getId());
-        return depositoMapper.toDTO(depositoGuardado);
+        DepositoDTO depositoDTO = depositoMapper.toDTO(depositoGuardado);
+        Transacciones.alConfirmar(() -> indiceEspacial.guardar(depositoDTO)); // Fuera del índice si se revierte
+        return depositoDTO;
     }
 
+    @Transactional
     public DepositoDTO actualizarDeposito(Long id, DepositoUpdateDTO dto) {
         logger.info("Actualizando deposito con ID: {}", id);
         // Buscar el depósito existente
@@ -71,16 +84,46 @@ public class DepositoService {
         Deposito deposito = depositoOpt.get();
         depositoMapper.updateEntity(dto, deposito);
         Deposito depositoActualizado = depositoRepository.save(deposito);
+        feedCambiosService.registrar(CambioFlota.DEPOSITO, id, CambioFlota.MODIFICACION);
         logger.info("Deposito con ID: {} actualizado exitosamente", id);
-        return depositoMapper.toDTO(depositoActualizado);
+        DepositoDTO depositoDTO = depositoMapper.toDTO(depositoActualizado);
+        Transacciones.alConfirmar(() -> indiceEspacial.guardar(depositoDTO));
+        return depositoDTO;
     }
 
+    @Transactional
     public void eliminarDeposito(Long id) {
         logger.info("Eliminando deposito con ID: {}", id);
         depositoRepository.deleteById(id);
+        feedCambiosService.registrar(CambioFlota.DEPOSITO, id, CambioFlota.BAJA);
+        Transacciones.alConfirmar(() -> indiceEspacial.eliminar(id));
         logger.info("Deposito con ID: {} eliminado exitosamente", id);
     }
-    
-    // Aquí se podrían agregar más métodos de negocio en el futuro,
-    // como buscarDepositosPorUbicacion(double latitud, double longitud, double radio), etc.
+
+    /**
+     * Busca los depósitos a no más de radioKm de un punto (índice espacial en memoria)
+     */
+    public List<DepositoCercanoDTO> buscarDepositosPorUbicacion(double latitud, double longitud, double radioKm) {
+        logger.info("Buscando depositos a {} km de ({}, {})", radioKm, latitud, longitud);
+        return indiceEspacial.buscarEnRadio(latitud, longitud, radioKm);
+    }
+
+    /**
+     * Busca los depósitos más cercanos a un punto (índice espacial en memoria)
+     */
+    public List<DepositoCercanoDTO> buscarDepositosMasCercanos(double latitud, double longitud, int cantidad) {
+        logger.info("Buscando los {} depositos mas cercanos a ({}, {})", cantidad, latitud, longitud);
+        return indiceEspacial.buscarMasCercanos(latitud, longitud, cantidad);
+    }
+
+    /**
+     * Busca los depósitos a no más de anchoKm del segmento origen-destino de una ruta
+     */
+    public List<DepositoCercanoDTO> buscarDepositosEnCorredor(double latitudOrigen, double longitudOrigen,
+                                                              double latitudDestino, double longitudDestino,
+                                                              double anchoKm) {
+        logger.info("Buscando depositos a {} km del corredor ({}, {}) -> ({}, {})",
+                    anchoKm, latitudOrigen, longitudOrigen, latitudDestino, longitudDestino);
+        return indiceEspacial.buscarEnCorredor(latitudOrigen, longitudOrigen, latitudDestino, longitudDestino, anchoKm);
+    }
 }
\ No newline at end of file
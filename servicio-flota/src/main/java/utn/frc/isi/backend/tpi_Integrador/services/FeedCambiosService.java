@@ -0,0 +1,264 @@
+package utn.frc.isi.backend.tpi_Integrador.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import utn.frc.isi.backend.tpi_Integrador.dtos.CambioFlotaDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.CamionDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.DepositoDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.FeedCambiosDTO;
+import utn.frc.isi.backend.tpi_Integrador.mappers.CamionMapper;
+import utn.frc.isi.backend.tpi_Integrador.mappers.DepositoMapper;
+import utn.frc.isi.backend.tpi_Integrador.models.CambioFlota;
+import utn.frc.isi.backend.tpi_Integrador.models.Camion;
+import utn.frc.isi.backend.tpi_Integrador.models.Deposito;
+import utn.frc.isi.backend.tpi_Integrador.repositories.CambioFlotaRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.CamionRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.DepositoRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Feed de cambios de camiones y depósitos para que otros servicios repliquen sus datos de referencia.
+ *
+ * Los servicios de camiones y depósitos registran cada alta, modificación o baja dentro de su transacción.
+ * Los consumidores piden los cambios posteriores a la última secuencia que procesaron y pueden esperar
+ * (long-poll) hasta que haya alguno nuevo. Cada cambio se entrega con el estado actual de la entidad.
+ *
+ * Las transacciones que registran cambios no se serializan, así que pueden confirmarse en otro orden que el
+ * de sus secuencias. Para que un consumidor nunca saltee una secuencia confirmada más tarde, el feed sólo
+ * entrega cambios anteriores a la menor secuencia todavía sin confirmar (el horizonte): lo que queda después
+ * se entrega cuando esa transacción termina, se confirme o se revierta.
+ */
+@Service
+public class FeedCambiosService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedCambiosService.class);
+
+    public static final int MAX_CAMBIOS_POR_PAGINA = 500;
+    public static final int MAX_ESPERA_SEGUNDOS = 30;
+
+    private final CambioFlotaRepository cambioFlotaRepository;
+    private final CamionRepository camionRepository;
+    private final DepositoRepository depositoRepository;
+    private final CamionMapper camionMapper;
+    private final DepositoMapper depositoMapper;
+
+    // Identifica esta instancia del feed: la base es en memoria y las secuencias se reinician con el servicio
+    private final String idFeed = UUID.randomUUID().toString();
+
+    // Tomado sólo mientras se inserta un cambio (la base asigna su secuencia) y se lo anota en curso,
+    // y para leer el horizonte: ninguna transacción lo retiene hasta su commit
+    private final ReentrantLock asignacion = new ReentrantLock();
+
+    // Secuencias insertadas por transacciones que todavía no terminaron
+    private final ConcurrentSkipListSet<Long> enCurso = new ConcurrentSkipListSet<>();
+
+    // Mayor secuencia asignada hasta ahora (acceso con asignacion tomado; -1 mientras no se leyó de la base)
+    private long ultimaAsignada = -1;
+
+    // Contador de transacciones con cambios terminadas, para despertar a los consumidores en espera (acceso con monitor tomado).
+    // Lock y Condition en lugar de wait/notify: un hilo virtual que espera en un bloque synchronized
+    // retiene su hilo de plataforma durante todo el long-poll
+    private final ReentrantLock monitor = new ReentrantLock();
+    private final Condition nuevoCommit = monitor.newCondition();
+    private long commits;
+
+    public FeedCambiosService(CambioFlotaRepository cambioFlotaRepository,
+                              CamionRepository camionRepository,
+                              DepositoRepository depositoRepository,
+                              CamionMapper camionMapper,
+                              DepositoMapper depositoMapper) {
+        this.cambioFlotaRepository = cambioFlotaRepository;
+        this.camionRepository = camionRepository;
+        this.depositoRepository = depositoRepository;
+        this.camionMapper = camionMapper;
+        this.depositoMapper = depositoMapper;
+    }
+
+    /**
+     * Al iniciar con el feed vacío, registra un alta por cada camión y depósito existente
+     * (ej: los cargados por data.sql) para que los consumidores reciban el estado completo.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void registrarEstadoInicial() {
+        if (cambioFlotaRepository.count() > 0) {
+            return;
+        }
+        List<Camion> camiones = camionRepository.findAll();
+        List<Deposito> depositos = depositoRepository.findAll();
+        camiones.forEach(camion -> registrar(CambioFlota.CAMION, camion.getId(), CambioFlota.ALTA));
+        depositos.forEach(deposito -> registrar(CambioFlota.DEPOSITO, deposito.getId(), CambioFlota.ALTA));
+        logger.info("Feed de cambios {} iniciado con {} camiones y {} depósitos", idFeed, camiones.size(), depositos.size());
+    }
+
+    /**
+     * Registra un cambio en la transacción en curso. Queda visible para los consumidores al confirmarse.
+     *
+     * @param tipo CambioFlota.CAMION o CambioFlota.DEPOSITO
+     * @param entidadId ID de la entidad modificada
+     * @param operacion CambioFlota.ALTA, MODIFICACION o BAJA
+     */
+    @Transactional
+    public void registrar(String tipo, Long entidadId, String operacion) {
+        CambioFlota cambio = new CambioFlota();
+        cambio.setTipo(tipo);
+        cambio.setEntidadId(entidadId);
+        cambio.setOperacion(operacion);
+        cambio.setFecha(LocalDateTime.now());
+
+        Long secuencia;
+        asignacion.lock();
+        try {
+            // La secuencia es IDENTITY: el INSERT se ejecuta acá y no al confirmar
+            secuencia = cambioFlotaRepository.save(cambio).getSecuencia();
+            enCurso.add(secuencia);
+            ultimaAsignada = Math.max(ultimaAsignada, secuencia);
+        } finally {
+            asignacion.unlock();
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                // Confirmado o revertido, el horizonte avanza y puede haber cambios nuevos para entregar
+                enCurso.remove(secuencia);
+                notificarCommit();
+            }
+        });
+    }
+
+    /**
+     * Devuelve los cambios posteriores a una secuencia. Si no hay ninguno espera hasta esperaSegundos
+     * a que se confirme alguno (long-poll), sin mantener transacciones abiertas durante la espera.
+     *
+     * @param desde Última secuencia procesada por el consumidor (0 para leer desde el principio)
+     * @param limite Cantidad máxima de cambios a devolver (hasta MAX_CAMBIOS_POR_PAGINA)
+     * @param esperaSegundos Tiempo máximo de espera si no hay cambios (hasta MAX_ESPERA_SEGUNDOS)
+     * @return Página del feed; sin cambios si se agotó la espera
+     * @throws IllegalArgumentException si los parámetros están fuera de rango
+     */
+    public FeedCambiosDTO obtenerCambios(long desde, int limite, int esperaSegundos) {
+        if (desde < 0 || limite < 1 || limite > MAX_CAMBIOS_POR_PAGINA
+                || esperaSegundos < 0 || esperaSegundos > MAX_ESPERA_SEGUNDOS) {
+            throw new IllegalArgumentException("Parámetros del feed fuera de rango");
+        }
+
+        long vence = System.nanoTime() + TimeUnit.SECONDS.toNanos(esperaSegundos);
+        List<CambioFlota> cambios;
+        while (true) {
+            long commitsLeidos = commitsActuales();
+            // Se pide uno de más para saber si quedaron cambios sin incluir
+            cambios = cambioFlotaRepository.findBySecuenciaGreaterThanAndSecuenciaLessThanOrderBySecuenciaAsc(
+                    desde, horizonte(), PageRequest.of(0, limite + 1));
+            long restante = vence - System.nanoTime();
+            if (!cambios.isEmpty() || restante <= 0 || !esperarCommit(commitsLeidos, restante)) {
+                break;
+            }
+        }
+
+        boolean hayMas = cambios.size() > limite;
+        if (hayMas) {
+            cambios = cambios.subList(0, limite);
+        }
+        long ultimaSecuencia = cambios.isEmpty() ? desde : cambios.get(cambios.size() - 1).getSecuencia();
+        return new FeedCambiosDTO(idFeed, ultimaSecuencia, hayMas, conEstadoActual(cambios));
+    }
+
+    /**
+     * Agrega a cada cambio el estado actual de su entidad, con una consulta por tipo
+     */
+    private List<CambioFlotaDTO> conEstadoActual(List<CambioFlota> cambios) {
+        Map<Long, CamionDTO> camiones = camionRepository.findAllById(idsDeTipo(cambios, CambioFlota.CAMION)).stream()
+                .collect(Collectors.toMap(Camion::getId, camionMapper::toDTO));
+        Map<Long, DepositoDTO> depositos = depositoRepository.findAllById(idsDeTipo(cambios, CambioFlota.DEPOSITO)).stream()
+                .collect(Collectors.toMap(Deposito::getId, depositoMapper::toDTO));
+
+        return cambios.stream()
+                .map(cambio -> new CambioFlotaDTO(cambio.getSecuencia(), cambio.getTipo(), cambio.getEntidadId(),
+                        cambio.getOperacion(),
+                        CambioFlota.CAMION.equals(cambio.getTipo()) ? camiones.get(cambio.getEntidadId()) : null,
+                        CambioFlota.DEPOSITO.equals(cambio.getTipo()) ? depositos.get(cambio.getEntidadId()) : null))
+                .collect(Collectors.toList());
+    }
+
+    private static List<Long> idsDeTipo(List<CambioFlota> cambios, String tipo) {
+        return cambios.stream()
+                .filter(cambio -> tipo.equals(cambio.getTipo()))
+                .map(CambioFlota::getEntidadId)
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Primera secuencia que todavía no se puede entregar: la menor en curso o, si no hay ninguna,
+     * la siguiente a asignar. Toda secuencia menor ya terminó su transacción
+     */
+    private long horizonte() {
+        asignacion.lock();
+        try {
+            if (!enCurso.isEmpty()) {
+                return enCurso.first();
+            }
+            if (ultimaAsignada < 0) {
+                ultimaAsignada = cambioFlotaRepository.findTopByOrderBySecuenciaDesc().map(CambioFlota::getSecuencia).orElse(0L);
+            }
+            return ultimaAsignada + 1;
+        } finally {
+            asignacion.unlock();
+        }
+    }
+
+    private long commitsActuales() {
+        monitor.lock();
+        try {
+            return commits;
+        } finally {
+            monitor.unlock();
+        }
+    }
+
+    private void notificarCommit() {
+        monitor.lock();
+        try {
+            commits++;
+            nuevoCommit.signalAll();
+        } finally {
+            monitor.unlock();
+        }
+    }
+
+    /**
+     * Espera a que termine una nueva transacción con cambios después de commitsLeidos
+     * @return false si el hilo fue interrumpido
+     */
+    private boolean esperarCommit(long commitsLeidos, long restanteNanos) {
+        long restante = restanteNanos;
+        monitor.lock();
+        try {
+            while (commits == commitsLeidos && restante > 0) {
+                restante = nuevoCommit.awaitNanos(restante);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            monitor.unlock();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package utn.frc.isi.backend.tpi_Integrador.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import utn.frc.isi.backend.tpi_Integrador.dtos.CamionDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.CriterioSeleccionCamion;
+import utn.frc.isi.backend.tpi_Integrador.mappers.CamionMapper;
+import utn.frc.isi.backend.tpi_Integrador.repositories.CamionRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice en memoria de los camiones disponibles, ordenado por capacidad (peso, volumen) y por costo por km.
+ * Evita consultar la tabla en cada búsqueda, pero la capacidad mínima es una condición sobre dos dimensiones
+ * (peso y volumen) que un orden total no resuelve: ubicar el primer camión con peso suficiente es O(log n),
+ * y desde ahí se recorren los camiones que no cumplen el volumen (o, por costo, los más baratos que no
+ * alcanzan). El peor caso es O(n) camiones disponibles recorridos en memoria, bajo el lock de lectura.
+ *
+ * Devuelve copias: los CamionDTO guardados son claves de los TreeSet y no deben modificarse desde afuera.
+ *
+ * Se carga completo al iniciar el servicio y se mantiene al día desde CamionService en cada alta,
+ * modificación, baja o cambio de disponibilidad (aplicado después del commit de la transacción).
+ */
+@Component
+public class IndiceCamionesDisponibles {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndiceCamionesDisponibles.class);
+
+    private static final Comparator<CamionDTO> POR_CAPACIDAD = Comparator
+            .comparingDouble(CamionDTO::getCapacidadPeso)
+            .thenComparingDouble(CamionDTO::getCapacidadVolumen)
+            .thenComparing(CamionDTO::getId);
+
+    private static final Comparator<CamionDTO> POR_COSTO = Comparator
+            .comparingDouble(CamionDTO::getCostoPorKm)
+            .thenComparing(CamionDTO::getId);
+
+    private final CamionRepository camionRepository;
+    private final CamionMapper camionMapper;
+
+    // Camiones disponibles por ID y en ambos órdenes; se modifican juntos bajo el lock de escritura
+    private final Map<Long, CamionDTO> disponibles = new HashMap<>();
+    private final NavigableSet<CamionDTO> porCapacidad = new TreeSet<>(POR_CAPACIDAD);
+    private final NavigableSet<CamionDTO> porCosto = new TreeSet<>(POR_COSTO);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public IndiceCamionesDisponibles(CamionRepository camionRepository, CamionMapper camionMapper) {
+        this.camionRepository = camionRepository;
+        this.camionMapper = camionMapper;
+    }
+
+    /**
+     * Reconstruye el índice completo desde la base de datos
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        List<CamionDTO> todos = camionRepository.findByDisponibleTrue().stream()
+                .map(camionMapper::toDTO)
+                .toList();
+        lock.writeLock().lock();
+        try {
+            disponibles.clear();
+            porCapacidad.clear();
+            porCosto.clear();
+            todos.forEach(this::agregarSinLock);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Índice de camiones disponibles reconstruido con {} camiones", todos.size());
+    }
+
+    /**
+     * Refleja el estado de un camión (lo agrega si está disponible y lo quita si no).
+     * Dentro de una transacción se aplica recién después del commit, para no ofrecer cambios que se revierten.
+     */
+    public void guardar(CamionDTO camion) {
+        Transacciones.alConfirmar(() -> {
+            lock.writeLock().lock();
+            try {
+                eliminarSinLock(camion.getId());
+                if (camion.isDisponible()) {
+                    agregarSinLock(camion);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void eliminar(Long id) {
+        Transacciones.alConfirmar(() -> {
+            lock.writeLock().lock();
+            try {
+                eliminarSinLock(id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Camiones disponibles que cumplen la capacidad mínima, del más chico al más grande
+     * (el primero es el que mejor se ajusta a la carga).
+     * O(log n + m), con m los camiones con peso suficiente (cumplan o no el volumen)
+     */
+    public List<CamionDTO> buscar(double pesoMinimo, double volumenMinimo) {
+        List<CamionDTO> resultado = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (CamionDTO camion : conPesoSuficiente(pesoMinimo)) {
+                if (camion.getCapacidadVolumen() >= volumenMinimo) {
+                    resultado.add(copiar(camion));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return resultado;
+    }
+
+    /**
+     * El mejor camión disponible que cumple la capacidad mínima según el criterio indicado.
+     * Se detiene en el primero que cumple: MENOR_CAPACIDAD recorre O(log n + k), con k los camiones con peso
+     * suficiente y volumen insuficiente; MENOR_COSTO recorre los k más baratos que no alcanzan.
+     * En el peor caso (ninguno alcanza, o sólo el último) ambos son O(n).
+     * @return Optional vacío si ningún camión disponible alcanza
+     */
+    public Optional<CamionDTO> buscarMejor(double pesoMinimo, double volumenMinimo, CriterioSeleccionCamion criterio) {
+        lock.readLock().lock();
+        try {
+            // MENOR_CAPACIDAD arranca en el primer camión con peso suficiente; MENOR_COSTO recorre de más barato a más caro
+            Iterable<CamionDTO> candidatos = criterio == CriterioSeleccionCamion.MENOR_COSTO
+                    ? porCosto
+                    : conPesoSuficiente(pesoMinimo);
+            for (CamionDTO camion : candidatos) {
+                if (camion.getCapacidadPeso() >= pesoMinimo && camion.getCapacidadVolumen() >= volumenMinimo) {
+                    return Optional.of(copiar(camion));
+                }
+            }
+            return Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private NavigableSet<CamionDTO> conPesoSuficiente(double pesoMinimo) {
+        // Cota inferior: ordena antes que cualquier camión con ese peso
+        CamionDTO cota = new CamionDTO();
+        cota.setId(Long.MIN_VALUE);
+        cota.setCapacidadPeso(pesoMinimo);
+        cota.setCapacidadVolumen(Double.NEGATIVE_INFINITY);
+        return porCapacidad.tailSet(cota, true);
+    }
+
+    private void agregarSinLock(CamionDTO camion) {
+        // Copia propia: si quien lo guardó modifica su DTO no se desordenan los TreeSet
+        CamionDTO guardado = copiar(camion);
+        disponibles.put(guardado.getId(), guardado);
+        porCapacidad.add(guardado);
+        porCosto.add(guardado);
+    }
+
+    private static CamionDTO copiar(CamionDTO camion) {
+        return new CamionDTO(camion.getId(), camion.getDominio(), camion.getNombreTransportista(), camion.getTelefono(),
+                             camion.getCapacidadPeso(), camion.getCapacidadVolumen(),
+                             camion.getConsumoCombustiblePorKm(), camion.isDisponible(), camion.getCostoPorKm());
+    }
+
+    private void eliminarSinLock(Long id) {
+        CamionDTO anterior = disponibles.remove(id);
+        if (anterior != null) {
+            porCapacidad.remove(anterior);
+            porCosto.remove(anterior);
+        }
+    }
+}
@@ -0,0 +1,377 @@
+package utn.frc.isi.backend.tpi_Integrador.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import utn.frc.isi.backend.tpi_Integrador.dtos.DepositoCercanoDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.DepositoDTO;
+import utn.frc.isi.backend.tpi_Integrador.mappers.DepositoMapper;
+import utn.frc.isi.backend.tpi_Integrador.repositories.DepositoRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Índice espacial en memoria de los depósitos (grilla regular de latitud/longitud).
+ * Cada depósito se guarda en la celda que contiene sus coordenadas, de modo que las
+ * búsquedas por cercanía, radio o corredor solo revisan las celdas que tocan el área
+ * consultada en lugar de recorrer toda la tabla.
+ *
+ * Las columnas dan la vuelta en el antimeridiano (±180°): una búsqueda cerca de 180° también
+ * revisa las celdas del otro lado, y un corredor que lo cruza se mide por el camino corto.
+ *
+ * Se carga completo al iniciar el servicio y se mantiene al día desde DepositoService
+ * en cada alta, modificación o baja, una vez confirmada su transacción.
+ */
+@Component
+public class IndiceEspacialDepositos {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndiceEspacialDepositos.class);
+
+    private static final double RADIO_TIERRA_KM = 6371.0088;
+    private static final double KM_POR_GRADO = Math.PI * RADIO_TIERRA_KM / 180.0;
+
+    private final DepositoRepository depositoRepository;
+    private final DepositoMapper depositoMapper;
+    private final double tamanioCelda; // Tamaño de cada celda en grados
+    private final long filas;    // Filas de la grilla (latitud -90 a 90)
+    private final long columnas; // Columnas de la grilla (longitud -180 a 180, dan la vuelta)
+
+    // Depósitos por ID y por celda; ambos mapas se modifican juntos bajo el lock de escritura
+    private final Map<Long, DepositoDTO> depositos = new HashMap<>();
+    private final Map<Long, Map<Long, DepositoDTO>> celdas = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public IndiceEspacialDepositos(DepositoRepository depositoRepository,
+                                   DepositoMapper depositoMapper,
+                                   @Value("${depositos.indice.tamanio-celda-grados:0.5}") double tamanioCelda) {
+        this.depositoRepository = depositoRepository;
+        this.depositoMapper = depositoMapper;
+        this.tamanioCelda = tamanioCelda;
+        this.filas = (long) Math.ceil(180.0 / tamanioCelda);
+        this.columnas = (long) Math.ceil(360.0 / tamanioCelda);
+    }
+
+    /**
+     * Reconstruye el índice completo desde la base de datos
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        List<DepositoDTO> todos = depositoRepository.findAll().stream()
+                .map(depositoMapper::toDTO)
+                .toList();
+        lock.writeLock().lock();
+        try {
+            depositos.clear();
+            celdas.clear();
+            todos.forEach(this::agregarSinLock);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Índice espacial de depósitos reconstruido con {} depósitos", todos.size());
+    }
+
+    /**
+     * Agrega un depósito nuevo o actualiza la posición de uno existente
+     */
+    public void guardar(DepositoDTO deposito) {
+        lock.writeLock().lock();
+        try {
+            eliminarSinLock(deposito.getId());
+            agregarSinLock(deposito);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void eliminar(Long id) {
+        lock.writeLock().lock();
+        try {
+            eliminarSinLock(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Depósitos a no más de radioKm del punto, ordenados por distancia
+     */
+    public List<DepositoCercanoDTO> buscarEnRadio(double latitud, double longitud, double radioKm) {
+        lock.readLock().lock();
+        try {
+            return buscarEnRadioSinLock(latitud, longitud, radioKm);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Los cantidad depósitos más cercanos al punto, ordenados por distancia.
+     * Revisa anillos de celdas cada vez más grandes alrededor del punto hasta juntar cantidad
+     * candidatos; la distancia al último de ellos acota la búsqueda, que termina con una sola
+     * búsqueda en ese radio. Si los anillos vacíos ya costaron más que recorrer todos los
+     * depósitos (puntos muy dispersos), se ordenan directamente todos.
+     */
+    public List<DepositoCercanoDTO> buscarMasCercanos(double latitud, double longitud, int cantidad) {
+        if (cantidad <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            if (depositos.size() <= cantidad) {
+                return ordenarPorDistancia(depositos.values(), latitud, longitud, cantidad);
+            }
+
+            long filaCentro = fila(latitud);
+            long columnaCentro = columna(longitud);
+            // Con este anillo ya se cubrió toda la grilla (las columnas dan la vuelta)
+            long maxAnillo = Math.max(Math.max(filaCentro, filas - 1 - filaCentro), columnas / 2);
+
+            Set<Long> revisadas = new HashSet<>();
+            List<DepositoDTO> candidatos = new ArrayList<>();
+            long celdasRecorridas = 0;
+            for (long anillo = 0; anillo <= maxAnillo && candidatos.size() < cantidad; anillo++) {
+                for (long f = Math.max(0, filaCentro - anillo); f <= Math.min(filas - 1, filaCentro + anillo); f++) {
+                    boolean bordeFila = Math.abs(f - filaCentro) == anillo;
+                    // Solo el borde del anillo: el interior ya se revisó
+                    long paso = bordeFila ? 1 : 2 * anillo;
+                    for (long c = columnaCentro - anillo; c <= columnaCentro + anillo; c += Math.max(1, paso)) {
+                        celdasRecorridas++;
+                        long clave = claveCelda(f, Math.floorMod(c, columnas));
+                        if (revisadas.add(clave)) {
+                            Map<Long, DepositoDTO> celda = celdas.get(clave);
+                            if (celda != null) {
+                                candidatos.addAll(celda.values());
+                            }
+                        }
+                    }
+                }
+                if (candidatos.size() < cantidad && celdasRecorridas > depositos.size()) {
+                    return ordenarPorDistancia(depositos.values(), latitud, longitud, cantidad);
+                }
+            }
+
+            // Ningún depósito más cercano que el cantidad-ésimo candidato puede estar fuera de ese radio
+            double radioKm = ordenarPorDistancia(candidatos, latitud, longitud, cantidad)
+                    .get(cantidad - 1).getDistanciaKm();
+            List<DepositoCercanoDTO> enRadio = buscarEnRadioSinLock(latitud, longitud, radioKm);
+            return enRadio.subList(0, Math.min(cantidad, enRadio.size()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Depósitos a no más de anchoKm del segmento origen-destino (corredor de una ruta),
+     * ordenados por su distancia al segmento
+     */
+    public List<DepositoCercanoDTO> buscarEnCorredor(double latitudOrigen, double longitudOrigen,
+                                                     double latitudDestino, double longitudDestino,
+                                                     double anchoKm) {
+        // El destino se toma por el lado corto del antimeridiano: 179° → -179° son 2°, no 358°
+        double longitudDestinoContinua = longitudOrigen + normalizarLongitud(longitudDestino - longitudOrigen);
+        double latitudMedia = (latitudOrigen + latitudDestino) / 2;
+        double margenLatitud = gradosLatitud(anchoKm);
+        double margenLongitud = gradosLongitud(anchoKm, Math.max(Math.abs(latitudOrigen), Math.abs(latitudDestino)));
+
+        List<DepositoCercanoDTO> resultado = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            recorrerCeldas(Math.min(latitudOrigen, latitudDestino) - margenLatitud,
+                           Math.max(latitudOrigen, latitudDestino) + margenLatitud,
+                           Math.min(longitudOrigen, longitudDestinoContinua) - margenLongitud,
+                           Math.max(longitudOrigen, longitudDestinoContinua) + margenLongitud,
+                           deposito -> {
+                double distancia = distanciaASegmentoKm(deposito.getLatitud(), deposito.getLongitud(),
+                        latitudOrigen, longitudOrigen, latitudDestino, longitudDestinoContinua, latitudMedia);
+                if (distancia <= anchoKm) {
+                    resultado.add(toCercano(deposito, distancia));
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        resultado.sort(Comparator.comparingDouble(DepositoCercanoDTO::getDistanciaKm));
+        return resultado;
+    }
+
+    private void agregarSinLock(DepositoDTO deposito) {
+        depositos.put(deposito.getId(), deposito);
+        celdas.computeIfAbsent(claveCelda(fila(deposito.getLatitud()), columna(deposito.getLongitud())),
+                               clave -> new HashMap<>())
+              .put(deposito.getId(), deposito);
+    }
+
+    private void eliminarSinLock(Long id) {
+        DepositoDTO anterior = depositos.remove(id);
+        if (anterior != null) {
+            long clave = claveCelda(fila(anterior.getLatitud()), columna(anterior.getLongitud()));
+            Map<Long, DepositoDTO> celda = celdas.get(clave);
+            if (celda != null) {
+                celda.remove(id);
+                if (celda.isEmpty()) {
+                    celdas.remove(clave);
+                }
+            }
+        }
+    }
+
+    private List<DepositoCercanoDTO> buscarEnRadioSinLock(double latitud, double longitud, double radioKm) {
+        List<DepositoCercanoDTO> resultado = new ArrayList<>();
+        recorrerCeldas(latitud - gradosLatitud(radioKm), latitud + gradosLatitud(radioKm),
+                       longitud - gradosLongitud(radioKm, latitud), longitud + gradosLongitud(radioKm, latitud),
+                       deposito -> {
+            double distancia = haversineKm(latitud, longitud, deposito.getLatitud(), deposito.getLongitud());
+            if (distancia <= radioKm) {
+                resultado.add(toCercano(deposito, distancia));
+            }
+        });
+        resultado.sort(Comparator.comparingDouble(DepositoCercanoDTO::getDistanciaKm));
+        return resultado;
+    }
+
+    /**
+     * Visita los depósitos de todas las celdas que intersectan el rectángulo dado.
+     * La longitud puede salirse de [-180, 180] (rectángulos que cruzan el antimeridiano): se revisan
+     * las columnas de ambos lados. Si el rectángulo pasa por un polo se revisan todas las longitudes.
+     * Si el rectángulo cubre más celdas que depósitos hay, recorre directamente los depósitos.
+     */
+    private void recorrerCeldas(double latitudMin, double latitudMax, double longitudMin, double longitudMax,
+                                Consumer<DepositoDTO> visitante) {
+        long filaMin = fila(latitudMin);
+        long filaMax = fila(latitudMax);
+
+        // Rangos de columnas: uno, o dos si el rectángulo cruza el antimeridiano
+        List<long[]> rangosColumnas = new ArrayList<>(2);
+        if (latitudMin <= -90.0 || latitudMax >= 90.0 || longitudMax - longitudMin >= 360.0) {
+            rangosColumnas.add(new long[]{0, columnas - 1});
+        } else {
+            double desde = normalizarLongitud(longitudMin);
+            double hasta = desde + (longitudMax - longitudMin);
+            if (hasta < 180.0) {
+                rangosColumnas.add(new long[]{columna(desde), columna(hasta)});
+            } else {
+                rangosColumnas.add(new long[]{columna(desde), columnas - 1});
+                rangosColumnas.add(new long[]{0, columna(hasta - 360.0)});
+            }
+        }
+
+        long cantidadCeldas = 0;
+        for (long[] rango : rangosColumnas) {
+            cantidadCeldas += (filaMax - filaMin + 1) * (rango[1] - rango[0] + 1);
+        }
+        if (cantidadCeldas > celdas.size()) {
+            depositos.values().forEach(visitante);
+            return;
+        }
+        for (long f = filaMin; f <= filaMax; f++) {
+            for (long[] rango : rangosColumnas) {
+                for (long c = rango[0]; c <= rango[1]; c++) {
+                    Map<Long, DepositoDTO> celda = celdas.get(claveCelda(f, c));
+                    if (celda != null) {
+                        celda.values().forEach(visitante);
+                    }
+                }
+            }
+        }
+    }
+
+    private List<DepositoCercanoDTO> ordenarPorDistancia(Collection<DepositoDTO> candidatos,
+                                                         double latitud, double longitud, int cantidad) {
+        return candidatos.stream()
+                .map(d -> toCercano(d, haversineKm(latitud, longitud, d.getLatitud(), d.getLongitud())))
+                .sorted(Comparator.comparingDouble(DepositoCercanoDTO::getDistanciaKm))
+                .limit(cantidad)
+                .toList();
+    }
+
+    /**
+     * Fila de la latitud; fuera de [-90, 90] se usa la fila del polo
+     */
+    private long fila(double latitud) {
+        long fila = (long) Math.floor((latitud + 90.0) / tamanioCelda);
+        return Math.max(0, Math.min(filas - 1, fila));
+    }
+
+    /**
+     * Columna de la longitud (cualquier vuelta); la última columna es más angosta si el tamaño
+     * de celda no divide 360
+     */
+    private long columna(double longitud) {
+        long columna = (long) Math.floor((normalizarLongitud(longitud) + 180.0) / tamanioCelda);
+        return Math.min(columnas - 1, columna);
+    }
+
+    /**
+     * Lleva la longitud a [-180, 180)
+     */
+    private static double normalizarLongitud(double longitud) {
+        return longitud - 360.0 * Math.floor((longitud + 180.0) / 360.0);
+    }
+
+    private static long claveCelda(long fila, long columna) {
+        return (fila << 32) ^ (columna & 0xffffffffL);
+    }
+
+    private static double gradosLatitud(double km) {
+        return km / KM_POR_GRADO;
+    }
+
+    private static double gradosLongitud(double km, double latitud) {
+        double coseno = Math.cos(Math.toRadians(Math.min(89.0, Math.abs(latitud) + gradosLatitud(km))));
+        return km / (KM_POR_GRADO * Math.max(0.01, coseno));
+    }
+
+    private static DepositoCercanoDTO toCercano(DepositoDTO deposito, double distanciaKm) {
+        return new DepositoCercanoDTO(deposito.getId(), deposito.getNombre(), deposito.getDireccion(),
+                                      deposito.getLatitud(), deposito.getLongitud(), distanciaKm);
+    }
+
+    /**
+     * Distancia de un punto al segmento A-B, usando una proyección plana local
+     * (suficientemente precisa para corredores de algunos cientos de kilómetros).
+     * longitudB puede estar fuera de [-180, 180] (segmento que cruza el antimeridiano); la longitud
+     * del punto se lleva a la vuelta más cercana al segmento.
+     */
+    private static double distanciaASegmentoKm(double latitud, double longitud,
+                                               double latitudA, double longitudA,
+                                               double latitudB, double longitudB,
+                                               double latitudReferencia) {
+        double escalaLongitud = KM_POR_GRADO * Math.cos(Math.toRadians(latitudReferencia));
+        double longitudMedia = (longitudA + longitudB) / 2;
+        longitud = longitudMedia + normalizarLongitud(longitud - longitudMedia);
+        double px = (longitud - longitudA) * escalaLongitud;
+        double py = (latitud - latitudA) * KM_POR_GRADO;
+        double bx = (longitudB - longitudA) * escalaLongitud;
+        double by = (latitudB - latitudA) * KM_POR_GRADO;
+
+        double largo2 = bx * bx + by * by;
+        double t = largo2 == 0 ? 0 : Math.max(0, Math.min(1, (px * bx + py * by) / largo2));
+        double dx = px - t * bx;
+        double dy = py - t * by;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * Distancia en línea recta (círculo máximo) entre dos coordenadas, en kilómetros
+     */
+    static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                 + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                 * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * RADIO_TIERRA_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+}
@@ -1,19 +1,26 @@
 package utn.frc.isi.backend.tpi_Integrador.services;
 
+import jakarta.persistence.EntityManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import utn.frc.isi.backend.tpi_Integrador.dtos.PaginaDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.TarifaCreateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.TarifaUpdateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.TarifaDTO;
 import utn.frc.isi.backend.tpi_Integrador.mappers.TarifaMapper;
 import utn.frc.isi.backend.tpi_Integrador.models.Tarifa;
+import utn.frc.isi.backend.tpi_Integrador.repositories.PaginacionKeyset;
 import utn.frc.isi.backend.tpi_Integrador.repositories.TarifaRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 @Service
 @Transactional
@@ -21,12 +28,57 @@ public class TarifaService {
 
     private static final Logger logger = LoggerFactory.getLogger(TarifaService.class);
 
+    // Campos por los que se puede ordenar el listado (si admiten nulos, esas filas van al final)
+    public static final Set<String> CAMPOS_ORDENABLES = Set.of("id", "vigenciaDesde", "costoKmBase");
+
     private final TarifaRepository tarifaRepository;
     private final TarifaMapper tarifaMapper;
+    private final EntityManager entityManager;
+
+    // Caché de la tarifa activa: cambia pocas veces al año pero se consulta en cada finalización de tramo.
+    // Cada alta/modificación de tarifas genera una versión nueva (y con ella un ETag nuevo) al confirmarse la transacción
+    private final AtomicReference<TarifaActivaVersionada> tarifaActivaCache;
 
-    public TarifaService(TarifaRepository tarifaRepository, TarifaMapper tarifaMapper) {
+    public TarifaService(TarifaRepository tarifaRepository, TarifaMapper tarifaMapper,
+                         EntityManager entityManager) {
         this.tarifaRepository = tarifaRepository;
         this.tarifaMapper = tarifaMapper;
+        this.entityManager = entityManager;
+        // La versión arranca en el instante de inicio para que los ETag no se repitan después de un reinicio
+        this.tarifaActivaCache = new AtomicReference<>(
+                new TarifaActivaVersionada(System.currentTimeMillis(), null, false));
+    }
+
+    /**
+     * Tarifa activa cacheada junto con la versión de la caché en que se leyó
+     * @param tarifa Tarifa activa, null si no hay ninguna
+     * @param cargada false si la versión fue invalidada y todavía no se leyó de la base
+     */
+    public record TarifaActivaVersionada(long version, TarifaDTO tarifa, boolean cargada) {
+
+        public String etag() {
+            return "\"tarifa-" + version + "\"";
+        }
+    }
+
+    /**
+     * Obtener la tarifa activa desde la caché en memoria, leyéndola de la base solo si la versión
+     * vigente todavía no fue cargada
+     * @return Tarifa activa (o null) con la versión y el ETag correspondientes
+     */
+    @Transactional(readOnly = true)
+    public TarifaActivaVersionada obtenerTarifaActivaVersionada() {
+        TarifaActivaVersionada actual = tarifaActivaCache.get();
+        if (actual.cargada()) {
+            return actual;
+        }
+
+        logger.info("Cargando tarifa activa en caché (versión {})", actual.version());
+        TarifaDTO tarifa = tarifaRepository.findByActiva(true).map(tarifaMapper::toDTO).orElse(null);
+        TarifaActivaVersionada cargada = new TarifaActivaVersionada(actual.version(), tarifa, true);
+        // Si una modificación confirmada invalidó la caché mientras se leía, no se pisa la versión nueva
+        tarifaActivaCache.compareAndSet(actual, cargada);
+        return cargada;
     }
 
     /**
@@ -49,9 +101,8 @@ public class TarifaService {
      */
     @Transactional(readOnly = true)
     public Optional<TarifaDTO> obtenerTarifaActivaDTO() {
-        logger.info("Obteniendo tarifa activa del sistema (DTO)");
-        return tarifaRepository.findByActiva(true)
-                .map(tarifaMapper::toDTO);
+        logger.debug("Obteniendo tarifa activa del sistema (DTO)");
+        return Optional.ofNullable(obtenerTarifaActivaVersionada().tarifa());
     }
 
     /**
@@ -67,15 +118,36 @@ public class TarifaService {
     }
 
     /**
-     * Obtener todas las tarifas como DTOs ordenadas por vigencia
-     * @return Lista de DTOs de todas las tarifas
+     * Obtiene una página de tarifas con paginación por cursor (keyset)
+     * @param cursor Cursor devuelto por la página anterior (null para la primera)
+     * @param limite Cantidad de elementos por página
+     * @param ordenarPor Campo de orden (uno de CAMPOS_ORDENABLES)
+     * @param direccion Dirección del orden
+     * @return PaginaDTO con la página de tarifas y el cursor de la siguiente
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<TarifaDTO> obtenerPagina(String cursor, int limite, String ordenarPor, Sort.Direction direccion) {
+        logger.info("Obteniendo página de tarifas (limite={}, orden={} {})", limite, ordenarPor, direccion);
+        PaginaDTO<TarifaDTO> pagina = PaginacionKeyset.paginar(tarifaRepository, CAMPOS_ORDENABLES, List.of(),
+                cursor, limite, ordenarPor, direccion, tarifaMapper::toDTO);
+        logger.info("Se devolvieron {} tarifas", pagina.getItems().size());
+        return pagina;
+    }
+
+    /**
+     * Exporta todas las tarifas entregando cada fila al consumidor a medida que se lee
+     * de la base de datos, sin cargar la tabla completa en memoria
+     * @param ordenarPor Campo de orden (uno de CAMPOS_ORDENABLES)
+     * @param direccion Dirección del orden
+     * @param consumidor Receptor de cada TarifaDTO
      */
     @Transactional(readOnly = true)
-    public List<TarifaDTO> obtenerTodasDTO() {
-        logger.info("Obteniendo todas las tarifas (DTO)");
-        return tarifaRepository.findAllByOrderByVigenciaDesdeDesc().stream()
-                .map(tarifaMapper::toDTO)
-                .toList();
+    public void exportar(String ordenarPor, Sort.Direction direccion, Consumer<? super TarifaDTO> consumidor) {
+        PaginacionKeyset.validarCampo(ordenarPor, CAMPOS_ORDENABLES);
+        long cantidad = PaginacionKeyset.exportar(
+                tarifaRepository.streamAllBy(PaginacionKeyset.ordenar(ordenarPor, direccion)),
+                entityManager, tarifaMapper::toDTO, consumidor);
+        logger.info("Se exportaron {} tarifas", cantidad);
     }
 
     /**
@@ -125,6 +197,7 @@ public class TarifaService {
         }
         
         Tarifa tarifaGuardada = tarifaRepository.save(tarifa);
+        invalidarTarifaActiva();
         logger.info("Tarifa creada exitosamente con ID: {}", tarifaGuardada.getId());
         return tarifaGuardada;
     }
@@ -143,6 +216,7 @@ public class TarifaService {
         desactivarTarifasActivas();
         
         Tarifa tarifaGuardada = tarifaRepository.save(tarifa);
+        invalidarTarifaActiva();
         logger.info("Tarifa creada exitosamente con ID: {}", tarifaGuardada.getId());
         return tarifaMapper.toDTO(tarifaGuardada);
     }
@@ -179,6 +253,7 @@ public class TarifaService {
                     }
                     
                     Tarifa guardada = tarifaRepository.save(tarifaExistente);
+                    invalidarTarifaActiva();
                     logger.info("Tarifa con ID: {} actualizada exitosamente", id);
                     return guardada;
                 });
@@ -204,6 +279,7 @@ public class TarifaService {
                     tarifaMapper.updateEntityFromDTO(tarifaExistente, updateDTO);
                     
                     Tarifa tarifaGuardada = tarifaRepository.save(tarifaExistente);
+                    invalidarTarifaActiva();
                     logger.info("Tarifa con ID: {} actualizada exitosamente", id);
                     return tarifaMapper.toDTO(tarifaGuardada);
                 });
@@ -245,9 +321,24 @@ public class TarifaService {
                     tarifaActiva.setActiva(false);
                     tarifaActiva.setVigenciaHasta(LocalDateTime.now());
                     tarifaRepository.save(tarifaActiva);
+                    invalidarTarifaActiva();
                 });
     }
 
+    /**
+     * Genera una nueva versión de la caché de la tarifa activa. Si hay una transacción en curso
+     * se hace recién al confirmarse, para que ninguna lectura vuelva a cachear los datos anteriores.
+     */
+    private void invalidarTarifaActiva() {
+        Transacciones.alConfirmar(this::nuevaVersionTarifaActiva);
+    }
+
+    private void nuevaVersionTarifaActiva() {
+        TarifaActivaVersionada nueva = tarifaActivaCache.updateAndGet(
+                actual -> new TarifaActivaVersionada(actual.version() + 1, null, false));
+        logger.info("Tarifas modificadas, caché de tarifa activa invalidada (versión {})", nueva.version());
+    }
+
     /**
      * Verificar si existe una tarifa activa en el sistema
      * @return true si existe una tarifa activa
@@ -255,7 +346,7 @@ public class TarifaService {
     @Transactional(readOnly = true)
     public boolean existeTarifaActiva() {
         logger.debug("Verificando si existe tarifa activa");
-        boolean existe = tarifaRepository.existsByActiva(true);
+        boolean existe = obtenerTarifaActivaVersionada().tarifa() != null;
         logger.info("Existe tarifa activa: {}", existe);
         return existe;
     }
@@ -0,0 +1,30 @@
+package utn.frc.isi.backend.tpi_Integrador.services;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Cambios en memoria (índices y cachés) que deben acompañar a una transacción de base de datos
+ */
+final class Transacciones {
+
+    private Transacciones() {
+    }
+
+    /**
+     * Aplica el cambio cuando se confirma la transacción en curso (nunca si se revierte),
+     * o en el momento si no hay ninguna: así ninguna lectura ve en memoria datos que no llegaron a la base.
+     */
+    static void alConfirmar(Runnable cambio) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cambio.run();
+                }
+            });
+        } else {
+            cambio.run();
+        }
+    }
+}
@@ -6,16 +6,16 @@
 -- CAMIONES
 -- ============================================
 -- Camión 1: Disponible, capacidad grande
-INSERT INTO camion (dominio, nombre_transportista, telefono, capacidad_peso, capacidad_volumen, consumo_combustible_por_km, disponible, costo_por_km) 
-VALUES ('AB123CD', 'Transporte López SRL', '+54 351 4567890', 15000.0, 80.0, 0.35, true, 150.0);
+INSERT INTO camion (dominio, nombre_transportista, telefono, capacidad_peso, capacidad_volumen, consumo_combustible_por_km, disponible, costo_por_km, version) 
+VALUES ('AB123CD', 'Transporte López SRL', '+54 351 4567890', 15000.0, 80.0, 0.35, true, 150.0, 0);
 
 -- Camión 2: NO Disponible (en uso), capacidad mediana
-INSERT INTO camion (dominio, nombre_transportista, telefono, capacidad_peso, capacidad_volumen, consumo_combustible_por_km, disponible, costo_por_km) 
-VALUES ('EF456GH', 'Logística del Sur SA', '+54 341 7654321', 10000.0, 60.0, 0.28, false, 120.0);
+INSERT INTO camion (dominio, nombre_transportista, telefono, capacidad_peso, capacidad_volumen, consumo_combustible_por_km, disponible, costo_por_km, version) 
+VALUES ('EF456GH', 'Logística del Sur SA', '+54 341 7654321', 10000.0, 60.0, 0.28, false, 120.0, 0);
 
 -- Camión 3: Disponible, capacidad pequeña
-INSERT INTO camion (dominio, nombre_transportista, telefono, capacidad_peso, capacidad_volumen, consumo_combustible_por_km, disponible, costo_por_km) 
-VALUES ('IJ789KL', 'Expreso Córdoba', '+54 351 9876543', 5000.0, 35.0, 0.22, true, 90.0);
+INSERT INTO camion (dominio, nombre_transportista, telefono, capacidad_peso, capacidad_volumen, consumo_combustible_por_km, disponible, costo_por_km, version) 
+VALUES ('IJ789KL', 'Expreso Córdoba', '+54 351 9876543', 5000.0, 35.0, 0.22, true, 90.0, 0);
 
 -- ============================================
 -- DEPÓSITOS
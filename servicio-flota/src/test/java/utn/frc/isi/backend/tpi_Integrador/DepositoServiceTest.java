@@ -0,0 +1,73 @@
+package utn.frc.isi.backend.tpi_Integrador;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import utn.frc.isi.backend.tpi_Integrador.dtos.DepositoCercanoDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.DepositoCreateDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.DepositoDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.DepositoUpdateDTO;
+import utn.frc.isi.backend.tpi_Integrador.services.DepositoService;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * El índice espacial de depósitos acompaña a la transacción de DepositoService: un alta, modificación o baja
+ * se ve en las búsquedas recién al confirmarse y nunca si se revierte.
+ * Los depósitos se crean lejos de los de data.sql (Siberia) para que las búsquedas sólo los encuentren a ellos.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:depositos")
+class DepositoServiceTest {
+
+    private static final double LATITUD = 60.0;
+    private static final double LONGITUD = 100.0;
+
+    @Autowired private DepositoService depositoService;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    @Test
+    void unAltaRevertidaNoQuedaEnElIndiceYUnaConfirmadaSiRecienAlConfirmar() {
+        transactionTemplate.executeWithoutResult(estado -> {
+            depositoService.crearDeposito(new DepositoCreateDTO("Revertido", "Dirección", LATITUD, LONGITUD));
+            estado.setRollbackOnly();
+        });
+        assertEquals(List.of(), cercanos());
+
+        Long id = transactionTemplate.execute(estado -> {
+            DepositoDTO creado = depositoService.crearDeposito(new DepositoCreateDTO("Confirmado", "Dirección", LATITUD, LONGITUD));
+            assertEquals(List.of(), cercanos(), "el alta se vio en el índice antes del commit");
+            return creado.getId();
+        });
+        assertEquals(List.of(id), cercanos());
+
+        depositoService.eliminarDeposito(id);
+    }
+
+    @Test
+    void unaModificacionOBajaRevertidaNoCambiaElIndice() {
+        Long id = depositoService.crearDeposito(new DepositoCreateDTO("Depósito", "Dirección", LATITUD, LONGITUD)).getId();
+
+        transactionTemplate.executeWithoutResult(estado -> {
+            depositoService.actualizarDeposito(id, new DepositoUpdateDTO("Depósito", "Dirección", -LATITUD, LONGITUD));
+            estado.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(estado -> {
+            depositoService.eliminarDeposito(id);
+            estado.setRollbackOnly();
+        });
+        assertEquals(List.of(id), cercanos());
+
+        depositoService.eliminarDeposito(id);
+        assertTrue(cercanos().isEmpty());
+    }
+
+    private List<Long> cercanos() {
+        return depositoService.buscarDepositosPorUbicacion(LATITUD, LONGITUD, 10).stream()
+                .map(DepositoCercanoDTO::getId)
+                .toList();
+    }
+}
@@ -0,0 +1,135 @@
+package utn.frc.isi.backend.tpi_Integrador;
+
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import utn.frc.isi.backend.tpi_Integrador.dtos.ActualizacionDisponibilidadDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.ResultadoDisponibilidadDTO;
+import utn.frc.isi.backend.tpi_Integrador.models.DisponibilidadAplicada;
+import utn.frc.isi.backend.tpi_Integrador.repositories.CamionRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.DisponibilidadAplicadaRepository;
+import utn.frc.isi.backend.tpi_Integrador.services.CamionService;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Lote de disponibilidad (PATCH /api/camiones/disponibilidad): un reenvío con las mismas claves no se vuelve
+ * a aplicar aunque el camión haya cambiado después, las claves vencidas se depuran y sólo lo puede enviar
+ * la cuenta de servicio (rol SERVICIO). Keycloak se simula con un JwtDecoder que acepta cualquier token.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:disponibilidad-lote")
+class DisponibilidadEnLoteTest {
+
+    @Autowired private CamionService camionService;
+    @Autowired private CamionRepository camionRepository;
+    @Autowired private DisponibilidadAplicadaRepository disponibilidadAplicadaRepository;
+    @Autowired private WebApplicationContext contexto;
+
+    @MockitoBean private JwtDecoder jwtDecoder;
+
+    @Test
+    void reenviarUnLoteNoVuelveAAplicarSusActualizaciones() {
+        Long camionId = camionRepository.findAll().get(0).getId();
+        List<ActualizacionDisponibilidadDTO> lote = List.of(
+                new ActualizacionDisponibilidadDTO(UUID.randomUUID().toString(), camionId, false),
+                new ActualizacionDisponibilidadDTO(UUID.randomUUID().toString(), -1L, true));
+
+        assertEquals(List.of(ResultadoDisponibilidadDTO.APLICADA, ResultadoDisponibilidadDTO.CAMION_NO_ENCONTRADO),
+                     resultados(camionService.actualizarDisponibilidades(lote)));
+        assertFalse(camionRepository.findById(camionId).orElseThrow().isDisponible());
+
+        // Un cambio posterior con otra clave, y después llega de nuevo el primer lote (reintento del emisor)
+        camionService.actualizarDisponibilidades(List.of(
+                new ActualizacionDisponibilidadDTO(UUID.randomUUID().toString(), camionId, true)));
+        assertEquals(ResultadoDisponibilidadDTO.DUPLICADA,
+                     resultados(camionService.actualizarDisponibilidades(lote)).get(0));
+        assertTrue(camionRepository.findById(camionId).orElseThrow().isDisponible());
+    }
+
+    @Test
+    void laMismaClaveRepetidaEnUnLoteSeAplicaUnaVez() {
+        Long camionId = camionRepository.findAll().get(0).getId();
+        String clave = UUID.randomUUID().toString();
+
+        List<ResultadoDisponibilidadDTO> resultados = camionService.actualizarDisponibilidades(List.of(
+                new ActualizacionDisponibilidadDTO(clave, camionId, false),
+                new ActualizacionDisponibilidadDTO(clave, camionId, true)));
+
+        assertEquals(List.of(ResultadoDisponibilidadDTO.APLICADA, ResultadoDisponibilidadDTO.DUPLICADA), resultados(resultados));
+        assertFalse(camionRepository.findById(camionId).orElseThrow().isDisponible());
+    }
+
+    @Test
+    void depurarEliminaSoloLasClavesVencidas() {
+        DisponibilidadAplicada vencida = aplicada(LocalDateTime.now().minusDays(30));
+        DisponibilidadAplicada reciente = aplicada(LocalDateTime.now());
+
+        camionService.depurarDisponibilidadesAplicadas();
+
+        assertFalse(disponibilidadAplicadaRepository.existsById(vencida.getClaveIdempotencia()));
+        assertTrue(disponibilidadAplicadaRepository.existsById(reciente.getClaveIdempotencia()));
+    }
+
+    @Test
+    void elLoteSoloLoPuedeEnviarLaCuentaDeServicio() throws Exception {
+        Long camionId = camionRepository.findAll().get(0).getId();
+        String lote = "[{\"claveIdempotencia\":\"" + UUID.randomUUID() + "\",\"camionId\":" + camionId
+                + ",\"disponible\":true}]";
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(contexto)
+                .addFilters(contexto.getBean("springSecurityFilterChain", Filter.class))
+                .build();
+
+        for (String rol : List.of("USER", "FLOTA_MANAGER", "ADMIN")) {
+            mockMvc.perform(enviarLote(lote, rol)).andExpect(status().isForbidden());
+        }
+        mockMvc.perform(enviarLote(lote, "SERVICIO")).andExpect(status().isOk());
+    }
+
+    private RequestBuilder enviarLote(String lote, String rol) {
+        when(jwtDecoder.decode(rol)).thenReturn(Jwt.withTokenValue(rol)
+                .header("alg", "none")
+                .subject(rol.toLowerCase())
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(60))
+                .claim("realm_access", Map.of("roles", List.of(rol)))
+                .build());
+        return patch("/api/camiones/disponibilidad")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + rol)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(lote);
+    }
+
+    private DisponibilidadAplicada aplicada(LocalDateTime fecha) {
+        DisponibilidadAplicada aplicada = new DisponibilidadAplicada();
+        aplicada.setClaveIdempotencia(UUID.randomUUID().toString());
+        aplicada.setCamionId(1L);
+        aplicada.setDisponible(true);
+        aplicada.setFechaAplicacion(fecha);
+        return disponibilidadAplicadaRepository.save(aplicada);
+    }
+
+    private static List<String> resultados(List<ResultadoDisponibilidadDTO> resultados) {
+        return resultados.stream().map(ResultadoDisponibilidadDTO::getResultado).toList();
+    }
+}
@@ -0,0 +1,121 @@
+package utn.frc.isi.backend.tpi_Integrador;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import utn.frc.isi.backend.tpi_Integrador.dtos.CambioFlotaDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.FeedCambiosDTO;
+import utn.frc.isi.backend.tpi_Integrador.models.CambioFlota;
+import utn.frc.isi.backend.tpi_Integrador.repositories.CambioFlotaRepository;
+import utn.frc.isi.backend.tpi_Integrador.services.FeedCambiosService;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Feed de cambios con transacciones concurrentes: registrar un cambio no bloquea a otras transacciones
+ * hasta su commit, una secuencia que se confirma más tarde que otra posterior no se saltea (el feed se
+ * detiene antes de ella hasta que termina), un cambio revertido no se entrega y el long-poll responde
+ * apenas se confirma un cambio.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:feed-cambios")
+class FeedCambiosServiceTest {
+
+    private static final long ESPERA_MAXIMA_MS = 5_000;
+
+    @Autowired private FeedCambiosService feedCambiosService;
+    @Autowired private CambioFlotaRepository cambioFlotaRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    private final ExecutorService hilos = Executors.newCachedThreadPool();
+    private long desde;
+
+    @BeforeEach
+    void leerUltimaSecuencia() {
+        desde = cambioFlotaRepository.findTopByOrderBySecuenciaDesc().map(CambioFlota::getSecuencia).orElse(0L);
+    }
+
+    @AfterEach
+    void detenerHilos() {
+        hilos.shutdownNow();
+    }
+
+    @Test
+    void unaSecuenciaConfirmadaMasTardeNoSeSalteaYNoBloqueaALasDemas() throws Exception {
+        CountDownLatch registrado = new CountDownLatch(1);
+        CountDownLatch confirmar = new CountDownLatch(1);
+        Future<?> lenta = hilos.submit(() -> transactionTemplate.executeWithoutResult(estado -> {
+            feedCambiosService.registrar(CambioFlota.CAMION, 9001L, CambioFlota.MODIFICACION);
+            registrado.countDown();
+            esperar(confirmar);
+        }));
+        try {
+            assertTrue(registrado.await(ESPERA_MAXIMA_MS, TimeUnit.MILLISECONDS));
+
+            // Con la transacción anterior abierta, otra registra y confirma su cambio sin esperarla
+            hilos.submit(() -> registrar(9002L, false)).get(ESPERA_MAXIMA_MS, TimeUnit.MILLISECONDS);
+
+            FeedCambiosDTO pagina = feedCambiosService.obtenerCambios(desde, 10, 0);
+            assertEquals(List.of(), pagina.getCambios());
+            assertEquals(desde, pagina.getUltimaSecuencia());
+        } finally {
+            confirmar.countDown();
+        }
+        lenta.get(ESPERA_MAXIMA_MS, TimeUnit.MILLISECONDS);
+
+        assertEquals(List.of(9001L, 9002L), entidades(feedCambiosService.obtenerCambios(desde, 10, 0)));
+    }
+
+    @Test
+    void unCambioRevertidoNoSeEntregaNiDetieneAlFeed() {
+        registrar(9011L, true);
+        registrar(9012L, false);
+
+        assertEquals(List.of(9012L), entidades(feedCambiosService.obtenerCambios(desde, 10, 0)));
+    }
+
+    @Test
+    void elLongPollRespondeApenasSeConfirmaUnCambio() throws Exception {
+        Future<FeedCambiosDTO> espera = hilos.submit(() -> feedCambiosService.obtenerCambios(desde, 10, 30));
+        Thread.sleep(200);
+        assertFalse(espera.isDone(), "el long-poll respondió sin cambios nuevos");
+
+        long inicio = System.nanoTime();
+        registrar(9021L, false);
+
+        assertEquals(List.of(9021L), entidades(espera.get(ESPERA_MAXIMA_MS, TimeUnit.MILLISECONDS)));
+        assertTrue(System.nanoTime() - inicio < TimeUnit.SECONDS.toNanos(2));
+    }
+
+    private void registrar(Long camionId, boolean revertir) {
+        transactionTemplate.executeWithoutResult(estado -> {
+            feedCambiosService.registrar(CambioFlota.CAMION, camionId, CambioFlota.MODIFICACION);
+            if (revertir) {
+                estado.setRollbackOnly();
+            }
+        });
+    }
+
+    private static List<Long> entidades(FeedCambiosDTO pagina) {
+        return pagina.getCambios().stream().map(CambioFlotaDTO::getEntidadId).toList();
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            latch.await(ESPERA_MAXIMA_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package utn.frc.isi.backend.tpi_Integrador;
+
+import org.junit.jupiter.api.Test;
+import utn.frc.isi.backend.tpi_Integrador.dtos.CamionDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.CriterioSeleccionCamion;
+import utn.frc.isi.backend.tpi_Integrador.services.IndiceCamionesDisponibles;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Búsquedas del índice de camiones disponibles comparadas con recorrer todos los camiones,
+ * y aislamiento de los DTOs devueltos respecto de los que guarda el índice.
+ * El índice se arma sin base de datos, con guardar.
+ */
+class IndiceCamionesDisponiblesTest {
+
+    private static CamionDTO camion(long id, double peso, double volumen, double costoPorKm) {
+        return new CamionDTO(id, "AA" + id, "Transportista " + id, null, peso, volumen, 0.3, true, costoPorKm);
+    }
+
+    @Test
+    void buscarMejorCoincideConRecorrerTodos() {
+        Random random = new Random(7);
+        IndiceCamionesDisponibles indice = new IndiceCamionesDisponibles(null, null);
+        List<CamionDTO> camiones = new ArrayList<>();
+        for (long id = 1; id <= 400; id++) {
+            CamionDTO camion = camion(id, 1000 + random.nextInt(30) * 1000, 10 + random.nextInt(90), 50 + random.nextInt(200));
+            camiones.add(camion);
+            indice.guardar(camion);
+        }
+
+        for (int consulta = 0; consulta < 200; consulta++) {
+            double peso = random.nextInt(32_000);
+            double volumen = random.nextInt(110);
+            List<CamionDTO> alcanzan = camiones.stream()
+                    .filter(c -> c.getCapacidadPeso() >= peso && c.getCapacidadVolumen() >= volumen)
+                    .toList();
+            Optional<Long> menorCapacidad = alcanzan.stream()
+                    .min(Comparator.comparingDouble(CamionDTO::getCapacidadPeso)
+                            .thenComparingDouble(CamionDTO::getCapacidadVolumen).thenComparing(CamionDTO::getId))
+                    .map(CamionDTO::getId);
+            Optional<Long> menorCosto = alcanzan.stream()
+                    .min(Comparator.comparingDouble(CamionDTO::getCostoPorKm).thenComparing(CamionDTO::getId))
+                    .map(CamionDTO::getId);
+
+            assertEquals(menorCapacidad, indice.buscarMejor(peso, volumen, CriterioSeleccionCamion.MENOR_CAPACIDAD)
+                    .map(CamionDTO::getId));
+            assertEquals(menorCosto, indice.buscarMejor(peso, volumen, CriterioSeleccionCamion.MENOR_COSTO)
+                    .map(CamionDTO::getId));
+            assertEquals(alcanzan.size(), indice.buscar(peso, volumen).size());
+        }
+    }
+
+    @Test
+    void modificarLosCamionesDevueltosOGuardadosNoAlteraElIndice() {
+        IndiceCamionesDisponibles indice = new IndiceCamionesDisponibles(null, null);
+        CamionDTO chico = camion(1, 5000, 20, 100);
+        indice.guardar(chico);
+        indice.guardar(camion(2, 10000, 40, 80));
+
+        // El DTO guardado y el devuelto cambian afuera: el índice conserva su propia copia
+        chico.setCapacidadPeso(50_000);
+        CamionDTO devuelto = indice.buscarMejor(1000, 10, CriterioSeleccionCamion.MENOR_CAPACIDAD).orElseThrow();
+        assertEquals(1L, devuelto.getId());
+        devuelto.setCostoPorKm(1);
+        devuelto.setCapacidadPeso(0);
+
+        assertEquals(2L, indice.buscarMejor(1000, 10, CriterioSeleccionCamion.MENOR_COSTO).orElseThrow().getId());
+        assertEquals(List.of(1L, 2L), indice.buscar(1000, 10).stream().map(CamionDTO::getId).toList());
+
+        indice.eliminar(1L);
+        assertEquals(List.of(2L), indice.buscar(0, 0).stream().map(CamionDTO::getId).toList());
+    }
+}
@@ -0,0 +1,117 @@
+package utn.frc.isi.backend.tpi_Integrador;
+
+import org.junit.jupiter.api.Test;
+import utn.frc.isi.backend.tpi_Integrador.dtos.DepositoCercanoDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.DepositoDTO;
+import utn.frc.isi.backend.tpi_Integrador.services.IndiceEspacialDepositos;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Búsquedas del índice espacial de depósitos, en especial cerca del antimeridiano (±180°)
+ * y con depósitos muy dispersos. El índice se arma sin base de datos, con guardar.
+ */
+class IndiceEspacialDepositosTest {
+
+    private static IndiceEspacialDepositos indice(double tamanioCelda, DepositoDTO... depositos) {
+        IndiceEspacialDepositos indice = new IndiceEspacialDepositos(null, null, tamanioCelda);
+        for (DepositoDTO deposito : depositos) {
+            indice.guardar(deposito);
+        }
+        return indice;
+    }
+
+    private static DepositoDTO deposito(long id, double latitud, double longitud) {
+        return new DepositoDTO(id, "Depósito " + id, "Dirección " + id, latitud, longitud);
+    }
+
+    private static List<Long> ids(List<DepositoCercanoDTO> depositos) {
+        return depositos.stream().map(DepositoCercanoDTO::getId).toList();
+    }
+
+    @Test
+    void buscarEnRadioEncuentraDepositosDelOtroLadoDelAntimeridiano() {
+        IndiceEspacialDepositos indice = indice(0.5,
+                deposito(1, 0.0, -179.9),   // ~22 km cruzando ±180°
+                deposito(2, 0.0, 179.0),    // ~100 km del mismo lado
+                deposito(3, 0.0, -170.0));  // ~1100 km
+
+        assertEquals(List.of(1L), ids(indice.buscarEnRadio(0.0, 179.9, 50)));
+        assertEquals(List.of(1L, 2L), ids(indice.buscarEnRadio(0.0, 179.9, 150)));
+        assertEquals(List.of(1L, 2L), ids(indice.buscarEnRadio(0.0, -179.9, 150)));
+    }
+
+    @Test
+    void buscarMasCercanosDaLaVueltaEnElAntimeridiano() {
+        IndiceEspacialDepositos indice = indice(0.5,
+                deposito(1, 0.0, -179.8),
+                deposito(2, 0.0, 170.0),
+                deposito(3, 10.0, 179.9));
+
+        List<DepositoCercanoDTO> cercanos = indice.buscarMasCercanos(0.0, 179.9, 1);
+
+        assertEquals(List.of(1L), ids(cercanos));
+        assertTrue(cercanos.get(0).getDistanciaKm() < 40);
+    }
+
+    @Test
+    void buscarEnCorredorQueCruzaElAntimeridianoUsaElCaminoCorto() {
+        // Fiji (-17.7, 178.1) → Samoa (-13.8, -171.8): el segmento cruza ±180°
+        IndiceEspacialDepositos indice = indice(0.5,
+                deposito(1, -15.8, -176.0),  // Sobre el segmento, del lado oeste
+                deposito(2, -16.7, 179.9),   // Sobre el segmento, justo antes de 180°
+                deposito(3, -15.8, 4.0),     // Del otro lado del mundo: fuera del corredor
+                deposito(4, -30.0, 179.0));  // Lejos al sur
+
+        List<DepositoCercanoDTO> enCorredor = indice.buscarEnCorredor(-17.7, 178.1, -13.8, -171.8, 100);
+
+        assertEquals(List.of(1L, 2L), enCorredor.stream().map(DepositoCercanoDTO::getId).sorted().toList());
+        enCorredor.forEach(d -> assertTrue(d.getDistanciaKm() < 100, "distancia al segmento: " + d.getDistanciaKm()));
+    }
+
+    @Test
+    void buscarMasCercanosCoincideConRecorrerTodos() {
+        Random random = new Random(42);
+        List<DepositoDTO> depositos = new ArrayList<>();
+        for (long id = 1; id <= 300; id++) {
+            // La mitad agrupada cerca del antimeridiano, el resto repartido en todo el globo
+            double longitud = id % 2 == 0 ? 175 + random.nextDouble() * 10 : random.nextDouble() * 360 - 180;
+            depositos.add(deposito(id, random.nextDouble() * 170 - 85, longitud > 180 ? longitud - 360 : longitud));
+        }
+        IndiceEspacialDepositos indice = indice(2.0, depositos.toArray(DepositoDTO[]::new));
+
+        double[][] puntos = {{0, 180}, {0, -180}, {-45, 179.5}, {60, -179.5}, {89.9, 0}, {-89.9, 90}, {10, 20}};
+        for (double[] punto : puntos) {
+            List<DepositoCercanoDTO> todos = indice.buscarEnRadio(punto[0], punto[1], 25_000);
+            List<Long> esperados = ids(todos.stream()
+                    .sorted(Comparator.comparingDouble(DepositoCercanoDTO::getDistanciaKm))
+                    .limit(7)
+                    .toList());
+            assertEquals(esperados, ids(indice.buscarMasCercanos(punto[0], punto[1], 7)),
+                         "punto " + punto[0] + "," + punto[1]);
+        }
+    }
+
+    @Test
+    void buscarMasCercanosConDepositosDispersosNoRecorreLaGrillaEntera() {
+        // Celdas de 0.01°: la grilla tiene 18.000 x 36.000 celdas y los depósitos están lejos del punto
+        IndiceEspacialDepositos indice = indice(0.01,
+                deposito(1, 45.0, 90.0),
+                deposito(2, -45.0, -90.0),
+                deposito(3, 40.0, 100.0));
+
+        List<DepositoCercanoDTO> cercanos = assertTimeoutPreemptively(Duration.ofSeconds(2),
+                () -> indice.buscarMasCercanos(0.0, 0.0, 2));
+
+        assertEquals(2, cercanos.size());
+        assertTrue(cercanos.get(0).getDistanciaKm() <= cercanos.get(1).getDistanciaKm());
+    }
+}
@@ -0,0 +1,64 @@
+package utn.frc.isi.backend.tpi_Integrador;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import utn.frc.isi.backend.tpi_Integrador.controllers.TarifaController;
+import utn.frc.isi.backend.tpi_Integrador.dtos.TarifaDTO;
+import utn.frc.isi.backend.tpi_Integrador.services.TarifaService;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Revalidación de la tarifa activa con If-None-Match: 304 con el ETag fuerte, el mismo ETag débil,
+ * una lista que lo contiene o *; 200 con el cuerpo si el ETag no coincide.
+ */
+class TarifaActualEtagTest {
+
+    private static final String ETAG = "\"tarifa-7\"";
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void configurar() {
+        TarifaService tarifaService = mock(TarifaService.class);
+        TarifaDTO tarifa = new TarifaDTO();
+        tarifa.setId(1L);
+        tarifa.setActiva(true);
+        when(tarifaService.obtenerTarifaActivaVersionada())
+                .thenReturn(new TarifaService.TarifaActivaVersionada(7, tarifa, true));
+        mockMvc = MockMvcBuilders.standaloneSetup(new TarifaController(tarifaService, new ObjectMapper())).build();
+    }
+
+    @Test
+    void sinIfNoneMatchDevuelveLaTarifaConSuEtag() throws Exception {
+        mockMvc.perform(get("/api/tarifas/actual"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG));
+    }
+
+    @Test
+    void etagFuerteDebilEnListaOAsteriscoDevuelven304() throws Exception {
+        for (String ifNoneMatch : new String[]{ETAG, "W/" + ETAG, "\"tarifa-6\", " + ETAG, "*"}) {
+            mockMvc.perform(get("/api/tarifas/actual").header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                    .andExpect(content().string(""));
+        }
+    }
+
+    @Test
+    void etagDistintoDevuelveLaTarifaNueva() throws Exception {
+        mockMvc.perform(get("/api/tarifas/actual").header(HttpHeaders.IF_NONE_MATCH, "W/\"tarifa-6\", \"tarifa-5\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG));
+    }
+}
@@ -2,8 +2,10 @@ package utn.frc.isi.backend.tpi_Integrador;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling // Envío en segundo plano del outbox de disponibilidad de camiones
 public class TpiIntegradorApplication {
 
 	public static void main(String[] args) {
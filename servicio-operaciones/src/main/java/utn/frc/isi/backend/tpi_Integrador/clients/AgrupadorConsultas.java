@@ -0,0 +1,149 @@
+package utn.frc.isi.backend.tpi_Integrador.clients;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Agrupa consultas individuales concurrentes (una clave por llamada) en una sola consulta por lote.
+ *
+ * Si el grupo no tiene ninguna consulta en curso, la llamada consulta en el momento, sin esperar.
+ * Mientras hay una en curso, las llamadas que llegan se suman a un único lote siguiente, que se consulta
+ * cuando termina la anterior, cuando se llena o, a lo sumo, al cumplirse la ventana: la espera se adapta
+ * a la demora de servicio-flota y una llamada aislada nunca la paga.
+ * Cada consulta por lote se ejecuta en el hilo de la primera llamada del lote, por lo que conserva su contexto
+ * (por ejemplo el token JWT que se propaga a servicio-flota). Los grupos separan llamadas que
+ * no deben compartir consulta, como las de usuarios distintos.
+ *
+ * @param <K> Tipo de la clave consultada (ej: ID de camión)
+ * @param <V> Tipo del resultado
+ */
+@Slf4j
+class AgrupadorConsultas<K, V> {
+
+    private final Duration ventana;
+    private final int maxLote;
+    private final Function<Set<K>, Map<K, V>> consultaPorLote;
+
+    // Estado de cada grupo con consultas en curso o un lote esperando; acceso sincronizado sobre this
+    private final Map<String, Grupo> grupos = new HashMap<>();
+
+    private final class Grupo {
+        private int enCurso; // Consultas por lote ejecutándose
+        private Lote siguiente; // Lote que junta las llamadas mientras hay consultas en curso
+    }
+
+    private final class Lote {
+        private final Map<K, CompletableFuture<Optional<V>>> pedidos = new LinkedHashMap<>();
+        private final CountDownLatch listo = new CountDownLatch(1); // Lleno o terminó la consulta anterior
+    }
+
+    /**
+     * @param ventana Tiempo máximo que un lote espera a que termine la consulta en curso de su grupo
+     * @param maxLote Cantidad máxima de claves por consulta; al alcanzarla se consulta sin esperar
+     * @param consultaPorLote Consulta que resuelve varias claves a la vez; las claves ausentes del mapa se informan vacías
+     */
+    AgrupadorConsultas(Duration ventana, int maxLote, Function<Set<K>, Map<K, V>> consultaPorLote) {
+        this.ventana = ventana;
+        this.maxLote = maxLote;
+        this.consultaPorLote = consultaPorLote;
+    }
+
+    /**
+     * Obtiene el valor de una clave, compartiendo la consulta con otras llamadas del mismo grupo
+     * que lleguen mientras otra consulta del grupo está en curso
+     */
+    Optional<V> obtener(String grupo, K clave) {
+        Lote lote;
+        CompletableFuture<Optional<V>> resultado;
+        boolean abreLote = false;
+        boolean inmediato = false;
+
+        synchronized (this) {
+            Grupo estado = grupos.computeIfAbsent(grupo, g -> new Grupo());
+            if (estado.enCurso == 0 && estado.siguiente == null) {
+                // Nada en curso: se consulta ya, sin abrir un lote para otras llamadas
+                lote = new Lote();
+                estado.enCurso++;
+                abreLote = true;
+                inmediato = true;
+            } else {
+                if (estado.siguiente == null) {
+                    estado.siguiente = new Lote();
+                    abreLote = true;
+                }
+                lote = estado.siguiente;
+            }
+            resultado = lote.pedidos.computeIfAbsent(clave, k -> new CompletableFuture<>());
+            if (!inmediato && lote.pedidos.size() >= maxLote) {
+                // Lote completo: se consulta ya y las llamadas siguientes abren uno nuevo
+                estado.siguiente = null;
+                lote.listo.countDown();
+            }
+        }
+
+        if (abreLote) {
+            if (!inmediato) {
+                esperarTurno(lote);
+                synchronized (this) {
+                    // Si el lote se llenó, el grupo pudo quedar vacío y eliminarse mientras esperaba
+                    Grupo estado = grupos.computeIfAbsent(grupo, g -> new Grupo());
+                    if (estado.siguiente == lote) {
+                        estado.siguiente = null;
+                    }
+                    estado.enCurso++;
+                }
+            }
+            try {
+                resolver(lote);
+            } finally {
+                terminarConsulta(grupo);
+            }
+        }
+        return resultado.join();
+    }
+
+    private void esperarTurno(Lote lote) {
+        try {
+            lote.listo.await(ventana.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Al terminar una consulta, el lote que esperaba (si lo hay) se consulta en el hilo que lo abrió
+     */
+    private synchronized void terminarConsulta(String grupo) {
+        Grupo estado = grupos.get(grupo);
+        estado.enCurso--;
+        if (estado.siguiente != null) {
+            estado.siguiente.listo.countDown();
+        } else if (estado.enCurso == 0) {
+            grupos.remove(grupo);
+        }
+    }
+
+    private void resolver(Lote lote) {
+        // Una vez que el lote dejó de ser el siguiente de su grupo nadie más modifica sus pedidos
+        Map<K, V> valores = Map.of();
+        try {
+            log.debug("Consultando lote de {} claves", lote.pedidos.size());
+            valores = consultaPorLote.apply(lote.pedidos.keySet());
+        } catch (RuntimeException e) {
+            log.error("Error en la consulta por lote de {} claves", lote.pedidos.size(), e);
+        } finally {
+            Map<K, V> resueltos = valores;
+            lote.pedidos.forEach((clave, futuro) -> futuro.complete(Optional.ofNullable(resueltos.get(clave))));
+        }
+    }
+}
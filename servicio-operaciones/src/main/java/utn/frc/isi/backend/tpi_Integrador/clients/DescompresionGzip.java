@@ -0,0 +1,97 @@
+package utn.frc.isi.backend.tpi_Integrador.clients;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Pide respuestas comprimidas (Accept-Encoding: gzip) y las descomprime al leerlas:
+ * el HttpClient del JDK, a diferencia de otros clientes, no lo hace por su cuenta.
+ */
+public class DescompresionGzip implements ClientHttpRequestInterceptor {
+
+    private static final String GZIP = "gzip";
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (!request.getHeaders().containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+            request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, GZIP);
+        }
+        ClientHttpResponse respuesta = execution.execute(request, body);
+        HttpStatusCode estado = respuesta.getStatusCode();
+        if (!GZIP.equalsIgnoreCase(respuesta.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING))
+                || HttpMethod.HEAD.equals(request.getMethod())
+                || estado.isSameCodeAs(HttpStatus.NO_CONTENT) || estado.isSameCodeAs(HttpStatus.NOT_MODIFIED)
+                || respuesta.getHeaders().getContentLength() == 0) {
+            // Sin cuerpo que descomprimir (una respuesta a HEAD informa los headers del GET, incluido el Content-Length)
+            return respuesta;
+        }
+        return new RespuestaDescomprimida(respuesta);
+    }
+
+    /**
+     * Respuesta con el cuerpo descomprimido y sin los headers que describían el cuerpo comprimido
+     */
+    private static final class RespuestaDescomprimida implements ClientHttpResponse {
+
+        private final ClientHttpResponse respuesta;
+        private final HttpHeaders headers;
+        private InputStream cuerpo;
+
+        private RespuestaDescomprimida(ClientHttpResponse respuesta) {
+            this.respuesta = respuesta;
+            this.headers = new HttpHeaders();
+            this.headers.putAll(respuesta.getHeaders());
+            this.headers.remove(HttpHeaders.CONTENT_ENCODING);
+            this.headers.remove(HttpHeaders.CONTENT_LENGTH);
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return respuesta.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return respuesta.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (cuerpo == null) {
+                // GZIPInputStream lee el encabezado al crearse y falla (EOF) con un cuerpo vacío, que puede
+                // llegar igual con Content-Encoding: gzip y sin Content-Length (ej: chunked sin datos)
+                PushbackInputStream original = new PushbackInputStream(respuesta.getBody());
+                int primerByte = original.read();
+                if (primerByte == -1) {
+                    cuerpo = InputStream.nullInputStream();
+                } else {
+                    original.unread(primerByte);
+                    cuerpo = new GZIPInputStream(original);
+                }
+            }
+            return cuerpo;
+        }
+
+        @Override
+        public void close() {
+            respuesta.close();
+        }
+    }
+}
@@ -1,79 +1,236 @@
 package utn.frc.isi.backend.tpi_Integrador.clients;
 
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClient;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.ActualizacionDisponibilidadDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.flota.CamionDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.DepositoDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.FeedCambiosDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.ResultadoDisponibilidadDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.flota.TarifaDTO;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 /**
  * Cliente para comunicarse con el microservicio servicio-flota
  * Obtiene información de Tarifas y Camiones usando RestClient
+ *
+ * La tarifa activa, los camiones y la disponibilidad pasan por el circuit breaker, bulkhead y time limiter de
+ * ResilienciaFlota: si servicio-flota está lento o caído se responde con la última tarifa y los últimos
+ * camiones conocidos en lugar de esperar el timeout de cada llamada.
  */
 @Slf4j
 @Component
 public class FlotaServiceClient {
 
     private final RestClient restClient;
+    private final RestClient restClientFeed; // Timeout de lectura extendido para el long-poll del feed de cambios
+    private final ResilienciaFlota resiliencia;
 
-    public FlotaServiceClient(@Qualifier("flotaRestClient") RestClient restClient) {
+    // Tarifa activa cacheada: se usa sin consultar durante el TTL y luego se revalida con su ETag
+    private final Duration ttlTarifa;
+    private final AtomicReference<TarifaCacheada> tarifaCacheada = new AtomicReference<>();
+
+    // Consultas de camiones por ID: las concurrentes se agrupan en una consulta por lote (null si está deshabilitado)
+    private final int maxIdsPorConsulta;
+    private final AgrupadorConsultas<Long, CamionDTO> agrupadorCamiones;
+
+    // Último dato recibido de cada camión: respaldo cuando servicio-flota no responde
+    private static final int MAX_CAMIONES_CONOCIDOS = 10_000;
+    private final Map<Long, CamionDTO> camionesConocidos = new ConcurrentHashMap<>();
+
+    public FlotaServiceClient(@Qualifier("flotaRestClient") RestClient restClient,
+                              @Qualifier("flotaFeedRestClient") RestClient restClientFeed,
+                              ResilienciaFlota resiliencia,
+                              @Value("${servicio-flota.tarifa.cache.ttl-segundos:30}") long ttlTarifaSegundos,
+                              @Value("${servicio-flota.camiones.lote.ventana-ms:5}") long ventanaLoteMs,
+                              @Value("${servicio-flota.camiones.lote.max-ids:100}") int maxIdsPorConsulta) {
         this.restClient = restClient;
+        this.restClientFeed = restClientFeed;
+        this.resiliencia = resiliencia;
+        this.ttlTarifa = Duration.ofSeconds(ttlTarifaSegundos);
+        this.maxIdsPorConsulta = maxIdsPorConsulta;
+        this.agrupadorCamiones = ventanaLoteMs > 0
+                ? new AgrupadorConsultas<>(Duration.ofMillis(ventanaLoteMs), maxIdsPorConsulta, this::obtenerCamionesPorIds)
+                : null;
+    }
+
+    /**
+     * Tarifa activa recibida de servicio-flota, con el ETag para revalidarla y el instante hasta el que se usa sin consultar
+     */
+    private record TarifaCacheada(TarifaDTO tarifa, String etag, long vigenteHastaNanos) {
+
+        boolean vigente() {
+            return System.nanoTime() - vigenteHastaNanos < 0;
+        }
     }
 
     /**
-     * Obtiene la tarifa activa vigente desde servicio-flota
+     * Obtiene la tarifa activa vigente desde servicio-flota.
+     * La tarifa se cachea localmente: durante servicio-flota.tarifa.cache.ttl-segundos se devuelve sin consultar,
+     * y después se revalida con If-None-Match (304 si no cambió). Si servicio-flota no responde
+     * se sigue usando la última tarifa conocida.
      * @return Optional con TarifaDTO si existe una tarifa activa
      */
     public Optional<TarifaDTO> obtenerTarifaActiva() {
+        TarifaCacheada cacheada = tarifaCacheada.get();
+        if (cacheada != null && cacheada.vigente()) {
+            return Optional.of(cacheada.tarifa());
+        }
+
         String uri = "/api/tarifas/actual";
         try {
             log.debug("Consultando tarifa activa a servicio-flota: {}", uri);
             
-            ResponseEntity<TarifaDTO> response = restClient.get()
+            ResponseEntity<TarifaDTO> response = resiliencia.ejecutar(ResilienciaFlota.TARIFA, () -> restClient.get()
                     .uri(uri)
+                    .headers(headers -> {
+                        if (cacheada != null && cacheada.etag() != null) {
+                            headers.setIfNoneMatch(cacheada.etag());
+                        }
+                    })
                     .retrieve()
-                    .toEntity(TarifaDTO.class);
+                    .toEntity(TarifaDTO.class));
 
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
+            if (response.getStatusCode() == HttpStatus.NOT_MODIFIED && cacheada != null) {
+                log.debug("Tarifa activa sin cambios (ETag {})", cacheada.etag());
+                return Optional.of(cachear(cacheada.tarifa(), cacheada.etag()));
+            } else if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
                 log.info("Tarifa activa obtenida exitosamente: ID {}", response.getBody().getId());
-                return Optional.of(response.getBody());
+                return Optional.of(cachear(response.getBody(), response.getHeaders().getETag()));
             } else {
                 log.error("Error al obtener tarifa activa de servicio-flota. Status: {}", response.getStatusCode());
             }
         } catch (HttpClientErrorException e) {
+            if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
+                // No hay tarifa activa: se descarta la cacheada para no seguir cobrando con una tarifa dada de baja
+                log.warn("servicio-flota no tiene tarifa activa");
+                tarifaCacheada.set(null);
+                return Optional.empty();
+            }
             log.error("Error HTTP al obtener tarifa activa: {} - {}", e.getStatusCode(), e.getResponseBodyAsString(), e);
+        } catch (CallNotPermittedException | BulkheadFullException e) {
+            log.warn("No se consulta la tarifa activa a servicio-flota: {}", e.getMessage());
         } catch (Exception e) {
             log.error("Error inesperado al obtener tarifa activa desde servicio-flota", e);
         }
+
+        if (cacheada != null) {
+            log.warn("Usando la última tarifa activa conocida (ID {})", cacheada.tarifa().getId());
+            return Optional.of(cacheada.tarifa());
+        }
         return Optional.empty();
     }
 
+    private TarifaDTO cachear(TarifaDTO tarifa, String etag) {
+        tarifaCacheada.set(new TarifaCacheada(tarifa, etag, System.nanoTime() + ttlTarifa.toNanos()));
+        return tarifa;
+    }
+
     /**
-     * Obtiene información de un camión específico desde servicio-flota
+     * Obtiene información de un camión específico desde servicio-flota.
+     * Una llamada sin otras en curso consulta en el momento; las que llegan mientras tanto se resuelven
+     * juntas con una sola consulta por lote (ver obtenerCamionesPorIds y AgrupadorConsultas).
+     * Si servicio-flota no responde se devuelven los últimos datos conocidos del camión
      * @param camionId ID del camión a consultar
      * @return Optional con CamionDTO si el camión existe
      */
     public Optional<CamionDTO> obtenerCamionPorId(Long camionId) {
+        if (agrupadorCamiones != null) {
+            return agrupadorCamiones.obtener(grupoDeSeguridad(), camionId);
+        }
+        return obtenerCamionIndividual(camionId);
+    }
+
+    /**
+     * Obtiene varios camiones desde servicio-flota con una consulta por cada bloque de
+     * servicio-flota.camiones.lote.max-ids IDs, en lugar de una por camión
+     * @param camionIds IDs a consultar
+     * @return Mapa ID -> CamionDTO con los camiones encontrados (los inexistentes se omiten; si un bloque falla
+     *         se usan los últimos datos conocidos de sus camiones)
+     */
+    public Map<Long, CamionDTO> obtenerCamionesPorIds(Collection<Long> camionIds) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(camionIds));
+        Map<Long, CamionDTO> camiones = new HashMap<>();
+        for (int desde = 0; desde < ids.size(); desde += maxIdsPorConsulta) {
+            List<Long> bloque = ids.subList(desde, Math.min(desde + maxIdsPorConsulta, ids.size()));
+            String idsParametro = bloque.stream().map(String::valueOf).collect(Collectors.joining(","));
+            try {
+                log.debug("Consultando {} camiones a servicio-flota", bloque.size());
+
+                ResponseEntity<List<CamionDTO>> response = resiliencia.ejecutar(ResilienciaFlota.CAMION, () -> restClient.get()
+                        .uri("/api/camiones?ids={ids}", idsParametro)
+                        .retrieve()
+                        .toEntity(new ParameterizedTypeReference<List<CamionDTO>>() {}));
+
+                if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
+                    response.getBody().forEach(camion -> camiones.put(camion.getId(), recordar(camion)));
+                    continue;
+                }
+                log.error("Error al obtener camiones por lote de servicio-flota. Status: {}", response.getStatusCode());
+            } catch (HttpClientErrorException e) {
+                log.error("Error HTTP al obtener camiones por lote: {} - {}", e.getStatusCode(), e.getResponseBodyAsString(), e);
+            } catch (CallNotPermittedException | BulkheadFullException e) {
+                log.warn("No se consultan {} camiones a servicio-flota: {}", bloque.size(), e.getMessage());
+            } catch (Exception e) {
+                log.error("Error inesperado al obtener camiones por lote desde servicio-flota", e);
+            }
+            bloque.forEach(id -> ultimoConocido(id).ifPresent(camion -> camiones.put(id, camion)));
+        }
+        log.info("Se obtuvieron {} de {} camiones pedidos a servicio-flota", camiones.size(), ids.size());
+        return camiones;
+    }
+
+    /**
+     * Llamadas con tokens distintos no comparten consulta por lote
+     */
+    private static String grupoDeSeguridad() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication instanceof JwtAuthenticationToken jwtAuth) {
+            return jwtAuth.getToken().getTokenValue();
+        }
+        return "";
+    }
+
+    private Optional<CamionDTO> obtenerCamionIndividual(Long camionId) {
         String uri = "/api/camiones/{camionId}";
         try {
             log.debug("Consultando camión {} a servicio-flota", camionId);
             
-            ResponseEntity<CamionDTO> response = restClient.get()
+            ResponseEntity<CamionDTO> response = resiliencia.ejecutar(ResilienciaFlota.CAMION, () -> restClient.get()
                     .uri(uri, camionId)
                     .retrieve()
-                    .toEntity(CamionDTO.class);
+                    .toEntity(CamionDTO.class));
 
             if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
                 log.info("Camión {} obtenido exitosamente: {}", camionId, response.getBody().getDominio());
-                return Optional.of(response.getBody());
+                return Optional.of(recordar(response.getBody()));
             } else if (response.getStatusCode() == HttpStatus.NOT_FOUND) {
                 log.warn("Camión con ID {} no encontrado en servicio-flota.", camionId);
+                return Optional.empty();
             } else {
                 log.error("Error al obtener camión {} de servicio-flota. Status: {}", camionId, response.getStatusCode());
             }
@@ -82,49 +239,120 @@ public class FlotaServiceClient {
                 log.error("Error HTTP al obtener camión {}: {} - {}", camionId, e.getStatusCode(), e.getResponseBodyAsString(), e);
             } else {
                 log.warn("Camión con ID {} no encontrado en servicio-flota (404).", camionId);
+                camionesConocidos.remove(camionId);
+                return Optional.empty();
             }
+        } catch (CallNotPermittedException | BulkheadFullException e) {
+            log.warn("No se consulta el camión {} a servicio-flota: {}", camionId, e.getMessage());
         } catch (Exception e) {
             log.error("Error inesperado al obtener camión {} desde servicio-flota", camionId, e);
         }
-        return Optional.empty();
+        return ultimoConocido(camionId);
+    }
+
+    private CamionDTO recordar(CamionDTO camion) {
+        if (camionesConocidos.size() < MAX_CAMIONES_CONOCIDOS || camionesConocidos.containsKey(camion.getId())) {
+            camionesConocidos.put(camion.getId(), camion);
+        }
+        return camion;
+    }
+
+    private Optional<CamionDTO> ultimoConocido(Long camionId) {
+        CamionDTO camion = camionesConocidos.get(camionId);
+        if (camion != null) {
+            log.warn("Usando los últimos datos conocidos del camión {} ({})", camionId, camion.getDominio());
+        }
+        return Optional.ofNullable(camion);
     }
     
     /**
-     * Actualiza la disponibilidad de un camión en servicio-flota
-     * Se llama cuando un tramo finaliza para liberar el camión
-     * 
-     * @param camionId ID del camión a actualizar
-     * @param disponible true para marcar como disponible, false para ocupado
-     * @throws RuntimeException si la actualización falla
+     * Obtiene los depósitos cercanos al corredor origen-destino de una ruta
+     * (índice espacial de servicio-flota). Se usa para generar rutas tentativas con paradas en depósitos
+     * @param anchoKm Distancia máxima de cada depósito al segmento origen-destino
+     * @return Lista de DepositoDTO, vacía si servicio-flota no responde
      */
-    public void actualizarDisponibilidadCamion(Long camionId, boolean disponible) {
-        String uri = "/api/camiones/{camionId}/disponibilidad";
+    public List<DepositoDTO> obtenerDepositosEnCorredor(double latitudOrigen, double longitudOrigen,
+                                                        double latitudDestino, double longitudDestino,
+                                                        double anchoKm) {
+        String uri = "/api/depositos/corredor?latitudOrigen={latO}&longitudOrigen={lngO}"
+                + "&latitudDestino={latD}&longitudDestino={lngD}&anchoKm={ancho}";
         try {
-            log.debug("Actualizando disponibilidad del camión {} a: {}", camionId, disponible);
-            
-            // Crear el body con la nueva disponibilidad
-            var requestBody = new java.util.HashMap<String, Boolean>();
-            requestBody.put("disponible", disponible);
-            
-            ResponseEntity<Void> response = restClient.patch()
-                    .uri(uri, camionId)
-                    .body(requestBody)
+            log.debug("Consultando depósitos a {} km del corredor a servicio-flota", anchoKm);
+
+            ResponseEntity<List<DepositoDTO>> response = restClient.get()
+                    .uri(uri, latitudOrigen, longitudOrigen, latitudDestino, longitudDestino, anchoKm)
                     .retrieve()
-                    .toBodilessEntity();
+                    .toEntity(new ParameterizedTypeReference<List<DepositoDTO>>() {});
 
-            if (response.getStatusCode().is2xxSuccessful()) {
-                log.info("Disponibilidad del camión {} actualizada exitosamente a: {}", camionId, disponible);
+            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
+                log.info("Se obtuvieron {} depósitos desde servicio-flota", response.getBody().size());
+                return response.getBody();
             } else {
-                log.error("Error al actualizar disponibilidad del camión {}. Status: {}", camionId, response.getStatusCode());
-                throw new RuntimeException("No se pudo actualizar disponibilidad del camión " + camionId);
+                log.error("Error al obtener depósitos de servicio-flota. Status: {}", response.getStatusCode());
             }
         } catch (HttpClientErrorException e) {
-            log.error("Error HTTP al actualizar disponibilidad del camión {}: {} - {}", 
-                        camionId, e.getStatusCode(), e.getResponseBodyAsString(), e);
-            throw new RuntimeException("Error al actualizar disponibilidad del camión " + camionId + ": " + e.getMessage(), e);
+            log.error("Error HTTP al obtener depósitos: {} - {}", e.getStatusCode(), e.getResponseBodyAsString(), e);
         } catch (Exception e) {
-            log.error("Error inesperado al actualizar disponibilidad del camión {} en servicio-flota", camionId, e);
-            throw new RuntimeException("Error inesperado al actualizar disponibilidad del camión " + camionId, e);
+            log.error("Error inesperado al obtener depósitos desde servicio-flota", e);
+        }
+        return Collections.emptyList();
+    }
+    
+    /**
+     * Envía un lote de actualizaciones de disponibilidad a servicio-flota (PATCH /api/camiones/disponibilidad).
+     * Cada actualización lleva su clave de idempotencia, por lo que el lote se puede reenviar sin riesgo.
+     * Usado por el outbox de disponibilidad, fuera de cualquier petición de usuario.
+     * Pasa por las protecciones de ResilienciaFlota.DISPONIBILIDAD: con el circuito abierto o el bulkhead lleno
+     * el lote no se envía y el outbox lo reprograma sin contarlo como intento.
+     *
+     * @param actualizaciones Actualizaciones a enviar, en orden
+     * @param token Token de servicio (client_credentials) con el que se autentica el envío
+     * @return Resultado informado por servicio-flota para cada actualización
+     * @throws CallNotPermittedException si el circuito de la operación está abierto
+     * @throws BulkheadFullException si se alcanzó el límite de envíos simultáneos
+     * @throws RuntimeException si servicio-flota no responde o rechaza el lote
+     */
+    public List<ResultadoDisponibilidadDTO> enviarDisponibilidades(List<ActualizacionDisponibilidadDTO> actualizaciones,
+                                                                   String token) {
+        log.debug("Enviando lote de {} actualizaciones de disponibilidad a servicio-flota", actualizaciones.size());
+        List<ResultadoDisponibilidadDTO> resultados = resiliencia.ejecutar(ResilienciaFlota.DISPONIBILIDAD, () -> restClient.patch()
+                .uri("/api/camiones/disponibilidad")
+                .headers(headers -> {
+                    if (token != null) {
+                        headers.setBearerAuth(token);
+                    }
+                })
+                .body(actualizaciones)
+                .retrieve()
+                .body(new ParameterizedTypeReference<List<ResultadoDisponibilidadDTO>>() {}));
+        return resultados != null ? resultados : List.of();
+    }
+
+    /**
+     * Lee una página del feed de cambios de camiones y depósitos de servicio-flota (GET /api/cambios).
+     * Si no hay cambios posteriores a 'desde', servicio-flota retiene la respuesta hasta esperaSegundos (long-poll).
+     *
+     * @param desde Última secuencia ya aplicada
+     * @param limite Cantidad máxima de cambios a recibir
+     * @param esperaSegundos Segundos que servicio-flota espera por cambios nuevos antes de responder vacío
+     * @param token Token JWT con el que se autentica la consulta (null para usar el del contexto de seguridad)
+     * @return Página del feed
+     * @throws RuntimeException si servicio-flota no responde o rechaza la consulta
+     */
+    public FeedCambiosDTO obtenerCambios(long desde, int limite, int esperaSegundos, String token) {
+        log.debug("Consultando cambios de servicio-flota desde la secuencia {}", desde);
+        FeedCambiosDTO feed = restClientFeed.get()
+                .uri("/api/cambios?desde={desde}&limite={limite}&esperaSegundos={espera}", desde, limite, esperaSegundos)
+                .headers(headers -> {
+                    if (token != null) {
+                        headers.setBearerAuth(token);
+                    }
+                })
+                .retrieve()
+                .body(FeedCambiosDTO.class);
+        if (feed == null) {
+            throw new RuntimeException("servicio-flota respondió el feed de cambios sin contenido");
         }
+        return feed;
     }
 }
@@ -1,6 +1,8 @@
 package utn.frc.isi.backend.tpi_Integrador.clients;
 
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
@@ -10,21 +12,52 @@ import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClient;
 import utn.frc.isi.backend.tpi_Integrador.dtos.googlemaps.Element;
 import utn.frc.isi.backend.tpi_Integrador.dtos.googlemaps.GoogleDistanceMatrixResponse;
+import utn.frc.isi.backend.tpi_Integrador.dtos.googlemaps.Row;
+import utn.frc.isi.backend.tpi_Integrador.trazas.RegistroTrazas;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 @Slf4j
 @Component
 public class GoogleMapsClient {
 
+    // Límite de la API Distance Matrix por solicitud (orígenes o destinos); con un solo punto del otro
+    // lado nunca se llega al máximo de 100 elementos
+    private static final int MAX_PUNTOS_POR_LADO = 25;
 
     private final RestClient restClient;
     private final String apiKey;
+    private final ExecutorService ejecutorBloques;
+    private final Duration plazoMatriz;
+    private final RegistroTrazas registroTrazas;
 
     public GoogleMapsClient(@Qualifier("googleMapsRestClient") RestClient restClient,
-                           @Value("${google.maps.api-key}") String apiKey) {
+                           @Value("${google.maps.api-key}") String apiKey,
+                           @Value("${google.maps.matriz.consultas-paralelas:4}") int consultasParalelas,
+                           @Value("${google.maps.matriz.plazo:10s}") Duration plazoMatriz,
+                           RegistroTrazas registroTrazas) {
         this.restClient = restClient;
         this.apiKey = apiKey;
+        this.ejecutorBloques = Executors.newFixedThreadPool(consultasParalelas,
+                Thread.ofPlatform().name("google-maps-matriz-", 1).daemon().factory());
+        this.plazoMatriz = plazoMatriz;
+        this.registroTrazas = registroTrazas;
     }
 
     public Optional<Element> getDistance(String origen, String destino) {
@@ -78,4 +111,195 @@ public class GoogleMapsClient {
 
         return Optional.empty();
     }
+
+    /**
+     * Obtiene distancia y duración para varios pares origen/destino alineados por índice.
+     * Distance Matrix cobra cada elemento (orígenes × destinos) de cada solicitud, así que no se pide
+     * la matriz completa de los puntos: los pares se agrupan por origen (o por destino, si hay menos
+     * destinos distintos) y cada solicitud es un punto con hasta 25 del otro lado. Se pide exactamente
+     * un elemento por par distinto. Las solicitudes se consultan en paralelo (a lo sumo
+     * google.maps.matriz.consultas-paralelas a la vez); las que no responden dentro de
+     * google.maps.matriz.plazo se cancelan y sus pares quedan vacíos. El plazo vale también cuando
+     * hay una sola solicitud.
+     *
+     * @param origenes Lista de puntos de origen ("lat,lng")
+     * @param destinos Lista de puntos de destino ("lat,lng"), alineada por índice con origenes
+     * @return Lista alineada con los pares de entrada; vacío en los pares que no se pudieron calcular
+     */
+    public List<Optional<Element>> getDistancias(List<String> origenes, List<String> destinos) {
+        if (origenes.size() != destinos.size()) {
+            throw new IllegalArgumentException("Las listas de orígenes y destinos deben tener el mismo tamaño");
+        }
+        List<Par> pares = new ArrayList<>(origenes.size());
+        for (int i = 0; i < origenes.size(); i++) {
+            pares.add(new Par(origenes.get(i), destinos.get(i)));
+        }
+
+        Map<Par, Element> respuestas = new HashMap<>();
+        resolverBloques(agrupar(pares), respuestas);
+        return pares.stream().map(par -> Optional.ofNullable(respuestas.get(par))).toList();
+    }
+
+    /**
+     * Arma las solicitudes: un punto fijo de un lado y sus pares del otro (hasta MAX_PUNTOS_POR_LADO)
+     */
+    private static List<Bloque> agrupar(List<Par> pares) {
+        Set<String> origenesDistintos = new HashSet<>();
+        Set<String> destinosDistintos = new HashSet<>();
+        pares.forEach(par -> {
+            origenesDistintos.add(par.origen());
+            destinosDistintos.add(par.destino());
+        });
+        boolean porOrigen = origenesDistintos.size() <= destinosDistintos.size();
+
+        Map<String, Set<String>> grupos = new LinkedHashMap<>();
+        for (Par par : pares) {
+            String fijo = porOrigen ? par.origen() : par.destino();
+            String otro = porOrigen ? par.destino() : par.origen();
+            grupos.computeIfAbsent(fijo, k -> new LinkedHashSet<>()).add(otro);
+        }
+
+        List<Bloque> bloques = new ArrayList<>();
+        grupos.forEach((fijo, otros) -> {
+            List<String> lista = new ArrayList<>(otros);
+            for (int i = 0; i < lista.size(); i += MAX_PUNTOS_POR_LADO) {
+                List<String> parte = lista.subList(i, Math.min(i + MAX_PUNTOS_POR_LADO, lista.size()));
+                bloques.add(porOrigen ? new Bloque(List.of(fijo), parte) : new Bloque(parte, List.of(fijo)));
+            }
+        });
+        return bloques;
+    }
+
+    /**
+     * Consulta los bloques en el ejecutor (en paralelo si hay más de uno), con el plazo para todos,
+     * y deja los elementos OK en respuestas
+     */
+    private void resolverBloques(List<Bloque> bloques, Map<Par, Element> respuestas) {
+        if (bloques.isEmpty()) {
+            return;
+        }
+
+        // Aun con un solo bloque (el caso habitual) se pasa por el ejecutor: el hilo de la request no puede
+        // cortar una lectura bloqueada, pero sí dejar de esperarla al vencer el plazo
+        Map<String, String> contextoLog = MDC.getCopyOfContextMap();
+        List<Callable<List<Row>>> consultas = bloques.stream()
+                .map(bloque -> registroTrazas.propagar(() -> conContextoLog(contextoLog, () -> consultarBloque(bloque))))
+                .toList();
+        try {
+            // invokeAll espera a lo sumo el plazo y cancela (interrumpe) las consultas que no terminaron
+            List<Future<List<Row>>> resultados = ejecutorBloques.invokeAll(consultas, plazoMatriz.toNanos(), TimeUnit.NANOSECONDS);
+            int sinRespuesta = 0;
+            for (int k = 0; k < bloques.size(); k++) {
+                Future<List<Row>> resultado = resultados.get(k);
+                if (resultado.isCancelled()) {
+                    sinRespuesta++;
+                    continue;
+                }
+                copiarBloque(respuestas, bloques.get(k), resultado.get());
+            }
+            if (sinRespuesta > 0) {
+                log.warn("Plazo de {} ms agotado: {} de {} bloques de distancias quedaron sin respuesta",
+                         plazoMatriz.toMillis(), sinRespuesta, bloques.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Consulta de distancias interrumpida");
+        } catch (ExecutionException e) {
+            // consultarBloque no lanza excepciones: sólo por un error inesperado del ejecutor
+            log.error("Error inesperado al consultar las distancias: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Par origen/destino pedido
+     */
+    private record Par(String origen, String destino) {
+    }
+
+    /**
+     * Solicitud a la API: se piden todos sus elementos (un lado tiene un solo punto)
+     */
+    private record Bloque(List<String> origenes, List<String> destinos) {
+    }
+
+    /**
+     * Realiza una única llamada a la API para un bloque
+     * @return filas de la respuesta, vacío si la llamada falló
+     */
+    private List<Row> consultarBloque(Bloque bloque) {
+        String uri = "/maps/api/distancematrix/json?origins={origenes}&destinations={destinos}&units=metric&key={apiKey}";
+
+        try {
+            ResponseEntity<GoogleDistanceMatrixResponse> response = restClient
+                    .get()
+                    .uri(uri, String.join("|", bloque.origenes()), String.join("|", bloque.destinos()), apiKey)
+                    .retrieve()
+                    .toEntity(GoogleDistanceMatrixResponse.class);
+
+            GoogleDistanceMatrixResponse body = response.getBody();
+            if (response.getStatusCode() != HttpStatus.OK || body == null
+                    || !"OK".equals(body.getStatus()) || body.getRows() == null) {
+                log.warn("Respuesta de API inválida para bloque de {}x{} puntos: status={}",
+                          bloque.origenes().size(), bloque.destinos().size(),
+                          body != null ? body.getStatus() : response.getStatusCode());
+                return List.of();
+            }
+            log.info("Distancias obtenidas exitosamente: {} orígenes x {} destinos",
+                     bloque.origenes().size(), bloque.destinos().size());
+            return body.getRows();
+
+        } catch (HttpClientErrorException e) {
+            log.error("Error HTTP al llamar a Google Maps API (matriz): {} - {}",
+                       e.getStatusCode(), e.getMessage());
+        } catch (Exception e) {
+            if (Thread.currentThread().isInterrupted()) {
+                // Cancelada por el plazo (ya informado por resolverBloques)
+                log.debug("Consulta de bloque de {}x{} puntos cancelada", bloque.origenes().size(), bloque.destinos().size());
+            } else {
+                log.error("Error inesperado al llamar a Google Maps API (matriz): {}", e.getMessage(), e);
+            }
+        }
+        return List.of();
+    }
+
+    /**
+     * Copia los elementos OK de la respuesta de un bloque en las respuestas por par.
+     * Se hace en el hilo que arma el resultado: un bloque cancelado por el plazo nunca lo modifica.
+     */
+    private void copiarBloque(Map<Par, Element> respuestas, Bloque bloque, List<Row> rows) {
+        for (int i = 0; i < rows.size() && i < bloque.origenes().size(); i++) {
+            List<Element> elements = rows.get(i).getElements();
+            if (elements == null) {
+                continue;
+            }
+            for (int j = 0; j < elements.size() && j < bloque.destinos().size(); j++) {
+                Element element = elements.get(j);
+                if (element != null && "OK".equals(element.getStatus())) {
+                    respuestas.put(new Par(bloque.origenes().get(i), bloque.destinos().get(j)), element);
+                } else {
+                    log.warn("Estado del elemento no OK: {} para ruta {} -> {}",
+                              element != null ? element.getStatus() : null, bloque.origenes().get(i), bloque.destinos().get(j));
+                }
+            }
+        }
+    }
+
+    /**
+     * Ejecuta la consulta con el MDC (X-Request-Id) de la request que la originó
+     */
+    private static <T> T conContextoLog(Map<String, String> contextoLog, Supplier<T> consulta) {
+        if (contextoLog != null) {
+            MDC.setContextMap(contextoLog);
+        }
+        try {
+            return consulta.get();
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutorBloques.shutdownNow();
+    }
 }
@@ -0,0 +1,125 @@
+package utn.frc.isi.backend.tpi_Integrador.clients;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Límite de conexiones simultáneas de un RestClient hacia un servicio, con sus métricas.
+ *
+ * El HttpClient del JDK reutiliza las conexiones (keep-alive) pero no limita cuántas abre ni publica su estado:
+ * este interceptor reserva una conexión por request hasta que se cierra la respuesta (en HTTP/1.1 cada request
+ * en curso ocupa una conexión). Si no hay una libre dentro de la espera configurada la request falla enseguida
+ * en lugar de encolarse sin límite detrás de un servicio colgado.
+ *
+ * Métrica clientes.http.conexiones{cliente, estado}: en-uso, pendientes (esperando una conexión) y libres.
+ */
+public class PoolConexionesHttp implements ClientHttpRequestInterceptor {
+
+    private final String cliente;
+    private final int maxConexiones;
+    private final long esperaNanos;
+    private final Semaphore conexiones;
+    private final AtomicInteger pendientes = new AtomicInteger();
+
+    public PoolConexionesHttp(String cliente, int maxConexiones, Duration espera, MeterRegistry meterRegistry) {
+        this.cliente = cliente;
+        this.maxConexiones = maxConexiones;
+        this.esperaNanos = espera.toNanos();
+        this.conexiones = new Semaphore(maxConexiones, true);
+        registrar(meterRegistry, "en-uso", () -> maxConexiones - conexiones.availablePermits());
+        registrar(meterRegistry, "pendientes", pendientes::get);
+        registrar(meterRegistry, "libres", conexiones::availablePermits);
+    }
+
+    private void registrar(MeterRegistry meterRegistry, String estado, Supplier<Number> valor) {
+        Gauge.builder("clientes.http.conexiones", valor)
+                .description("Conexiones de los clientes HTTP salientes")
+                .tag("cliente", cliente)
+                .tag("estado", estado)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        pendientes.incrementAndGet();
+        try {
+            if (!conexiones.tryAcquire(esperaNanos, TimeUnit.NANOSECONDS)) {
+                throw new IOException("Sin conexiones libres hacia " + cliente + " (" + maxConexiones + " en uso)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrumpido esperando una conexión hacia " + cliente, e);
+        } finally {
+            pendientes.decrementAndGet();
+        }
+
+        try {
+            return new RespuestaConLiberacion(execution.execute(request, body), conexiones);
+        } catch (IOException | RuntimeException e) {
+            conexiones.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Respuesta que devuelve la conexión al cerrarse (una sola vez), cuando ya se leyó el cuerpo
+     */
+    private static final class RespuestaConLiberacion implements ClientHttpResponse {
+
+        private final ClientHttpResponse respuesta;
+        private final Semaphore conexiones;
+        private final AtomicBoolean liberada = new AtomicBoolean();
+
+        private RespuestaConLiberacion(ClientHttpResponse respuesta, Semaphore conexiones) {
+            this.respuesta = respuesta;
+            this.conexiones = conexiones;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return respuesta.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return respuesta.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return respuesta.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return respuesta.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                respuesta.close();
+            } finally {
+                if (liberada.compareAndSet(false, true)) {
+                    conexiones.release();
+                }
+            }
+        }
+    }
+}
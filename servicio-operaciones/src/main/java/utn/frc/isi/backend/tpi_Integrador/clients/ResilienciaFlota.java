@@ -0,0 +1,169 @@
+package utn.frc.isi.backend.tpi_Integrador.clients;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedTimeLimiterMetrics;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import utn.frc.isi.backend.tpi_Integrador.config.ResilienciaFlotaProperties;
+import utn.frc.isi.backend.tpi_Integrador.trazas.RegistroTrazas;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker, bulkhead y time limiter (Resilience4j) de las operaciones de FlotaServiceClient.
+ *
+ * Cada operación tiene los suyos (servicio-flota.resiliencia.*), así una operación lenta no agota ni abre
+ * el circuito de las demás:
+ * - Time limiter: la llamada corre en un hilo virtual y se cancela (interrumpe) si no responde dentro del plazo
+ * - Bulkhead: limita las llamadas simultáneas; las que exceden el límite se rechazan sin esperar
+ * - Circuit breaker: con demasiadas fallas o timeouts deja de llamar a servicio-flota por un tiempo, y las
+ *   llamadas fallan enseguida (CallNotPermittedException) para que el cliente use sus datos cacheados
+ *
+ * Los errores 4xx (ej: camión inexistente) no cuentan como fallas de servicio-flota.
+ * Estado y contadores en /actuator/metrics: resilience4j.circuitbreaker.*, resilience4j.bulkhead.*,
+ * resilience4j.timelimiter.* (tag name = flota-tarifa, flota-camion o flota-disponibilidad).
+ */
+@Slf4j
+@Component
+public class ResilienciaFlota {
+
+    public static final String TARIFA = "flota-tarifa";
+    public static final String CAMION = "flota-camion";
+    public static final String DISPONIBILIDAD = "flota-disponibilidad";
+
+    private record Protecciones(CircuitBreaker circuitBreaker, Bulkhead bulkhead, TimeLimiter timeLimiter) {
+    }
+
+    private final boolean habilitada;
+    private final RegistroTrazas registroTrazas;
+    private final Map<String, Protecciones> protecciones;
+    private final ExecutorService ejecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("flota-llamada-", 0).factory());
+
+    public ResilienciaFlota(ResilienciaFlotaProperties properties,
+                            RegistroTrazas registroTrazas,
+                            MeterRegistry meterRegistry) {
+        this.habilitada = properties.isHabilitada();
+        this.registroTrazas = registroTrazas;
+
+        CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.ofDefaults();
+        BulkheadRegistry bulkheads = BulkheadRegistry.ofDefaults();
+        TimeLimiterRegistry timeLimiters = TimeLimiterRegistry.ofDefaults();
+        this.protecciones = Map.of(
+                TARIFA, crear(TARIFA, properties.getTarifa(), circuitBreakers, bulkheads, timeLimiters),
+                CAMION, crear(CAMION, properties.getCamion(), circuitBreakers, bulkheads, timeLimiters),
+                DISPONIBILIDAD, crear(DISPONIBILIDAD, properties.getDisponibilidad(), circuitBreakers, bulkheads, timeLimiters));
+
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+        TaggedTimeLimiterMetrics.ofTimeLimiterRegistry(timeLimiters).bindTo(meterRegistry);
+    }
+
+    private static Protecciones crear(String nombre, ResilienciaFlotaProperties.Operacion config,
+                                      CircuitBreakerRegistry circuitBreakers, BulkheadRegistry bulkheads,
+                                      TimeLimiterRegistry timeLimiters) {
+        CircuitBreaker circuitBreaker = circuitBreakers.circuitBreaker(nombre, CircuitBreakerConfig.custom()
+                .slidingWindowSize(config.getVentana())
+                .minimumNumberOfCalls(config.getMinimoLlamadas())
+                .failureRateThreshold(config.getUmbralFallas())
+                .waitDurationInOpenState(config.getEsperaAbierto())
+                .permittedNumberOfCallsInHalfOpenState(config.getLlamadasSemiAbierto())
+                // Un bulkhead lleno es saturación propia, no una falla de servicio-flota
+                .ignoreExceptions(HttpClientErrorException.class, BulkheadFullException.class)
+                .build());
+        circuitBreaker.getEventPublisher().onStateTransition(evento ->
+                log.warn("Circuit breaker {}: {}", nombre, evento.getStateTransition()));
+
+        Bulkhead bulkhead = bulkheads.bulkhead(nombre, BulkheadConfig.custom()
+                .maxConcurrentCalls(config.getMaxConcurrentes())
+                .maxWaitDuration(config.getEsperaLugar())
+                .build());
+
+        TimeLimiter timeLimiter = timeLimiters.timeLimiter(nombre, TimeLimiterConfig.custom()
+                .timeoutDuration(config.getPlazo())
+                .cancelRunningFuture(true)
+                .build());
+
+        return new Protecciones(circuitBreaker, bulkhead, timeLimiter);
+    }
+
+    /**
+     * Ejecuta una llamada a servicio-flota con las protecciones de la operación
+     *
+     * @param operacion TARIFA, CAMION o DISPONIBILIDAD
+     * @param llamada Llamada HTTP (bloqueante) a servicio-flota
+     * @return Resultado de la llamada
+     * @throws io.github.resilience4j.circuitbreaker.CallNotPermittedException si el circuito está abierto
+     * @throws BulkheadFullException si se alcanzó el límite de llamadas simultáneas
+     * @throws ResourceAccessException si servicio-flota no respondió dentro del plazo
+     */
+    public <T> T ejecutar(String operacion, Supplier<T> llamada) {
+        if (!habilitada) {
+            return llamada.get();
+        }
+        Protecciones p = protecciones.get(operacion);
+        if (p == null) {
+            throw new IllegalArgumentException("Operación de servicio-flota desconocida: " + operacion);
+        }
+        Callable<T> tarea = enContexto(llamada);
+        try {
+            return p.circuitBreaker().executeCallable(() -> p.bulkhead().executeCallable(() ->
+                    p.timeLimiter().executeFutureSupplier(() -> ejecutor.submit(tarea))));
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (TimeoutException e) {
+            throw new ResourceAccessException("servicio-flota no respondió dentro del plazo (" + operacion + ")");
+        } catch (Exception e) {
+            throw new IllegalStateException("Error al llamar a servicio-flota (" + operacion + ")", e);
+        }
+    }
+
+    /**
+     * La llamada corre en otro hilo: lleva el token JWT (seguridad), el X-Request-Id (MDC) y la traza
+     * de la request que la originó
+     */
+    private <T> Callable<T> enContexto(Supplier<T> llamada) {
+        SecurityContext seguridad = SecurityContextHolder.getContext();
+        Map<String, String> contextoLog = MDC.getCopyOfContextMap();
+        return registroTrazas.propagar(() -> {
+            SecurityContextHolder.setContext(seguridad);
+            if (contextoLog != null) {
+                MDC.setContextMap(contextoLog);
+            }
+            try {
+                return llamada.get();
+            } finally {
+                SecurityContextHolder.clearContext();
+                MDC.clear();
+            }
+        });
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,100 @@
+package utn.frc.isi.backend.tpi_Integrador.clients;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestClient;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Obtiene un token de servicio de Keycloak (grant client_credentials) para las llamadas a servicio-flota
+ * que no se hacen en nombre de un usuario, como el envío del outbox de disponibilidad de camiones.
+ * Es opcional: si no se configuran las credenciales, obtenerToken() devuelve vacío.
+ */
+@Slf4j
+@Component
+public class TokenServicioClient {
+
+    // Se renueva el token este tiempo antes de que venza
+    private static final long MARGEN_RENOVACION_NANOS = 30_000_000_000L;
+
+    private final RestClient restClient;
+    private final String tokenUri;
+    private final String clientId;
+    private final String clientSecret;
+
+    // Lock en lugar de synchronized: el pedido a Keycloak se hace con el lock tomado y, con hilos virtuales,
+    // un bloque synchronized retendría el hilo de plataforma mientras se espera la respuesta
+    private final ReentrantLock lock = new ReentrantLock();
+    private TokenVigente tokenVigente; // acceso con lock tomado
+
+    private record TokenVigente(String valor, long venceNanos) {
+    }
+
+    public TokenServicioClient(RestClient.Builder restClientBuilder,
+                               @Value("${servicio-flota.credenciales.token-uri:}") String tokenUri,
+                               @Value("${servicio-flota.credenciales.client-id:}") String clientId,
+                               @Value("${servicio-flota.credenciales.client-secret:}") String clientSecret) {
+        this.restClient = restClientBuilder.build();
+        this.tokenUri = tokenUri;
+        this.clientId = clientId;
+        this.clientSecret = clientSecret;
+    }
+
+    public boolean configurado() {
+        return !tokenUri.isBlank() && !clientId.isBlank();
+    }
+
+    /**
+     * Devuelve el token de servicio vigente, pidiendo uno nuevo a Keycloak si hace falta
+     * @return Optional con el access token, vacío si no hay credenciales configuradas o Keycloak no responde
+     */
+    public Optional<String> obtenerToken() {
+        if (!configurado()) {
+            return Optional.empty();
+        }
+        lock.lock();
+        try {
+            return tokenVigenteORenovado();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Optional<String> tokenVigenteORenovado() {
+        if (tokenVigente != null && System.nanoTime() - tokenVigente.venceNanos() < 0) {
+            return Optional.of(tokenVigente.valor());
+        }
+
+        MultiValueMap<String, String> formulario = new LinkedMultiValueMap<>();
+        formulario.add("grant_type", "client_credentials");
+        formulario.add("client_id", clientId);
+        formulario.add("client_secret", clientSecret);
+        try {
+            Map<String, Object> respuesta = restClient.post()
+                    .uri(tokenUri)
+                    .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                    .body(formulario)
+                    .retrieve()
+                    .body(new ParameterizedTypeReference<Map<String, Object>>() {});
+            if (respuesta == null || !(respuesta.get("access_token") instanceof String token)) {
+                log.error("Keycloak no devolvió un access_token para el cliente {}", clientId);
+                return Optional.empty();
+            }
+            long venceEnSegundos = respuesta.get("expires_in") instanceof Number n ? n.longValue() : 60;
+            tokenVigente = new TokenVigente(token, System.nanoTime() + venceEnSegundos * 1_000_000_000L - MARGEN_RENOVACION_NANOS);
+            log.debug("Token de servicio obtenido para el cliente {} (vence en {} s)", clientId, venceEnSegundos);
+            return Optional.of(token);
+        } catch (Exception e) {
+            log.error("No se pudo obtener el token de servicio de {}: {}", tokenUri, e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package utn.frc.isi.backend.tpi_Integrador.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Parámetros de los clientes HTTP salientes (servicio-flota y Google Maps).
+ * Ejemplo en application.properties:
+ *   clientes-http.flota.max-conexiones=50
+ *   clientes-http.flota.timeout-lectura=5s
+ *   clientes-http.google-maps.http2=true
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "clientes-http")
+public class ClientesHttpProperties {
+
+    private Duration keepAlive = Duration.ofSeconds(30); // Tiempo que una conexión ociosa se conserva para reutilizarla
+
+    private Cliente flota = new Cliente();
+
+    private Cliente googleMaps = new Cliente();
+
+    @Data
+    public static class Cliente {
+
+        private Duration timeoutConexion = Duration.ofSeconds(2); // Establecer la conexión TCP/TLS
+
+        private Duration timeoutLectura = Duration.ofSeconds(10); // Esperar la respuesta de cada request
+
+        private int maxConexiones = 50; // Requests simultáneas hacia el servicio (una conexión cada una en HTTP/1.1)
+
+        private Duration esperaConexion = Duration.ofSeconds(1); // Espera máxima por una conexión libre antes de fallar
+
+        private boolean http2 = false; // HTTP/2 negociado por TLS (ALPN); sin TLS se usa HTTP/1.1
+
+        private boolean gzip = true; // Pedir respuestas comprimidas y descomprimirlas
+    }
+}
@@ -0,0 +1,34 @@
+package utn.frc.isi.backend.tpi_Integrador.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parámetros del motor de distancias geodésico (sin red).
+ * Ejemplo en application.properties:
+ *   distancias.geodesico.factor-desvio=1.25
+ *   distancias.geodesico.velocidad-promedio-kmh=70
+ *   distancias.geodesico.velocidades-por-tipo.ORIGEN-DEPOSITO=60
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "distancias.geodesico")
+public class DistanciaGeodesicaProperties {
+
+    private double factorDesvio = 1.25; // Relación típica distancia por ruta / distancia en línea recta
+
+    private double velocidadPromedioKmh = 70.0; // Velocidad usada si el tipo de tramo no tiene una propia
+
+    private Map<String, Double> velocidadesPorTipo = new HashMap<>(); // Velocidad promedio por tipo de tramo
+
+    public double velocidadPara(String tipoTramo) {
+        if (tipoTramo == null) {
+            return velocidadPromedioKmh;
+        }
+        return velocidadesPorTipo.getOrDefault(tipoTramo, velocidadPromedioKmh);
+    }
+}
@@ -0,0 +1,48 @@
+package utn.frc.isi.backend.tpi_Integrador.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker, bulkhead y time limiter de cada operación de FlotaServiceClient.
+ * Ejemplo en application.properties:
+ *   servicio-flota.resiliencia.tarifa.plazo=2s
+ *   servicio-flota.resiliencia.camion.max-concurrentes=20
+ *   servicio-flota.resiliencia.disponibilidad.espera-abierto=30s
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "servicio-flota.resiliencia")
+public class ResilienciaFlotaProperties {
+
+    private boolean habilitada = true; // Deshabilitada, las llamadas van directo a servicio-flota
+
+    private Operacion tarifa = new Operacion();
+
+    private Operacion camion = new Operacion();
+
+    private Operacion disponibilidad = new Operacion();
+
+    @Data
+    public static class Operacion {
+
+        private Duration plazo = Duration.ofSeconds(2); // Time limiter: espera máxima por la respuesta
+
+        private int maxConcurrentes = 20; // Bulkhead: llamadas simultáneas a la operación
+
+        private Duration esperaLugar = Duration.ZERO; // Bulkhead: espera por un lugar antes de rechazar la llamada
+
+        private int ventana = 20; // Circuit breaker: últimas llamadas sobre las que se calcula la tasa de fallas
+
+        private int minimoLlamadas = 10; // Circuit breaker: llamadas necesarias antes de calcular la tasa
+
+        private float umbralFallas = 50; // Circuit breaker: porcentaje de fallas (o timeouts) que lo abre
+
+        private Duration esperaAbierto = Duration.ofSeconds(30); // Circuit breaker: tiempo abierto antes de probar de nuevo
+
+        private int llamadasSemiAbierto = 3; // Circuit breaker: llamadas de prueba para decidir si se cierra
+    }
+}
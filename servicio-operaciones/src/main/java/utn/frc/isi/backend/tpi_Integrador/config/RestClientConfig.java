@@ -1,33 +1,83 @@
 package utn.frc.isi.backend.tpi_Integrador.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder;
+import org.springframework.boot.http.client.ClientHttpRequestFactorySettings;
+import org.springframework.boot.http.client.JdkClientHttpRequestFactoryBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.web.client.RestClient;
+import utn.frc.isi.backend.tpi_Integrador.clients.DescompresionGzip;
+import utn.frc.isi.backend.tpi_Integrador.clients.PoolConexionesHttp;
+import utn.frc.isi.backend.tpi_Integrador.trazas.InterceptorTrazas;
+import utn.frc.isi.backend.tpi_Integrador.trazas.RegistroTrazas;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executors;
 
 @Configuration
 public class RestClientConfig {
 
+    private static final String PROPIEDAD_KEEP_ALIVE = "jdk.httpclient.keepalive.timeout";
+
     @Value("${google.maps.base-url}")
     private String googleMapsBaseUrl;
 
     @Value("${servicio-flota.base-url}")
     private String servicioFlotaBaseUrl;
 
+    /**
+     * Fábrica de requests de todos los RestClient (los construidos con el RestClient.Builder de Spring Boot):
+     * HttpClient del JDK, que bloquea al hilo que llama sin retener un hilo de plataforma propio y reutiliza
+     * las conexiones (keep-alive). Los timeouts por defecto son spring.http.client.connect-timeout/read-timeout;
+     * flota y Google Maps usan los suyos (clientes-http.*).
+     * En modo hilos virtuales (spring.threads.virtual.enabled=true) las tareas internas del HttpClient
+     * también corren en hilos virtuales en lugar de su pool de hilos de plataforma.
+     */
     @Bean
-    public RestClient googleMapsRestClient() {
-        return RestClient.builder()
-                .baseUrl(googleMapsBaseUrl)
-                .build();
+    public JdkClientHttpRequestFactoryBuilder clientHttpRequestFactoryBuilder(Environment environment,
+                                                                            ClientesHttpProperties clientesHttp) {
+        configurarKeepAlive(clientesHttp.getKeepAlive());
+        JdkClientHttpRequestFactoryBuilder builder = ClientHttpRequestFactoryBuilder.jdk();
+        if (Threading.VIRTUAL.isActive(environment)) {
+            builder = builder.withHttpClientCustomizer(httpClient ->
+                    httpClient.executor(Executors.newVirtualThreadPerTaskExecutor()));
+        }
+        return builder;
+    }
+
+    @Bean
+    public RestClient googleMapsRestClient(RestClient.Builder builder,
+                                           JdkClientHttpRequestFactoryBuilder requestFactoryBuilder,
+                                           ClientesHttpProperties clientesHttp,
+                                           RegistroTrazas registroTrazas,
+                                           MeterRegistry meterRegistry) {
+        ClientesHttpProperties.Cliente config = clientesHttp.getGoogleMaps();
+        builder.baseUrl(googleMapsBaseUrl)
+                .requestFactory(requestFactory(requestFactoryBuilder, config, config.getTimeoutLectura()))
+                // Sólo se mide: el X-Request-Id no se envía a servicios externos
+                .requestInterceptor(new InterceptorTrazas(registroTrazas, false));
+        return conexiones(builder, "google-maps", config, meterRegistry).build();
     }
 
     @Bean
-    public RestClient flotaRestClient(RestClient.Builder builder) {
-        return builder
-                .baseUrl(servicioFlotaBaseUrl)
+    public RestClient flotaRestClient(RestClient.Builder builder,
+                                      JdkClientHttpRequestFactoryBuilder requestFactoryBuilder,
+                                      ClientesHttpProperties clientesHttp,
+                                      RegistroTrazas registroTrazas,
+                                      MeterRegistry meterRegistry) {
+        ClientesHttpProperties.Cliente config = clientesHttp.getFlota();
+        builder.baseUrl(servicioFlotaBaseUrl)
+                .requestFactory(requestFactory(requestFactoryBuilder, config, config.getTimeoutLectura()))
                 .requestInterceptor((request, body, execution) -> {
                     // Propagar el token JWT del contexto de seguridad actual
                     Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -38,6 +88,61 @@ public class RestClientConfig {
                     }
                     return execution.execute(request, body);
                 })
+                .requestInterceptor(new InterceptorTrazas(registroTrazas, true));
+        return conexiones(builder, "flota", config, meterRegistry).build();
+    }
+
+    /**
+     * Cliente de servicio-flota para el feed de cambios (long-poll): servicio-flota retiene la respuesta hasta
+     * servicio-flota.replicacion.espera-segundos, así que el timeout de lectura se extiende en esa espera.
+     * Comparte interceptores y límite de conexiones con flotaRestClient.
+     */
+    @Bean
+    public RestClient flotaFeedRestClient(@Qualifier("flotaRestClient") RestClient flotaRestClient,
+                                          JdkClientHttpRequestFactoryBuilder requestFactoryBuilder,
+                                          ClientesHttpProperties clientesHttp,
+                                          @Value("${servicio-flota.replicacion.espera-segundos:25}") int esperaSegundos) {
+        ClientesHttpProperties.Cliente config = clientesHttp.getFlota();
+        return flotaRestClient.mutate()
+                .requestFactory(requestFactory(requestFactoryBuilder, config,
+                        config.getTimeoutLectura().plusSeconds(esperaSegundos)))
                 .build();
     }
+
+    /**
+     * Fábrica con los timeouts y la versión de HTTP del cliente. HTTP/2 se negocia por TLS (ALPN):
+     * contra un servicio sin TLS conviene HTTP/1.1 para no intentar el upgrade a h2c en cada conexión.
+     */
+    private static ClientHttpRequestFactory requestFactory(JdkClientHttpRequestFactoryBuilder requestFactoryBuilder,
+                                                           ClientesHttpProperties.Cliente config, Duration timeoutLectura) {
+        return requestFactoryBuilder
+                .withHttpClientCustomizer(httpClient ->
+                        httpClient.version(config.isHttp2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1))
+                .build(ClientHttpRequestFactorySettings.defaults()
+                        .withTimeouts(config.getTimeoutConexion(), timeoutLectura));
+    }
+
+    /**
+     * Límite de conexiones (con sus métricas) y compresión, después de los demás interceptores:
+     * la conexión se reserva sólo para el envío y la lectura de la respuesta
+     */
+    private static RestClient.Builder conexiones(RestClient.Builder builder, String cliente,
+                                                 ClientesHttpProperties.Cliente config, MeterRegistry meterRegistry) {
+        builder.requestInterceptor(new PoolConexionesHttp(cliente, config.getMaxConexiones(),
+                config.getEsperaConexion(), meterRegistry));
+        if (config.isGzip()) {
+            builder.requestInterceptor(new DescompresionGzip());
+        }
+        return builder;
+    }
+
+    /**
+     * El HttpClient del JDK lee el tiempo de vida de las conexiones ociosas de una propiedad del sistema,
+     * una sola vez por JVM: se fija antes de crear el primer cliente, salvo que venga de la línea de comandos
+     */
+    private static void configurarKeepAlive(Duration keepAlive) {
+        if (System.getProperty(PROPIEDAD_KEEP_ALIVE) == null) {
+            System.setProperty(PROPIEDAD_KEEP_ALIVE, String.valueOf(Math.max(1, keepAlive.toSeconds())));
+        }
+    }
 }
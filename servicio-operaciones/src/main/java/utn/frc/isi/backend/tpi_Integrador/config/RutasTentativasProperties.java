@@ -0,0 +1,36 @@
+package utn.frc.isi.backend.tpi_Integrador.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Parámetros del generador de rutas tentativas con depósitos intermedios (RF#3).
+ * Ejemplo en application.properties:
+ *   rutas.tentativas.max-depositos=2
+ *   rutas.tentativas.max-desvio=1.6
+ *   rutas.tentativas.tiempo-maximo-ms=1500
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "rutas.tentativas")
+public class RutasTentativasProperties {
+
+    private int maxDepositos = 2; // Cantidad máxima de depósitos intermedios por ruta (K)
+
+    private int maxResultados = 5; // Cantidad de rutas tentativas devueltas (N)
+
+    private double maxDesvio = 1.6; // Largo máximo de la ruta respecto de la línea recta origen-destino
+
+    private int depositosCandidatos = 40; // Depósitos más cercanos al corredor que entran en la búsqueda
+
+    private int maxExpansiones = 5000; // Tope de rutas parciales exploradas por consulta
+
+    private long tiempoMaximoMs = 1500; // Presupuesto de tiempo para la búsqueda de candidatas
+
+    private double consumoPromedioLitrosKm = 0.35; // Consumo usado para estimar combustible (aún sin camión asignado)
+
+    private int diasEstadiaPorDeposito = 1; // Días de estadía estimados en cada depósito intermedio
+
+    private double costoKmSinTarifa = 5.0; // Costo por km usado si servicio-flota no devuelve la tarifa activa
+}
@@ -69,9 +69,13 @@ public class SecurityConfig {
                 .requestMatchers("/webjars/**").permitAll()
                 
                 // ===== Endpoints de API =====
+                // Visor de trazas en memoria - sólo administradores
+                .requestMatchers("/api/trazas/**").hasRole("ADMIN")
+
                 // Consultas de estado - usuarios autenticados y transportistas
                 .requestMatchers(HttpMethod.GET, "/api/solicitudes/*/estado").authenticated()
                 .requestMatchers(HttpMethod.GET, "/api/contenedores/*/estado").authenticated()
+                .requestMatchers(HttpMethod.GET, "/api/seguimiento/**").authenticated()
                 .requestMatchers(HttpMethod.GET, "/api/tramos/transportistas/**").hasAnyRole("TRANSPORTISTA", "OPERACIONES_MANAGER", "ADMIN")
                 
                 // Lectura general (GET) - cualquier usuario autenticado
@@ -90,6 +94,10 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.PATCH, "/api/**")
                     .hasAnyRole("ADMIN", "OPERACIONES_MANAGER")
                 
+                // Liberar la reserva de un camión - managers (no elimina datos)
+                .requestMatchers(HttpMethod.DELETE, "/api/camion-references/*/reserva")
+                    .hasAnyRole("ADMIN", "OPERACIONES_MANAGER")
+
                 // Eliminación (DELETE) - solo admin
                 .requestMatchers(HttpMethod.DELETE, "/api/**")
                     .hasRole("ADMIN")
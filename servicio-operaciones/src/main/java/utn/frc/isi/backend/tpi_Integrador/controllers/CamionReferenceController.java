@@ -51,4 +51,24 @@ public class CamionReferenceController {
         camionReferenceService.eliminarCamionReference(id);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Reserva atómica del camión (409 si otra asignación o reserva lo obtuvo antes)
+     */
+    @PostMapping("/{id}/reserva")
+    public ResponseEntity<CamionReference> reservar(@PathVariable Long id) {
+        return camionReferenceService.reservar(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Libera una reserva (400 si el camión no estaba reservado o tiene tramos activos)
+     */
+    @DeleteMapping("/{id}/reserva")
+    public ResponseEntity<CamionReference> liberar(@PathVariable Long id) {
+        return camionReferenceService.liberar(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
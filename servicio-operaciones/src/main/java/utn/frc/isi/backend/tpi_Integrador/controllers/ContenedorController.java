@@ -1,19 +1,24 @@
 package utn.frc.isi.backend.tpi_Integrador.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import utn.frc.isi.backend.tpi_Integrador.dtos.ContenedorCreateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.ContenedorDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.ContenedorEstadoDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.ContenedorPendienteDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.ContenedorUpdateDTO;
+import utn.frc.isi.backend.tpi_Integrador.repositories.PaginacionKeyset;
 import utn.frc.isi.backend.tpi_Integrador.services.ContenedorService;
 
 import java.util.List;
@@ -24,22 +29,55 @@ import java.util.List;
 public class ContenedorController {
 
     private final ContenedorService contenedorService;
+    private final ObjectMapper objectMapper;
 
-    public ContenedorController(ContenedorService contenedorService) {
+    public ContenedorController(ContenedorService contenedorService, ObjectMapper objectMapper) {
         this.contenedorService = contenedorService;
+        this.objectMapper = objectMapper;
     }
 
-    @Operation(summary = "Obtener todos los contenedores", 
-               description = "Devuelve una lista completa de todos los contenedores registrados en el sistema")
+    @Operation(summary = "Obtener contenedores (paginado)", 
+               description = "Devuelve una página de contenedores ordenada por el campo indicado (paginación por cursor). " +
+                             "El cursor de la página siguiente se informa en el header X-Next-Cursor y en Link (rel=\"next\")")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Lista de contenedores devuelta exitosamente",
+        @ApiResponse(responseCode = "200", description = "Página de contenedores devuelta exitosamente",
                      content = @Content(mediaType = "application/json",
-                     schema = @Schema(implementation = ContenedorDTO.class)))
+                     schema = @Schema(implementation = ContenedorDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Cursor o campo de orden inválido",
+                     content = @Content)
     })
     @GetMapping
-    public ResponseEntity<List<ContenedorDTO>> obtenerTodos() {
-        List<ContenedorDTO> contenedores = contenedorService.obtenerTodos();
-        return ResponseEntity.ok(contenedores);
+    public ResponseEntity<List<ContenedorDTO>> obtenerTodos(
+            @Parameter(description = "Cursor devuelto en X-Next-Cursor por la página anterior (vacío para la primera)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Cantidad de elementos por página (máximo " + PaginacionKeyset.LIMITE_MAXIMO + ")")
+            @RequestParam(defaultValue = "" + PaginacionKeyset.LIMITE_POR_DEFECTO) int limite,
+            @Parameter(description = "Campo de orden: id, numero, tipo, peso, volumen, estado")
+            @RequestParam(defaultValue = "id") String ordenarPor,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direccion) {
+        // Un cursor o campo de orden inválido lanza IllegalArgumentException (400 en GlobalExceptionHandler)
+        return RespuestasPaginadas.ok(contenedorService.obtenerPagina(cursor, limite, ordenarPor, direccion));
+    }
+
+    @Operation(summary = "Exportar contenedores (NDJSON)", 
+               description = "Devuelve todos los contenedores en formato NDJSON (un objeto JSON por línea), " +
+                             "escritos a medida que se leen de la base de datos")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Exportación en curso",
+                     content = @Content(mediaType = "application/x-ndjson",
+                     schema = @Schema(implementation = ContenedorDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Campo de orden inválido",
+                     content = @Content)
+    })
+    @GetMapping(value = "/exportar", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestParam(defaultValue = "id") String ordenarPor,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direccion) {
+        if (!ContenedorService.CAMPOS_ORDENABLES.contains(ordenarPor)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return RespuestasPaginadas.ndjson(objectMapper,
+                consumidor -> contenedorService.exportar(ordenarPor, direccion, consumidor));
     }
 
     @Operation(summary = "Obtener un contenedor por ID", 
@@ -1,16 +1,21 @@
 package utn.frc.isi.backend.tpi_Integrador.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import utn.frc.isi.backend.tpi_Integrador.dtos.RutaDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.RutaUpdateDTO;
+import utn.frc.isi.backend.tpi_Integrador.repositories.PaginacionKeyset;
 import utn.frc.isi.backend.tpi_Integrador.services.RutaService;
 
 import java.util.List;
@@ -21,22 +26,55 @@ import java.util.List;
 public class RutaController {
 
     private final RutaService rutaService;
+    private final ObjectMapper objectMapper;
 
-    public RutaController(RutaService rutaService) {
+    public RutaController(RutaService rutaService, ObjectMapper objectMapper) {
         this.rutaService = rutaService;
+        this.objectMapper = objectMapper;
     }
 
-    @Operation(summary = "Obtener todas las rutas", 
-               description = "Retorna la lista completa de rutas registradas en el sistema")
+    @Operation(summary = "Obtener rutas (paginado)", 
+               description = "Devuelve una página de rutas ordenada por el campo indicado (paginación por cursor). " +
+                             "El cursor de la página siguiente se informa en el header X-Next-Cursor y en Link (rel=\"next\")")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Lista de rutas retornada exitosamente",
+        @ApiResponse(responseCode = "200", description = "Página de rutas devuelta exitosamente",
                      content = @Content(mediaType = "application/json",
-                     schema = @Schema(implementation = RutaDTO.class)))
+                     schema = @Schema(implementation = RutaDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Cursor o campo de orden inválido",
+                     content = @Content)
     })
     @GetMapping
-    public ResponseEntity<List<RutaDTO>> obtenerTodas() {
-        List<RutaDTO> rutas = rutaService.obtenerTodas();
-        return ResponseEntity.ok(rutas);
+    public ResponseEntity<List<RutaDTO>> obtenerTodas(
+            @Parameter(description = "Cursor devuelto en X-Next-Cursor por la página anterior (vacío para la primera)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Cantidad de elementos por página (máximo " + PaginacionKeyset.LIMITE_MAXIMO + ")")
+            @RequestParam(defaultValue = "" + PaginacionKeyset.LIMITE_POR_DEFECTO) int limite,
+            @Parameter(description = "Campo de orden: id, distanciaKm, tiempoEstimadoHoras")
+            @RequestParam(defaultValue = "id") String ordenarPor,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direccion) {
+        // Un cursor o campo de orden inválido lanza IllegalArgumentException (400 en GlobalExceptionHandler)
+        return RespuestasPaginadas.ok(rutaService.obtenerPagina(cursor, limite, ordenarPor, direccion));
+    }
+
+    @Operation(summary = "Exportar rutas (NDJSON)", 
+               description = "Devuelve todas las rutas en formato NDJSON (un objeto JSON por línea), " +
+                             "escritos a medida que se leen de la base de datos")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Exportación en curso",
+                     content = @Content(mediaType = "application/x-ndjson",
+                     schema = @Schema(implementation = RutaDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Campo de orden inválido",
+                     content = @Content)
+    })
+    @GetMapping(value = "/exportar", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestParam(defaultValue = "id") String ordenarPor,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direccion) {
+        if (!RutaService.CAMPOS_ORDENABLES.contains(ordenarPor)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return RespuestasPaginadas.ndjson(objectMapper,
+                consumidor -> rutaService.exportar(ordenarPor, direccion, consumidor));
     }
 
     @Operation(summary = "Obtener ruta por ID", 
@@ -0,0 +1,72 @@
+package utn.frc.isi.backend.tpi_Integrador.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import utn.frc.isi.backend.tpi_Integrador.dtos.ErrorResponseDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.EventoSeguimientoDTO;
+import utn.frc.isi.backend.tpi_Integrador.services.SeguimientoService;
+
+@Tag(name = "Seguimiento", description = "Seguimiento en tiempo real de solicitudes y contenedores (Server-Sent Events)")
+@RestController
+@RequestMapping("/api/seguimiento")
+public class SeguimientoController {
+
+    private final SeguimientoService seguimientoService;
+
+    public SeguimientoController(SeguimientoService seguimientoService) {
+        this.seguimientoService = seguimientoService;
+    }
+
+    @Operation(summary = "Seguir una solicitud en tiempo real (RF#2)",
+               description = "Stream text/event-stream: envía el estado actual de la solicitud y después un evento 'estado' " +
+                             "cada vez que cambian su estado, progreso o ETA (inicio y fin de tramos, entrega). " +
+                             "Reemplaza la consulta periódica de GET /api/solicitudes/{id}/estado. " +
+                             "La suscripción se cierra cada seguimiento.duracion-suscripcion; EventSource se reconecta solo")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Stream de eventos abierto",
+                     content = @Content(mediaType = "text/event-stream",
+                     schema = @Schema(implementation = EventoSeguimientoDTO.class))),
+        @ApiResponse(responseCode = "404", description = "Solicitud no encontrada",
+                     content = @Content),
+        @ApiResponse(responseCode = "503", description = "Máximo de suscripciones alcanzado (ver Retry-After)",
+                     content = @Content(mediaType = "application/json",
+                     schema = @Schema(implementation = ErrorResponseDTO.class)))
+    })
+    @GetMapping(value = "/solicitudes/{id}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> seguirSolicitud(@PathVariable Long id) {
+        return seguimientoService.suscribirSolicitud(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Seguir un contenedor en tiempo real (RF#2)",
+               description = "Stream text/event-stream: envía el estado actual del contenedor (y de su solicitud) y después " +
+                             "un evento 'estado' por cada cambio. Reemplaza la consulta periódica de GET /api/contenedores/{id}/estado")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Stream de eventos abierto",
+                     content = @Content(mediaType = "text/event-stream",
+                     schema = @Schema(implementation = EventoSeguimientoDTO.class))),
+        @ApiResponse(responseCode = "404", description = "Contenedor no encontrado",
+                     content = @Content),
+        @ApiResponse(responseCode = "503", description = "Máximo de suscripciones alcanzado (ver Retry-After)",
+                     content = @Content(mediaType = "application/json",
+                     schema = @Schema(implementation = ErrorResponseDTO.class)))
+    })
+    @GetMapping(value = "/contenedores/{id}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> seguirContenedor(@PathVariable Long id) {
+        return seguimientoService.suscribirContenedor(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -1,15 +1,20 @@
 package utn.frc.isi.backend.tpi_Integrador.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import utn.frc.isi.backend.tpi_Integrador.dtos.FinalizacionSolicitudDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.ModoCalculoDistancia;
 import utn.frc.isi.backend.tpi_Integrador.dtos.RutaCreateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.RutaDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.RutaTentativaDTO;
@@ -17,6 +22,8 @@ import utn.frc.isi.backend.tpi_Integrador.dtos.SolicitudCreateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.SolicitudDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.SolicitudEstadoDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.SolicitudUpdateDTO;
+import utn.frc.isi.backend.tpi_Integrador.exceptions.DistanciaNoDisponibleException;
+import utn.frc.isi.backend.tpi_Integrador.repositories.PaginacionKeyset;
 import utn.frc.isi.backend.tpi_Integrador.services.RutaService;
 import utn.frc.isi.backend.tpi_Integrador.services.SolicitudService;
 
@@ -29,23 +36,56 @@ public class SolicitudController {
 
     private final SolicitudService solicitudService;
     private final RutaService rutaService;
+    private final ObjectMapper objectMapper;
 
-    public SolicitudController(SolicitudService solicitudService, RutaService rutaService) {
+    public SolicitudController(SolicitudService solicitudService, RutaService rutaService, ObjectMapper objectMapper) {
         this.solicitudService = solicitudService;
         this.rutaService = rutaService;
+        this.objectMapper = objectMapper;
     }
 
-    @Operation(summary = "Obtener todas las solicitudes", 
-               description = "Devuelve una lista completa de todas las solicitudes de transporte registradas en el sistema")
+    @Operation(summary = "Obtener solicitudes (paginado)", 
+               description = "Devuelve una página de solicitudes ordenada por el campo indicado (paginación por cursor). " +
+                             "El cursor de la página siguiente se informa en el header X-Next-Cursor y en Link (rel=\"next\")")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Lista de solicitudes devuelta exitosamente",
+        @ApiResponse(responseCode = "200", description = "Página de solicitudes devuelta exitosamente",
                      content = @Content(mediaType = "application/json",
-                     schema = @Schema(implementation = SolicitudDTO.class)))
+                     schema = @Schema(implementation = SolicitudDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Cursor o campo de orden inválido",
+                     content = @Content)
     })
     @GetMapping
-    public ResponseEntity<List<SolicitudDTO>> obtenerTodas() {
-        List<SolicitudDTO> solicitudes = solicitudService.obtenerTodas();
-        return ResponseEntity.ok(solicitudes);
+    public ResponseEntity<List<SolicitudDTO>> obtenerTodas(
+            @Parameter(description = "Cursor devuelto en X-Next-Cursor por la página anterior (vacío para la primera)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Cantidad de elementos por página (máximo " + PaginacionKeyset.LIMITE_MAXIMO + ")")
+            @RequestParam(defaultValue = "" + PaginacionKeyset.LIMITE_POR_DEFECTO) int limite,
+            @Parameter(description = "Campo de orden: id, fechaSolicitud, estado, costoEstimado, costoFinal")
+            @RequestParam(defaultValue = "id") String ordenarPor,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direccion) {
+        // Un cursor o campo de orden inválido lanza IllegalArgumentException (400 en GlobalExceptionHandler)
+        return RespuestasPaginadas.ok(solicitudService.obtenerPagina(cursor, limite, ordenarPor, direccion));
+    }
+
+    @Operation(summary = "Exportar solicitudes (NDJSON)", 
+               description = "Devuelve todas las solicitudes en formato NDJSON (un objeto JSON por línea), " +
+                             "escritos a medida que se leen de la base de datos")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Exportación en curso",
+                     content = @Content(mediaType = "application/x-ndjson",
+                     schema = @Schema(implementation = SolicitudDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Campo de orden inválido",
+                     content = @Content)
+    })
+    @GetMapping(value = "/exportar", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestParam(defaultValue = "id") String ordenarPor,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direccion) {
+        if (!SolicitudService.CAMPOS_ORDENABLES.contains(ordenarPor)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return RespuestasPaginadas.ndjson(objectMapper,
+                consumidor -> solicitudService.exportar(ordenarPor, direccion, consumidor));
     }
 
     @Operation(summary = "Crear nueva solicitud de transporte (RF#1)", 
@@ -99,9 +139,12 @@ public class SolicitudController {
                      content = @Content)
     })
     @GetMapping("/{solicitudId}/rutas/tentativas")
-    public ResponseEntity<List<RutaTentativaDTO>> consultarRutasTentativas(@PathVariable Long solicitudId) {
+    public ResponseEntity<List<RutaTentativaDTO>> consultarRutasTentativas(
+            @PathVariable Long solicitudId,
+            @Parameter(description = "Modo de cálculo de distancias: GOOGLE, GEODESICO o AUTO (por defecto el configurado)")
+            @RequestParam(required = false) ModoCalculoDistancia modo) {
         try {
-            List<RutaTentativaDTO> rutas = rutaService.calcularRutasTentativas(solicitudId);
+            List<RutaTentativaDTO> rutas = rutaService.calcularRutasTentativas(solicitudId, modo);
             return ResponseEntity.ok(rutas);
         } catch (RuntimeException e) {
             // Si la solicitud no existe o no tiene ruta asociada
@@ -118,13 +161,20 @@ public class SolicitudController {
         @ApiResponse(responseCode = "404", description = "Solicitud no encontrada",
                      content = @Content),
         @ApiResponse(responseCode = "400", description = "Datos de ruta inválidos",
+                     content = @Content),
+        @ApiResponse(responseCode = "503", description = "No se pudo calcular la distancia de algunos tramos (se indica su orden)",
                      content = @Content)
     })
     @PostMapping("/{solicitudId}/asignar-ruta")
-    public ResponseEntity<RutaDTO> asignarRuta(@PathVariable Long solicitudId, @Valid @RequestBody RutaCreateDTO rutaDTO) {
+    public ResponseEntity<RutaDTO> asignarRuta(@PathVariable Long solicitudId, @Valid @RequestBody RutaCreateDTO rutaDTO,
+            @Parameter(description = "Modo de cálculo de distancias: GOOGLE, GEODESICO o AUTO (por defecto el configurado)")
+            @RequestParam(required = false) ModoCalculoDistancia modo) {
         try {
-            RutaDTO rutaAsignada = rutaService.asignarRutaASolicitud(solicitudId, rutaDTO);
+            RutaDTO rutaAsignada = rutaService.asignarRutaASolicitud(solicitudId, rutaDTO, modo);
             return ResponseEntity.status(201).body(rutaAsignada);
+        } catch (DistanciaNoDisponibleException e) {
+            // Tramos sin distancia: lo informa GlobalExceptionHandler (503)
+            throw e;
         } catch (RuntimeException e) {
             // Si la solicitud no existe
             return ResponseEntity.notFound().build();
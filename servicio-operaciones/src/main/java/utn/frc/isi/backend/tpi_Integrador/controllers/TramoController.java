@@ -1,16 +1,26 @@
 package utn.frc.isi.backend.tpi_Integrador.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import utn.frc.isi.backend.tpi_Integrador.dtos.AsignacionAutomaticaDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.AsignacionCamionDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.ResultadoAsignacionAutomaticaDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.TramoDTO;
+import utn.frc.isi.backend.tpi_Integrador.exceptions.CamionNoDisponibleException;
+import utn.frc.isi.backend.tpi_Integrador.repositories.PaginacionKeyset;
+import utn.frc.isi.backend.tpi_Integrador.services.AsignacionAutomaticaService;
 import utn.frc.isi.backend.tpi_Integrador.services.TramoService;
 
 import java.util.List;
@@ -21,22 +31,58 @@ import java.util.List;
 public class TramoController {
 
     private final TramoService tramoService;
+    private final AsignacionAutomaticaService asignacionAutomaticaService;
+    private final ObjectMapper objectMapper;
 
-    public TramoController(TramoService tramoService) {
+    public TramoController(TramoService tramoService, AsignacionAutomaticaService asignacionAutomaticaService,
+                           ObjectMapper objectMapper) {
         this.tramoService = tramoService;
+        this.asignacionAutomaticaService = asignacionAutomaticaService;
+        this.objectMapper = objectMapper;
     }
 
-    @Operation(summary = "Obtener todos los tramos", 
-               description = "Retorna la lista completa de tramos registrados en el sistema")
+    @Operation(summary = "Obtener tramos (paginado)", 
+               description = "Devuelve una página de tramos ordenada por el campo indicado (paginación por cursor). " +
+                             "El cursor de la página siguiente se informa en el header X-Next-Cursor y en Link (rel=\"next\")")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Lista de tramos retornada exitosamente",
+        @ApiResponse(responseCode = "200", description = "Página de tramos devuelta exitosamente",
                      content = @Content(mediaType = "application/json",
-                     schema = @Schema(implementation = TramoDTO.class)))
+                     schema = @Schema(implementation = TramoDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Cursor o campo de orden inválido",
+                     content = @Content)
     })
     @GetMapping
-    public ResponseEntity<List<TramoDTO>> obtenerTodos() {
-        List<TramoDTO> tramos = tramoService.obtenerTodos();
-        return ResponseEntity.ok(tramos);
+    public ResponseEntity<List<TramoDTO>> obtenerTodos(
+            @Parameter(description = "Cursor devuelto en X-Next-Cursor por la página anterior (vacío para la primera)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Cantidad de elementos por página (máximo " + PaginacionKeyset.LIMITE_MAXIMO + ")")
+            @RequestParam(defaultValue = "" + PaginacionKeyset.LIMITE_POR_DEFECTO) int limite,
+            @Parameter(description = "Campo de orden: id, orden, tipo, estado, distanciaKm")
+            @RequestParam(defaultValue = "id") String ordenarPor,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direccion) {
+        // Un cursor o campo de orden inválido lanza IllegalArgumentException (400 en GlobalExceptionHandler)
+        return RespuestasPaginadas.ok(tramoService.obtenerPagina(cursor, limite, ordenarPor, direccion));
+    }
+
+    @Operation(summary = "Exportar tramos (NDJSON)", 
+               description = "Devuelve todos los tramos en formato NDJSON (un objeto JSON por línea), " +
+                             "escritos a medida que se leen de la base de datos")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Exportación en curso",
+                     content = @Content(mediaType = "application/x-ndjson",
+                     schema = @Schema(implementation = TramoDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Campo de orden inválido",
+                     content = @Content)
+    })
+    @GetMapping(value = "/exportar", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestParam(defaultValue = "id") String ordenarPor,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direccion) {
+        if (!TramoService.CAMPOS_ORDENABLES.contains(ordenarPor)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return RespuestasPaginadas.ndjson(objectMapper,
+                consumidor -> tramoService.exportar(ordenarPor, direccion, consumidor));
     }
 
     @Operation(summary = "Obtener tramo por ID", 
@@ -63,7 +109,9 @@ public class TramoController {
                      schema = @Schema(implementation = TramoDTO.class))),
         @ApiResponse(responseCode = "404", description = "Tramo o camión no encontrado",
                      content = @Content),
-        @ApiResponse(responseCode = "400", description = "Camión no disponible, capacidad insuficiente o estado del tramo inválido",
+        @ApiResponse(responseCode = "400", description = "Capacidad insuficiente o estado del tramo inválido",
+                     content = @Content),
+        @ApiResponse(responseCode = "409", description = "El camión ya fue asignado o el tramo fue modificado por otra asignación concurrente",
                      content = @Content)
     })
     @PostMapping("/{id}/asignar-camion")
@@ -71,11 +119,31 @@ public class TramoController {
         try {
             TramoDTO tramoActualizado = tramoService.asignarCamion(id, asignacionDTO);
             return ResponseEntity.ok(tramoActualizado);
+        } catch (CamionNoDisponibleException | ObjectOptimisticLockingFailureException e) {
+            // Conflicto con otra asignación: lo informa GlobalExceptionHandler (409)
+            throw e;
         } catch (RuntimeException e) {
             // Retornar 400 Bad Request con el mensaje de error
             return ResponseEntity.badRequest().build();
         }
     }
+
+    @Operation(summary = "Asignar camiones automáticamente a tramos pendientes (RF#6)",
+               description = "Asigna camiones disponibles a todos los tramos PENDIENTE sin camión (o a los indicados) minimizando el costo total " +
+                             "(costo por km × distancia) y respetando la capacidad de peso y volumen del contenedor. " +
+                             "Todas las asignaciones se confirman juntas; los tramos que no reciben camión se informan en tramosSinAsignar")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Asignación calculada y aplicada",
+                     content = @Content(mediaType = "application/json",
+                     schema = @Schema(implementation = ResultadoAsignacionAutomaticaDTO.class))),
+        @ApiResponse(responseCode = "409", description = "Otra asignación concurrente tomó alguno de los camiones o tramos; no se aplicó ninguna asignación",
+                     content = @Content)
+    })
+    @PostMapping("/asignacion-automatica")
+    public ResponseEntity<ResultadoAsignacionAutomaticaDTO> asignarAutomaticamente(@RequestBody(required = false) AsignacionAutomaticaDTO asignacionDTO) {
+        // Los conflictos de concurrencia los informa GlobalExceptionHandler (409)
+        return ResponseEntity.ok(asignacionAutomaticaService.asignar(asignacionDTO));
+    }
     
     @Operation(summary = "Iniciar tramo de transporte (RF#8)", 
                description = "El transportista marca el inicio del viaje. Actualiza el estado del tramo a INICIADO y el contenedor a EN_VIAJE")
@@ -0,0 +1,18 @@
+package utn.frc.isi.backend.tpi_Integrador.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para pedir la asignación automática de camiones a tramos pendientes
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AsignacionAutomaticaDTO {
+
+    private List<Long> tramoIds; // Tramos a asignar; vacío o null para todos los tramos PENDIENTE sin camión
+}
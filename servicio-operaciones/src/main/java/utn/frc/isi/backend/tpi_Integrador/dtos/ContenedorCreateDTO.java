@@ -6,6 +6,7 @@ import jakarta.validation.constraints.Positive;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoContenedor;
 
 /**
  * DTO para crear un nuevo contenedor
@@ -29,8 +30,8 @@ public class ContenedorCreateDTO {
     @Positive(message = "El volumen debe ser positivo")
     private Double volumen; // en m³
     
-    @NotBlank(message = "El estado es obligatorio")
-    private String estado; // EN_ORIGEN, EN_VIAJE, EN_DEPOSITO, ENTREGADO
+    @NotNull(message = "El estado es obligatorio")
+    private EstadoContenedor estado; // EN_ORIGEN, EN_VIAJE, EN_DEPOSITO, ENTREGADO
     
     @NotNull(message = "El cliente es obligatorio")
     private Long clienteId; // ID del cliente asociado
@@ -3,6 +3,7 @@ package utn.frc.isi.backend.tpi_Integrador.dtos;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoContenedor;
 
 /**
  * DTO para representar un Contenedor en las respuestas de la API
@@ -17,6 +18,6 @@ public class ContenedorDTO {
     private String tipo;
     private double peso;
     private double volumen;
-    private String estado;
+    private EstadoContenedor estado;
     private ClienteDTO cliente; // Relación con Cliente
 }
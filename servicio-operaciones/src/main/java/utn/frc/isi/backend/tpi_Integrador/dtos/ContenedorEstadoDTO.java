@@ -3,6 +3,7 @@ package utn.frc.isi.backend.tpi_Integrador.dtos;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoContenedor;
 
 /**
  * DTO para consultar el estado y ubicación actual de un contenedor
@@ -18,7 +19,7 @@ public class ContenedorEstadoDTO {
     
     private String numero; // Número identificador del contenedor (ej: "CONT-001")
     
-    private String estado; // Estado actual (EN_ORIGEN, EN_VIAJE, EN_DEPOSITO, ENTREGADO)
+    private EstadoContenedor estado; // Estado actual (EN_ORIGEN, EN_VIAJE, EN_DEPOSITO, ENTREGADO)
     
     private String ubicacionActual; // Descripción textual de la ubicación actual
     
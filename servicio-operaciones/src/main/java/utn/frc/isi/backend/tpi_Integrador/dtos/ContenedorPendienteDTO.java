@@ -1,17 +1,31 @@
 package utn.frc.isi.backend.tpi_Integrador.dtos;
 
 import lombok.Data;
+import lombok.NoArgsConstructor;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoContenedor;
 
 /**
  * DTO para RF#5: Consultar contenedores pendientes de asignación a transporte
  * Representa un contenedor que aún no ha sido asignado a ningún viaje
  */
 @Data
+@NoArgsConstructor
 public class ContenedorPendienteDTO {
     private Long id;
     private String numero;
-    private String estado;
+    private EstadoContenedor estado;
     private String ubicacionActual;
     private String cliente;
     private Long solicitudId;
+
+    /**
+     * Constructor usado por la proyección JPQL de ContenedorRepository.findContenedoresPendientes()
+     */
+    public ContenedorPendienteDTO(Long id, String numero, EstadoContenedor estado, String cliente, Long solicitudId) {
+        this.id = id;
+        this.numero = numero;
+        this.estado = estado;
+        this.cliente = cliente;
+        this.solicitudId = solicitudId;
+    }
 }
@@ -4,6 +4,7 @@ import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoContenedor;
 
 /**
  * DTO para actualizar un Contenedor existente
@@ -24,7 +25,7 @@ public class ContenedorUpdateDTO {
     @Positive(message = "El volumen debe ser positivo")
     private Double volumen;
     
-    private String estado;
+    private EstadoContenedor estado;
     
     private Long clienteId;
 }
@@ -0,0 +1,21 @@
+package utn.frc.isi.backend.tpi_Integrador.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de un cálculo de distancia entre dos puntos, independiente del motor usado
+ * (Google Maps o estimación geodésica local)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstimacionDistancia {
+
+    private double distanciaKm; // Distancia por ruta en kilómetros
+
+    private double tiempoHoras; // Tiempo estimado de viaje en horas
+
+    private String fuente; // Motor que produjo la estimación (ej: "GOOGLE_MAPS", "GEODESICO")
+}
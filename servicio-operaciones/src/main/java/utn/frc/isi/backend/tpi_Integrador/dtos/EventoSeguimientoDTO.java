@@ -0,0 +1,36 @@
+package utn.frc.isi.backend.tpi_Integrador.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoContenedor;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoSolicitud;
+
+import java.time.LocalDateTime;
+
+/**
+ * Estado de seguimiento de una solicitud y su contenedor, enviado por el stream de seguimiento (SSE)
+ * al suscribirse y cada vez que cambia el estado, el progreso o la ETA
+ * RF#2: Consultar estado del transporte
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventoSeguimientoDTO {
+
+    private Long solicitudId; // null si el contenedor todavía no tiene solicitud
+
+    private Long contenedorId;
+
+    private EstadoSolicitud estadoSolicitud;
+
+    private EstadoContenedor estadoContenedor;
+
+    private String ubicacionActual; // Descripción textual de la ubicación del contenedor
+
+    private double progreso; // Porcentaje de progreso (0-100)
+
+    private String etaDestino; // Tiempo estimado de llegada al destino
+
+    private LocalDateTime fecha; // Momento en que se confirmó el cambio
+}
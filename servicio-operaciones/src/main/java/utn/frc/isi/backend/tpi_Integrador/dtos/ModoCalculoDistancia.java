@@ -0,0 +1,10 @@
+package utn.frc.isi.backend.tpi_Integrador.dtos;
+
+/**
+ * Modo de cálculo de distancias para rutas y tramos
+ */
+public enum ModoCalculoDistancia {
+    GOOGLE,     // Solo Google Maps; falla si la API no responde
+    GEODESICO,  // Solo estimación local (haversine + factor de desvío), sin red
+    AUTO        // Google Maps y, si falla, estimación geodésica
+}
@@ -0,0 +1,20 @@
+package utn.frc.isi.backend.tpi_Integrador.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO con el resultado de la asignación automática de camiones
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoAsignacionAutomaticaDTO {
+
+    private List<TramoDTO> asignados; // Tramos que recibieron camión
+    private List<Long> tramosSinAsignar; // Tramos sin camión: ninguno con capacidad suficiente o no alcanzaron los camiones
+    private double costoTotal; // Suma de costoPorKm × distanciaKm de las asignaciones
+}
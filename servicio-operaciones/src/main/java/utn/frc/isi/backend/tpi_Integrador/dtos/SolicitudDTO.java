@@ -3,6 +3,7 @@ package utn.frc.isi.backend.tpi_Integrador.dtos;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoSolicitud;
 
 /**
  * DTO para representar una Solicitud en las respuestas de la API
@@ -14,7 +15,7 @@ public class SolicitudDTO {
     
     private Long id;
     private String fechaSolicitud;
-    private String estado;
+    private EstadoSolicitud estado;
     private String observaciones;
     private Long contenedorId; // Solo el ID del contenedor
     private Long clienteId; // Solo el ID del cliente
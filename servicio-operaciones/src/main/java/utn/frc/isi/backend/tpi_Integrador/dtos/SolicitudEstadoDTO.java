@@ -3,6 +3,7 @@ package utn.frc.isi.backend.tpi_Integrador.dtos;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoSolicitud;
 
 import java.util.List;
 
@@ -20,7 +21,7 @@ public class SolicitudEstadoDTO {
     
     private String numero; // Número de solicitud (generado automáticamente)
     
-    private String estado; // Estado de la solicitud (BORRADOR, PROGRAMADA, EN_TRANSITO, ENTREGADA)
+    private EstadoSolicitud estado; // Estado de la solicitud (BORRADOR, PROGRAMADA, EN_TRANSITO, ENTREGADA)
     
     private ContenedorEstadoDTO contenedor; // Estado del contenedor asociado
     
@@ -3,6 +3,7 @@ package utn.frc.isi.backend.tpi_Integrador.dtos;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoSolicitud;
 
 /**
  * DTO para actualizar una Solicitud existente
@@ -14,7 +15,7 @@ import lombok.NoArgsConstructor;
 public class SolicitudUpdateDTO {
     
     private String fechaSolicitud;
-    private String estado;
+    private EstadoSolicitud estado;
     private String observaciones;
     private Long contenedorId;
     private Long clienteId;
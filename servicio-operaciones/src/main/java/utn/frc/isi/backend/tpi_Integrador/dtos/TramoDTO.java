@@ -3,6 +3,7 @@ package utn.frc.isi.backend.tpi_Integrador.dtos;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoTramo;
 
 import java.time.LocalDateTime;
 
@@ -18,7 +19,7 @@ public class TramoDTO {
     private Long rutaId;
     private int orden;
     private String tipo;
-    private String estado;
+    private EstadoTramo estado;
     private String puntoInicio;
     private double latitudInicio;
     private double longitudInicio;
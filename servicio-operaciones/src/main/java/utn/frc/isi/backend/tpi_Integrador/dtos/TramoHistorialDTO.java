@@ -3,6 +3,7 @@ package utn.frc.isi.backend.tpi_Integrador.dtos;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoTramo;
 
 import java.time.LocalDateTime;
 
@@ -19,7 +20,7 @@ public class TramoHistorialDTO {
     
     private String tipo; // Tipo de tramo (ORIGEN_DEPOSITO, DEPOSITO_DEPOSITO, DEPOSITO_DESTINO)
     
-    private String estado; // Estado actual del tramo (PENDIENTE, ASIGNADO, INICIADO, FINALIZADO)
+    private EstadoTramo estado; // Estado actual del tramo (PENDIENTE, ASIGNADO, INICIADO, FINALIZADO)
     
     private String puntoInicio; // Descripción del punto de inicio
     
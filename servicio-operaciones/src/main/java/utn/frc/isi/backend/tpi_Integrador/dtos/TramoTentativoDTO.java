@@ -27,6 +27,10 @@ public class TramoTentativoDTO {
     
     private double costoAproximado; // Costo aproximado del tramo en pesos
     
+    private Long depositoOrigenId; // ID del depósito donde comienza el tramo (si aplica)
+    
+    private Long depositoDestinoId; // ID del depósito donde termina el tramo (si aplica)
+    
     // Información adicional opcional
     private String observaciones; // Notas o advertencias sobre el tramo
 }
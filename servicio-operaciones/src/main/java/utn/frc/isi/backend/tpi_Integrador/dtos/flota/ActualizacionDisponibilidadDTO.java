@@ -0,0 +1,17 @@
+package utn.frc.isi.backend.tpi_Integrador.dtos.flota;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Actualización de disponibilidad enviada en lote a PATCH /api/camiones/disponibilidad de servicio-flota
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActualizacionDisponibilidadDTO {
+    private String claveIdempotencia;
+    private Long camionId;
+    private Boolean disponible;
+}
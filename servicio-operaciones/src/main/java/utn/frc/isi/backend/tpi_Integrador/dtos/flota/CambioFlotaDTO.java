@@ -0,0 +1,28 @@
+package utn.frc.isi.backend.tpi_Integrador.dtos.flota;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO para recibir un cambio del feed de servicio-flota (GET /api/cambios)
+ * Refleja la estructura de CambioFlotaDTO en servicio-flota
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CambioFlotaDTO {
+
+    public static final String CAMION = "CAMION";
+    public static final String DEPOSITO = "DEPOSITO";
+    public static final String BAJA = "BAJA";
+
+    private Long secuencia;
+    private String tipo; // CAMION o DEPOSITO
+    private Long entidadId;
+    private String operacion; // ALTA, MODIFICACION o BAJA
+    private CamionDTO camion; // Estado actual del camión (null si ya no existe)
+    private DepositoDTO deposito; // Estado actual del depósito (null si ya no existe)
+}
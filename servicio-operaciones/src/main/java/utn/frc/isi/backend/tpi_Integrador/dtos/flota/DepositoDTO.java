@@ -0,0 +1,23 @@
+package utn.frc.isi.backend.tpi_Integrador.dtos.flota;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO para recibir información de Depósito desde servicio-flota
+ * Refleja la estructura de DepositoDTO en servicio-flota
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class DepositoDTO {
+
+    private Long id;
+    private String nombre;
+    private String direccion;
+    private double latitud;
+    private double longitud;
+}
@@ -0,0 +1,24 @@
+package utn.frc.isi.backend.tpi_Integrador.dtos.flota;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para recibir una página del feed de cambios de servicio-flota
+ * Refleja la estructura de FeedCambiosDTO en servicio-flota
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class FeedCambiosDTO {
+
+    private String idFeed;
+    private Long ultimaSecuencia;
+    private boolean hayMas;
+    private List<CambioFlotaDTO> cambios;
+}
@@ -0,0 +1,24 @@
+package utn.frc.isi.backend.tpi_Integrador.dtos.flota;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado informado por servicio-flota para cada actualización de disponibilidad de un lote
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ResultadoDisponibilidadDTO {
+
+    public static final String APLICADA = "APLICADA";
+    public static final String DUPLICADA = "DUPLICADA";
+    public static final String CAMION_NO_ENCONTRADO = "CAMION_NO_ENCONTRADO";
+
+    private String claveIdempotencia;
+    private Long camionId;
+    private String resultado; // APLICADA, DUPLICADA o CAMION_NO_ENCONTRADO
+}
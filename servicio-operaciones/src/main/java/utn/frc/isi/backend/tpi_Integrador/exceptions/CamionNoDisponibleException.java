@@ -0,0 +1,12 @@
+package utn.frc.isi.backend.tpi_Integrador.exceptions;
+
+/**
+ * El camión pedido ya fue reservado o asignado (por ejemplo, por otra asignación concurrente).
+ * Se informa como 409 Conflict: el cliente debe elegir otro camión o volver a consultar su estado.
+ */
+public class CamionNoDisponibleException extends IllegalStateException {
+
+    public CamionNoDisponibleException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,23 @@
+package utn.frc.isi.backend.tpi_Integrador.exceptions;
+
+import java.util.List;
+
+/**
+ * No se pudo calcular la distancia de uno o más tramos (Google Maps no respondió a tiempo o no encontró el recorrido).
+ * Se informa como 503 Service Unavailable indicando qué tramos fallaron: el cliente puede reintentar
+ * o pedir la ruta con el modo de cálculo GEODESICO.
+ */
+public class DistanciaNoDisponibleException extends RuntimeException {
+
+    private final List<Integer> ordenesTramos;
+
+    public DistanciaNoDisponibleException(List<Integer> ordenesTramos, int cantidadTramos) {
+        super("No se pudo calcular la distancia de " + ordenesTramos.size() + " de " + cantidadTramos
+                + " tramos (orden " + ordenesTramos + ")");
+        this.ordenesTramos = List.copyOf(ordenesTramos);
+    }
+
+    public List<Integer> getOrdenesTramos() {
+        return ordenesTramos;
+    }
+}
@@ -2,8 +2,11 @@ package utn.frc.isi.backend.tpi_Integrador.exceptions;
 
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -52,6 +55,83 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Manejador para conflictos de concurrencia
+     * Captura asignaciones de camiones ya reservados y actualizaciones hechas sobre una versión vieja
+     * de la entidad (control optimista con @Version): el cliente debe volver a consultar y reintentar
+     * 
+     * @param ex Excepción de conflicto
+     * @param request Información de la petición HTTP
+     * @return ResponseEntity con ErrorResponseDTO y status 409 Conflict
+     */
+    @ExceptionHandler({CamionNoDisponibleException.class, ObjectOptimisticLockingFailureException.class})
+    public ResponseEntity<ErrorResponseDTO> handleConflicto(
+            RuntimeException ex, HttpServletRequest request) {
+
+        String mensaje = ex instanceof CamionNoDisponibleException
+                ? ex.getMessage()
+                : "El recurso fue modificado por otra operación. Consulte su estado actual y reintente.";
+        ErrorResponseDTO errorResponse = new ErrorResponseDTO(
+                LocalDateTime.now(),
+                HttpStatus.CONFLICT.value(),
+                HttpStatus.CONFLICT.getReasonPhrase(),
+                mensaje,
+                request.getRequestURI()
+        );
+        log.warn("Conflicto de concurrencia: {} en {}", ex.getMessage(), request.getRequestURI());
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Manejador para distancias que no se pudieron calcular
+     * Informa qué tramos de la ruta quedaron sin distancia (el servicio externo no respondió o no encontró el recorrido)
+     * 
+     * @param ex Excepción con los tramos sin distancia
+     * @param request Información de la petición HTTP
+     * @return ResponseEntity con ErrorResponseDTO y status 503 Service Unavailable
+     */
+    @ExceptionHandler(DistanciaNoDisponibleException.class)
+    public ResponseEntity<ErrorResponseDTO> handleDistanciaNoDisponible(
+            DistanciaNoDisponibleException ex, HttpServletRequest request) {
+
+        ErrorResponseDTO errorResponse = new ErrorResponseDTO(
+                LocalDateTime.now(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase(),
+                ex.getMessage(), // Incluye el orden de cada tramo sin distancia
+                request.getRequestURI()
+        );
+        log.warn("Distancias no disponibles: {} en {}", ex.getMessage(), request.getRequestURI());
+        return new ResponseEntity<>(errorResponse, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * Manejador para el límite de suscripciones al stream de seguimiento
+     * El Content-Type se fija explícitamente: el cliente pidió text/event-stream y sin él no se podría
+     * escribir el cuerpo de error
+     * 
+     * @param ex Excepción con el máximo de suscripciones alcanzado
+     * @param request Información de la petición HTTP
+     * @return ResponseEntity con ErrorResponseDTO, status 503 Service Unavailable y Retry-After
+     */
+    @ExceptionHandler(SuscripcionesAgotadasException.class)
+    public ResponseEntity<ErrorResponseDTO> handleSuscripcionesAgotadas(
+            SuscripcionesAgotadasException ex, HttpServletRequest request) {
+
+        ErrorResponseDTO errorResponse = new ErrorResponseDTO(
+                LocalDateTime.now(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase(),
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        log.warn("Suscripción de seguimiento rechazada: {} en {}", ex.getMessage(), request.getRequestURI());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "30")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(errorResponse);
+    }
+
     /**
      * Manejador para IllegalStateException
      * Captura errores de estado ilegal (ej: intentar finalizar una solicitud que no está EN_TRANSITO)
@@ -0,0 +1,13 @@
+package utn.frc.isi.backend.tpi_Integrador.exceptions;
+
+/**
+ * Se alcanzó el máximo de suscripciones abiertas al stream de seguimiento (seguimiento.max-suscriptores).
+ * Se informa como 503 Service Unavailable con Retry-After: el cliente puede reintentar más tarde
+ * o seguir consultando GET /estado mientras tanto.
+ */
+public class SuscripcionesAgotadasException extends RuntimeException {
+
+    public SuscripcionesAgotadasException(int maxSuscriptores) {
+        super("Se alcanzó el máximo de " + maxSuscriptores + " suscripciones de seguimiento abiertas");
+    }
+}
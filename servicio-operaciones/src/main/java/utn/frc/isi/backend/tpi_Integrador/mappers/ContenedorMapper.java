@@ -77,7 +77,7 @@ public class ContenedorMapper {
             entity.setVolumen(dto.getVolumen());
         }
         if (dto.getEstado() != null) {
-            entity.setEstado(dto.getEstado());
+            entity.cambiarEstado(dto.getEstado());
         }
         if (dto.getClienteId() != null) {
             Cliente cliente = clienteRepository.findById(dto.getClienteId())
@@ -8,7 +8,10 @@ import utn.frc.isi.backend.tpi_Integrador.models.Ruta;
 import utn.frc.isi.backend.tpi_Integrador.models.Tramo;
 import utn.frc.isi.backend.tpi_Integrador.repositories.TramoRepository;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
@@ -35,6 +38,49 @@ public class RutaMapper {
         if (ruta == null) {
             return null;
         }
+        return toDTO(ruta, tramoRepository.findByRutaId(ruta.getId()));
+    }
+
+    /**
+     * Convierte varias rutas a RutaDTO buscando los tramos de todas en una sola consulta
+     * @param rutas entidades a convertir
+     * @return Lista de RutaDTO en el mismo orden
+     */
+    public List<RutaDTO> toDTOs(List<Ruta> rutas) {
+        Map<Long, List<Tramo>> tramosPorRuta = buscarTramosPorRuta(rutas);
+        return rutas.stream()
+                .map(ruta -> toDTO(ruta, tramosPorRuta.getOrDefault(ruta.getId(), List.of())))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Busca los tramos de las rutas indicadas con una sola consulta y los agrupa por ID de ruta
+     * @param rutas rutas (se ignoran los null)
+     * @return Mapa ID de ruta -> tramos ordenados por orden
+     */
+    public Map<Long, List<Tramo>> buscarTramosPorRuta(List<Ruta> rutas) {
+        List<Long> rutaIds = rutas.stream()
+                .filter(Objects::nonNull)
+                .map(Ruta::getId)
+                .distinct()
+                .collect(Collectors.toList());
+        if (rutaIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return tramoRepository.findByRutaIdInOrderByRutaIdAscOrdenAsc(rutaIds).stream()
+                .collect(Collectors.groupingBy(tramo -> tramo.getRuta().getId()));
+    }
+
+    /**
+     * Convierte una entidad Ruta a RutaDTO con sus tramos ya cargados
+     * @param ruta entidad a convertir
+     * @param tramos tramos de la ruta
+     * @return RutaDTO o null si la ruta es null
+     */
+    public RutaDTO toDTO(Ruta ruta, List<Tramo> tramos) {
+        if (ruta == null) {
+            return null;
+        }
 
         RutaDTO dto = new RutaDTO();
         dto.setId(ruta.getId());
@@ -45,9 +91,6 @@ public class RutaMapper {
         dto.setLatitudDestino(ruta.getLatitudDestino());
         dto.setLongitudDestino(ruta.getLongitudDestino());
         
-        // Obtener los tramos asociados a esta ruta
-        List<Tramo> tramos = tramoRepository.findByRutaId(ruta.getId());
-        
         // Calcular campos derivados
         dto.setSolicitudId(null); // La relación no es bidireccional, se setea externamente
         dto.setCantidadTramos(tramos.size());
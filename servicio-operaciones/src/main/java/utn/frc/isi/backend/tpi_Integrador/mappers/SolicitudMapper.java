@@ -7,10 +7,15 @@ import utn.frc.isi.backend.tpi_Integrador.dtos.SolicitudCreateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.SolicitudDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.SolicitudUpdateDTO;
 import utn.frc.isi.backend.tpi_Integrador.models.Solicitud;
+import utn.frc.isi.backend.tpi_Integrador.models.Tramo;
 import utn.frc.isi.backend.tpi_Integrador.repositories.ClienteRepository;
 import utn.frc.isi.backend.tpi_Integrador.repositories.ContenedorRepository;
 import utn.frc.isi.backend.tpi_Integrador.repositories.RutaRepository;
 
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 /**
  * Mapper para convertir entre entidades Solicitud y DTOs
  * Nota: La creación de Solicitud se maneja en el Service (SolicitudService.crearNuevaSolicitud)
@@ -37,6 +42,28 @@ public class SolicitudMapper {
         if (solicitud == null) {
             return null;
         }
+        return toDTO(solicitud, rutaMapper.toDTO(solicitud.getRuta()));
+    }
+
+    /**
+     * Convierte varias solicitudes a SolicitudDTO buscando los tramos de todas sus rutas
+     * en una sola consulta (en lugar de una consulta de tramos por solicitud)
+     * @param solicitudes entidades a convertir
+     * @return Lista de SolicitudDTO en el mismo orden
+     */
+    public List<SolicitudDTO> toDTOs(List<Solicitud> solicitudes) {
+        Map<Long, List<Tramo>> tramosPorRuta = rutaMapper.buscarTramosPorRuta(
+                solicitudes.stream().map(Solicitud::getRuta).collect(Collectors.toList()));
+        return solicitudes.stream()
+                .map(solicitud -> {
+                    RutaDTO rutaDTO = solicitud.getRuta() == null ? null : rutaMapper.toDTO(solicitud.getRuta(),
+                            tramosPorRuta.getOrDefault(solicitud.getRuta().getId(), List.of()));
+                    return toDTO(solicitud, rutaDTO);
+                })
+                .collect(Collectors.toList());
+    }
+
+    private SolicitudDTO toDTO(Solicitud solicitud, RutaDTO rutaDTO) {
 
         SolicitudDTO dto = new SolicitudDTO();
         dto.setId(solicitud.getId());
@@ -52,8 +79,7 @@ public class SolicitudMapper {
         dto.setContenedorId(solicitud.getContenedor().getId()); // Solo el ID
         dto.setClienteId(solicitud.getCliente().getId()); // Solo el ID
         
-        // Mapear ruta y setear solicitudId manualmente (relación no bidireccional)
-        RutaDTO rutaDTO = rutaMapper.toDTO(solicitud.getRuta());
+        // Setear solicitudId de la ruta manualmente (relación no bidireccional)
         if (rutaDTO != null) {
             rutaDTO.setSolicitudId(solicitud.getId());
         }
@@ -70,7 +96,7 @@ public class SolicitudMapper {
      */
     public void updateEntity(SolicitudUpdateDTO dto, Solicitud solicitud) {
         if (dto.getEstado() != null) {
-            solicitud.setEstado(dto.getEstado());
+            solicitud.cambiarEstado(dto.getEstado());
         }
         if (dto.getObservaciones() != null) {
             solicitud.setObservaciones(dto.getObservaciones());
@@ -97,7 +97,7 @@ public class TramoMapper {
      */
     public void updateEntity(TramoUpdateDTO dto, Tramo entity) {
         if (dto.getEstado() != null) {
-            entity.setEstado(dto.getEstado());
+            entity.cambiarEstado(dto.getEstado());
         }
         // TramoUpdateDTO solo tiene estado y observaciones
         // El campo observaciones no existe en Tramo, por lo que lo ignoramos
@@ -4,9 +4,13 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Data;
 
 @Entity // Marca esta clase como una entidad que se mapeará a una tabla en la BD
+@Table(indexes = @Index(name = "idx_camion_reference_flota", columnList = "camion_id_flota"))
 @Data   // Genera automáticamente getters, setters, toString, etc.
 public class CamionReference {
 
@@ -26,6 +30,11 @@ public class CamionReference {
     
     private boolean disponible; // Indica si el camión está disponible para asignación
 
+    private boolean reservadoLocalmente; // Reservado a mano (reservar) sin tramo: la replicación no lo libera
+
+    @Version
+    private long version; // Control de concurrencia optimista (las reservas usan además un UPDATE condicional)
+
     // Esta es una referencia simplificada al camión del servicio-flota
     // En un escenario real de microservicios, esto se manejaría de forma diferente
 }
\ No newline at end of file
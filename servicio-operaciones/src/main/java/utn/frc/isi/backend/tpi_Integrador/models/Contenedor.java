@@ -1,15 +1,21 @@
 package utn.frc.isi.backend.tpi_Integrador.models;
 
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
 import lombok.Data;
 
 @Entity // Marca esta clase como una entidad que se mapeará a una tabla en la BD
 @Data   // Genera automáticamente getters, setters, toString, etc.
+@Table(indexes = {
+    @Index(name = "idx_contenedor_estado", columnList = "estado") // RF#5: contenedores pendientes
+})
 public class Contenedor {
 
     @Id // Define el campo 'id' como la clave primaria de la tabla
@@ -24,9 +30,20 @@ public class Contenedor {
 
     private double volumen; // Volumen del contenedor en metros cúbicos
 
-    private String estado; // Estado del contenedor (ej: EN_ORIGEN, EN_VIAJE, EN_DEPOSITO, ENTREGADO)
+    @Convert(converter = EstadoContenedor.Conversor.class)
+    private EstadoContenedor estado; // Estado del contenedor (EN_ORIGEN, EN_VIAJE, EN_DEPOSITO, ENTREGADO)
 
     @ManyToOne
     @JoinColumn(name = "cliente_id") // Así se llamará la columna en la BD
     private Cliente cliente; // Cliente asociado al contenedor
-}
\ No newline at end of file
+
+    /**
+     * Cambia el estado validando que la transición sea válida
+     *
+     * @throws IllegalStateException si la transición no está permitida desde el estado actual
+     */
+    public void cambiarEstado(EstadoContenedor nuevoEstado) {
+        EstadoContenedor.validarTransicion(this.estado, nuevoEstado);
+        this.estado = nuevoEstado;
+    }
+}
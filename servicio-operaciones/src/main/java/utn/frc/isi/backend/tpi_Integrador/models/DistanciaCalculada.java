@@ -0,0 +1,27 @@
+package utn.frc.isi.backend.tpi_Integrador.models;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Distancia y duración entre dos puntos obtenida de Google Maps.
+ * Es la entrada de ambos niveles de la caché de GoogleMapsService: el LRU en memoria y la tabla
+ * distancia_calculada de DistanciaCalculadaRepository, en una base propia que sobrevive a los reinicios.
+ */
+@Data   // Genera automáticamente getters, setters, toString, etc.
+public class DistanciaCalculada {
+
+    // Clave normalizada "latOrigen,lngOrigen|latDestino,lngDestino" (coordenadas redondeadas)
+    private String clave;
+
+    private long distanciaMetros; // Distancia informada por Google Maps en metros
+
+    private String distanciaTexto; // Texto legible de la distancia (ej: "647 km")
+
+    private long duracionSegundos; // Duración informada por Google Maps en segundos
+
+    private String duracionTexto; // Texto legible de la duración (ej: "7 hours 30 mins")
+
+    private LocalDateTime fechaCalculo; // Momento en que se consultó a Google Maps (para el TTL)
+}
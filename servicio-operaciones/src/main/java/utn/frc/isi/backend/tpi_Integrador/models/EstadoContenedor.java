@@ -0,0 +1,88 @@
+package utn.frc.isi.backend.tpi_Integrador.models;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Estados de un contenedor y sus transiciones válidas:
+ * EN_ORIGEN → EN_VIAJE ⇄ EN_DEPOSITO → ENTREGADO, y vuelta a EN_ORIGEN
+ * cuando el contenedor se usa en una nueva solicitud.
+ *
+ * Se persiste como un código smallint fijo (no el ordinal).
+ */
+public enum EstadoContenedor {
+    EN_ORIGEN((short) 0),
+    EN_VIAJE((short) 1),
+    EN_DEPOSITO((short) 2),
+    ENTREGADO((short) 3);
+
+    private final short codigo;
+
+    EstadoContenedor(short codigo) {
+        this.codigo = codigo;
+    }
+
+    public short getCodigo() {
+        return codigo;
+    }
+
+    /**
+     * Estados de los contenedores que esperan ser transportados (RF#5)
+     */
+    public static Set<EstadoContenedor> pendientes() {
+        return EnumSet.of(EN_ORIGEN, EN_DEPOSITO);
+    }
+
+    /**
+     * Estados a los que se puede pasar desde este estado
+     */
+    public Set<EstadoContenedor> siguientes() {
+        return switch (this) {
+            case EN_ORIGEN -> EnumSet.of(EN_VIAJE);
+            case EN_VIAJE -> EnumSet.of(EN_DEPOSITO, ENTREGADO);
+            case EN_DEPOSITO -> EnumSet.of(EN_VIAJE, ENTREGADO, EN_ORIGEN);
+            case ENTREGADO -> EnumSet.of(EN_ORIGEN);
+        };
+    }
+
+    /**
+     * Valida el cambio de estado de un contenedor. Un estado nulo (contenedor nuevo) puede pasar
+     * a cualquiera y repetir el estado actual no es un cambio.
+     *
+     * @throws IllegalStateException si la transición no está permitida
+     */
+    public static void validarTransicion(EstadoContenedor actual, EstadoContenedor nuevo) {
+        if (actual != null && actual != nuevo && !actual.siguientes().contains(nuevo)) {
+            throw new IllegalStateException(
+                "Transición de estado inválida para el contenedor: " + actual + " → " + nuevo);
+        }
+    }
+
+    public static EstadoContenedor desdeCodigo(short codigo) {
+        for (EstadoContenedor estado : values()) {
+            if (estado.codigo == codigo) {
+                return estado;
+            }
+        }
+        throw new IllegalArgumentException("Código de estado de contenedor desconocido: " + codigo);
+    }
+
+    /**
+     * Convierte el estado al código smallint de la columna y viceversa
+     */
+    @Converter
+    public static class Conversor implements AttributeConverter<EstadoContenedor, Short> {
+        @Override
+        public Short convertToDatabaseColumn(EstadoContenedor estado) {
+            return estado != null ? estado.codigo : null;
+        }
+
+        @Override
+        public EstadoContenedor convertToEntityAttribute(Short codigo) {
+            return codigo != null ? desdeCodigo(codigo) : null;
+        }
+    }
+}
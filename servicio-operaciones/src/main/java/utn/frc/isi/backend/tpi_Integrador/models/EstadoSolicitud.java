@@ -0,0 +1,82 @@
+package utn.frc.isi.backend.tpi_Integrador.models;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Estados de una solicitud y sus transiciones válidas:
+ * BORRADOR/PENDIENTE → PROGRAMADA (ruta confirmada) → EN_TRANSITO → ENTREGADA
+ *
+ * Se persiste como un código smallint fijo (no el ordinal).
+ */
+public enum EstadoSolicitud {
+    BORRADOR((short) 0),
+    PENDIENTE((short) 1),
+    PROGRAMADA((short) 2),
+    EN_TRANSITO((short) 3),
+    ENTREGADA((short) 4);
+
+    private final short codigo;
+
+    EstadoSolicitud(short codigo) {
+        this.codigo = codigo;
+    }
+
+    public short getCodigo() {
+        return codigo;
+    }
+
+    /**
+     * Estados a los que se puede pasar desde este estado
+     */
+    public Set<EstadoSolicitud> siguientes() {
+        return switch (this) {
+            case BORRADOR -> EnumSet.of(PENDIENTE, PROGRAMADA);
+            case PENDIENTE -> EnumSet.of(PROGRAMADA);
+            case PROGRAMADA -> EnumSet.of(EN_TRANSITO);
+            case EN_TRANSITO -> EnumSet.of(ENTREGADA);
+            case ENTREGADA -> EnumSet.noneOf(EstadoSolicitud.class);
+        };
+    }
+
+    /**
+     * Valida el cambio de estado de una solicitud. Un estado nulo (solicitud nueva) puede pasar
+     * a cualquiera y repetir el estado actual no es un cambio.
+     *
+     * @throws IllegalStateException si la transición no está permitida
+     */
+    public static void validarTransicion(EstadoSolicitud actual, EstadoSolicitud nuevo) {
+        if (actual != null && actual != nuevo && !actual.siguientes().contains(nuevo)) {
+            throw new IllegalStateException(
+                "Transición de estado inválida para la solicitud: " + actual + " → " + nuevo);
+        }
+    }
+
+    public static EstadoSolicitud desdeCodigo(short codigo) {
+        for (EstadoSolicitud estado : values()) {
+            if (estado.codigo == codigo) {
+                return estado;
+            }
+        }
+        throw new IllegalArgumentException("Código de estado de solicitud desconocido: " + codigo);
+    }
+
+    /**
+     * Convierte el estado al código smallint de la columna y viceversa
+     */
+    @Converter
+    public static class Conversor implements AttributeConverter<EstadoSolicitud, Short> {
+        @Override
+        public Short convertToDatabaseColumn(EstadoSolicitud estado) {
+            return estado != null ? estado.codigo : null;
+        }
+
+        @Override
+        public EstadoSolicitud convertToEntityAttribute(Short codigo) {
+            return codigo != null ? desdeCodigo(codigo) : null;
+        }
+    }
+}
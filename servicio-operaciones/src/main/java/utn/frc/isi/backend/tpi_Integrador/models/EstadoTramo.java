@@ -0,0 +1,88 @@
+package utn.frc.isi.backend.tpi_Integrador.models;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Estados de un tramo y sus transiciones válidas:
+ * PENDIENTE → ASIGNADO → INICIADO → FINALIZADO
+ *
+ * Se persiste como un código smallint fijo (no el ordinal), de modo que reordenar
+ * o agregar valores no cambia el significado de las filas existentes.
+ */
+public enum EstadoTramo {
+    PENDIENTE((short) 0),
+    ASIGNADO((short) 1),
+    INICIADO((short) 2),
+    FINALIZADO((short) 3);
+
+    private final short codigo;
+
+    EstadoTramo(short codigo) {
+        this.codigo = codigo;
+    }
+
+    public short getCodigo() {
+        return codigo;
+    }
+
+    /**
+     * Estados en los que el tramo todavía está en manos del transportista (RF#7)
+     */
+    public static Set<EstadoTramo> activos() {
+        return EnumSet.of(ASIGNADO, INICIADO);
+    }
+
+    /**
+     * Estados a los que se puede pasar desde este estado
+     */
+    public Set<EstadoTramo> siguientes() {
+        return switch (this) {
+            case PENDIENTE -> EnumSet.of(ASIGNADO);
+            case ASIGNADO -> EnumSet.of(INICIADO);
+            case INICIADO -> EnumSet.of(FINALIZADO);
+            case FINALIZADO -> EnumSet.noneOf(EstadoTramo.class);
+        };
+    }
+
+    /**
+     * Valida el cambio de estado de un tramo. Un estado nulo (tramo nuevo) puede pasar a cualquiera
+     * y repetir el estado actual no es un cambio.
+     *
+     * @throws IllegalStateException si la transición no está permitida
+     */
+    public static void validarTransicion(EstadoTramo actual, EstadoTramo nuevo) {
+        if (actual != null && actual != nuevo && !actual.siguientes().contains(nuevo)) {
+            throw new IllegalStateException(
+                "Transición de estado inválida para el tramo: " + actual + " → " + nuevo);
+        }
+    }
+
+    public static EstadoTramo desdeCodigo(short codigo) {
+        for (EstadoTramo estado : values()) {
+            if (estado.codigo == codigo) {
+                return estado;
+            }
+        }
+        throw new IllegalArgumentException("Código de estado de tramo desconocido: " + codigo);
+    }
+
+    /**
+     * Convierte el estado al código smallint de la columna y viceversa
+     */
+    @Converter
+    public static class Conversor implements AttributeConverter<EstadoTramo, Short> {
+        @Override
+        public Short convertToDatabaseColumn(EstadoTramo estado) {
+            return estado != null ? estado.codigo : null;
+        }
+
+        @Override
+        public EstadoTramo convertToEntityAttribute(Short codigo) {
+            return codigo != null ? desdeCodigo(codigo) : null;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package utn.frc.isi.backend.tpi_Integrador.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cambio de disponibilidad de un camión pendiente de informar a servicio-flota (outbox transaccional).
+ * Se guarda en la misma transacción que el cambio de negocio que lo origina (ej: finalizar un tramo)
+ * y lo envía en segundo plano OutboxCamionService, con reintentos, hasta que servicio-flota lo confirma.
+ * No guarda credenciales: el envío se autentica siempre con el token de servicio (client_credentials).
+ */
+@Entity // Marca esta clase como una entidad que se mapeará a una tabla en la BD
+@Table(name = "outbox_disponibilidad_camion", indexes = {
+    @Index(name = "idx_outbox_estado", columnList = "estado, id"),
+    @Index(name = "idx_outbox_camion_estado", columnList = "camion_id_flota, estado")
+})
+@Data   // Genera automáticamente getters, setters, toString, etc.
+public class OutboxDisponibilidadCamion {
+
+    public enum Estado {
+        PENDIENTE,   // Todavía no confirmado por servicio-flota
+        ENVIADO,     // servicio-flota lo aplicó (o ya lo había aplicado)
+        REEMPLAZADO, // Hubo un cambio posterior del mismo camión antes de enviarlo: se envía sólo el último
+        FALLIDO      // Se agotaron los intentos o servicio-flota lo rechazó: queda como registro, no se reintenta
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id; // También define el orden de envío
+
+    @Column(nullable = false, unique = true)
+    private String claveIdempotencia; // servicio-flota descarta la actualización si ya aplicó esta clave
+
+    private Long camionIdFlota; // ID del camión en servicio-flota
+
+    private boolean disponible; // Disponibilidad a informar
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Estado estado = Estado.PENDIENTE; // Sólo los pendientes se envían
+
+    private int intentos; // Envíos fallidos hasta ahora
+
+    private LocalDateTime fechaCreacion;
+
+    private LocalDateTime proximoIntento; // No se reintenta antes de este momento
+
+    private LocalDateTime fechaEnvio; // Momento en que dejó de estar pendiente (null mientras lo esté)
+
+    @Column(length = 500)
+    private String ultimoError; // Último error de envío o rechazo de servicio-flota
+}
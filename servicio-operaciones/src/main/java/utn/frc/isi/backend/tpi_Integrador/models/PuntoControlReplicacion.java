@@ -0,0 +1,26 @@
+package utn.frc.isi.backend.tpi_Integrador.models;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Punto de control de la replicación de camiones y depósitos desde el feed de cambios de servicio-flota.
+ * Se actualiza en la misma transacción que aplica cada página del feed, de modo que al reiniciar
+ * la lectura continúa desde el último cambio aplicado.
+ */
+@Entity // Marca esta clase como una entidad que se mapeará a una tabla en la BD
+@Data   // Genera automáticamente getters, setters, toString, etc.
+public class PuntoControlReplicacion {
+
+    @Id
+    private String id; // Nombre del feed replicado (ej: "servicio-flota")
+
+    private String idFeed; // Identificador del feed leído; si servicio-flota lo cambia se vuelve a leer desde 0
+
+    private long ultimaSecuencia; // Última secuencia del feed aplicada
+
+    private LocalDateTime fechaActualizacion;
+}
@@ -1,15 +1,21 @@
 package utn.frc.isi.backend.tpi_Integrador.models;
 
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
 import lombok.Data;
 
 @Entity // Marca esta clase como una entidad que se mapeará a una tabla en la BD
 @Data   // Genera automáticamente getters, setters, toString, etc.
+@Table(indexes = {
+    @Index(name = "idx_solicitud_estado", columnList = "estado")
+})
 public class Solicitud {
 
     @Id // Define el campo 'id' como la clave primaria de la tabla
@@ -18,7 +24,8 @@ public class Solicitud {
 
     private String fechaSolicitud; // Fecha cuando se realizó la solicitud
 
-    private String estado; // Estado de la solicitud (ej: BORRADOR, PROGRAMADA, EN_TRANSITO, ENTREGADA)
+    @Convert(converter = EstadoSolicitud.Conversor.class)
+    private EstadoSolicitud estado; // Estado de la solicitud (BORRADOR, PENDIENTE, PROGRAMADA, EN_TRANSITO, ENTREGADA)
 
     private String observaciones; // Observaciones adicionales de la solicitud
 
@@ -41,4 +48,14 @@ public class Solicitud {
     private double costoFinal; // Costo final real de la operación
 
     private double tiempoReal; // Tiempo real en horas
-}
\ No newline at end of file
+
+    /**
+     * Cambia el estado validando que la transición sea válida
+     *
+     * @throws IllegalStateException si la transición no está permitida desde el estado actual
+     */
+    public void cambiarEstado(EstadoSolicitud nuevoEstado) {
+        EstadoSolicitud.validarTransicion(this.estado, nuevoEstado);
+        this.estado = nuevoEstado;
+    }
+}
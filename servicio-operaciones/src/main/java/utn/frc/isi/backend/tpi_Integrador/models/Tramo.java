@@ -1,16 +1,24 @@
 package utn.frc.isi.backend.tpi_Integrador.models;
 
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Data;
 import java.time.LocalDateTime;
 
 @Entity // Marca esta clase como una entidad que se mapeará a una tabla en la BD
 @Data   // Genera automáticamente getters, setters, toString, etc.
+@Table(indexes = {
+    @Index(name = "idx_tramo_estado", columnList = "estado"),
+    @Index(name = "idx_tramo_camion_estado", columnList = "camion_reference_id, estado") // RF#7: tramos activos de un camión
+})
 public class Tramo {
 
     @Id // Define el campo 'id' como la clave primaria de la tabla
@@ -21,7 +29,8 @@ public class Tramo {
     
     private String tipo; // Tipo de tramo (ej: "ORIGEN-DESTINO", "ORIGEN-DEPOSITO", "DEPOSITO-DESTINO")
     
-    private String estado; // Estado del tramo (ej: "PENDIENTE", "EN_PROCESO", "COMPLETADO")
+    @Convert(converter = EstadoTramo.Conversor.class)
+    private EstadoTramo estado; // Estado del tramo (PENDIENTE, ASIGNADO, INICIADO, FINALIZADO)
 
     private String puntoInicio; // Punto de inicio del tramo
 
@@ -49,6 +58,9 @@ public class Tramo {
     
     private double costoReal; // Costo real calculado al finalizar el tramo
 
+    @Version
+    private long version; // Control de concurrencia optimista: dos asignaciones simultáneas del mismo tramo no se pisan
+
     @ManyToOne
     @JoinColumn(name = "ruta_id") // Así se llamará la columna en la BD
     private Ruta ruta; // Ruta a la que pertenece este tramo
@@ -64,4 +76,14 @@ public class Tramo {
     @ManyToOne
     @JoinColumn(name = "deposito_destino_id") // Depósito de destino del tramo (opcional)
     private DepositoReference depositoDestino; // Referencia al depósito de destino
-}
\ No newline at end of file
+
+    /**
+     * Cambia el estado validando que la transición sea válida
+     *
+     * @throws IllegalStateException si la transición no está permitida desde el estado actual
+     */
+    public void cambiarEstado(EstadoTramo nuevoEstado) {
+        EstadoTramo.validarTransicion(this.estado, nuevoEstado);
+        this.estado = nuevoEstado;
+    }
+}
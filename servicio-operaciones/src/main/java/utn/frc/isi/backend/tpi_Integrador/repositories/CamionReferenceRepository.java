@@ -1,8 +1,15 @@
 package utn.frc.isi.backend.tpi_Integrador.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import utn.frc.isi.backend.tpi_Integrador.models.CamionReference;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoTramo;
+
+import java.util.Collection;
+import java.util.List;
 
 @Repository // Buena práctica para indicar que es un componente de persistencia
 public interface CamionReferenceRepository extends JpaRepository<CamionReference, Long> {
@@ -12,4 +19,49 @@ public interface CamionReferenceRepository extends JpaRepository<CamionReference
     // - findAll()
     // - deleteById()
     // ¡Y muchos más, sin necesidad de implementarlos!
+
+    // Referencias de los camiones de servicio-flota indicados (replicación del feed de cambios)
+    List<CamionReference> findByCamionIdFlotaIn(Collection<Long> camionIdsFlota);
+
+    /**
+     * Reserva el camión de forma atómica: lo marca no disponible solo si todavía está disponible.
+     * Con reservas concurrentes del mismo camión, exactamente una modifica la fila.
+     * @return 1 si se reservó, 0 si no existe o ya no estaba disponible
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE CamionReference c SET c.disponible = false, c.version = c.version + 1 "
+         + "WHERE c.id = :id AND c.disponible = true")
+    int reservar(@Param("id") Long id);
+
+    /**
+     * Reserva manual (sin tramo), con la misma condición que reservar(). Queda marcada como local para
+     * que la replicación de servicio-flota no la deshaga hasta que se libere con liberar()
+     * @return 1 si se reservó, 0 si no existe o ya no estaba disponible
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE CamionReference c SET c.disponible = false, c.reservadoLocalmente = true, c.version = c.version + 1 "
+         + "WHERE c.id = :id AND c.disponible = true")
+    int reservarLocalmente(@Param("id") Long id);
+
+    /**
+     * Reserva varios camiones en una sola sentencia, con la misma condición que reservar()
+     * @return Cantidad de camiones reservados (menor que ids.size() si alguno ya no estaba disponible)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE CamionReference c SET c.disponible = false, c.version = c.version + 1 "
+         + "WHERE c.id IN :ids AND c.disponible = true")
+    int reservarTodos(@Param("ids") Collection<Long> ids);
+
+    // Camiones candidatos de la asignación automática
+    List<CamionReference> findByDisponibleTrue();
+
+    /**
+     * Libera una reserva de forma atómica, salvo que el camión tenga tramos en los estados indicados
+     * @return 1 si se liberó, 0 si no existe, ya estaba disponible o tiene tramos activos
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE CamionReference c SET c.disponible = true, c.reservadoLocalmente = false, c.version = c.version + 1 "
+         + "WHERE c.id = :id AND c.disponible = false AND NOT EXISTS "
+         + "(SELECT t.id FROM Tramo t WHERE t.camionReference.id = :id AND t.estado IN :estadosActivos)")
+    int liberar(@Param("id") Long id, @Param("estadosActivos") Collection<EstadoTramo> estadosActivos);
 }
\ No newline at end of file
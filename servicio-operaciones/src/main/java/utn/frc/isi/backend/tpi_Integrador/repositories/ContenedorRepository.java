@@ -1,25 +1,59 @@
 package utn.frc.isi.backend.tpi_Integrador.repositories;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import utn.frc.isi.backend.tpi_Integrador.dtos.ContenedorPendienteDTO;
 import utn.frc.isi.backend.tpi_Integrador.models.Contenedor;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoContenedor;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository // Buena práctica para indicar que es un componente de persistencia
-public interface ContenedorRepository extends JpaRepository<Contenedor, Long> {
+public interface ContenedorRepository extends JpaRepository<Contenedor, Long>, JpaSpecificationExecutor<Contenedor> {
     // Con solo esta línea, Spring Data JPA nos dará métodos como:
     // - save()
     // - findById()
     // - findAll()
     // - deleteById()
     // ¡Y muchos más, sin necesidad de implementarlos!
+
+    /**
+     * Asociaciones que lee ContenedorMapper; los listados las cargan con un join (entity graph)
+     */
+    List<String> ASOCIACIONES_DTO = List.of("cliente");
     
     /**
      * RF#5: Buscar contenedores pendientes (no entregados)
-     * Retorna todos los contenedores que NO están en estado ENTREGADO
+     * Retorna los contenedores en los estados indicados, proyectados directamente a DTO con el
+     * nombre del cliente y el ID de la solicitud asociada resueltos en la misma consulta.
+     * El filtro usa el índice sobre contenedor.estado. La ubicación actual se completa en el
+     * servicio a partir del estado.
+     *
+     * @param estados Estados a incluir (típicamente EstadoContenedor.pendientes())
+     */
+    @Query("SELECT new utn.frc.isi.backend.tpi_Integrador.dtos.ContenedorPendienteDTO(c.id, c.numero, c.estado, cl.nombre, s.id) " +
+           "FROM Contenedor c LEFT JOIN c.cliente cl LEFT JOIN Solicitud s ON s.contenedor = c " +
+           "WHERE c.estado IN :estados ORDER BY c.id")
+    List<ContenedorPendienteDTO> findContenedoresPendientes(@Param("estados") Collection<EstadoContenedor> estados);
+    
+    /**
+     * Recorre todos los contenedores en el orden indicado sin cargar la tabla completa en memoria.
+     * Usado por la exportación NDJSON; debe consumirse dentro de una transacción.
      */
-    @Query("SELECT c FROM Contenedor c WHERE c.estado IN ('EN_ORIGEN', 'EN_DEPOSITO')")
-    List<Contenedor> findContenedoresPendientes();
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @EntityGraph(attributePaths = {"cliente"})
+    Stream<Contenedor> streamAllBy(Sort sort);
 }
\ No newline at end of file
@@ -0,0 +1,112 @@
+package utn.frc.isi.backend.tpi_Integrador.repositories;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import utn.frc.isi.backend.tpi_Integrador.models.DistanciaCalculada;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Nivel persistente de la caché de distancias de GoogleMapsService.
+ *
+ * No usa el datasource del servicio (H2 en memoria con create-drop, que se vacía en cada reinicio) sino una base
+ * propia, por defecto un archivo H2 (google.maps.cache.persistente.url), para que las distancias ya consultadas
+ * sobrevivan a un reinicio. La tabla se crea en el primer uso; si la base no se puede abrir (ej: el archivo está
+ * tomado por otra instancia) cada operación falla con una excepción que GoogleMapsService registra y ignora.
+ */
+@Repository // Buena práctica para indicar que es un componente de persistencia
+public class DistanciaCalculadaRepository {
+
+    private static final RowMapper<DistanciaCalculada> FILA = (rs, fila) -> {
+        DistanciaCalculada entrada = new DistanciaCalculada();
+        entrada.setClave(rs.getString("clave"));
+        entrada.setDistanciaMetros(rs.getLong("distancia_metros"));
+        entrada.setDistanciaTexto(rs.getString("distancia_texto"));
+        entrada.setDuracionSegundos(rs.getLong("duracion_segundos"));
+        entrada.setDuracionTexto(rs.getString("duracion_texto"));
+        entrada.setFechaCalculo(rs.getTimestamp("fecha_calculo").toLocalDateTime());
+        return entrada;
+    };
+
+    private final HikariDataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private volatile boolean tablaCreada;
+
+    public DistanciaCalculadaRepository(
+            @Value("${google.maps.cache.persistente.url:jdbc:h2:file:./data/distancias-cache}") String url) {
+        this.dataSource = new HikariDataSource();
+        dataSource.setPoolName("distancias-cache");
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername("sa");
+        dataSource.setMaximumPoolSize(2);
+        dataSource.setInitializationFailTimeout(-1); // Sin base disponible el servicio igual inicia (sin este nivel)
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Distancia guardada para la clave (par origen/destino normalizado), vigente o no
+     */
+    public Optional<DistanciaCalculada> findById(String clave) {
+        crearTablaSiFalta();
+        return jdbcTemplate.query("SELECT * FROM distancia_calculada WHERE clave = ?", FILA, clave).stream().findFirst();
+    }
+
+    /**
+     * Guarda la distancia, reemplazando la anterior de la misma clave
+     */
+    public void save(DistanciaCalculada entrada) {
+        crearTablaSiFalta();
+        jdbcTemplate.update("MERGE INTO distancia_calculada (clave, distancia_metros, distancia_texto, duracion_segundos, "
+                        + "duracion_texto, fecha_calculo) KEY (clave) VALUES (?, ?, ?, ?, ?, ?)",
+                entrada.getClave(), entrada.getDistanciaMetros(), entrada.getDistanciaTexto(),
+                entrada.getDuracionSegundos(), entrada.getDuracionTexto(), Timestamp.valueOf(entrada.getFechaCalculo()));
+    }
+
+    public long count() {
+        crearTablaSiFalta();
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM distancia_calculada", Long.class);
+    }
+
+    /**
+     * Elimina las distancias calculadas antes de la fecha indicada (null para no eliminar por antigüedad)
+     * y, de las que quedan, todas menos las maxEntradas más recientes
+     * @return Cantidad de filas eliminadas
+     */
+    public int depurar(LocalDateTime calculadasAntesDe, int maxEntradas) {
+        crearTablaSiFalta();
+        int eliminadas = 0;
+        if (calculadasAntesDe != null) {
+            eliminadas += jdbcTemplate.update("DELETE FROM distancia_calculada WHERE fecha_calculo < ?",
+                    Timestamp.valueOf(calculadasAntesDe));
+        }
+        eliminadas += jdbcTemplate.update("DELETE FROM distancia_calculada WHERE clave IN (SELECT clave FROM "
+                + "distancia_calculada ORDER BY fecha_calculo DESC, clave OFFSET ? ROWS)", maxEntradas);
+        return eliminadas;
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        dataSource.close();
+    }
+
+    private void crearTablaSiFalta() {
+        if (tablaCreada) {
+            return;
+        }
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS distancia_calculada ("
+                + "clave VARCHAR(255) PRIMARY KEY, "
+                + "distancia_metros BIGINT NOT NULL, "
+                + "distancia_texto VARCHAR(255), "
+                + "duracion_segundos BIGINT NOT NULL, "
+                + "duracion_texto VARCHAR(255), "
+                + "fecha_calculo TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_distancia_calculada_fecha ON distancia_calculada (fecha_calculo)");
+        tablaCreada = true;
+    }
+}
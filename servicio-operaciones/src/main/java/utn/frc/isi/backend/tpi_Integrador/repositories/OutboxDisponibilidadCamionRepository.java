@@ -0,0 +1,42 @@
+package utn.frc.isi.backend.tpi_Integrador.repositories;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import utn.frc.isi.backend.tpi_Integrador.models.OutboxDisponibilidadCamion;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository // Buena práctica para indicar que es un componente de persistencia
+public interface OutboxDisponibilidadCamionRepository extends JpaRepository<OutboxDisponibilidadCamion, Long> {
+
+    /**
+     * Cambios en el estado indicado a los que ya les toca intentarse, en el orden en que se registraron
+     */
+    List<OutboxDisponibilidadCamion> findByEstadoAndProximoIntentoLessThanEqualOrderByIdAsc(
+            OutboxDisponibilidadCamion.Estado estado, LocalDateTime ahora, Pageable pageable);
+
+    /**
+     * Cambios en el estado indicado de los camiones indicados (les toque intentarse o no), en el orden en que se registraron
+     */
+    List<OutboxDisponibilidadCamion> findByEstadoAndCamionIdFlotaInOrderByIdAsc(
+            OutboxDisponibilidadCamion.Estado estado, Collection<Long> camionesIdFlota);
+
+    /**
+     * Elimina los cambios enviados o reemplazados antes de la fecha indicada (los fallidos se conservan)
+     * @return Cantidad de filas eliminadas
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OutboxDisponibilidadCamion o WHERE o.estado IN ("
+            + "utn.frc.isi.backend.tpi_Integrador.models.OutboxDisponibilidadCamion.Estado.ENVIADO, "
+            + "utn.frc.isi.backend.tpi_Integrador.models.OutboxDisponibilidadCamion.Estado.REEMPLAZADO) "
+            + "AND o.fechaEnvio < :limite")
+    int eliminarEnviadosAntesDe(@Param("limite") LocalDateTime limite);
+}
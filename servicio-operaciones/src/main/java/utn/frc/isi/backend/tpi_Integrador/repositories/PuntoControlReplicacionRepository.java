@@ -0,0 +1,9 @@
+package utn.frc.isi.backend.tpi_Integrador.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import utn.frc.isi.backend.tpi_Integrador.models.PuntoControlReplicacion;
+
+@Repository
+public interface PuntoControlReplicacionRepository extends JpaRepository<PuntoControlReplicacion, String> {
+}
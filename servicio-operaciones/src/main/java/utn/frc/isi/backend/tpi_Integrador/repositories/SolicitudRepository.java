@@ -1,21 +1,36 @@
 package utn.frc.isi.backend.tpi_Integrador.repositories;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import utn.frc.isi.backend.tpi_Integrador.models.Contenedor;
 import utn.frc.isi.backend.tpi_Integrador.models.Ruta;
 import utn.frc.isi.backend.tpi_Integrador.models.Solicitud;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository // Buena práctica para indicar que es un componente de persistencia
-public interface SolicitudRepository extends JpaRepository<Solicitud, Long> {
+public interface SolicitudRepository extends JpaRepository<Solicitud, Long>, JpaSpecificationExecutor<Solicitud> {
     // Con solo esta línea, Spring Data JPA nos dará métodos como:
     // - save()
     // - findById()
     // - findAll()
     // - deleteById()
     // ¡Y muchos más, sin necesidad de implementarlos!
+
+    /**
+     * Asociaciones que lee SolicitudMapper. Los listados las cargan con un join en la misma consulta
+     * (entity graph) en lugar de un SELECT adicional por asociación y por solicitud (N+1).
+     */
+    List<String> ASOCIACIONES_DTO = List.of("contenedor", "contenedor.cliente", "cliente", "ruta");
     
     /**
      * Buscar solicitud por contenedor
@@ -28,4 +43,22 @@ public interface SolicitudRepository extends JpaRepository<Solicitud, Long> {
      * Usado en la asignación de camiones para validar capacidad
      */
     Optional<Solicitud> findByRuta(Ruta ruta);
+
+    /**
+     * Solicitudes de varias rutas con sus contenedores, en una consulta
+     * Usado en la asignación automática para conocer la carga de cada tramo
+     */
+    @EntityGraph(attributePaths = {"contenedor", "contenedor.cliente", "cliente", "ruta"})
+    List<Solicitud> findByRutaIn(Collection<Ruta> rutas);
+    
+    /**
+     * Recorre todas las solicitudes en el orden indicado sin cargar la tabla completa en memoria.
+     * Usado por la exportación NDJSON; debe consumirse dentro de una transacción.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @EntityGraph(attributePaths = {"contenedor", "contenedor.cliente", "cliente", "ruta"})
+    Stream<Solicitud> streamAllBy(Sort sort);
 }
\ No newline at end of file
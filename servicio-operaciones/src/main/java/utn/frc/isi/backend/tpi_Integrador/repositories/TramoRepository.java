@@ -1,20 +1,35 @@
 package utn.frc.isi.backend.tpi_Integrador.repositories;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoTramo;
 import utn.frc.isi.backend.tpi_Integrador.models.Ruta;
 import utn.frc.isi.backend.tpi_Integrador.models.Tramo;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository // Buena práctica para indicar que es un componente de persistencia
-public interface TramoRepository extends JpaRepository<Tramo, Long> {
+public interface TramoRepository extends JpaRepository<Tramo, Long>, JpaSpecificationExecutor<Tramo> {
     // Con solo esta línea, Spring Data JPA nos dará métodos como:
     // - save()
     // - findById()
     // - findAll()
     // - deleteById()
     // ¡Y muchos más, sin necesidad de implementarlos!
+
+    /**
+     * Asociaciones que lee TramoMapper. Los listados las cargan con un join en la misma consulta
+     * (entity graph) en lugar de un SELECT adicional por asociación y por tramo (N+1).
+     */
+    List<String> ASOCIACIONES_DTO = List.of("ruta", "camionReference", "depositoOrigen", "depositoDestino");
     
     /**
      * Busca todos los tramos de una ruta específica, ordenados por su orden ascendente
@@ -25,15 +40,53 @@ public interface TramoRepository extends JpaRepository<Tramo, Long> {
     /**
      * Busca todos los tramos de una ruta por su ID
      */
+    @EntityGraph(attributePaths = {"ruta", "camionReference", "depositoOrigen", "depositoDestino"})
     List<Tramo> findByRutaId(Long rutaId);
     
     /**
-     * RF#7: Busca tramos asignados a un camión específico que NO estén finalizados
-     * Permite al transportista ver sus tramos pendientes de ejecución
+     * Busca los tramos de varias rutas en una sola consulta, ordenados por ruta y orden.
+     * Usado al mapear listados de rutas y solicitudes para no consultar los tramos ruta por ruta.
+     */
+    @EntityGraph(attributePaths = {"ruta", "camionReference", "depositoOrigen", "depositoDestino"})
+    List<Tramo> findByRutaIdInOrderByRutaIdAscOrdenAsc(Collection<Long> rutaIds);
+    
+    /**
+     * RF#7: Busca tramos asignados a un camión específico en los estados indicados
+     * Permite al transportista ver sus tramos pendientes de ejecución.
+     * Se resuelve con el índice (camion_reference_id, estado) de la tabla tramo.
      * 
      * @param camionId ID del camión asignado al transportista
-     * @param estados Lista de estados a excluir (típicamente "FINALIZADO")
-     * @return Lista de tramos asignados al camión que no están en los estados excluidos
+     * @param estados Estados a incluir (típicamente EstadoTramo.activos())
+     * @return Lista de tramos asignados al camión en alguno de los estados indicados
+     */
+    @EntityGraph(attributePaths = {"ruta", "camionReference", "depositoOrigen", "depositoDestino"})
+    List<Tramo> findByCamionReference_IdAndEstadoIn(Long camionId, Collection<EstadoTramo> estados);
+
+    /**
+     * Tramos en el estado indicado que todavía no tienen camión (candidatos de la asignación automática)
+     */
+    @EntityGraph(attributePaths = {"ruta", "depositoOrigen", "depositoDestino"})
+    List<Tramo> findByEstadoAndCamionReferenceIsNull(EstadoTramo estado);
+
+    /**
+     * Igual que la anterior, restringida a los tramos indicados
+     */
+    @EntityGraph(attributePaths = {"ruta", "depositoOrigen", "depositoDestino"})
+    List<Tramo> findByIdInAndEstadoAndCamionReferenceIsNull(Collection<Long> ids, EstadoTramo estado);
+
+    /**
+     * Indica si el camión tiene algún tramo en los estados indicados (mismo índice que la consulta anterior)
+     */
+    boolean existsByCamionReference_IdAndEstadoIn(Long camionId, Collection<EstadoTramo> estados);
+    
+    /**
+     * Recorre todos los tramos en el orden indicado sin cargar la tabla completa en memoria.
+     * Usado por la exportación NDJSON; debe consumirse dentro de una transacción.
      */
-    List<Tramo> findByCamionReference_IdAndEstadoNotIn(Long camionId, List<String> estados);
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @EntityGraph(attributePaths = {"ruta", "camionReference", "depositoOrigen", "depositoDestino"})
+    Stream<Tramo> streamAllBy(Sort sort);
 }
\ No newline at end of file
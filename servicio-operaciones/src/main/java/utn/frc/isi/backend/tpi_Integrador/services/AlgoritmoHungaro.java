@@ -0,0 +1,85 @@
+package utn.frc.isi.backend.tpi_Integrador.services;
+
+import java.util.Arrays;
+
+/**
+ * Algoritmo húngaro (variante con potenciales, O(filas² × columnas)) para el problema de asignación
+ * de costo mínimo en una matriz rectangular con filas ≤ columnas: cada fila recibe una columna distinta
+ * y la suma de los costos elegidos es mínima.
+ */
+public final class AlgoritmoHungaro {
+
+    private AlgoritmoHungaro() {
+    }
+
+    /**
+     * @param costos Matriz de costos [fila][columna], con filas ≤ columnas y valores finitos
+     * @return Para cada fila, el índice de la columna asignada
+     */
+    public static int[] resolver(double[][] costos) {
+        int filas = costos.length;
+        int columnas = filas == 0 ? 0 : costos[0].length;
+        if (filas > columnas) {
+            throw new IllegalArgumentException("La matriz de costos debe tener a lo sumo tantas filas como columnas");
+        }
+
+        // Índices desde 1; la columna 0 es ficticia y guarda la fila que se está agregando
+        double[] potencialFila = new double[filas + 1];
+        double[] potencialColumna = new double[columnas + 1];
+        int[] filaDeColumna = new int[columnas + 1];
+        int[] columnaPrevia = new int[columnas + 1];
+        double[] minimo = new double[columnas + 1];
+        boolean[] visitada = new boolean[columnas + 1];
+
+        for (int fila = 1; fila <= filas; fila++) {
+            // Camino de aumento más corto (Dijkstra sobre costos reducidos) desde la fila nueva
+            filaDeColumna[0] = fila;
+            int columnaActual = 0;
+            Arrays.fill(minimo, Double.POSITIVE_INFINITY);
+            Arrays.fill(visitada, false);
+            do {
+                visitada[columnaActual] = true;
+                int filaActual = filaDeColumna[columnaActual];
+                double delta = Double.POSITIVE_INFINITY;
+                int siguiente = 0;
+                for (int columna = 1; columna <= columnas; columna++) {
+                    if (!visitada[columna]) {
+                        double reducido = costos[filaActual - 1][columna - 1] - potencialFila[filaActual] - potencialColumna[columna];
+                        if (reducido < minimo[columna]) {
+                            minimo[columna] = reducido;
+                            columnaPrevia[columna] = columnaActual;
+                        }
+                        if (minimo[columna] < delta) {
+                            delta = minimo[columna];
+                            siguiente = columna;
+                        }
+                    }
+                }
+                for (int columna = 0; columna <= columnas; columna++) {
+                    if (visitada[columna]) {
+                        potencialFila[filaDeColumna[columna]] += delta;
+                        potencialColumna[columna] -= delta;
+                    } else {
+                        minimo[columna] -= delta;
+                    }
+                }
+                columnaActual = siguiente;
+            } while (filaDeColumna[columnaActual] != 0);
+
+            // Invertir el camino de aumento
+            do {
+                int previa = columnaPrevia[columnaActual];
+                filaDeColumna[columnaActual] = filaDeColumna[previa];
+                columnaActual = previa;
+            } while (columnaActual != 0);
+        }
+
+        int[] asignacion = new int[filas];
+        for (int columna = 1; columna <= columnas; columna++) {
+            if (filaDeColumna[columna] != 0) {
+                asignacion[filaDeColumna[columna] - 1] = columna - 1;
+            }
+        }
+        return asignacion;
+    }
+}
@@ -0,0 +1,311 @@
+package utn.frc.isi.backend.tpi_Integrador.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import utn.frc.isi.backend.tpi_Integrador.dtos.AsignacionAutomaticaDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.ResultadoAsignacionAutomaticaDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.TramoDTO;
+import utn.frc.isi.backend.tpi_Integrador.exceptions.CamionNoDisponibleException;
+import utn.frc.isi.backend.tpi_Integrador.mappers.TramoMapper;
+import utn.frc.isi.backend.tpi_Integrador.models.CamionReference;
+import utn.frc.isi.backend.tpi_Integrador.models.Contenedor;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoTramo;
+import utn.frc.isi.backend.tpi_Integrador.models.Solicitud;
+import utn.frc.isi.backend.tpi_Integrador.models.Tramo;
+import utn.frc.isi.backend.tpi_Integrador.repositories.CamionReferenceRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.SolicitudRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.TramoRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Asignación automática de camiones a tramos pendientes (versión por lote de RF#6).
+ *
+ * Toma los tramos PENDIENTE sin camión (todos o los indicados) y los camiones disponibles, y resuelve
+ * la asignación de costo total mínimo (costoPorKm del camión × distanciaKm del tramo) con el algoritmo
+ * húngaro, respetando la capacidad de peso y volumen que exige el contenedor de cada tramo.
+ * Los pares que no cumplen la capacidad llevan una penalización mayor que cualquier asignación válida,
+ * de modo que primero se maximiza la cantidad de tramos asignados y, entre esas, se minimiza el costo.
+ *
+ * El cálculo no retiene conexión ni locks: tramos, cargas y camiones se leen en una transacción de solo
+ * lectura, el algoritmo corre fuera de toda transacción sobre esa foto y las asignaciones se confirman
+ * después en una transacción corta. Si algún camión o tramo cambió mientras tanto (otra asignación
+ * concurrente) esa transacción se revierte, no se aplica ninguna y se informa el conflicto.
+ */
+@Service
+public class AsignacionAutomaticaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsignacionAutomaticaService.class);
+
+    private final TramoRepository tramoRepository;
+    private final SolicitudRepository solicitudRepository;
+    private final CamionReferenceRepository camionReferenceRepository;
+    private final OutboxCamionService outboxCamionService;
+    private final TramoMapper tramoMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate lecturaTemplate;
+
+    private final int maxTramos;
+
+    public AsignacionAutomaticaService(TramoRepository tramoRepository,
+                                       SolicitudRepository solicitudRepository,
+                                       CamionReferenceRepository camionReferenceRepository,
+                                       OutboxCamionService outboxCamionService,
+                                       TramoMapper tramoMapper,
+                                       TransactionTemplate transactionTemplate,
+                                       @Value("${tramos.asignacion-automatica.max-tramos:5000}") int maxTramos) {
+        this.tramoRepository = tramoRepository;
+        this.solicitudRepository = solicitudRepository;
+        this.camionReferenceRepository = camionReferenceRepository;
+        this.outboxCamionService = outboxCamionService;
+        this.tramoMapper = tramoMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.lecturaTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.lecturaTemplate.setReadOnly(true);
+        this.maxTramos = maxTramos;
+    }
+
+    /**
+     * Par tramo-camión elegido por la optimización
+     */
+    private record Asignacion(Long tramoId, Long camionId, double costo) {
+    }
+
+    /**
+     * Peso y volumen que exige el contenedor de un tramo
+     */
+    private record Carga(double peso, double volumen) {
+    }
+
+    /**
+     * Datos de un tramo que usa el cálculo (carga null si no hay contenedor conocido)
+     */
+    private record TramoCandidato(Long id, double distanciaKm, Carga carga) {
+    }
+
+    /**
+     * Datos de un camión disponible que usa el cálculo
+     */
+    private record CamionCandidato(Long id, double capacidadPeso, double capacidadVolumen, double costoPorKm) {
+    }
+
+    /**
+     * Foto de tramos y camiones leída antes del cálculo; excedentes son los tramos que superan maxTramos
+     */
+    private record Candidatos(List<TramoCandidato> tramos, List<CamionCandidato> camiones, List<Long> excedentes) {
+    }
+
+    /**
+     * Asigna camiones a los tramos pendientes minimizando el costo total
+     *
+     * @param dto Tramos a considerar (vacío para todos los PENDIENTE sin camión)
+     * @return Tramos asignados, tramos que quedaron sin camión y costo total
+     * @throws CamionNoDisponibleException si otro proceso tomó alguno de los camiones elegidos durante el cálculo
+     */
+    public ResultadoAsignacionAutomaticaDTO asignar(AsignacionAutomaticaDTO dto) {
+        long inicio = System.nanoTime();
+        Candidatos candidatos = lecturaTemplate.execute(status -> leerCandidatos(dto));
+
+        List<Long> sinAsignar = new ArrayList<>(candidatos.excedentes());
+        List<Asignacion> asignaciones = optimizar(candidatos.tramos(), candidatos.camiones(), sinAsignar);
+        List<TramoDTO> asignados = asignaciones.isEmpty()
+                ? List.of()
+                : transactionTemplate.execute(status -> aplicar(asignaciones));
+        double costoTotal = asignaciones.stream().mapToDouble(Asignacion::costo).sum();
+
+        logger.info("Asignación automática: {} tramos asignados, {} sin asignar, costo total {} ({} ms)",
+                    asignados.size(), sinAsignar.size(), costoTotal, (System.nanoTime() - inicio) / 1_000_000);
+        return new ResultadoAsignacionAutomaticaDTO(asignados, sinAsignar, costoTotal);
+    }
+
+    /**
+     * Lee los tramos a asignar (los más antiguos, hasta maxTramos), la carga de cada uno y los camiones disponibles
+     */
+    private Candidatos leerCandidatos(AsignacionAutomaticaDTO dto) {
+        boolean filtrado = dto != null && dto.getTramoIds() != null && !dto.getTramoIds().isEmpty();
+        List<Tramo> tramos = new ArrayList<>(filtrado
+                ? tramoRepository.findByIdInAndEstadoAndCamionReferenceIsNull(dto.getTramoIds(), EstadoTramo.PENDIENTE)
+                : tramoRepository.findByEstadoAndCamionReferenceIsNull(EstadoTramo.PENDIENTE));
+        tramos.sort(Comparator.comparing(Tramo::getId));
+
+        List<Long> excedentes = new ArrayList<>();
+        if (tramos.size() > maxTramos) {
+            // Los más antiguos primero; el resto queda para la próxima ejecución
+            tramos.subList(maxTramos, tramos.size()).forEach(tramo -> excedentes.add(tramo.getId()));
+            tramos = new ArrayList<>(tramos.subList(0, maxTramos));
+        }
+
+        Map<Long, Carga> cargaPorRuta = tramos.isEmpty() ? Map.of() : cargaPorRuta(tramos);
+        List<TramoCandidato> tramosCandidatos = tramos.stream()
+                .map(tramo -> new TramoCandidato(tramo.getId(), tramo.getDistanciaKm(),
+                        tramo.getRuta() != null ? cargaPorRuta.get(tramo.getRuta().getId()) : null))
+                .toList();
+        List<CamionCandidato> camiones = camionReferenceRepository.findByDisponibleTrue().stream()
+                .map(camion -> new CamionCandidato(camion.getId(), camion.getCapacidadPeso(),
+                        camion.getCapacidadVolumen(), camion.getCostoPorKm()))
+                .toList();
+        return new Candidatos(tramosCandidatos, camiones, excedentes);
+    }
+
+    /**
+     * Calcula la asignación de costo mínimo. Los tramos que no reciben camión se agregan a sinAsignar
+     */
+    private List<Asignacion> optimizar(List<TramoCandidato> tramos, List<CamionCandidato> camiones, List<Long> sinAsignar) {
+        if (tramos.isEmpty()) {
+            return List.of();
+        }
+
+        // Se descartan de entrada los tramos que ningún camión puede llevar y los camiones que no sirven para ningún tramo
+        List<TramoCandidato> filas = new ArrayList<>();
+        boolean[] camionUtil = new boolean[camiones.size()];
+        for (TramoCandidato tramo : tramos) {
+            boolean algunoAlcanza = false;
+            for (int c = 0; c < camiones.size(); c++) {
+                if (alcanza(camiones.get(c), tramo.carga())) {
+                    camionUtil[c] = true;
+                    algunoAlcanza = true;
+                }
+            }
+            if (algunoAlcanza) {
+                filas.add(tramo);
+            } else {
+                sinAsignar.add(tramo.id());
+            }
+        }
+        List<CamionCandidato> columnas = new ArrayList<>();
+        for (int c = 0; c < camiones.size(); c++) {
+            if (camionUtil[c]) {
+                columnas.add(camiones.get(c));
+            }
+        }
+        if (filas.isEmpty()) {
+            return List.of();
+        }
+
+        // El algoritmo necesita filas ≤ columnas: si hay más tramos que camiones se resuelve la matriz transpuesta
+        boolean transpuesta = filas.size() > columnas.size();
+        int n = transpuesta ? columnas.size() : filas.size();
+        int m = transpuesta ? filas.size() : columnas.size();
+
+        double[][] costosValidos = new double[filas.size()][columnas.size()];
+        double maxCosto = 0;
+        for (int t = 0; t < filas.size(); t++) {
+            Carga carga = filas.get(t).carga();
+            for (int c = 0; c < columnas.size(); c++) {
+                if (alcanza(columnas.get(c), carga)) {
+                    costosValidos[t][c] = columnas.get(c).costoPorKm() * filas.get(t).distanciaKm();
+                    maxCosto = Math.max(maxCosto, costosValidos[t][c]);
+                } else {
+                    costosValidos[t][c] = Double.NaN;
+                }
+            }
+        }
+        // Penalización mayor que el costo de cualquier asignación completa válida
+        double penalizacion = maxCosto * n + 1;
+
+        double[][] matriz = new double[n][m];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < m; j++) {
+                double costo = transpuesta ? costosValidos[j][i] : costosValidos[i][j];
+                matriz[i][j] = Double.isNaN(costo) ? penalizacion : costo;
+            }
+        }
+        int[] solucion = AlgoritmoHungaro.resolver(matriz);
+
+        Map<Integer, Integer> camionPorTramo = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) {
+            int t = transpuesta ? solucion[i] : i;
+            int c = transpuesta ? i : solucion[i];
+            if (!Double.isNaN(costosValidos[t][c])) {
+                camionPorTramo.put(t, c);
+            }
+        }
+
+        List<Asignacion> asignaciones = new ArrayList<>();
+        for (int t = 0; t < filas.size(); t++) {
+            Integer c = camionPorTramo.get(t);
+            if (c == null) {
+                sinAsignar.add(filas.get(t).id());
+            } else {
+                asignaciones.add(new Asignacion(filas.get(t).id(), columnas.get(c).id(), costosValidos[t][c]));
+            }
+        }
+        return asignaciones;
+    }
+
+    /**
+     * Reserva los camiones elegidos y asigna los tramos, todo en la transacción actual
+     */
+    private List<TramoDTO> aplicar(List<Asignacion> asignaciones) {
+        List<Long> camionIds = asignaciones.stream().map(Asignacion::camionId).toList();
+        if (camionReferenceRepository.reservarTodos(camionIds) != camionIds.size()) {
+            throw new CamionNoDisponibleException(
+                    "Otra asignación tomó alguno de los camiones elegidos; vuelva a ejecutar la asignación automática");
+        }
+
+        // La reserva masiva limpia el contexto de persistencia: se vuelven a leer tramos y camiones
+        List<Long> tramoIds = asignaciones.stream().map(Asignacion::tramoId).toList();
+        Map<Long, Tramo> tramos = tramoRepository.findByIdInAndEstadoAndCamionReferenceIsNull(tramoIds, EstadoTramo.PENDIENTE)
+                .stream()
+                .collect(Collectors.toMap(Tramo::getId, Function.identity()));
+        Map<Long, CamionReference> camiones = camionReferenceRepository.findAllById(camionIds).stream()
+                .collect(Collectors.toMap(CamionReference::getId, Function.identity()));
+
+        List<Tramo> modificados = new ArrayList<>(asignaciones.size());
+        for (Asignacion asignacion : asignaciones) {
+            Tramo tramo = tramos.get(asignacion.tramoId());
+            if (tramo == null) {
+                // Otro proceso asignó el tramo mientras se calculaba
+                throw new ObjectOptimisticLockingFailureException(Tramo.class, asignacion.tramoId());
+            }
+            CamionReference camion = camiones.get(asignacion.camionId());
+            tramo.setCamionReference(camion);
+            tramo.cambiarEstado(EstadoTramo.ASIGNADO);
+            if (camion.getCamionIdFlota() != null) {
+                outboxCamionService.registrarCambioDisponibilidad(camion.getCamionIdFlota(), false);
+            }
+            modificados.add(tramo);
+        }
+        return tramoRepository.saveAll(modificados).stream()
+                .map(tramoMapper::toDTO)
+                .toList();
+    }
+
+    /**
+     * Contenedor que transporta cada ruta, resuelto con una sola consulta para todos los tramos
+     */
+    private Map<Long, Carga> cargaPorRuta(List<Tramo> tramos) {
+        List<Solicitud> solicitudes = solicitudRepository.findByRutaIn(tramos.stream()
+                .map(Tramo::getRuta)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList());
+        Map<Long, Carga> cargas = new LinkedHashMap<>();
+        solicitudes.stream()
+                .filter(solicitud -> solicitud.getContenedor() != null)
+                .forEach(solicitud -> {
+                    Contenedor contenedor = solicitud.getContenedor();
+                    cargas.put(solicitud.getRuta().getId(), new Carga(contenedor.getPeso(), contenedor.getVolumen()));
+                });
+        return cargas;
+    }
+
+    /**
+     * Misma validación de capacidad que la asignación individual (sin contenedor conocido no hay restricción)
+     */
+    private static boolean alcanza(CamionCandidato camion, Carga carga) {
+        return carga == null
+                || (camion.capacidadPeso() >= carga.peso() && camion.capacidadVolumen() >= carga.volumen());
+    }
+}
@@ -1,7 +1,10 @@
 package utn.frc.isi.backend.tpi_Integrador.services;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import utn.frc.isi.backend.tpi_Integrador.exceptions.CamionNoDisponibleException;
 import utn.frc.isi.backend.tpi_Integrador.models.CamionReference;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoTramo;
 import utn.frc.isi.backend.tpi_Integrador.repositories.CamionReferenceRepository;
 
 import java.util.List;
@@ -11,10 +14,13 @@ import java.util.Optional;
 public class CamionReferenceService {
 
     private final CamionReferenceRepository camionReferenceRepository;
+    private final OutboxCamionService outboxCamionService;
 
     // Inyección de dependencias a través del constructor (práctica recomendada)
-    public CamionReferenceService(CamionReferenceRepository camionReferenceRepository) {
+    public CamionReferenceService(CamionReferenceRepository camionReferenceRepository,
+                                  OutboxCamionService outboxCamionService) {
         this.camionReferenceRepository = camionReferenceRepository;
+        this.outboxCamionService = outboxCamionService;
     }
 
     public List<CamionReference> obtenerTodos() {
@@ -44,6 +50,56 @@ public class CamionReferenceService {
     public void eliminarCamionReference(Long id) {
         camionReferenceRepository.deleteById(id);
     }
+
+    /**
+     * Reserva el camión con un UPDATE condicional atómico: entre reservas concurrentes solo una lo obtiene.
+     * La ocupación se informa a servicio-flota mediante el outbox.
+     *
+     * @param id ID de la referencia del camión
+     * @return Optional con la referencia reservada, vacío si no existe
+     * @throws CamionNoDisponibleException si el camión ya estaba reservado o asignado
+     */
+    @Transactional
+    public Optional<CamionReference> reservar(Long id) {
+        if (camionReferenceRepository.reservarLocalmente(id) == 0) {
+            if (!camionReferenceRepository.existsById(id)) {
+                return Optional.empty();
+            }
+            throw new CamionNoDisponibleException("El camión " + id + " no está disponible");
+        }
+        return camionReferenceRepository.findById(id).map(camion -> {
+            informarDisponibilidad(camion);
+            return camion;
+        });
+    }
+
+    /**
+     * Libera una reserva hecha con reservar(), también de forma atómica.
+     * No libera camiones con tramos asignados o iniciados: esos se liberan al finalizar el tramo.
+     *
+     * @param id ID de la referencia del camión
+     * @return Optional con la referencia liberada, vacío si no existe
+     * @throws IllegalStateException si el camión ya estaba disponible o tiene tramos activos
+     */
+    @Transactional
+    public Optional<CamionReference> liberar(Long id) {
+        if (camionReferenceRepository.liberar(id, EstadoTramo.activos()) == 0) {
+            if (!camionReferenceRepository.existsById(id)) {
+                return Optional.empty();
+            }
+            throw new IllegalStateException("El camión " + id + " no está reservado o tiene tramos activos");
+        }
+        return camionReferenceRepository.findById(id).map(camion -> {
+            informarDisponibilidad(camion);
+            return camion;
+        });
+    }
+
+    private void informarDisponibilidad(CamionReference camion) {
+        if (camion.getCamionIdFlota() != null) {
+            outboxCamionService.registrarCambioDisponibilidad(camion.getCamionIdFlota(), camion.isDisponible());
+        }
+    }
     
     // Aquí se podrían agregar más métodos de negocio en el futuro,
     // como sincronizarConServicioFlota(Long camionId), buscarPorCamionId(Long camionId), etc.
@@ -1,48 +1,84 @@
 package utn.frc.isi.backend.tpi_Integrador.services;
 
+import jakarta.persistence.EntityManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import utn.frc.isi.backend.tpi_Integrador.dtos.ContenedorCreateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.ContenedorDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.ContenedorEstadoDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.ContenedorPendienteDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.ContenedorUpdateDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.PaginaDTO;
 import utn.frc.isi.backend.tpi_Integrador.mappers.ContenedorMapper;
 import utn.frc.isi.backend.tpi_Integrador.models.Contenedor;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoContenedor;
 import utn.frc.isi.backend.tpi_Integrador.repositories.ContenedorRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.PaginacionKeyset;
 import utn.frc.isi.backend.tpi_Integrador.repositories.SolicitudRepository;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Service // Marca esta clase como un componente de servicio de Spring
 public class ContenedorService {
 
     private static final Logger logger = LoggerFactory.getLogger(ContenedorService.class);
 
+    // Campos por los que se puede ordenar el listado (si admiten nulos, esas filas van al final)
+    public static final Set<String> CAMPOS_ORDENABLES = Set.of("id", "numero", "tipo", "peso", "volumen", "estado");
+
     private final ContenedorRepository contenedorRepository;
     private final SolicitudRepository solicitudRepository;
     private final ContenedorMapper contenedorMapper;
+    private final EntityManager entityManager;
 
     // Inyección de dependencias a través del constructor (práctica recomendada)
     public ContenedorService(ContenedorRepository contenedorRepository,
                            SolicitudRepository solicitudRepository,
-                           ContenedorMapper contenedorMapper) {
+                           ContenedorMapper contenedorMapper,
+                             EntityManager entityManager) {
         this.contenedorRepository = contenedorRepository;
         this.solicitudRepository = solicitudRepository;
         this.contenedorMapper = contenedorMapper;
+        this.entityManager = entityManager;
     }
 
-    public List<ContenedorDTO> obtenerTodos() {
-        logger.info("Obteniendo todos los contenedores");
-        List<ContenedorDTO> contenedores = contenedorRepository.findAll()
-                .stream()
-                .map(contenedorMapper::toDTO)
-                .collect(Collectors.toList());
-        logger.info("Se encontraron {} contenedores", contenedores.size());
-        return contenedores;
+    /**
+     * Obtiene una página de contenedores con paginación por cursor (keyset)
+     * @param cursor Cursor devuelto por la página anterior (null para la primera)
+     * @param limite Cantidad de elementos por página
+     * @param ordenarPor Campo de orden (uno de CAMPOS_ORDENABLES)
+     * @param direccion Dirección del orden
+     * @return PaginaDTO con la página de contenedores y el cursor de la siguiente
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<ContenedorDTO> obtenerPagina(String cursor, int limite, String ordenarPor, Sort.Direction direccion) {
+        logger.info("Obteniendo página de contenedores (limite={}, orden={} {})", limite, ordenarPor, direccion);
+        PaginaDTO<ContenedorDTO> pagina = PaginacionKeyset.paginar(contenedorRepository, CAMPOS_ORDENABLES,
+                ContenedorRepository.ASOCIACIONES_DTO, cursor, limite, ordenarPor, direccion, contenedorMapper::toDTO);
+        logger.info("Se devolvieron {} contenedores", pagina.getItems().size());
+        return pagina;
+    }
+
+    /**
+     * Exporta todos los contenedores entregando cada fila al consumidor a medida que se lee
+     * de la base de datos, sin cargar la tabla completa en memoria
+     * @param ordenarPor Campo de orden (uno de CAMPOS_ORDENABLES)
+     * @param direccion Dirección del orden
+     * @param consumidor Receptor de cada ContenedorDTO
+     */
+    @Transactional(readOnly = true)
+    public void exportar(String ordenarPor, Sort.Direction direccion, Consumer<? super ContenedorDTO> consumidor) {
+        PaginacionKeyset.validarCampo(ordenarPor, CAMPOS_ORDENABLES);
+        long cantidad = PaginacionKeyset.exportar(
+                contenedorRepository.streamAllBy(PaginacionKeyset.ordenar(ordenarPor, direccion)),
+                entityManager, contenedorMapper::toDTO, consumidor);
+        logger.info("Se exportaron {} contenedores", cantidad);
     }
 
     public Optional<ContenedorDTO> obtenerPorId(Long id) {
@@ -131,19 +167,19 @@ public class ContenedorService {
     /**
      * Método auxiliar para determinar la descripción de ubicación según el estado
      */
-    private String determinarUbicacionPorEstado(String estado) {
+    private String determinarUbicacionPorEstado(EstadoContenedor estado) {
         if (estado == null) {
             return "Estado desconocido";
         }
         
-        switch (estado.toUpperCase()) {
-            case "EN_ORIGEN":
+        switch (estado) {
+            case EN_ORIGEN:
                 return "El contenedor se encuentra en la dirección de origen, listo para ser recogido.";
-            case "EN_DEPOSITO":
+            case EN_DEPOSITO:
                 return "El contenedor está almacenado en un depósito intermedio de la ruta.";
-            case "EN_VIAJE":
+            case EN_VIAJE:
                 return "El contenedor está en tránsito hacia el siguiente punto de la ruta.";
-            case "ENTREGADO":
+            case ENTREGADO:
                 return "El contenedor ha sido entregado exitosamente en la dirección de destino.";
             default:
                 return "Estado: " + estado;
@@ -158,39 +194,12 @@ public class ContenedorService {
      */
     public List<ContenedorPendienteDTO> consultarPendientes() {
         logger.info("Consultando contenedores pendientes");
-        List<ContenedorPendienteDTO> pendientes = contenedorRepository.findContenedoresPendientes()
-                .stream()
-                .map(this::mapToPendienteDTO)
-                .collect(Collectors.toList());
+        List<ContenedorPendienteDTO> pendientes = contenedorRepository.findContenedoresPendientes(EstadoContenedor.pendientes());
+        pendientes.forEach(dto -> dto.setUbicacionActual(determinarUbicacionPorEstado(dto.getEstado())));
         logger.info("Se encontraron {} contenedores pendientes", pendientes.size());
         return pendientes;
     }
     
-    /**
-     * Método helper para mapear de Contenedor a ContenedorPendienteDTO
-     */
-    private ContenedorPendienteDTO mapToPendienteDTO(Contenedor contenedor) {
-        ContenedorPendienteDTO dto = new ContenedorPendienteDTO();
-        dto.setId(contenedor.getId());
-        dto.setNumero(contenedor.getNumero());
-        dto.setEstado(contenedor.getEstado());
-        
-        // Obtener nombre del cliente
-        if (contenedor.getCliente() != null) {
-            dto.setCliente(contenedor.getCliente().getNombre());
-        }
-        
-        // Determinar ubicación según estado
-        dto.setUbicacionActual(determinarUbicacionPorEstado(contenedor.getEstado()));
-        
-        // Buscar solicitud asociada
-        solicitudRepository.findByContenedor(contenedor).ifPresent(solicitud -> {
-            dto.setSolicitudId(solicitud.getId());
-        });
-        
-        return dto;
-    }
-    
     // Aquí se podrían agregar más métodos de negocio en el futuro,
     // como actualizarEstado(Long id, String nuevoEstado), buscarContenedoresPorCliente(Long clienteId), etc.
 }
\ No newline at end of file
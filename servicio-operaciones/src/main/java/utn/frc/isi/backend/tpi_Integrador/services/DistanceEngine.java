@@ -0,0 +1,38 @@
+package utn.frc.isi.backend.tpi_Integrador.services;
+
+import utn.frc.isi.backend.tpi_Integrador.dtos.Coordenada;
+import utn.frc.isi.backend.tpi_Integrador.dtos.EstimacionDistancia;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Motor de cálculo de distancia y tiempo entre dos coordenadas.
+ * Implementaciones: Google Maps (GoogleDistanceEngine) y geodésica local (GeodesicDistanceEngine).
+ */
+public interface DistanceEngine {
+
+    /**
+     * Estima distancia y tiempo entre dos puntos
+     *
+     * @param origen Coordenada de origen
+     * @param destino Coordenada de destino
+     * @param tipoTramo Tipo de tramo (ej: "ORIGEN-DEPOSITO"), puede ser null
+     * @return Optional con la estimación, vacío si no se pudo calcular
+     */
+    Optional<EstimacionDistancia> estimar(Coordenada origen, Coordenada destino, String tipoTramo);
+
+    /**
+     * Estima varios pares origen/destino alineados por índice.
+     * Por defecto resuelve cada par por separado; los motores remotos pueden agruparlos.
+     */
+    default List<Optional<EstimacionDistancia>> estimar(List<Coordenada> origenes, List<Coordenada> destinos,
+                                                        List<String> tiposTramo) {
+        List<Optional<EstimacionDistancia>> resultados = new ArrayList<>(origenes.size());
+        for (int i = 0; i < origenes.size(); i++) {
+            resultados.add(estimar(origenes.get(i), destinos.get(i), tiposTramo.get(i)));
+        }
+        return resultados;
+    }
+}
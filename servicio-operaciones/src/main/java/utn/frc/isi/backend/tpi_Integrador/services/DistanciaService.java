@@ -0,0 +1,81 @@
+package utn.frc.isi.backend.tpi_Integrador.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import utn.frc.isi.backend.tpi_Integrador.dtos.Coordenada;
+import utn.frc.isi.backend.tpi_Integrador.dtos.EstimacionDistancia;
+import utn.frc.isi.backend.tpi_Integrador.dtos.ModoCalculoDistancia;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Punto único para calcular distancias de rutas y tramos.
+ * Elige el motor según el modo pedido (o el configurado por defecto) y,
+ * en modo AUTO, completa con la estimación geodésica lo que Google Maps no pudo resolver.
+ */
+@Service
+public class DistanciaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DistanciaService.class);
+
+    private final GoogleDistanceEngine googleDistanceEngine;
+    private final GeodesicDistanceEngine geodesicDistanceEngine;
+    private final ModoCalculoDistancia modoPorDefecto;
+
+    public DistanciaService(GoogleDistanceEngine googleDistanceEngine,
+                            GeodesicDistanceEngine geodesicDistanceEngine,
+                            @Value("${distancias.modo:AUTO}") ModoCalculoDistancia modoPorDefecto) {
+        this.googleDistanceEngine = googleDistanceEngine;
+        this.geodesicDistanceEngine = geodesicDistanceEngine;
+        this.modoPorDefecto = modoPorDefecto;
+    }
+
+    /**
+     * Modo que se usa realmente para un pedido: el indicado o, si es null, el configurado en distancias.modo
+     */
+    public ModoCalculoDistancia modoEfectivo(ModoCalculoDistancia modo) {
+        return modo != null ? modo : modoPorDefecto;
+    }
+
+    /**
+     * Estima distancia y tiempo entre dos puntos
+     *
+     * @param modo Modo de cálculo; si es null se usa el configurado en distancias.modo
+     * @return Optional con la estimación, vacío si ningún motor pudo calcularla
+     */
+    public Optional<EstimacionDistancia> estimar(Coordenada origen, Coordenada destino, String tipoTramo,
+                                                 ModoCalculoDistancia modo) {
+        return estimar(List.of(origen), List.of(destino), Collections.singletonList(tipoTramo), modo).get(0);
+    }
+
+    /**
+     * Estima varios pares origen/destino (alineados por índice) con el modo indicado
+     */
+    public List<Optional<EstimacionDistancia>> estimar(List<Coordenada> origenes, List<Coordenada> destinos,
+                                                       List<String> tiposTramo, ModoCalculoDistancia modo) {
+        ModoCalculoDistancia modoEfectivo = modoEfectivo(modo);
+
+        if (modoEfectivo == ModoCalculoDistancia.GEODESICO) {
+            return geodesicDistanceEngine.estimar(origenes, destinos, tiposTramo);
+        }
+
+        List<Optional<EstimacionDistancia>> resultados =
+                new ArrayList<>(googleDistanceEngine.estimar(origenes, destinos, tiposTramo));
+
+        if (modoEfectivo == ModoCalculoDistancia.AUTO) {
+            for (int i = 0; i < resultados.size(); i++) {
+                if (resultados.get(i).isEmpty()) {
+                    logger.warn("Google Maps no pudo calcular el tramo {} -> {}, usando estimación geodésica",
+                                origenes.get(i), destinos.get(i));
+                    resultados.set(i, geodesicDistanceEngine.estimar(origenes.get(i), destinos.get(i), tiposTramo.get(i)));
+                }
+            }
+        }
+        return resultados;
+    }
+}
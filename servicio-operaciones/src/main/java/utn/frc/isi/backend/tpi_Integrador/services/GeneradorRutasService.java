@@ -0,0 +1,343 @@
+package utn.frc.isi.backend.tpi_Integrador.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import utn.frc.isi.backend.tpi_Integrador.clients.FlotaServiceClient;
+import utn.frc.isi.backend.tpi_Integrador.config.RutasTentativasProperties;
+import utn.frc.isi.backend.tpi_Integrador.dtos.Coordenada;
+import utn.frc.isi.backend.tpi_Integrador.dtos.EstimacionDistancia;
+import utn.frc.isi.backend.tpi_Integrador.dtos.ModoCalculoDistancia;
+import utn.frc.isi.backend.tpi_Integrador.dtos.RutaTentativaDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.TramoTentativoDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.TarifaDTO;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Genera rutas tentativas entre un origen y un destino pasando por 0..K depósitos
+ * intermedios de servicio-flota (RF#3).
+ *
+ * La búsqueda se hace sobre distancias geodésicas (sin red) y está acotada:
+ * 1. Solo entran los depósitos cercanos al corredor origen-destino (consultados al índice
+ *    espacial de servicio-flota y filtrados por desvío).
+ * 2. Una búsqueda best-first devuelve las rutas candidatas de menor a mayor largo,
+ *    exigiendo que cada parada acerque al destino y sin superar el desvío máximo.
+ * 3. La búsqueda se corta al reunir suficientes candidatas, al llegar al tope de
+ *    expansiones o al agotar el presupuesto de tiempo.
+ * Las candidatas se valorizan luego con distancias reales (una sola consulta agrupada)
+ * y la tarifa activa, y se devuelven las N mejores por costo y tiempo.
+ */
+@Service
+public class GeneradorRutasService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeneradorRutasService.class);
+
+    // Cuántas candidatas geodésicas se valorizan por cada ruta devuelta
+    private static final int CANDIDATAS_POR_RESULTADO = 3;
+
+    private final FlotaServiceClient flotaServiceClient;
+    private final DistanciaService distanciaService;
+    private final RutasTentativasProperties properties;
+
+    public GeneradorRutasService(FlotaServiceClient flotaServiceClient,
+                                 DistanciaService distanciaService,
+                                 RutasTentativasProperties properties) {
+        this.flotaServiceClient = flotaServiceClient;
+        this.distanciaService = distanciaService;
+        this.properties = properties;
+    }
+
+    /**
+     * Punto de una ruta: el origen, el destino o un depósito intermedio
+     */
+    private record Punto(Long depositoId, String nombre, double latitud, double longitud) {
+
+        Coordenada toCoordenada() {
+            return new Coordenada(latitud, longitud);
+        }
+
+        String clave() {
+            return latitud + "," + longitud;
+        }
+    }
+
+    /**
+     * Ruta parcial de la búsqueda: paradas elegidas, largo recorrido y largo total
+     * si desde la última parada se fuera directo al destino (cota inferior de sus extensiones)
+     */
+    private record Parcial(List<Integer> paradas, double largo, double largoHastaDestino) {
+    }
+
+    /**
+     * Genera las rutas tentativas ordenadas por costo estimado y tiempo
+     *
+     * @param origen Coordenada de origen
+     * @param destino Coordenada de destino
+     * @param modo Modo de cálculo de distancias (null = el configurado)
+     * @return Lista con hasta maxResultados rutas tentativas (al menos una). Siempre incluye la directa si se pudo
+     *         calcular: si no está entre las más baratas reemplaza a la última
+     */
+    public List<RutaTentativaDTO> generar(Coordenada origen, Coordenada destino, ModoCalculoDistancia modo) {
+        long inicio = System.nanoTime();
+        Punto puntoOrigen = new Punto(null, "Origen", origen.getLatitud(), origen.getLongitud());
+        Punto puntoDestino = new Punto(null, "Destino", destino.getLatitud(), destino.getLongitud());
+
+        List<Punto> candidatos = seleccionarDepositosCandidatos(puntoOrigen, puntoDestino);
+        List<List<Punto>> rutasCandidatas = buscarRutasCandidatas(puntoOrigen, puntoDestino, candidatos, inicio);
+
+        Optional<TarifaDTO> tarifa = flotaServiceClient.obtenerTarifaActiva();
+        if (tarifa.isEmpty()) {
+            logger.warn("No se pudo obtener la tarifa activa, se estima el costo con ${} por km",
+                        properties.getCostoKmSinTarifa());
+        }
+
+        ModoCalculoDistancia modoEfectivo = distanciaService.modoEfectivo(modo);
+        List<RutaTentativaDTO> rutas = valorizar(rutasCandidatas, tarifa.orElse(null), modoEfectivo);
+        if (rutas.isEmpty()) {
+            throw new RuntimeException(mensajeSinDistancia(modoEfectivo));
+        }
+
+        List<RutaTentativaDTO> ordenadas = rutas.stream()
+                .sorted(Comparator.comparingDouble(RutaTentativaDTO::getCostoEstimadoTotal)
+                        .thenComparingDouble(RutaTentativaDTO::getTiempoEstimadoTotal))
+                .collect(Collectors.toList());
+        List<RutaTentativaDTO> mejores = new ArrayList<>(
+                ordenadas.subList(0, Math.min(Math.max(1, properties.getMaxResultados()), ordenadas.size())));
+        // La directa queda siempre como referencia: si por costo quedó afuera ocupa el último lugar
+        ordenadas.stream()
+                .filter(ruta -> ruta.getCantidadDepositos() == 0)
+                .findFirst()
+                .filter(directa -> ordenadas.indexOf(directa) >= mejores.size())
+                .ifPresent(directa -> mejores.set(mejores.size() - 1, directa));
+
+        logger.info("Rutas tentativas generadas: {} depósitos candidatos, {} rutas valorizadas, {} devueltas en {} ms",
+                    candidatos.size(), rutas.size(), mejores.size(), (System.nanoTime() - inicio) / 1_000_000);
+        return mejores;
+    }
+
+    /**
+     * Filtra los depósitos de servicio-flota dejando solo los que no alargan demasiado
+     * el viaje (origen → depósito → destino), ordenados por ese desvío
+     */
+    private List<Punto> seleccionarDepositosCandidatos(Punto origen, Punto destino) {
+        if (properties.getMaxDepositos() <= 0) {
+            return List.of();
+        }
+        double directa = distancia(origen, destino);
+        double limite = directa * properties.getMaxDesvio();
+        // Los puntos que cumplen el desvío forman una elipse con focos en origen y destino:
+        // a servicio-flota solo se le piden los depósitos dentro de su semieje menor del segmento
+        // (con un margen por la proyección plana que usa el índice)
+        double anchoCorredor = 1.05 * directa / 2 * Math.sqrt(Math.max(0, properties.getMaxDesvio() * properties.getMaxDesvio() - 1));
+
+        return flotaServiceClient.obtenerDepositosEnCorredor(origen.latitud(), origen.longitud(),
+                                                             destino.latitud(), destino.longitud(), anchoCorredor)
+                .stream()
+                .map(d -> new Punto(d.getId(), d.getNombre(), d.getLatitud(), d.getLongitud()))
+                .filter(p -> distancia(origen, p) + distancia(p, destino) <= limite)
+                .sorted(Comparator.comparingDouble(p -> distancia(origen, p) + distancia(p, destino)))
+                .limit(properties.getDepositosCandidatos())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Búsqueda best-first de rutas con hasta maxDepositos paradas.
+     * Como cada parada se conecta luego al destino en línea recta, las rutas salen
+     * de la cola en orden creciente de largo geodésico: la primera es siempre la directa,
+     * que se expande aunque el presupuesto de tiempo ya se haya agotado (ej: servicio-flota lento).
+     */
+    private List<List<Punto>> buscarRutasCandidatas(Punto origen, Punto destino, List<Punto> candidatos, long inicio) {
+        double directa = distancia(origen, destino);
+        double limite = directa * properties.getMaxDesvio();
+        int objetivo = Math.max(1, properties.getMaxResultados() * CANDIDATAS_POR_RESULTADO);
+        long limiteTiempo = inicio + properties.getTiempoMaximoMs() * 1_000_000;
+
+        // Distancia de cada depósito candidato al destino (se usa en cada expansión)
+        double[] hastaDestino = new double[candidatos.size()];
+        for (int i = 0; i < candidatos.size(); i++) {
+            hastaDestino[i] = distancia(candidatos.get(i), destino);
+        }
+
+        PriorityQueue<Parcial> cola = new PriorityQueue<>(Comparator.comparingDouble(Parcial::largoHastaDestino));
+        cola.add(new Parcial(List.of(), 0.0, directa));
+
+        List<List<Punto>> rutas = new ArrayList<>();
+        int expansiones = 0;
+        while (!cola.isEmpty() && rutas.size() < objetivo) {
+            if (expansiones > 0 && (expansiones >= properties.getMaxExpansiones() || System.nanoTime() > limiteTiempo)) {
+                logger.warn("Búsqueda de rutas tentativas cortada tras {} expansiones ({} rutas encontradas)",
+                            expansiones, rutas.size());
+                break;
+            }
+            expansiones++;
+
+            Parcial parcial = cola.poll();
+            List<Punto> ruta = new ArrayList<>();
+            ruta.add(origen);
+            parcial.paradas().forEach(i -> ruta.add(candidatos.get(i)));
+            ruta.add(destino);
+            rutas.add(ruta);
+
+            if (parcial.paradas().size() >= properties.getMaxDepositos()) {
+                continue;
+            }
+
+            Punto ultimo = ruta.get(ruta.size() - 2);
+            double restante = parcial.largoHastaDestino() - parcial.largo();
+            for (int i = 0; i < candidatos.size(); i++) {
+                // Cada parada tiene que acercar al destino (evita ciclos y retrocesos)
+                if (hastaDestino[i] >= restante || parcial.paradas().contains(i)) {
+                    continue;
+                }
+                double largo = parcial.largo() + distancia(ultimo, candidatos.get(i));
+                double largoHastaDestino = largo + hastaDestino[i];
+                if (largoHastaDestino <= limite) {
+                    List<Integer> paradas = new ArrayList<>(parcial.paradas());
+                    paradas.add(i);
+                    cola.add(new Parcial(paradas, largo, largoHastaDestino));
+                }
+            }
+        }
+        logger.debug("Búsqueda de rutas tentativas: {} expansiones, {} rutas candidatas", expansiones, rutas.size());
+        return rutas;
+    }
+
+    /**
+     * Calcula distancia, tiempo y costo de cada ruta candidata.
+     * Los tramos distintos de todas las candidatas se resuelven en una sola consulta agrupada.
+     */
+    private List<RutaTentativaDTO> valorizar(List<List<Punto>> rutasCandidatas, TarifaDTO tarifa,
+                                             ModoCalculoDistancia modo) {
+        Map<String, Integer> indiceTramos = new LinkedHashMap<>();
+        List<Coordenada> origenes = new ArrayList<>();
+        List<Coordenada> destinos = new ArrayList<>();
+        List<String> tipos = new ArrayList<>();
+        for (List<Punto> ruta : rutasCandidatas) {
+            for (int i = 0; i < ruta.size() - 1; i++) {
+                Punto desde = ruta.get(i);
+                Punto hasta = ruta.get(i + 1);
+                indiceTramos.computeIfAbsent(desde.clave() + "|" + hasta.clave(), clave -> {
+                    origenes.add(desde.toCoordenada());
+                    destinos.add(hasta.toCoordenada());
+                    tipos.add(tipoTramo(desde, hasta));
+                    return origenes.size() - 1;
+                });
+            }
+        }
+        List<Optional<EstimacionDistancia>> estimaciones = distanciaService.estimar(origenes, destinos, tipos, modo);
+
+        List<RutaTentativaDTO> rutas = new ArrayList<>();
+        for (List<Punto> ruta : rutasCandidatas) {
+            List<TramoTentativoDTO> tramos = new ArrayList<>();
+            for (int i = 0; i < ruta.size() - 1; i++) {
+                Punto desde = ruta.get(i);
+                Punto hasta = ruta.get(i + 1);
+                Optional<EstimacionDistancia> estimacion =
+                        estimaciones.get(indiceTramos.get(desde.clave() + "|" + hasta.clave()));
+                if (estimacion.isEmpty()) {
+                    logger.debug("Ruta descartada: no se pudo calcular el tramo {} -> {}", desde.nombre(), hasta.nombre());
+                    tramos = null;
+                    break;
+                }
+                tramos.add(crearTramo(i + 1, desde, hasta, estimacion.get(), tarifa, modo));
+            }
+            if (tramos != null) {
+                rutas.add(crearRuta(tramos, ruta));
+            }
+        }
+        return rutas;
+    }
+
+    private TramoTentativoDTO crearTramo(int orden, Punto desde, Punto hasta, EstimacionDistancia estimacion,
+                                         TarifaDTO tarifa, ModoCalculoDistancia modo) {
+        TramoTentativoDTO tramo = new TramoTentativoDTO();
+        tramo.setOrden(orden);
+        tramo.setTipo(tipoTramo(desde, hasta));
+        tramo.setPuntoInicio(desde.toCoordenada());
+        tramo.setPuntoFin(hasta.toCoordenada());
+        tramo.setDepositoOrigenId(desde.depositoId());
+        tramo.setDepositoDestinoId(hasta.depositoId());
+        tramo.setDistanciaKm(estimacion.getDistanciaKm());
+        tramo.setTiempoEstimadoHoras(estimacion.getTiempoHoras());
+        tramo.setCostoAproximado(calcularCosto(estimacion.getDistanciaKm(), hasta.depositoId() != null, tarifa));
+        tramo.setObservaciones(desde.nombre() + " → " + hasta.nombre() + " " + describirFuente(estimacion, modo));
+        return tramo;
+    }
+
+    private RutaTentativaDTO crearRuta(List<TramoTentativoDTO> tramos, List<Punto> ruta) {
+        int cantidadDepositos = ruta.size() - 2;
+        double distanciaTotal = tramos.stream().mapToDouble(TramoTentativoDTO::getDistanciaKm).sum();
+
+        RutaTentativaDTO rutaTentativa = new RutaTentativaDTO();
+        rutaTentativa.setTramos(tramos);
+        rutaTentativa.setCostoEstimadoTotal(tramos.stream().mapToDouble(TramoTentativoDTO::getCostoAproximado).sum());
+        rutaTentativa.setTiempoEstimadoTotal(tramos.stream().mapToDouble(TramoTentativoDTO::getTiempoEstimadoHoras).sum());
+        rutaTentativa.setDistanciaTotal(distanciaTotal);
+        rutaTentativa.setCantidadTramos(tramos.size());
+        rutaTentativa.setCantidadDepositos(cantidadDepositos);
+        if (cantidadDepositos == 0) {
+            rutaTentativa.setTipoRuta("DIRECTA");
+            rutaTentativa.setDescripcion("Ruta directa de " + String.format("%.2f", distanciaTotal) + " km sin paradas intermedias");
+        } else {
+            String depositos = ruta.subList(1, ruta.size() - 1).stream()
+                    .map(Punto::nombre)
+                    .collect(Collectors.joining(", "));
+            rutaTentativa.setTipoRuta("CON_DEPOSITOS");
+            rutaTentativa.setDescripcion("Ruta de " + String.format("%.2f", distanciaTotal) + " km pasando por: " + depositos);
+        }
+        return rutaTentativa;
+    }
+
+    /**
+     * Costo aproximado de un tramo según la tarifa activa:
+     * cargo de gestión + km × costo base + combustible estimado + estadía si termina en un depósito
+     */
+    private double calcularCosto(double distanciaKm, boolean terminaEnDeposito, TarifaDTO tarifa) {
+        if (tarifa == null) {
+            return distanciaKm * properties.getCostoKmSinTarifa();
+        }
+        double costo = tarifa.getCargoGestionPorTramo()
+                + distanciaKm * tarifa.getCostoKmBase()
+                + distanciaKm * properties.getConsumoPromedioLitrosKm() * tarifa.getPrecioLitroCombustible();
+        if (terminaEnDeposito) {
+            costo += properties.getDiasEstadiaPorDeposito() * tarifa.getCostoEstadiaDiaria();
+        }
+        return costo;
+    }
+
+    private String tipoTramo(Punto desde, Punto hasta) {
+        String inicio = desde.depositoId() != null ? "DEPOSITO" : "ORIGEN";
+        String fin = hasta.depositoId() != null ? "DEPOSITO" : "DESTINO";
+        return inicio + "-" + fin;
+    }
+
+    private String describirFuente(EstimacionDistancia estimacion, ModoCalculoDistancia modo) {
+        if (!GeodesicDistanceEngine.FUENTE.equals(estimacion.getFuente())) {
+            return "(calculada con Google Maps)";
+        }
+        // En modo AUTO la estimación geodésica reemplaza a Google Maps; en GEODESICO es lo pedido
+        return modo == ModoCalculoDistancia.AUTO
+                ? "(estimación geodésica, Google Maps no disponible)"
+                : "(estimación geodésica)";
+    }
+
+    private String mensajeSinDistancia(ModoCalculoDistancia modo) {
+        return switch (modo) {
+            case GOOGLE -> "No se pudo calcular la distancia usando Google Maps API. Verifique las coordenadas y la conectividad.";
+            case GEODESICO -> "No se pudo estimar la distancia geodésica. Verifique las coordenadas.";
+            case AUTO -> "No se pudo calcular la distancia con Google Maps ni con la estimación geodésica. Verifique las coordenadas.";
+        };
+    }
+
+    private static double distancia(Punto a, Punto b) {
+        return GeodesicDistanceEngine.haversineKm(a.latitud(), a.longitud(), b.latitud(), b.longitud());
+    }
+}
@@ -0,0 +1,53 @@
+package utn.frc.isi.backend.tpi_Integrador.services;
+
+import org.springframework.stereotype.Component;
+import utn.frc.isi.backend.tpi_Integrador.config.DistanciaGeodesicaProperties;
+import utn.frc.isi.backend.tpi_Integrador.dtos.Coordenada;
+import utn.frc.isi.backend.tpi_Integrador.dtos.EstimacionDistancia;
+
+import java.util.Optional;
+
+/**
+ * Motor de distancias local, sin red: distancia haversine (círculo máximo)
+ * multiplicada por un factor de desvío por ruta, y tiempo según la velocidad
+ * promedio configurada para el tipo de tramo.
+ */
+@Component
+public class GeodesicDistanceEngine implements DistanceEngine {
+
+    public static final String FUENTE = "GEODESICO";
+
+    private static final double RADIO_TIERRA_KM = 6371.0088;
+
+    private final DistanciaGeodesicaProperties properties;
+
+    public GeodesicDistanceEngine(DistanciaGeodesicaProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public Optional<EstimacionDistancia> estimar(Coordenada origen, Coordenada destino, String tipoTramo) {
+        if (origen == null || destino == null || origen.getLatitud() == null || origen.getLongitud() == null
+                || destino.getLatitud() == null || destino.getLongitud() == null) {
+            return Optional.empty();
+        }
+
+        double distanciaKm = haversineKm(origen.getLatitud(), origen.getLongitud(),
+                                         destino.getLatitud(), destino.getLongitud())
+                             * properties.getFactorDesvio();
+        double tiempoHoras = distanciaKm / properties.velocidadPara(tipoTramo);
+        return Optional.of(new EstimacionDistancia(distanciaKm, tiempoHoras, FUENTE));
+    }
+
+    /**
+     * Distancia en línea recta (círculo máximo) entre dos coordenadas, en kilómetros
+     */
+    public static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                 + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                 * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * RADIO_TIERRA_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+}
@@ -0,0 +1,54 @@
+package utn.frc.isi.backend.tpi_Integrador.services;
+
+import org.springframework.stereotype.Component;
+import utn.frc.isi.backend.tpi_Integrador.dtos.Coordenada;
+import utn.frc.isi.backend.tpi_Integrador.dtos.EstimacionDistancia;
+import utn.frc.isi.backend.tpi_Integrador.dtos.googlemaps.Element;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Motor de distancias respaldado por Google Maps Distance Matrix (con la caché de GoogleMapsService)
+ */
+@Component
+public class GoogleDistanceEngine implements DistanceEngine {
+
+    public static final String FUENTE = "GOOGLE_MAPS";
+
+    private final GoogleMapsService googleMapsService;
+
+    public GoogleDistanceEngine(GoogleMapsService googleMapsService) {
+        this.googleMapsService = googleMapsService;
+    }
+
+    @Override
+    public Optional<EstimacionDistancia> estimar(Coordenada origen, Coordenada destino, String tipoTramo) {
+        return googleMapsService.obtenerInformacionDistancia(formatear(origen), formatear(destino))
+                .map(this::toEstimacion);
+    }
+
+    @Override
+    public List<Optional<EstimacionDistancia>> estimar(List<Coordenada> origenes, List<Coordenada> destinos,
+                                                       List<String> tiposTramo) {
+        List<String> origenesLatLng = origenes.stream().map(this::formatear).toList();
+        List<String> destinosLatLng = destinos.stream().map(this::formatear).toList();
+        return googleMapsService.obtenerInformacionDistancias(origenesLatLng, destinosLatLng)
+                .stream()
+                .map(elementOpt -> elementOpt.map(this::toEstimacion))
+                .toList();
+    }
+
+    // Formato esperado por Google Maps API: "lat,lng"
+    private String formatear(Coordenada coordenada) {
+        return coordenada.getLatitud() + "," + coordenada.getLongitud();
+    }
+
+    private EstimacionDistancia toEstimacion(Element element) {
+        // Convertir metros a kilómetros y segundos a horas
+        return new EstimacionDistancia(
+                element.getDistance().getValue() / 1000.0,
+                element.getDuration().getValue() / 3600.0,
+                FUENTE);
+    }
+}
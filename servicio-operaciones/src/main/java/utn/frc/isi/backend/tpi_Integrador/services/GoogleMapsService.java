@@ -1,11 +1,28 @@
 package utn.frc.isi.backend.tpi_Integrador.services;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import utn.frc.isi.backend.tpi_Integrador.clients.GoogleMapsClient;
+import utn.frc.isi.backend.tpi_Integrador.dtos.googlemaps.Distance;
+import utn.frc.isi.backend.tpi_Integrador.dtos.googlemaps.Duration;
 import utn.frc.isi.backend.tpi_Integrador.dtos.googlemaps.Element;
+import utn.frc.isi.backend.tpi_Integrador.models.DistanciaCalculada;
+import utn.frc.isi.backend.tpi_Integrador.repositories.DistanciaCalculadaRepository;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -14,21 +31,269 @@ public class GoogleMapsService {
     private static final Logger logger = LoggerFactory.getLogger(GoogleMapsService.class);
 
     private final GoogleMapsClient googleMapsClient;
+    private final DistanciaCalculadaRepository distanciaCalculadaRepository;
 
-    public GoogleMapsService(GoogleMapsClient googleMapsClient) {
+    // Configuración de la caché de distancias
+    private final boolean cacheHabilitada;
+    private final java.time.Duration ttl;
+    private final int precisionDecimales;
+    private final boolean servirVencidas;
+    private final int maxEntradasPersistentes;
+
+    // Nivel en memoria: LRU acotado (LinkedHashMap en orden de acceso)
+    private final Map<String, DistanciaCalculada> cacheMemoria;
+
+    // Métricas de la caché
+    private final Counter aciertosMemoria;
+    private final Counter aciertosPersistentes;
+    private final Counter fallos;
+    private final Counter vencidasServidas;
+
+    public GoogleMapsService(GoogleMapsClient googleMapsClient,
+                             DistanciaCalculadaRepository distanciaCalculadaRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${google.maps.cache.habilitada:true}") boolean cacheHabilitada,
+                             @Value("${google.maps.cache.max-entradas:10000}") int maxEntradas,
+                             @Value("${google.maps.cache.ttl-horas:168}") long ttlHoras,
+                             @Value("${google.maps.cache.precision-decimales:4}") int precisionDecimales,
+                             @Value("${google.maps.cache.servir-vencidas:true}") boolean servirVencidas,
+                             @Value("${google.maps.cache.persistente.max-entradas:100000}") int maxEntradasPersistentes) {
         this.googleMapsClient = googleMapsClient;
+        this.distanciaCalculadaRepository = distanciaCalculadaRepository;
+        this.cacheHabilitada = cacheHabilitada;
+        this.ttl = java.time.Duration.ofHours(ttlHoras);
+        this.precisionDecimales = precisionDecimales;
+        this.servirVencidas = servirVencidas;
+        this.maxEntradasPersistentes = maxEntradasPersistentes;
+        this.cacheMemoria = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, DistanciaCalculada> eldest) {
+                return size() > maxEntradas;
+            }
+        });
+
+        this.aciertosMemoria = contador(meterRegistry, "acierto_memoria");
+        this.aciertosPersistentes = contador(meterRegistry, "acierto_persistente");
+        this.fallos = contador(meterRegistry, "fallo");
+        this.vencidasServidas = contador(meterRegistry, "vencida_servida");
+        meterRegistry.gauge("google.maps.distancias.cache.entradas", cacheMemoria, Map::size);
     }
 
     /**
      * Obtiene información de distancia y duración entre dos puntos geográficos
      * usando la API de Google Maps Distance Matrix.
-     * 
+     * Las respuestas se cachean por par origen/destino (coordenadas redondeadas),
+     * primero en memoria y luego en la base propia de la caché (DistanciaCalculadaRepository),
+     * durante el TTL configurado.
+     *
      * @param origen Coordenadas de origen en formato "lat,lng" (ej: "-31.4201,-64.1888")
      * @param destino Coordenadas de destino en formato "lat,lng" (ej: "-34.6037,-58.3816")
      * @return Optional con Element que contiene distancia y duración, vacío si falla
      */
     public Optional<Element> obtenerInformacionDistancia(String origen, String destino) {
         logger.debug("Solicitando información de distancia de {} a {}", origen, destino);
-        return googleMapsClient.getDistance(origen, destino);
+        if (!cacheHabilitada) {
+            return googleMapsClient.getDistance(origen, destino);
+        }
+
+        String clave = construirClave(origen, destino);
+        ResultadoCache resultado = consultarCache(clave);
+        if (resultado.vigente() != null) {
+            return Optional.of(toElement(resultado.vigente()));
+        }
+        return resolverFallo(clave, resultado, googleMapsClient.getDistance(origen, destino));
+    }
+
+    /**
+     * Obtiene distancia y duración para varios pares origen/destino a la vez.
+     * Los pares que no están en caché se resuelven juntos con GoogleMapsClient.getDistancias,
+     * que pide a Distance Matrix sólo esos pares (no la matriz completa de sus puntos).
+     *
+     * @param origenes Lista de orígenes ("lat,lng")
+     * @param destinos Lista de destinos ("lat,lng"), alineada por índice con origenes
+     * @return Lista alineada con los pares de entrada; cada posición vacía si no se pudo calcular
+     */
+    public List<Optional<Element>> obtenerInformacionDistancias(List<String> origenes, List<String> destinos) {
+        if (origenes.size() != destinos.size()) {
+            throw new IllegalArgumentException("Las listas de orígenes y destinos deben tener el mismo tamaño");
+        }
+        logger.debug("Solicitando información de distancia para {} pares origen/destino", origenes.size());
+
+        List<Optional<Element>> resultados = new ArrayList<>(Collections.nCopies(origenes.size(), Optional.empty()));
+        Map<Integer, ResultadoCache> pendientes = new LinkedHashMap<>();
+
+        for (int i = 0; i < origenes.size(); i++) {
+            if (!cacheHabilitada) {
+                pendientes.put(i, null);
+                continue;
+            }
+            ResultadoCache resultado = consultarCache(construirClave(origenes.get(i), destinos.get(i)));
+            if (resultado.vigente() != null) {
+                resultados.set(i, Optional.of(toElement(resultado.vigente())));
+            } else {
+                pendientes.put(i, resultado);
+            }
+        }
+
+        if (pendientes.isEmpty()) {
+            return resultados;
+        }
+
+        // Una sola consulta (agrupada por GoogleMapsClient) con los pares no cacheados
+        List<Integer> indices = new ArrayList<>(pendientes.keySet());
+        List<Optional<Element>> respuestas = googleMapsClient.getDistancias(
+                indices.stream().map(origenes::get).toList(),
+                indices.stream().map(destinos::get).toList());
+
+        for (int k = 0; k < indices.size(); k++) {
+            int i = indices.get(k);
+            ResultadoCache resultado = pendientes.get(i);
+            if (resultado == null) {
+                resultados.set(i, respuestas.get(k));
+            } else {
+                String clave = construirClave(origenes.get(i), destinos.get(i));
+                resultados.set(i, resolverFallo(clave, resultado, respuestas.get(k)));
+            }
+        }
+        return resultados;
+    }
+
+    /**
+     * Acota periódicamente el nivel persistente a google.maps.cache.persistente.max-entradas (se conservan
+     * las más recientes). Si no se sirven distancias vencidas, también elimina las que superaron el TTL.
+     */
+    @Scheduled(fixedDelay = 3_600_000, initialDelay = 60_000)
+    public void depurarCachePersistente() {
+        if (!cacheHabilitada) {
+            return;
+        }
+        try {
+            int eliminadas = distanciaCalculadaRepository.depurar(
+                    servirVencidas ? null : LocalDateTime.now().minus(ttl), maxEntradasPersistentes);
+            if (eliminadas > 0) {
+                logger.info("Se eliminaron {} distancias de la caché persistente", eliminadas);
+            }
+        } catch (Exception e) {
+            logger.warn("No se pudo depurar la caché persistente de distancias: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Resultado de consultar ambos niveles de caché: la entrada vigente si la hay,
+     * o la última entrada vencida conocida (para servirla si Google Maps falla).
+     */
+    private record ResultadoCache(DistanciaCalculada vigente, DistanciaCalculada vencida) {
+    }
+
+    private ResultadoCache consultarCache(String clave) {
+        // 1. Nivel en memoria
+        DistanciaCalculada entrada = cacheMemoria.get(clave);
+        if (entrada != null && !estaVencida(entrada)) {
+            aciertosMemoria.increment();
+            return new ResultadoCache(entrada, null);
+        }
+
+        // 2. Nivel persistente (solo si no estaba en memoria)
+        if (entrada == null) {
+            entrada = buscarPersistida(clave);
+            if (entrada != null) {
+                cacheMemoria.put(clave, entrada);
+                if (!estaVencida(entrada)) {
+                    aciertosPersistentes.increment();
+                    return new ResultadoCache(entrada, null);
+                }
+            }
+        }
+
+        fallos.increment();
+        return new ResultadoCache(null, entrada);
+    }
+
+    /**
+     * Procesa la respuesta de Google Maps para una clave que no estaba en caché:
+     * la guarda si es válida o, si Google Maps no respondió, sirve la entrada vencida cuando está permitido.
+     */
+    private Optional<Element> resolverFallo(String clave, ResultadoCache resultado, Optional<Element> respuesta) {
+        if (respuesta.isPresent()) {
+            guardar(clave, respuesta.get());
+            return respuesta;
+        }
+
+        DistanciaCalculada vencida = resultado.vencida();
+        if (vencida != null && servirVencidas) {
+            logger.warn("Google Maps no disponible, usando distancia cacheada vencida para {} (calculada el {})",
+                        clave, vencida.getFechaCalculo());
+            vencidasServidas.increment();
+            return Optional.of(toElement(vencida));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Construye la clave de caché redondeando las coordenadas, de modo que
+     * puntos prácticamente idénticos compartan la misma entrada.
+     */
+    private String construirClave(String origen, String destino) {
+        return normalizarPunto(origen) + "|" + normalizarPunto(destino);
+    }
+
+    private String normalizarPunto(String punto) {
+        String[] partes = punto.split(",");
+        if (partes.length == 2) {
+            try {
+                return redondear(Double.parseDouble(partes[0].trim())) + "," + redondear(Double.parseDouble(partes[1].trim()));
+            } catch (NumberFormatException e) {
+                // No son coordenadas: se usa el texto tal cual (ej: una dirección)
+            }
+        }
+        return punto.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private String redondear(double valor) {
+        return BigDecimal.valueOf(valor).setScale(precisionDecimales, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    private boolean estaVencida(DistanciaCalculada entrada) {
+        return entrada.getFechaCalculo() == null
+                || entrada.getFechaCalculo().plus(ttl).isBefore(LocalDateTime.now());
+    }
+
+    private DistanciaCalculada buscarPersistida(String clave) {
+        try {
+            return distanciaCalculadaRepository.findById(clave).orElse(null);
+        } catch (Exception e) {
+            logger.warn("No se pudo leer la caché persistente de distancias para {}: {}", clave, e.getMessage());
+            return null;
+        }
+    }
+
+    private void guardar(String clave, Element element) {
+        DistanciaCalculada entrada = new DistanciaCalculada();
+        entrada.setClave(clave);
+        entrada.setDistanciaMetros(element.getDistance().getValue());
+        entrada.setDistanciaTexto(element.getDistance().getText());
+        entrada.setDuracionSegundos(element.getDuration().getValue());
+        entrada.setDuracionTexto(element.getDuration().getText());
+        entrada.setFechaCalculo(LocalDateTime.now());
+
+        cacheMemoria.put(clave, entrada);
+        try {
+            distanciaCalculadaRepository.save(entrada);
+        } catch (Exception e) {
+            logger.warn("No se pudo persistir la distancia cacheada para {}: {}", clave, e.getMessage());
+        }
+    }
+
+    private Element toElement(DistanciaCalculada entrada) {
+        return new Element("OK",
+                new Distance(entrada.getDistanciaTexto(), entrada.getDistanciaMetros()),
+                new Duration(entrada.getDuracionTexto(), entrada.getDuracionSegundos()));
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder("google.maps.distancias.cache")
+                .description("Consultas a la caché de distancias de Google Maps")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
     }
 }
@@ -0,0 +1,254 @@
+package utn.frc.isi.backend.tpi_Integrador.services;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import utn.frc.isi.backend.tpi_Integrador.clients.FlotaServiceClient;
+import utn.frc.isi.backend.tpi_Integrador.clients.TokenServicioClient;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.ActualizacionDisponibilidadDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.ResultadoDisponibilidadDTO;
+import utn.frc.isi.backend.tpi_Integrador.models.OutboxDisponibilidadCamion;
+import utn.frc.isi.backend.tpi_Integrador.repositories.OutboxDisponibilidadCamionRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Outbox transaccional de cambios de disponibilidad de camiones hacia servicio-flota.
+ *
+ * Los cambios se registran en la tabla outbox_disponibilidad_camion dentro de la transacción de negocio
+ * (sin llamadas HTTP), y un proceso en segundo plano los envía por lotes a servicio-flota,
+ * autenticado con el token de servicio (client_credentials): ninguna fila guarda el token de un usuario.
+ *
+ * La disponibilidad es un estado, así que de cada camión se envía sólo el último cambio pendiente y los
+ * anteriores quedan REEMPLAZADOS: un cambio viejo que espera un reintento nunca llega después de uno nuevo.
+ * Si el envío falla se reintenta con espera exponencial hasta max-intentos; después el cambio queda FALLIDO
+ * (igual que si servicio-flota no encuentra el camión) y se informa en el log. Si el lote no se llega a enviar
+ * (circuito de servicio-flota abierto o bulkhead lleno, ver ResilienciaFlota) sólo se reprograma, sin contar el intento.
+ * La clave de idempotencia de cada cambio evita aplicarlo dos veces si se reenvía un lote ya procesado.
+ */
+@Service
+public class OutboxCamionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxCamionService.class);
+
+    private final OutboxDisponibilidadCamionRepository outboxRepository;
+    private final FlotaServiceClient flotaServiceClient;
+    private final TokenServicioClient tokenServicioClient;
+
+    private final boolean habilitado;
+    private final int tamanoLote;
+    private final int maxIntentos;
+    private final Duration esperaBase;
+    private final Duration esperaMaxima;
+    private final Duration retencion;
+
+    public OutboxCamionService(OutboxDisponibilidadCamionRepository outboxRepository,
+                               FlotaServiceClient flotaServiceClient,
+                               TokenServicioClient tokenServicioClient,
+                               @Value("${servicio-flota.outbox.habilitado:true}") boolean habilitado,
+                               @Value("${servicio-flota.outbox.tamano-lote:100}") int tamanoLote,
+                               @Value("${servicio-flota.outbox.max-intentos:20}") int maxIntentos,
+                               @Value("${servicio-flota.outbox.reintento-base-ms:1000}") long esperaBaseMs,
+                               @Value("${servicio-flota.outbox.reintento-max-ms:300000}") long esperaMaximaMs,
+                               @Value("${servicio-flota.outbox.retencion-horas:24}") long retencionHoras) {
+        this.outboxRepository = outboxRepository;
+        this.flotaServiceClient = flotaServiceClient;
+        this.tokenServicioClient = tokenServicioClient;
+        this.habilitado = habilitado;
+        this.tamanoLote = tamanoLote;
+        this.maxIntentos = maxIntentos;
+        this.esperaBase = Duration.ofMillis(esperaBaseMs);
+        this.esperaMaxima = Duration.ofMillis(esperaMaximaMs);
+        this.retencion = Duration.ofHours(retencionHoras);
+    }
+
+    /**
+     * Registra un cambio de disponibilidad para enviarlo a servicio-flota después del commit.
+     * Debe llamarse dentro de la transacción que origina el cambio, para que ambos se confirmen o descarten juntos.
+     *
+     * @param camionIdFlota ID del camión en servicio-flota
+     * @param disponible Disponibilidad a informar
+     * @throws IllegalStateException si el outbox está habilitado sin credenciales de servicio: el cambio no podría enviarse
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarCambioDisponibilidad(Long camionIdFlota, boolean disponible) {
+        if (habilitado && !tokenServicioClient.configurado()) {
+            throw new IllegalStateException("El outbox de disponibilidad requiere las credenciales de servicio "
+                    + "(servicio-flota.credenciales.*) para informar cambios a servicio-flota");
+        }
+        OutboxDisponibilidadCamion cambio = new OutboxDisponibilidadCamion();
+        cambio.setClaveIdempotencia(UUID.randomUUID().toString());
+        cambio.setCamionIdFlota(camionIdFlota);
+        cambio.setDisponible(disponible);
+        cambio.setFechaCreacion(LocalDateTime.now());
+        cambio.setProximoIntento(cambio.getFechaCreacion());
+        outboxRepository.save(cambio);
+        logger.debug("Cambio de disponibilidad del camión {} a {} registrado en el outbox", camionIdFlota, disponible);
+    }
+
+    /**
+     * Envía los cambios pendientes a servicio-flota, lote por lote, hasta que no queden pendientes listos.
+     * Ninguna transacción queda abierta durante las llamadas HTTP.
+     */
+    @Scheduled(fixedDelayString = "${servicio-flota.outbox.intervalo-ms:1000}",
+               initialDelayString = "${servicio-flota.outbox.intervalo-ms:1000}")
+    public void despacharPendientes() {
+        if (!habilitado) {
+            return;
+        }
+        Lote lote;
+        do {
+            lote = despacharLote();
+        } while (lote.leidos() == tamanoLote && lote.procesados() > 0);
+    }
+
+    /**
+     * Elimina periódicamente los cambios ya enviados (o reemplazados) hace más de servicio-flota.outbox.retencion-horas.
+     * Los FALLIDOS se conservan para revisarlos.
+     */
+    @Scheduled(fixedDelay = 3_600_000, initialDelay = 3_600_000)
+    public void depurarEnviados() {
+        if (!habilitado) {
+            return;
+        }
+        int eliminados = outboxRepository.eliminarEnviadosAntesDe(LocalDateTime.now().minus(retencion));
+        if (eliminados > 0) {
+            logger.info("Se eliminaron {} cambios de disponibilidad ya enviados del outbox", eliminados);
+        }
+    }
+
+    /**
+     * Cambios leídos del outbox y cuántos dejaron de estar pendientes (enviados, reemplazados o fallidos)
+     */
+    private record Lote(int leidos, int procesados) {
+    }
+
+    /**
+     * Envía un lote de cambios pendientes: el último de cada camión, si ya le toca intentarlo.
+     * El lote se arma sólo con cambios listos, así que los que esperan un reintento no ocupan su lugar;
+     * de los camiones del lote se leen además todos sus pendientes para enviar siempre el último
+     * y reemplazar los anteriores, estén esperando un reintento o no.
+     */
+    private Lote despacharLote() {
+        LocalDateTime ahora = LocalDateTime.now();
+        List<OutboxDisponibilidadCamion> listosLeidos = outboxRepository.findByEstadoAndProximoIntentoLessThanEqualOrderByIdAsc(
+                OutboxDisponibilidadCamion.Estado.PENDIENTE, ahora, PageRequest.of(0, tamanoLote));
+        if (listosLeidos.isEmpty()) {
+            return new Lote(0, 0);
+        }
+
+        Optional<String> tokenServicio = tokenServicioClient.obtenerToken();
+        if (tokenServicio.isEmpty()) {
+            // Sin token no se intenta el envío ni se cuenta como intento del cambio: se prueba en el próximo ciclo
+            logger.warn("No se envían {} cambios de disponibilidad: no se obtuvo el token de servicio", listosLeidos.size());
+            return new Lote(listosLeidos.size(), 0);
+        }
+
+        // Último cambio pendiente de cada camión (vienen ordenados por id); los anteriores quedan reemplazados
+        List<Long> camiones = listosLeidos.stream().map(OutboxDisponibilidadCamion::getCamionIdFlota).distinct().toList();
+        Map<Long, OutboxDisponibilidadCamion> ultimos = new LinkedHashMap<>();
+        List<OutboxDisponibilidadCamion> procesados = new ArrayList<>();
+        for (OutboxDisponibilidadCamion cambio : outboxRepository.findByEstadoAndCamionIdFlotaInOrderByIdAsc(
+                OutboxDisponibilidadCamion.Estado.PENDIENTE, camiones)) {
+            OutboxDisponibilidadCamion anterior = ultimos.put(cambio.getCamionIdFlota(), cambio);
+            if (anterior != null) {
+                anterior.setEstado(OutboxDisponibilidadCamion.Estado.REEMPLAZADO);
+                anterior.setFechaEnvio(ahora);
+                procesados.add(anterior);
+            }
+        }
+        // Si el último de un camión es posterior al listo que se leyó y espera un reintento, se envía cuando le toque
+        List<OutboxDisponibilidadCamion> listos = ultimos.values().stream()
+                .filter(cambio -> !cambio.getProximoIntento().isAfter(ahora))
+                .toList();
+
+        if (!listos.isEmpty()) {
+            enviar(listos, tokenServicio.get());
+        }
+        outboxRepository.saveAll(procesados);
+        outboxRepository.saveAll(listos);
+        int cerrados = procesados.size() + (int) listos.stream()
+                .filter(cambio -> cambio.getEstado() != OutboxDisponibilidadCamion.Estado.PENDIENTE)
+                .count();
+        return new Lote(listosLeidos.size(), cerrados);
+    }
+
+    private void enviar(List<OutboxDisponibilidadCamion> cambios, String token) {
+        List<ActualizacionDisponibilidadDTO> actualizaciones = cambios.stream()
+                .map(cambio -> new ActualizacionDisponibilidadDTO(
+                        cambio.getClaveIdempotencia(), cambio.getCamionIdFlota(), cambio.isDisponible()))
+                .toList();
+
+        Map<String, ResultadoDisponibilidadDTO> resultados;
+        try {
+            resultados = flotaServiceClient.enviarDisponibilidades(actualizaciones, token).stream()
+                    .collect(Collectors.toMap(ResultadoDisponibilidadDTO::getClaveIdempotencia, Function.identity(), (a, b) -> a));
+        } catch (CallNotPermittedException | BulkheadFullException e) {
+            // El lote no llegó a salir: se reprograma sin contarlo como intento, igual que sin token de servicio
+            logger.warn("No se envían {} cambios de disponibilidad a servicio-flota: {}", cambios.size(), e.getMessage());
+            LocalDateTime proximoIntento = LocalDateTime.now().plus(esperaBase);
+            cambios.forEach(cambio -> cambio.setProximoIntento(proximoIntento));
+            return;
+        } catch (RuntimeException e) {
+            logger.warn("No se pudo enviar un lote de {} cambios de disponibilidad a servicio-flota: {}",
+                        cambios.size(), e.getMessage());
+            cambios.forEach(cambio -> programarReintento(cambio, e.getMessage()));
+            return;
+        }
+
+        LocalDateTime ahora = LocalDateTime.now();
+        int confirmados = 0;
+        for (OutboxDisponibilidadCamion cambio : cambios) {
+            ResultadoDisponibilidadDTO resultado = resultados.get(cambio.getClaveIdempotencia());
+            if (resultado == null) {
+                programarReintento(cambio, "servicio-flota no informó el resultado de la actualización");
+            } else if (ResultadoDisponibilidadDTO.CAMION_NO_ENCONTRADO.equals(resultado.getResultado())) {
+                // No se resuelve reintentando
+                logger.error("servicio-flota no encontró el camión {} al informar su disponibilidad", cambio.getCamionIdFlota());
+                cambio.setUltimoError(resultado.getResultado());
+                cambio.setEstado(OutboxDisponibilidadCamion.Estado.FALLIDO);
+                cambio.setFechaEnvio(ahora);
+            } else {
+                // APLICADA y DUPLICADA confirman el cambio
+                cambio.setEstado(OutboxDisponibilidadCamion.Estado.ENVIADO);
+                cambio.setFechaEnvio(ahora);
+                confirmados++;
+            }
+        }
+        logger.info("servicio-flota confirmó {} de {} cambios de disponibilidad enviados", confirmados, cambios.size());
+    }
+
+    private void programarReintento(OutboxDisponibilidadCamion cambio, String error) {
+        cambio.setIntentos(cambio.getIntentos() + 1);
+        cambio.setUltimoError(error != null && error.length() > 500 ? error.substring(0, 500) : error);
+        if (cambio.getIntentos() >= maxIntentos) {
+            logger.error("Cambio de disponibilidad del camión {} a {} descartado tras {} intentos: {}",
+                         cambio.getCamionIdFlota(), cambio.isDisponible(), cambio.getIntentos(), cambio.getUltimoError());
+            cambio.setEstado(OutboxDisponibilidadCamion.Estado.FALLIDO);
+            cambio.setFechaEnvio(LocalDateTime.now());
+            return;
+        }
+        // Espera exponencial: base, 2×base, 4×base... hasta la espera máxima
+        Duration espera = esperaBase.multipliedBy(1L << Math.min(cambio.getIntentos() - 1, 20));
+        if (espera.compareTo(esperaMaxima) > 0) {
+            espera = esperaMaxima;
+        }
+        cambio.setProximoIntento(LocalDateTime.now().plus(espera));
+    }
+}
@@ -0,0 +1,238 @@
+package utn.frc.isi.backend.tpi_Integrador.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import utn.frc.isi.backend.tpi_Integrador.clients.FlotaServiceClient;
+import utn.frc.isi.backend.tpi_Integrador.clients.TokenServicioClient;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.CambioFlotaDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.CamionDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.DepositoDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.FeedCambiosDTO;
+import utn.frc.isi.backend.tpi_Integrador.models.CamionReference;
+import utn.frc.isi.backend.tpi_Integrador.models.DepositoReference;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoTramo;
+import utn.frc.isi.backend.tpi_Integrador.models.PuntoControlReplicacion;
+import utn.frc.isi.backend.tpi_Integrador.repositories.CamionReferenceRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.DepositoReferenceRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.PuntoControlReplicacionRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.TramoRepository;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Replica en CamionReference y DepositoReference los cambios de camiones y depósitos de servicio-flota,
+ * leyendo incrementalmente su feed de cambios (GET /api/cambios, long-poll con números de secuencia).
+ *
+ * Cada página del feed se aplica en una transacción junto con el punto de control (PuntoControlReplicacion),
+ * por lo que un reinicio continúa desde el último cambio aplicado sin perder ni repetir cambios.
+ * Si servicio-flota informa otro idFeed (su base se recreó) se vuelve a leer el feed completo desde 0.
+ * Requiere credenciales de servicio (servicio-flota.credenciales.*), porque no hay usuario en cuyo nombre consultar.
+ */
+@Service
+public class ReplicacionFlotaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicacionFlotaService.class);
+
+    static final String ID_PUNTO_CONTROL = "servicio-flota";
+
+    private final FlotaServiceClient flotaServiceClient;
+    private final TokenServicioClient tokenServicioClient;
+    private final PuntoControlReplicacionRepository puntoControlRepository;
+    private final CamionReferenceRepository camionReferenceRepository;
+    private final DepositoReferenceRepository depositoReferenceRepository;
+    private final TramoRepository tramoRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean habilitada;
+    private final int tamanoPagina;
+    private final int esperaSegundos;
+
+    private boolean avisoSinCredenciales;
+
+    public ReplicacionFlotaService(FlotaServiceClient flotaServiceClient,
+                                   TokenServicioClient tokenServicioClient,
+                                   PuntoControlReplicacionRepository puntoControlRepository,
+                                   CamionReferenceRepository camionReferenceRepository,
+                                   DepositoReferenceRepository depositoReferenceRepository,
+                                   TramoRepository tramoRepository,
+                                   TransactionTemplate transactionTemplate,
+                                   @Value("${servicio-flota.replicacion.habilitada:true}") boolean habilitada,
+                                   @Value("${servicio-flota.replicacion.tamano-pagina:200}") int tamanoPagina,
+                                   @Value("${servicio-flota.replicacion.espera-segundos:25}") int esperaSegundos) {
+        this.flotaServiceClient = flotaServiceClient;
+        this.tokenServicioClient = tokenServicioClient;
+        this.puntoControlRepository = puntoControlRepository;
+        this.camionReferenceRepository = camionReferenceRepository;
+        this.depositoReferenceRepository = depositoReferenceRepository;
+        this.tramoRepository = tramoRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.habilitada = habilitada;
+        this.tamanoPagina = tamanoPagina;
+        this.esperaSegundos = esperaSegundos;
+    }
+
+    /**
+     * Lee y aplica el feed hasta ponerse al día. Cuando no hay cambios la consulta queda esperando
+     * en servicio-flota (long-poll), así que los cambios se reciben apenas ocurren sin consultar en vano.
+     * Si servicio-flota no responde se reintenta en la próxima ejecución.
+     */
+    @Scheduled(fixedDelayString = "${servicio-flota.replicacion.intervalo-ms:1000}",
+               initialDelayString = "${servicio-flota.replicacion.intervalo-ms:1000}")
+    public void replicar() {
+        if (!habilitada) {
+            return;
+        }
+        Optional<String> token = tokenServicioClient.obtenerToken();
+        if (token.isEmpty()) {
+            if (!avisoSinCredenciales) {
+                logger.warn("Replicación desde servicio-flota inactiva: faltan las credenciales de servicio (servicio-flota.credenciales.*)");
+                avisoSinCredenciales = true;
+            }
+            return;
+        }
+
+        try {
+            boolean continuar;
+            do {
+                PuntoControlReplicacion punto = puntoControl();
+                FeedCambiosDTO feed = flotaServiceClient.obtenerCambios(
+                        punto.getUltimaSecuencia(), tamanoPagina, esperaSegundos, token.get());
+                continuar = Boolean.TRUE.equals(transactionTemplate.execute(status -> aplicar(punto, feed)));
+            } while (continuar);
+        } catch (RuntimeException e) {
+            logger.warn("No se pudo replicar el feed de cambios de servicio-flota: {}", e.getMessage());
+        }
+    }
+
+    private PuntoControlReplicacion puntoControl() {
+        return puntoControlRepository.findById(ID_PUNTO_CONTROL).orElseGet(() -> {
+            PuntoControlReplicacion punto = new PuntoControlReplicacion();
+            punto.setId(ID_PUNTO_CONTROL);
+            return punto;
+        });
+    }
+
+    /**
+     * Aplica una página del feed y avanza el punto de control en la misma transacción
+     * @return true si hay que pedir otra página sin esperar
+     */
+    private boolean aplicar(PuntoControlReplicacion punto, FeedCambiosDTO feed) {
+        if (punto.getIdFeed() != null && !punto.getIdFeed().equals(feed.getIdFeed())) {
+            // servicio-flota recreó su feed: las secuencias anteriores ya no valen
+            logger.warn("El feed de servicio-flota se reinició ({} -> {}); se vuelve a replicar desde el principio",
+                        punto.getIdFeed(), feed.getIdFeed());
+            guardarPunto(punto, feed.getIdFeed(), 0);
+            return true;
+        }
+
+        List<CambioFlotaDTO> cambios = feed.getCambios() != null ? feed.getCambios() : List.of();
+        // El feed trae el estado actual de cada entidad, así que basta con aplicar el último cambio de cada una
+        Map<Long, CambioFlotaDTO> camiones = ultimoPorEntidad(cambios, CambioFlotaDTO.CAMION);
+        Map<Long, CambioFlotaDTO> depositos = ultimoPorEntidad(cambios, CambioFlotaDTO.DEPOSITO);
+        aplicarCamiones(camiones);
+        aplicarDepositos(depositos);
+
+        guardarPunto(punto, feed.getIdFeed(), feed.getUltimaSecuencia());
+        if (!cambios.isEmpty()) {
+            logger.info("Replicados {} cambios de servicio-flota ({} camiones, {} depósitos) hasta la secuencia {}",
+                        cambios.size(), camiones.size(), depositos.size(), feed.getUltimaSecuencia());
+        }
+        return feed.isHayMas();
+    }
+
+    private Map<Long, CambioFlotaDTO> ultimoPorEntidad(List<CambioFlotaDTO> cambios, String tipo) {
+        return cambios.stream()
+                .filter(cambio -> tipo.equals(cambio.getTipo()))
+                .collect(Collectors.toMap(CambioFlotaDTO::getEntidadId, Function.identity(), (anterior, ultimo) -> ultimo,
+                        LinkedHashMap::new));
+    }
+
+    private void aplicarCamiones(Map<Long, CambioFlotaDTO> cambios) {
+        if (cambios.isEmpty()) {
+            return;
+        }
+        Map<Long, CamionReference> referencias = camionReferenceRepository.findByCamionIdFlotaIn(cambios.keySet()).stream()
+                .collect(Collectors.toMap(CamionReference::getCamionIdFlota, Function.identity(), (a, b) -> a));
+
+        cambios.forEach((camionIdFlota, cambio) -> {
+            CamionReference referencia = referencias.get(camionIdFlota);
+            CamionDTO camion = cambio.getCamion();
+            if (camion == null) {
+                // Camión dado de baja en servicio-flota: se conserva la referencia (la usan tramos) pero no se asigna más
+                if (referencia != null) {
+                    referencia.setDisponible(false);
+                    camionReferenceRepository.save(referencia);
+                }
+                return;
+            }
+
+            if (referencia == null) {
+                referencia = new CamionReference();
+                referencia.setCamionIdFlota(camionIdFlota);
+                referencia.setDisponible(camion.isDisponible());
+            } else {
+                referencia.setDisponible(disponibilidadReplicada(referencia, camion.isDisponible()));
+            }
+            referencia.setDominio(camion.getDominio());
+            referencia.setCapacidadPeso(camion.getCapacidadPeso());
+            referencia.setCapacidadVolumen(camion.getCapacidadVolumen());
+            referencia.setCostoPorKm(camion.getCostoPorKm());
+            camionReferenceRepository.save(referencia);
+        });
+    }
+
+    /**
+     * Un camión ocupado en servicio-flota queda ocupado acá. Uno disponible solo se libera si no está reservado
+     * localmente ni tiene tramos activos locales: servicio-flota puede no haber recibido todavía la reserva o
+     * la asignación, y cualquier otro cambio del camión (MODIFICACION) trae su disponibilidad anterior
+     */
+    private boolean disponibilidadReplicada(CamionReference referencia, boolean disponibleEnFlota) {
+        if (!disponibleEnFlota || referencia.isDisponible()) {
+            return disponibleEnFlota;
+        }
+        if (referencia.isReservadoLocalmente()) {
+            return false;
+        }
+        return !tramoRepository.existsByCamionReference_IdAndEstadoIn(referencia.getId(), EstadoTramo.activos());
+    }
+
+    private void aplicarDepositos(Map<Long, CambioFlotaDTO> cambios) {
+        if (cambios.isEmpty()) {
+            return;
+        }
+        Map<Long, DepositoReference> referencias = depositoReferenceRepository.findAllById(cambios.keySet()).stream()
+                .collect(Collectors.toMap(DepositoReference::getId, Function.identity()));
+
+        cambios.forEach((depositoId, cambio) -> {
+            DepositoDTO deposito = cambio.getDeposito();
+            if (deposito == null) {
+                // Depósito dado de baja: se conserva la referencia porque la usan tramos ya planificados
+                return;
+            }
+            DepositoReference referencia = referencias.get(depositoId);
+            if (referencia == null) {
+                referencia = new DepositoReference();
+                referencia.setId(depositoId);
+            }
+            referencia.setNombre(deposito.getNombre());
+            depositoReferenceRepository.save(referencia);
+        });
+    }
+
+    private void guardarPunto(PuntoControlReplicacion punto, String idFeed, long ultimaSecuencia) {
+        punto.setIdFeed(idFeed);
+        punto.setUltimaSecuencia(ultimaSecuencia);
+        punto.setFechaActualizacion(LocalDateTime.now());
+        puntoControlRepository.save(punto);
+    }
+}
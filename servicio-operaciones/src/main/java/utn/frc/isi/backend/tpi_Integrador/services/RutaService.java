@@ -1,21 +1,28 @@
 package utn.frc.isi.backend.tpi_Integrador.services;
 
+import jakarta.persistence.EntityManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import utn.frc.isi.backend.tpi_Integrador.dtos.Coordenada;
+import utn.frc.isi.backend.tpi_Integrador.dtos.EstimacionDistancia;
+import utn.frc.isi.backend.tpi_Integrador.dtos.ModoCalculoDistancia;
+import utn.frc.isi.backend.tpi_Integrador.dtos.PaginaDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.RutaCreateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.RutaDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.RutaTentativaDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.RutaUpdateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.TramoCreateDTO;
-import utn.frc.isi.backend.tpi_Integrador.dtos.TramoTentativoDTO;
-import utn.frc.isi.backend.tpi_Integrador.dtos.googlemaps.Element;
+import utn.frc.isi.backend.tpi_Integrador.exceptions.DistanciaNoDisponibleException;
 import utn.frc.isi.backend.tpi_Integrador.mappers.RutaMapper;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoSolicitud;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoTramo;
 import utn.frc.isi.backend.tpi_Integrador.models.Ruta;
 import utn.frc.isi.backend.tpi_Integrador.models.Solicitud;
 import utn.frc.isi.backend.tpi_Integrador.models.Tramo;
+import utn.frc.isi.backend.tpi_Integrador.repositories.PaginacionKeyset;
 import utn.frc.isi.backend.tpi_Integrador.repositories.RutaRepository;
 import utn.frc.isi.backend.tpi_Integrador.repositories.SolicitudRepository;
 import utn.frc.isi.backend.tpi_Integrador.repositories.TramoRepository;
@@ -23,44 +30,73 @@ import utn.frc.isi.backend.tpi_Integrador.repositories.TramoRepository;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Service // Marca esta clase como un componente de servicio de Spring
 public class RutaService {
 
     private static final Logger logger = LoggerFactory.getLogger(RutaService.class);
 
+    // Campos por los que se puede ordenar el listado (si admiten nulos, esas filas van al final)
+    public static final Set<String> CAMPOS_ORDENABLES = Set.of("id", "distanciaKm", "tiempoEstimadoHoras");
+
     private final RutaRepository rutaRepository;
     private final SolicitudRepository solicitudRepository;
     private final TramoRepository tramoRepository;
-    private final GoogleMapsService googleMapsService;
+    private final DistanciaService distanciaService;
+    private final GeneradorRutasService generadorRutasService;
     private final RutaMapper rutaMapper;
+    private final EntityManager entityManager;
 
     // Inyección de dependencias a través del constructor (práctica recomendada)
     public RutaService(RutaRepository rutaRepository, 
                       SolicitudRepository solicitudRepository, 
                       TramoRepository tramoRepository,
-                      GoogleMapsService googleMapsService,
-                      RutaMapper rutaMapper) {
+                      DistanciaService distanciaService,
+                      GeneradorRutasService generadorRutasService,
+                      RutaMapper rutaMapper,
+                       EntityManager entityManager) {
         this.rutaRepository = rutaRepository;
         this.solicitudRepository = solicitudRepository;
         this.tramoRepository = tramoRepository;
-        this.googleMapsService = googleMapsService;
+        this.distanciaService = distanciaService;
+        this.generadorRutasService = generadorRutasService;
         this.rutaMapper = rutaMapper;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Obtiene una página de rutas con paginación por cursor (keyset)
+     * @param cursor Cursor devuelto por la página anterior (null para la primera)
+     * @param limite Cantidad de elementos por página
+     * @param ordenarPor Campo de orden (uno de CAMPOS_ORDENABLES)
+     * @param direccion Dirección del orden
+     * @return PaginaDTO con la página de rutas y el cursor de la siguiente
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<RutaDTO> obtenerPagina(String cursor, int limite, String ordenarPor, Sort.Direction direccion) {
+        logger.info("Obteniendo página de rutas (limite={}, orden={} {})", limite, ordenarPor, direccion);
+        PaginaDTO<RutaDTO> pagina = PaginacionKeyset.paginarEnLote(rutaRepository, CAMPOS_ORDENABLES,
+                List.of(), cursor, limite, ordenarPor, direccion, rutaMapper::toDTOs);
+        logger.info("Se devolvieron {} rutas", pagina.getItems().size());
+        return pagina;
     }
 
     /**
-     * Obtiene todas las rutas
-     * @return Lista de RutaDTO
+     * Exporta todas las rutas entregando cada fila al consumidor a medida que se lee
+     * de la base de datos, sin cargar la tabla completa en memoria
+     * @param ordenarPor Campo de orden (uno de CAMPOS_ORDENABLES)
+     * @param direccion Dirección del orden
+     * @param consumidor Receptor de cada RutaDTO
      */
-    public List<RutaDTO> obtenerTodas() {
-        logger.info("Obteniendo todas las rutas");
-        List<RutaDTO> rutas = rutaRepository.findAll()
-                .stream()
-                .map(rutaMapper::toDTO)
-                .collect(Collectors.toList());
-        logger.info("Se encontraron {} rutas", rutas.size());
-        return rutas;
+    @Transactional(readOnly = true)
+    public void exportar(String ordenarPor, Sort.Direction direccion, Consumer<? super RutaDTO> consumidor) {
+        PaginacionKeyset.validarCampo(ordenarPor, CAMPOS_ORDENABLES);
+        long cantidad = PaginacionKeyset.exportarEnLote(
+                rutaRepository.streamAllBy(PaginacionKeyset.ordenar(ordenarPor, direccion)),
+                entityManager, rutaMapper::toDTOs, consumidor);
+        logger.info("Se exportaron {} rutas", cantidad);
     }
 
     /**
@@ -106,13 +142,16 @@ public class RutaService {
     
     /**
      * Calcula rutas tentativas para una solicitud específica.
-     * Genera propuestas de rutas con información detallada de tramos, costos y tiempos.
-     * Utiliza Google Maps Distance Matrix API para obtener distancias y tiempos reales.
+     * Genera propuestas de rutas (directa y pasando por depósitos de servicio-flota)
+     * con información detallada de tramos, costos según la tarifa activa y tiempos.
+     * Utiliza Google Maps Distance Matrix API para obtener distancias y tiempos reales,
+     * o la estimación geodésica local según el modo de cálculo.
      * 
      * @param solicitudId ID de la solicitud
+     * @param modo Modo de cálculo de distancias (null = el configurado en distancias.modo)
      * @return Lista de rutas tentativas con sus respectivos tramos
      */
-    public List<RutaTentativaDTO> calcularRutasTentativas(Long solicitudId) {
+    public List<RutaTentativaDTO> calcularRutasTentativas(Long solicitudId, ModoCalculoDistancia modo) {
         logger.info("Calculando rutas tentativas para solicitud ID: {}", solicitudId);
         // Buscar la solicitud
         Solicitud solicitud = solicitudRepository.findById(solicitudId)
@@ -128,32 +167,6 @@ public class RutaService {
             throw new RuntimeException("La solicitud no tiene una ruta asignada");
         }
         
-        List<RutaTentativaDTO> rutasTentativas = new ArrayList<>();
-        
-        // Formatear coordenadas para Google Maps API (formato: "lat,lng")
-        String origenLatLng = ruta.getLatitudOrigen() + "," + ruta.getLongitudOrigen();
-        String destinoLatLng = ruta.getLatitudDestino() + "," + ruta.getLongitudDestino();
-        
-        // Obtener información de Google Maps
-        Optional<Element> elementOpt = googleMapsService.obtenerInformacionDistancia(origenLatLng, destinoLatLng);
-        
-        double distanciaKm;
-        double tiempoHoras;
-        
-        if (elementOpt.isPresent()) {
-            Element element = elementOpt.get();
-            // Convertir distancia de metros a kilómetros
-            distanciaKm = element.getDistance().getValue() / 1000.0;
-            // Convertir duración de segundos a horas
-            tiempoHoras = element.getDuration().getValue() / 3600.0;
-        } else {
-            // Si Google Maps falla, lanzar excepción
-            throw new RuntimeException("No se pudo calcular la distancia usando Google Maps API. Verifique las coordenadas y la conectividad.");
-        }
-        
-        // Estimar costo ($5 por km como ejemplo)
-        double costoEstimado = distanciaKm * 5.0;
-        
         // Crear objeto Coordenada para punto inicio
         Coordenada puntoInicio = new Coordenada();
         puntoInicio.setLatitud(ruta.getLatitudOrigen());
@@ -164,79 +177,68 @@ public class RutaService {
         puntoFin.setLatitud(ruta.getLatitudDestino());
         puntoFin.setLongitud(ruta.getLongitudDestino());
         
-        // Crear el tramo único (ruta directa)
-        TramoTentativoDTO tramo = new TramoTentativoDTO();
-        tramo.setOrden(1);
-        tramo.setTipo("ORIGEN-DESTINO");
-        tramo.setPuntoInicio(puntoInicio);
-        tramo.setPuntoFin(puntoFin);
-        tramo.setDistanciaKm(distanciaKm);
-        tramo.setTiempoEstimadoHoras(tiempoHoras);
-        tramo.setCostoAproximado(costoEstimado);
-        tramo.setObservaciones("Ruta directa sin paradas intermedias (calculada con Google Maps)");
-        
-        // Crear la ruta tentativa
-        RutaTentativaDTO rutaTentativa = new RutaTentativaDTO();
-        rutaTentativa.setTramos(List.of(tramo));
-        rutaTentativa.setCostoEstimadoTotal(costoEstimado);
-        rutaTentativa.setTiempoEstimadoTotal(tiempoHoras);
-        rutaTentativa.setDistanciaTotal(distanciaKm);
-        rutaTentativa.setCantidadTramos(1);
-        rutaTentativa.setCantidadDepositos(0);
-        rutaTentativa.setTipoRuta("DIRECTA");
-        rutaTentativa.setDescripcion("Ruta directa de " + String.format("%.2f", distanciaKm) + " km sin paradas intermedias");
-        
-        rutasTentativas.add(rutaTentativa);
-        
-        return rutasTentativas;
+        // Generar la ruta directa y las alternativas por depósitos intermedios, ordenadas por costo y tiempo
+        return generadorRutasService.generar(puntoInicio, puntoFin, modo);
     }
     
     /**
      * Asigna una ruta definitiva a una solicitud (RF#4)
      * Crea una nueva ruta con sus tramos y la asocia a la solicitud.
      * Cambia el estado de la solicitud a "PROGRAMADA".
-     * Utiliza Google Maps Distance Matrix API para calcular distancias reales.
+     * Utiliza Google Maps Distance Matrix API para calcular distancias reales,
+     * o la estimación geodésica local según el modo de cálculo.
      * 
      * @param solicitudId ID de la solicitud
      * @param dto DTO con la información de la ruta y sus tramos
+     * @param modo Modo de cálculo de distancias (null = el configurado en distancias.modo)
      * @return RutaDTO de la ruta creada y asignada
      */
     @Transactional
-    public RutaDTO asignarRutaASolicitud(Long solicitudId, RutaCreateDTO dto) {
+    public RutaDTO asignarRutaASolicitud(Long solicitudId, RutaCreateDTO dto, ModoCalculoDistancia modo) {
         // 1. Buscar la solicitud
         Solicitud solicitud = solicitudRepository.findById(solicitudId)
                 .orElseThrow(() -> new RuntimeException("Solicitud no encontrada con ID: " + solicitudId));
         
-        // 2. Calcular totales de la ruta basándose en los tramos usando Google Maps
+        // 2. Calcular totales de la ruta basándose en los tramos
+        // Todas las distancias se resuelven juntas, una sola vez (Distance Matrix recibe sólo los pares de los
+        // tramos, en solicitudes paralelas) y se reutilizan al crear los tramos
+        List<TramoCreateDTO> tramosDto = dto.getTramos();
+        List<Coordenada> origenes = new ArrayList<>();
+        List<Coordenada> destinos = new ArrayList<>();
+        List<String> tipos = new ArrayList<>();
+        for (TramoCreateDTO tramoDto : tramosDto) {
+            origenes.add(new Coordenada(tramoDto.getLatitudInicio(), tramoDto.getLongitudInicio()));
+            destinos.add(new Coordenada(tramoDto.getLatitudFin(), tramoDto.getLongitudFin()));
+            tipos.add(tramoDto.getTipo());
+        }
+        List<Optional<EstimacionDistancia>> estimaciones = distanciaService.estimar(origenes, destinos, tipos, modo);
+        
+        // Se informan juntos todos los tramos sin distancia, no sólo el primero
         double distanciaTotal = 0;
         double tiempoTotal = 0;
+        List<Integer> tramosSinDistancia = new ArrayList<>();
         
-        for (TramoCreateDTO tramoDto : dto.getTramos()) {
-            // Formatear coordenadas para Google Maps API
-            String origenLatLng = tramoDto.getLatitudInicio() + "," + tramoDto.getLongitudInicio();
-            String destinoLatLng = tramoDto.getLatitudFin() + "," + tramoDto.getLongitudFin();
-            
-            // Obtener información de Google Maps
-            Optional<Element> elementOpt = googleMapsService.obtenerInformacionDistancia(origenLatLng, destinoLatLng);
-            
-            if (elementOpt.isPresent()) {
-                Element element = elementOpt.get();
-                // Convertir distancia de metros a kilómetros
-                double distanciaTramo = element.getDistance().getValue() / 1000.0;
-                distanciaTotal += distanciaTramo;
-                // Convertir duración de segundos a horas
-                tiempoTotal += element.getDuration().getValue() / 3600.0;
+        for (int i = 0; i < estimaciones.size(); i++) {
+            Optional<EstimacionDistancia> estimacionOpt = estimaciones.get(i);
+            if (estimacionOpt.isPresent()) {
+                distanciaTotal += estimacionOpt.get().getDistanciaKm();
+                tiempoTotal += estimacionOpt.get().getTiempoHoras();
             } else {
-                throw new RuntimeException("No se pudo calcular la distancia del tramo usando Google Maps API");
+                tramosSinDistancia.add(tramosDto.get(i).getOrden());
             }
         }
+        if (!tramosSinDistancia.isEmpty()) {
+            logger.error("No se pudo calcular la distancia de los tramos {} de la ruta para la solicitud ID: {}",
+                         tramosSinDistancia, solicitudId);
+            throw new DistanciaNoDisponibleException(tramosSinDistancia, tramosDto.size());
+        }
         
         // 3. Crear y guardar la nueva entidad Ruta
         Ruta nuevaRuta = new Ruta();
         
         // Usar coordenadas del primer y último tramo
-        TramoCreateDTO primerTramo = dto.getTramos().get(0);
-        TramoCreateDTO ultimoTramo = dto.getTramos().get(dto.getTramos().size() - 1);
+        TramoCreateDTO primerTramo = tramosDto.get(0);
+        TramoCreateDTO ultimoTramo = tramosDto.get(tramosDto.size() - 1);
         
         nuevaRuta.setOrigen("Origen de la ruta");
         nuevaRuta.setDestino("Destino de la ruta");
@@ -250,7 +252,8 @@ public class RutaService {
         Ruta rutaGuardada = rutaRepository.save(nuevaRuta);
         
         // 4. Crear y guardar cada Tramo de la ruta
-        for (TramoCreateDTO tramoDto : dto.getTramos()) {
+        for (int i = 0; i < tramosDto.size(); i++) {
+            TramoCreateDTO tramoDto = tramosDto.get(i);
             Tramo nuevoTramo = new Tramo();
             nuevoTramo.setRuta(rutaGuardada);
             nuevoTramo.setOrden(tramoDto.getOrden());
@@ -259,26 +262,14 @@ public class RutaService {
             nuevoTramo.setLongitudInicio(tramoDto.getLongitudInicio());
             nuevoTramo.setLatitudFin(tramoDto.getLatitudFin());
             nuevoTramo.setLongitudFin(tramoDto.getLongitudFin());
-            nuevoTramo.setEstado("PENDIENTE"); // Estado inicial
+            nuevoTramo.setEstado(EstadoTramo.PENDIENTE); // Estado inicial
             nuevoTramo.setFechaEstimadaInicio(tramoDto.getFechaEstimadaInicio());
             nuevoTramo.setFechaEstimadaFin(tramoDto.getFechaEstimadaFin());
             
-            // Calcular distancia del tramo usando Google Maps
-            String origenLatLng = tramoDto.getLatitudInicio() + "," + tramoDto.getLongitudInicio();
-            String destinoLatLng = tramoDto.getLatitudFin() + "," + tramoDto.getLongitudFin();
-            
-            Optional<Element> elementOpt = googleMapsService.obtenerInformacionDistancia(origenLatLng, destinoLatLng);
-            
-            if (elementOpt.isPresent()) {
-                Element element = elementOpt.get();
-                double distanciaTramo = element.getDistance().getValue() / 1000.0;
-                double tiempoTramo = element.getDuration().getValue() / 3600.0;
-                
-                nuevoTramo.setDistanciaKm(distanciaTramo);
-                nuevoTramo.setTiempoEstimadoHoras((int) Math.ceil(tiempoTramo));
-            } else {
-                throw new RuntimeException("No se pudo calcular la distancia del tramo usando Google Maps API");
-            }
+            // Reutilizar la distancia ya obtenida en el paso 2 (validada como presente)
+            EstimacionDistancia estimacion = estimaciones.get(i).get();
+            nuevoTramo.setDistanciaKm(estimacion.getDistanciaKm());
+            nuevoTramo.setTiempoEstimadoHoras((int) Math.ceil(estimacion.getTiempoHoras()));
             
             // Por ahora, no manejamos depósitos (se implementará en futuro)
             // Los campos depositoOrigen y depositoDestino quedarán null
@@ -288,7 +279,7 @@ public class RutaService {
         
         // 5. Asociar la ruta a la solicitud y actualizar estado
         solicitud.setRuta(rutaGuardada);
-        solicitud.setEstado("PROGRAMADA");
+        solicitud.cambiarEstado(EstadoSolicitud.PROGRAMADA);
         solicitudRepository.save(solicitud);
         
         // 6. Retornar la ruta como DTO
@@ -0,0 +1,347 @@
+package utn.frc.isi.backend.tpi_Integrador.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import utn.frc.isi.backend.tpi_Integrador.dtos.EventoSeguimientoDTO;
+import utn.frc.isi.backend.tpi_Integrador.exceptions.SuscripcionesAgotadasException;
+import utn.frc.isi.backend.tpi_Integrador.models.Contenedor;
+import utn.frc.isi.backend.tpi_Integrador.models.Solicitud;
+import utn.frc.isi.backend.tpi_Integrador.repositories.ContenedorRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.SolicitudRepository;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Seguimiento en tiempo real de solicitudes y contenedores (Server-Sent Events), en lugar de consultar
+ * GET /estado periódicamente.
+ *
+ * - Al suscribirse se envía el estado actual, y después un evento por cada cambio confirmado de estado,
+ *   progreso o ETA (iniciar y finalizar tramos, finalizar la solicitud). El evento se arma una vez con las
+ *   entidades de la transacción que hizo el cambio y se serializa una vez para todos los suscriptores.
+ * - Cada suscriptor tiene un único evento pendiente: si no alcanza a leer, el evento nuevo reemplaza al
+ *   anterior (cada evento es el estado completo). Un cliente lento no acumula memoria ni demora a los demás.
+ * - Los envíos corren en hilos virtuales, a lo sumo uno por suscriptor; publicar sólo deja el evento pendiente.
+ * - Las suscripciones abiertas se limitan a seguimiento.max-suscriptores (503 al superarlo) y cada una dura
+ *   seguimiento.duracion-suscripcion; el cliente (EventSource) se reconecta y recibe de nuevo el estado actual.
+ * - Cada seguimiento.intervalo-latido se envía un comentario para que los proxies no corten la conexión
+ *   y para detectar clientes que se desconectaron.
+ *
+ * Métricas: seguimiento.suscriptores, seguimiento.eventos.reemplazados y seguimiento.suscripciones.rechazadas.
+ */
+@Service
+public class SeguimientoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeguimientoService.class);
+
+    public static final String EVENTO_ESTADO = "estado";
+
+    private final SolicitudRepository solicitudRepository;
+    private final ContenedorRepository contenedorRepository;
+    private final ObjectMapper objectMapper;
+
+    private final int maxSuscriptores;
+    private final Duration duracionSuscripcion;
+
+    // Suscriptores por ID de solicitud y de contenedor; un evento se entrega a los de ambos índices
+    private final Map<Long, Set<Suscriptor>> porSolicitud = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Suscriptor>> porContenedor = new ConcurrentHashMap<>();
+    private final Set<Suscriptor> suscriptores = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger cantidadSuscriptores;
+    private final AtomicLong secuencia = new AtomicLong();
+
+    private final Counter eventosReemplazados;
+    private final Counter suscripcionesRechazadas;
+
+    private final ExecutorService envios = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("seguimiento-envio-", 0).factory());
+    private final ScheduledExecutorService latidos = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("seguimiento-latido").daemon().factory());
+
+    /**
+     * Evento listo para enviar: el JSON se genera una sola vez para todos los suscriptores
+     */
+    private record Evento(long id, String json) {
+    }
+
+    public SeguimientoService(SolicitudRepository solicitudRepository,
+                              ContenedorRepository contenedorRepository,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${seguimiento.max-suscriptores:5000}") int maxSuscriptores,
+                              @Value("${seguimiento.duracion-suscripcion:30m}") Duration duracionSuscripcion,
+                              @Value("${seguimiento.intervalo-latido:15s}") Duration intervaloLatido) {
+        this.solicitudRepository = solicitudRepository;
+        this.contenedorRepository = contenedorRepository;
+        this.objectMapper = objectMapper;
+        this.maxSuscriptores = maxSuscriptores;
+        this.duracionSuscripcion = duracionSuscripcion;
+
+        this.cantidadSuscriptores = meterRegistry.gauge("seguimiento.suscriptores", new AtomicInteger());
+        this.eventosReemplazados = Counter.builder("seguimiento.eventos.reemplazados")
+                .description("Eventos que un suscriptor lento no llegó a recibir porque llegó uno más nuevo")
+                .register(meterRegistry);
+        this.suscripcionesRechazadas = Counter.builder("seguimiento.suscripciones.rechazadas")
+                .description("Suscripciones rechazadas por el límite de suscriptores")
+                .register(meterRegistry);
+
+        long latidoMs = intervaloLatido.toMillis();
+        latidos.scheduleWithFixedDelay(this::latir, latidoMs, latidoMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Abre el stream de seguimiento de una solicitud
+     * @param solicitudId ID de la solicitud
+     * @return Optional con el SseEmitter, vacío si la solicitud no existe
+     * @throws SuscripcionesAgotadasException si se alcanzó seguimiento.max-suscriptores
+     */
+    public Optional<SseEmitter> suscribirSolicitud(Long solicitudId) {
+        return suscribir(porSolicitud, solicitudId, () -> solicitudRepository.findById(solicitudId)
+                .map(solicitud -> armarEvento(solicitud, solicitud.getContenedor())));
+    }
+
+    /**
+     * Abre el stream de seguimiento de un contenedor
+     * @param contenedorId ID del contenedor
+     * @return Optional con el SseEmitter, vacío si el contenedor no existe
+     * @throws SuscripcionesAgotadasException si se alcanzó seguimiento.max-suscriptores
+     */
+    public Optional<SseEmitter> suscribirContenedor(Long contenedorId) {
+        return suscribir(porContenedor, contenedorId, () -> contenedorRepository.findById(contenedorId)
+                .map(contenedor -> armarEvento(solicitudRepository.findByContenedor(contenedor).orElse(null), contenedor)));
+    }
+
+    /**
+     * Publica el estado de una solicitud (y su contenedor) a sus suscriptores cuando se confirme la transacción
+     * en curso; si se revierte no se publica nada. Debe llamarse después de aplicar los cambios a las entidades.
+     *
+     * @param solicitud Solicitud modificada
+     */
+    public void publicar(Solicitud solicitud) {
+        EventoSeguimientoDTO evento = armarEvento(solicitud, solicitud.getContenedor());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            difundir(evento);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                difundir(evento);
+            }
+        });
+    }
+
+    private Optional<SseEmitter> suscribir(Map<Long, Set<Suscriptor>> indice, Long id,
+                                           Supplier<Optional<EventoSeguimientoDTO>> estadoActual) {
+        if (cantidadSuscriptores.incrementAndGet() > maxSuscriptores) {
+            cantidadSuscriptores.decrementAndGet();
+            suscripcionesRechazadas.increment();
+            throw new SuscripcionesAgotadasException(maxSuscriptores);
+        }
+        SseEmitter emitter = new SseEmitter(duracionSuscripcion.toMillis());
+        Suscriptor suscriptor = new Suscriptor(emitter, indice, id);
+        suscriptores.add(suscriptor);
+        indice.computeIfAbsent(id, clave -> ConcurrentHashMap.newKeySet()).add(suscriptor);
+        emitter.onCompletion(suscriptor::quitar);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> suscriptor.quitar());
+
+        // El estado actual se lee después de registrar al suscriptor: un cambio confirmado mientras tanto
+        // llega como evento, y en ese caso el estado leído (que puede ser anterior) ya no se envía
+        Optional<EventoSeguimientoDTO> actual;
+        try {
+            actual = estadoActual.get();
+        } catch (RuntimeException e) {
+            suscriptor.quitar();
+            throw e;
+        }
+        if (actual.isEmpty()) {
+            suscriptor.quitar();
+            return Optional.empty();
+        }
+        suscriptor.ofrecerInicial(serializar(actual.get()));
+        return Optional.of(emitter);
+    }
+
+    private void difundir(EventoSeguimientoDTO evento) {
+        List<Suscriptor> destinos = new ArrayList<>();
+        if (evento.getSolicitudId() != null) {
+            destinos.addAll(porSolicitud.getOrDefault(evento.getSolicitudId(), Set.of()));
+        }
+        if (evento.getContenedorId() != null) {
+            destinos.addAll(porContenedor.getOrDefault(evento.getContenedorId(), Set.of()));
+        }
+        if (destinos.isEmpty()) {
+            return;
+        }
+        Evento serializado = serializar(evento);
+        destinos.forEach(suscriptor -> suscriptor.ofrecer(serializado));
+        logger.debug("Estado de la solicitud {} enviado a {} suscriptores", evento.getSolicitudId(), destinos.size());
+    }
+
+    private void latir() {
+        suscriptores.forEach(Suscriptor::latir);
+    }
+
+    private static EventoSeguimientoDTO armarEvento(Solicitud solicitud, Contenedor contenedor) {
+        EventoSeguimientoDTO evento = new EventoSeguimientoDTO();
+        if (solicitud != null) {
+            evento.setSolicitudId(solicitud.getId());
+            evento.setEstadoSolicitud(solicitud.getEstado());
+            evento.setProgreso(SolicitudService.calcularProgreso(solicitud.getEstado()));
+            evento.setEtaDestino(SolicitudService.calcularETA(solicitud));
+        } else {
+            evento.setEtaDestino("Pendiente de solicitud");
+        }
+        if (contenedor != null) {
+            evento.setContenedorId(contenedor.getId());
+            evento.setEstadoContenedor(contenedor.getEstado());
+            evento.setUbicacionActual(SolicitudService.determinarUbicacionContenedor(contenedor.getEstado()));
+        }
+        evento.setFecha(LocalDateTime.now());
+        return evento;
+    }
+
+    private Evento serializar(EventoSeguimientoDTO evento) {
+        try {
+            return new Evento(secuencia.incrementAndGet(), objectMapper.writeValueAsString(evento));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el evento de seguimiento", e);
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        latidos.shutdownNow();
+        // Si el servidor web ya se detuvo, las respuestas pueden estar recicladas: no hay nada que cerrar
+        suscriptores.forEach(suscriptor -> {
+            try {
+                suscriptor.emitter.complete();
+            } catch (IllegalStateException e) {
+                logger.debug("Suscripción ya cerrada al detener el seguimiento: {}", e.getMessage());
+            }
+        });
+        envios.shutdown();
+    }
+
+    /**
+     * Una conexión abierta. Guarda sólo el último evento sin enviar y lo envía desde un hilo virtual;
+     * mientras hay un envío en curso no se lanza otro.
+     */
+    private final class Suscriptor {
+
+        private final SseEmitter emitter;
+        private final Map<Long, Set<Suscriptor>> indice;
+        private final Long id;
+
+        private final AtomicReference<Evento> pendiente = new AtomicReference<>();
+        private final AtomicBoolean latidoPendiente = new AtomicBoolean();
+        private final AtomicBoolean enviando = new AtomicBoolean();
+        private final AtomicBoolean recibioEventos = new AtomicBoolean();
+        private final AtomicBoolean quitado = new AtomicBoolean();
+
+        private Suscriptor(SseEmitter emitter, Map<Long, Set<Suscriptor>> indice, Long id) {
+            this.emitter = emitter;
+            this.indice = indice;
+            this.id = id;
+        }
+
+        void ofrecer(Evento evento) {
+            recibioEventos.set(true);
+            if (pendiente.getAndSet(evento) != null) {
+                eventosReemplazados.increment();
+            }
+            programarEnvio();
+        }
+
+        /**
+         * El estado leído al suscribirse se descarta si ya llegó un evento (más nuevo)
+         */
+        void ofrecerInicial(Evento evento) {
+            if (!recibioEventos.get() && pendiente.compareAndSet(null, evento)) {
+                programarEnvio();
+            }
+        }
+
+        void latir() {
+            latidoPendiente.set(true);
+            programarEnvio();
+        }
+
+        private void programarEnvio() {
+            if (!quitado.get() && enviando.compareAndSet(false, true)) {
+                try {
+                    envios.execute(this::enviar);
+                } catch (RuntimeException e) {
+                    // Ejecutor detenido (cierre del servicio)
+                    enviando.set(false);
+                }
+            }
+        }
+
+        private void enviar() {
+            try {
+                Evento evento;
+                while ((evento = pendiente.getAndSet(null)) != null) {
+                    latidoPendiente.set(false);
+                    emitter.send(SseEmitter.event()
+                            .id(Long.toString(evento.id()))
+                            .name(EVENTO_ESTADO)
+                            .data(evento.json(), MediaType.APPLICATION_JSON));
+                }
+                if (latidoPendiente.getAndSet(false)) {
+                    emitter.send(SseEmitter.event().comment(""));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Cliente desconectado o emitter ya completado
+                logger.debug("Suscripción de seguimiento {} cerrada: {}", id, e.getMessage());
+                quitar();
+                return;
+            } finally {
+                enviando.set(false);
+            }
+            if (pendiente.get() != null) {
+                programarEnvio();
+            }
+        }
+
+        void quitar() {
+            if (!quitado.compareAndSet(false, true)) {
+                return;
+            }
+            suscriptores.remove(this);
+            indice.computeIfPresent(id, (clave, conjunto) -> {
+                conjunto.remove(this);
+                return conjunto.isEmpty() ? null : conjunto;
+            });
+            cantidadSuscriptores.decrementAndGet();
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package utn.frc.isi.backend.tpi_Integrador.services;
 
+import jakarta.persistence.EntityManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import utn.frc.isi.backend.tpi_Integrador.dtos.ContenedorEstadoDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.PaginaDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.RutaDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.SolicitudCreateDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.SolicitudDTO;
@@ -14,9 +17,13 @@ import utn.frc.isi.backend.tpi_Integrador.mappers.SolicitudMapper;
 import utn.frc.isi.backend.tpi_Integrador.mappers.RutaMapper;
 import utn.frc.isi.backend.tpi_Integrador.models.Cliente;
 import utn.frc.isi.backend.tpi_Integrador.models.Contenedor;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoContenedor;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoSolicitud;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoTramo;
 import utn.frc.isi.backend.tpi_Integrador.models.Solicitud;
 import utn.frc.isi.backend.tpi_Integrador.models.Ruta;
 import utn.frc.isi.backend.tpi_Integrador.models.Tramo;
+import utn.frc.isi.backend.tpi_Integrador.repositories.PaginacionKeyset;
 import utn.frc.isi.backend.tpi_Integrador.repositories.SolicitudRepository;
 import utn.frc.isi.backend.tpi_Integrador.repositories.ClienteRepository;
 import utn.frc.isi.backend.tpi_Integrador.repositories.ContenedorRepository;
@@ -28,6 +35,8 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service // Marca esta clase como un componente de servicio de Spring
@@ -36,6 +45,9 @@ public class SolicitudService {
 
     private static final Logger logger = LoggerFactory.getLogger(SolicitudService.class);
 
+    // Campos por los que se puede ordenar el listado (si admiten nulos, esas filas van al final)
+    public static final Set<String> CAMPOS_ORDENABLES = Set.of("id", "fechaSolicitud", "estado", "costoEstimado", "costoFinal");
+
     private final SolicitudRepository solicitudRepository;
     private final ClienteService clienteService;
     private final ContenedorService contenedorService;
@@ -45,6 +57,8 @@ public class SolicitudService {
     private final TramoRepository tramoRepository;
     private final SolicitudMapper solicitudMapper;
     private final RutaMapper rutaMapper;
+    private final SeguimientoService seguimientoService;
+    private final EntityManager entityManager;
 
     // Inyección de dependencias a través del constructor (práctica recomendada)
     public SolicitudService(SolicitudRepository solicitudRepository, 
@@ -55,7 +69,9 @@ public class SolicitudService {
                           RutaRepository rutaRepository,
                           TramoRepository tramoRepository,
                           SolicitudMapper solicitudMapper,
-                          RutaMapper rutaMapper) {
+                          RutaMapper rutaMapper,
+                          SeguimientoService seguimientoService,
+                            EntityManager entityManager) {
         this.solicitudRepository = solicitudRepository;
         this.clienteService = clienteService;
         this.contenedorService = contenedorService;
@@ -65,20 +81,41 @@ public class SolicitudService {
         this.tramoRepository = tramoRepository;
         this.solicitudMapper = solicitudMapper;
         this.rutaMapper = rutaMapper;
+        this.seguimientoService = seguimientoService;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Obtiene una página de solicitudes con paginación por cursor (keyset)
+     * @param cursor Cursor devuelto por la página anterior (null para la primera)
+     * @param limite Cantidad de elementos por página
+     * @param ordenarPor Campo de orden (uno de CAMPOS_ORDENABLES)
+     * @param direccion Dirección del orden
+     * @return PaginaDTO con la página de solicitudes y el cursor de la siguiente
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<SolicitudDTO> obtenerPagina(String cursor, int limite, String ordenarPor, Sort.Direction direccion) {
+        logger.info("Obteniendo página de solicitudes (limite={}, orden={} {})", limite, ordenarPor, direccion);
+        PaginaDTO<SolicitudDTO> pagina = PaginacionKeyset.paginarEnLote(solicitudRepository, CAMPOS_ORDENABLES,
+                SolicitudRepository.ASOCIACIONES_DTO, cursor, limite, ordenarPor, direccion, solicitudMapper::toDTOs);
+        logger.info("Se devolvieron {} solicitudes", pagina.getItems().size());
+        return pagina;
     }
 
     /**
-     * Obtiene todas las solicitudes
-     * @return Lista de SolicitudDTO
+     * Exporta todas las solicitudes entregando cada fila al consumidor a medida que se lee
+     * de la base de datos, sin cargar la tabla completa en memoria
+     * @param ordenarPor Campo de orden (uno de CAMPOS_ORDENABLES)
+     * @param direccion Dirección del orden
+     * @param consumidor Receptor de cada SolicitudDTO
      */
-    public List<SolicitudDTO> obtenerTodas() {
-        logger.info("Obteniendo todas las solicitudes");
-        List<SolicitudDTO> solicitudes = solicitudRepository.findAll()
-                .stream()
-                .map(solicitudMapper::toDTO)
-                .collect(Collectors.toList());
-        logger.info("Se encontraron {} solicitudes", solicitudes.size());
-        return solicitudes;
+    @Transactional(readOnly = true)
+    public void exportar(String ordenarPor, Sort.Direction direccion, Consumer<? super SolicitudDTO> consumidor) {
+        PaginacionKeyset.validarCampo(ordenarPor, CAMPOS_ORDENABLES);
+        long cantidad = PaginacionKeyset.exportarEnLote(
+                solicitudRepository.streamAllBy(PaginacionKeyset.ordenar(ordenarPor, direccion)),
+                entityManager, solicitudMapper::toDTOs, consumidor);
+        logger.info("Se exportaron {} solicitudes", cantidad);
     }
 
     /**
@@ -162,7 +199,7 @@ public class SolicitudService {
         }
 
         // Actualizar el estado del contenedor
-        contenedor.setEstado("EN_ORIGEN");
+        contenedor.cambiarEstado(EstadoContenedor.EN_ORIGEN);
         Contenedor contenedorGuardado = contenedorRepository.save(contenedor);
 
         // 3. Crear la Ruta
@@ -187,7 +224,7 @@ public class SolicitudService {
         nuevaSolicitud.setContenedor(contenedorGuardado);
         nuevaSolicitud.setRuta(rutaGuardada);
         nuevaSolicitud.setObservaciones(dto.getObservaciones());
-        nuevaSolicitud.setEstado("BORRADOR"); // Estado inicial según documento de diseño
+        nuevaSolicitud.setEstado(EstadoSolicitud.BORRADOR); // Estado inicial según documento de diseño
         nuevaSolicitud.setFechaSolicitud(LocalDateTime.now().toString()); // Convertir a String
         
         // Los costos y tiempos se calcularán cuando se consulten las rutas tentativas
@@ -257,19 +294,19 @@ public class SolicitudService {
     /**
      * Determina la ubicación textual del contenedor según su estado
      */
-    private String determinarUbicacionContenedor(String estado) {
+    static String determinarUbicacionContenedor(EstadoContenedor estado) {
         if (estado == null) {
             return "Estado desconocido";
         }
         
-        switch (estado.toUpperCase()) {
-            case "EN_ORIGEN":
+        switch (estado) {
+            case EN_ORIGEN:
                 return "El contenedor se encuentra en la dirección de origen, listo para ser recogido.";
-            case "EN_DEPOSITO":
+            case EN_DEPOSITO:
                 return "El contenedor está almacenado en un depósito intermedio de la ruta.";
-            case "EN_VIAJE":
+            case EN_VIAJE:
                 return "El contenedor está en tránsito hacia el siguiente punto de la ruta.";
-            case "ENTREGADO":
+            case ENTREGADO:
                 return "El contenedor ha sido entregado exitosamente en la dirección de destino.";
             default:
                 return "Estado: " + estado;
@@ -279,19 +316,19 @@ public class SolicitudService {
     /**
      * Calcula el porcentaje de progreso basado en el estado de la solicitud
      */
-    private double calcularProgreso(String estado) {
+    static double calcularProgreso(EstadoSolicitud estado) {
         if (estado == null) {
             return 0.0;
         }
         
-        switch (estado.toUpperCase()) {
-            case "BORRADOR":
+        switch (estado) {
+            case BORRADOR:
                 return 10.0; // 10% - Solicitud creada
-            case "PROGRAMADA":
+            case PROGRAMADA:
                 return 25.0; // 25% - Ruta asignada
-            case "EN_TRANSITO":
+            case EN_TRANSITO:
                 return 60.0; // 60% - En viaje
-            case "ENTREGADA":
+            case ENTREGADA:
                 return 100.0; // 100% - Completada
             default:
                 return 0.0;
@@ -301,23 +338,23 @@ public class SolicitudService {
     /**
      * Calcula el tiempo estimado de llegada (ETA) al destino
      */
-    private String calcularETA(Solicitud solicitud) {
+    static String calcularETA(Solicitud solicitud) {
         if (solicitud.getEstado() == null) {
             return "No disponible";
         }
         
-        switch (solicitud.getEstado().toUpperCase()) {
-            case "BORRADOR":
+        switch (solicitud.getEstado()) {
+            case BORRADOR:
                 return "Pendiente de programación";
-            case "PROGRAMADA":
+            case PROGRAMADA:
                 return "Esperando inicio de transporte";
-            case "EN_TRANSITO":
+            case EN_TRANSITO:
                 if (solicitud.getTiempoEstimado() > 0) {
                     int horas = (int) solicitud.getTiempoEstimado();
                     return "Aproximadamente " + horas + " horas";
                 }
                 return "Calculando...";
-            case "ENTREGADA":
+            case ENTREGADA:
                 return "Ya entregado";
             default:
                 return "No disponible";
@@ -346,7 +383,7 @@ public class SolicitudService {
         Solicitud solicitud = optionalSolicitud.get();
         
         // 2. Validar que la solicitud esté EN_TRANSITO
-        if (!"EN_TRANSITO".equals(solicitud.getEstado())) {
+        if (solicitud.getEstado() != EstadoSolicitud.EN_TRANSITO) {
             logger.error("Solicitud ID: {} no puede finalizarse. Estado actual: {} (debe ser EN_TRANSITO)", 
                         solicitudId, solicitud.getEstado());
             throw new IllegalStateException(
@@ -373,7 +410,7 @@ public class SolicitudService {
         
         // 5. Verificar que TODOS los tramos estén FINALIZADOS
         List<Tramo> tramosPendientes = tramos.stream()
-            .filter(tramo -> !"FINALIZADO".equals(tramo.getEstado()))
+            .filter(tramo -> tramo.getEstado() != EstadoTramo.FINALIZADO)
             .collect(Collectors.toList());
         
         if (!tramosPendientes.isEmpty()) {
@@ -418,12 +455,16 @@ public class SolicitudService {
         logger.debug("Tiempo total calculado para solicitud ID: {}: {} horas", solicitudId, tiempoTotalHoras);
         
         // 8. Actualizar la solicitud
-        solicitud.setEstado("ENTREGADA");
+        solicitud.cambiarEstado(EstadoSolicitud.ENTREGADA);
+        if (solicitud.getContenedor() != null) {
+            solicitud.getContenedor().cambiarEstado(EstadoContenedor.ENTREGADO);
+        }
         solicitud.setCostoFinal(costoTotal);
         solicitud.setTiempoReal(tiempoTotalHoras);
         
-        // 9. Guardar y retornar el DTO
+        // 9. Guardar, avisar la entrega a quienes siguen la solicitud (al confirmarse) y retornar el DTO
         Solicitud solicitudGuardada = solicitudRepository.save(solicitud);
+        seguimientoService.publicar(solicitudGuardada);
         logger.info("Solicitud ID: {} finalizada exitosamente. Estado: ENTREGADA, Costo Final: ${}, Tiempo Real: {} horas",
                    solicitudId, costoTotal, tiempoTotalHoras);
         
@@ -1,28 +1,38 @@
 package utn.frc.isi.backend.tpi_Integrador.services;
 
+import jakarta.persistence.EntityManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import utn.frc.isi.backend.tpi_Integrador.clients.FlotaServiceClient;
 import utn.frc.isi.backend.tpi_Integrador.dtos.AsignacionCamionDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.PaginaDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.TramoDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.flota.CamionDTO;
 import utn.frc.isi.backend.tpi_Integrador.dtos.flota.TarifaDTO;
+import utn.frc.isi.backend.tpi_Integrador.exceptions.CamionNoDisponibleException;
 import utn.frc.isi.backend.tpi_Integrador.mappers.TramoMapper;
 import utn.frc.isi.backend.tpi_Integrador.models.CamionReference;
 import utn.frc.isi.backend.tpi_Integrador.models.Contenedor;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoContenedor;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoSolicitud;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoTramo;
 import utn.frc.isi.backend.tpi_Integrador.models.Solicitud;
 import utn.frc.isi.backend.tpi_Integrador.models.Tramo;
 import utn.frc.isi.backend.tpi_Integrador.repositories.CamionReferenceRepository;
 import utn.frc.isi.backend.tpi_Integrador.repositories.ContenedorRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.PaginacionKeyset;
 import utn.frc.isi.backend.tpi_Integrador.repositories.SolicitudRepository;
 import utn.frc.isi.backend.tpi_Integrador.repositories.TramoRepository;
 
 import java.time.LocalDateTime;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service // Marca esta clase como un componente de servicio de Spring
@@ -30,12 +40,20 @@ public class TramoService {
 
     private static final Logger logger = LoggerFactory.getLogger(TramoService.class);
 
+    // Campos por los que se puede ordenar el listado (si admiten nulos, esas filas van al final)
+    public static final Set<String> CAMPOS_ORDENABLES = Set.of("id", "orden", "tipo", "estado", "distanciaKm");
+
     private final TramoRepository tramoRepository;
     private final CamionReferenceRepository camionReferenceRepository;
     private final SolicitudRepository solicitudRepository;
     private final ContenedorRepository contenedorRepository;
     private final FlotaServiceClient flotaServiceClient;
+    private final OutboxCamionService outboxCamionService;
+    private final SeguimientoService seguimientoService;
     private final TramoMapper tramoMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate lecturaTemplate;
 
     // Inyección de dependencias a través del constructor (práctica recomendada)
     public TramoService(TramoRepository tramoRepository, 
@@ -43,20 +61,56 @@ public class TramoService {
                         SolicitudRepository solicitudRepository, 
                         ContenedorRepository contenedorRepository,
                         FlotaServiceClient flotaServiceClient,
-                        TramoMapper tramoMapper) {
+                        OutboxCamionService outboxCamionService,
+                        SeguimientoService seguimientoService,
+                        TramoMapper tramoMapper,
+                        EntityManager entityManager,
+                        TransactionTemplate transactionTemplate) {
         this.tramoRepository = tramoRepository;
         this.camionReferenceRepository = camionReferenceRepository;
         this.solicitudRepository = solicitudRepository;
         this.contenedorRepository = contenedorRepository;
         this.flotaServiceClient = flotaServiceClient;
+        this.outboxCamionService = outboxCamionService;
+        this.seguimientoService = seguimientoService;
         this.tramoMapper = tramoMapper;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.lecturaTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.lecturaTemplate.setReadOnly(true);
     }
 
-    public List<TramoDTO> obtenerTodos() {
-        return tramoRepository.findAll()
-                .stream()
-                .map(tramoMapper::toDTO)
-                .collect(Collectors.toList());
+    /**
+     * Obtiene una página de tramos con paginación por cursor (keyset)
+     * @param cursor Cursor devuelto por la página anterior (null para la primera)
+     * @param limite Cantidad de elementos por página
+     * @param ordenarPor Campo de orden (uno de CAMPOS_ORDENABLES)
+     * @param direccion Dirección del orden
+     * @return PaginaDTO con la página de tramos y el cursor de la siguiente
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<TramoDTO> obtenerPagina(String cursor, int limite, String ordenarPor, Sort.Direction direccion) {
+        logger.info("Obteniendo página de tramos (limite={}, orden={} {})", limite, ordenarPor, direccion);
+        PaginaDTO<TramoDTO> pagina = PaginacionKeyset.paginar(tramoRepository, CAMPOS_ORDENABLES,
+                TramoRepository.ASOCIACIONES_DTO, cursor, limite, ordenarPor, direccion, tramoMapper::toDTO);
+        logger.info("Se devolvieron {} tramos", pagina.getItems().size());
+        return pagina;
+    }
+
+    /**
+     * Exporta todos los tramos entregando cada fila al consumidor a medida que se lee
+     * de la base de datos, sin cargar la tabla completa en memoria
+     * @param ordenarPor Campo de orden (uno de CAMPOS_ORDENABLES)
+     * @param direccion Dirección del orden
+     * @param consumidor Receptor de cada TramoDTO
+     */
+    @Transactional(readOnly = true)
+    public void exportar(String ordenarPor, Sort.Direction direccion, Consumer<? super TramoDTO> consumidor) {
+        PaginacionKeyset.validarCampo(ordenarPor, CAMPOS_ORDENABLES);
+        long cantidad = PaginacionKeyset.exportar(
+                tramoRepository.streamAllBy(PaginacionKeyset.ordenar(ordenarPor, direccion)),
+                entityManager, tramoMapper::toDTO, consumidor);
+        logger.info("Se exportaron {} tramos", cantidad);
     }
 
     public Optional<TramoDTO> obtenerPorId(Long id) {
@@ -72,13 +126,10 @@ public class TramoService {
      * @return Lista de TramoDTO con los tramos asignados que no están finalizados
      */
     public List<TramoDTO> obtenerTramosAsignadosTransportista(Long camionId) {
-        // Define los estados que NO queremos (solo los finalizados)
-        List<String> estadosExcluidos = Arrays.asList("FINALIZADO");
-        
-        // Busca tramos asignados al camión que no estén finalizados
-        List<Tramo> tramos = tramoRepository.findByCamionReference_IdAndEstadoNotIn(
+        // Busca tramos asignados al camión que no estén finalizados (ASIGNADO o INICIADO)
+        List<Tramo> tramos = tramoRepository.findByCamionReference_IdAndEstadoIn(
             camionId, 
-            estadosExcluidos
+            EstadoTramo.activos()
         );
         
         // Mapea las entidades a DTOs usando el mapper
@@ -112,13 +163,28 @@ public class TramoService {
      * Valida disponibilidad y capacidad del camión antes de asignar.
      * Actualiza el estado del tramo a "ASIGNADO" y marca el camión como no disponible.
      * 
+     * El camión se reserva primero con un UPDATE condicional atómico, por lo que entre asignaciones
+     * concurrentes del mismo camión solo una lo obtiene; si después falla alguna validación la
+     * transacción se revierte y la reserva se deshace. Dos asignaciones simultáneas del mismo tramo
+     * las resuelve la versión del tramo: la segunda en confirmar falla con ObjectOptimisticLockingFailureException.
+     * 
      * @param tramoId ID del tramo
      * @param dto DTO con el ID del camión a asignar
      * @return TramoDTO actualizado con el camión asignado
+     * @throws CamionNoDisponibleException si el camión ya está reservado o asignado
      */
     @Transactional
     public TramoDTO asignarCamion(Long tramoId, AsignacionCamionDTO dto) {
-        // PASO 1: Buscar el tramo
+        // PASO 1: Reservar el camión (marca disponible=false solo si todavía estaba disponible)
+        if (camionReferenceRepository.reservar(dto.getCamionId()) == 0) {
+            CamionReference camionRef = camionReferenceRepository.findById(dto.getCamionId())
+                    .orElseThrow(() -> new RuntimeException("Referencia de Camión no encontrada con ID: " + dto.getCamionId()));
+            throw new CamionNoDisponibleException("El camión con dominio " + camionRef.getDominio() + " no está disponible");
+        }
+        CamionReference camionRef = camionReferenceRepository.findById(dto.getCamionId())
+                .orElseThrow(() -> new RuntimeException("Referencia de Camión no encontrada con ID: " + dto.getCamionId()));
+        
+        // PASO 2: Buscar el tramo
         Tramo tramo = tramoRepository.findById(tramoId)
                 .orElseThrow(() -> new RuntimeException("Tramo no encontrado con ID: " + tramoId));
         
@@ -128,24 +194,11 @@ public class TramoService {
         }
         
         // Validar que el tramo esté en estado PENDIENTE
-        if (!"PENDIENTE".equals(tramo.getEstado())) {
+        if (tramo.getEstado() != EstadoTramo.PENDIENTE) {
             throw new RuntimeException("El tramo debe estar en estado PENDIENTE para asignar un camión");
         }
         
-        // PASO 2: Obtener la referencia del camión
-        // En el futuro, aquí llamaríamos al servicio-flota para obtener los datos actualizados
-        // Por ahora, usamos la referencia local sincronizada
-        CamionReference camionRef = camionReferenceRepository.findById(dto.getCamionId())
-                .orElseThrow(() -> new RuntimeException("Referencia de Camión no encontrada con ID: " + dto.getCamionId()));
-        
-        // PASO 3: Validaciones de negocio
-        
-        // 3.1: Validar que el camión esté disponible
-        if (!camionRef.isDisponible()) {
-            throw new RuntimeException("El camión con dominio " + camionRef.getDominio() + " no está disponible");
-        }
-        
-        // 3.2: Validar capacidad de peso y volumen
+        // PASO 3: Validar capacidad de peso y volumen
         // Necesitamos obtener el contenedor de la solicitud asociada a la ruta de este tramo
         if (tramo.getRuta() != null) {
             // Buscar la solicitud que tiene esta ruta
@@ -175,13 +228,12 @@ public class TramoService {
         
         // PASO 4: Asignar el camión y actualizar estados
         tramo.setCamionReference(camionRef);
-        tramo.setEstado("ASIGNADO");
+        tramo.cambiarEstado(EstadoTramo.ASIGNADO);
         
-        // PASO 5: Marcar el camión como no disponible
-        // En el futuro, aquí llamaríamos a: PATCH /api/camiones/{id}/disponibilidad en servicio-flota
-        // Por ahora, actualizamos la referencia local
-        camionRef.setDisponible(false);
-        camionReferenceRepository.save(camionRef);
+        // PASO 5: Informar la ocupación del camión a servicio-flota (outbox, se envía después del commit)
+        if (camionRef.getCamionIdFlota() != null) {
+            outboxCamionService.registrarCambioDisponibilidad(camionRef.getCamionIdFlota(), false);
+        }
         
         // PASO 6: Guardar y retornar el tramo actualizado como DTO
         Tramo tramoGuardado = tramoRepository.save(tramo);
@@ -203,12 +255,12 @@ public class TramoService {
                 .orElseThrow(() -> new RuntimeException("Tramo no encontrado con ID: " + tramoId));
         
         // 2. Validaciones de negocio
-        if (!"ASIGNADO".equals(tramo.getEstado())) {
+        if (tramo.getEstado() != EstadoTramo.ASIGNADO) {
             throw new RuntimeException("El tramo no está en estado 'ASIGNADO'. Estado actual: " + tramo.getEstado());
         }
         
         // 3. Actualizar estado del Tramo
-        tramo.setEstado("INICIADO");
+        tramo.cambiarEstado(EstadoTramo.INICIADO);
         tramo.setFechaRealInicio(LocalDateTime.now());
         
         // 4. Buscar solicitud asociada para actualizar contenedor
@@ -217,16 +269,19 @@ public class TramoService {
         
         // 5. Actualizar estado del Contenedor
         Contenedor contenedor = solicitud.getContenedor();
-        contenedor.setEstado("EN_VIAJE");
+        contenedor.cambiarEstado(EstadoContenedor.EN_VIAJE);
         contenedorRepository.save(contenedor);
         
         // 6. Actualizar estado de la Solicitud si no está ya en tránsito
-        if (!"EN_TRANSITO".equals(solicitud.getEstado())) {
-            solicitud.setEstado("EN_TRANSITO");
+        if (solicitud.getEstado() != EstadoSolicitud.EN_TRANSITO) {
+            solicitud.cambiarEstado(EstadoSolicitud.EN_TRANSITO);
             solicitudRepository.save(solicitud);
         }
         
-        // 7. Guardar y retornar el tramo actualizado como DTO
+        // 7. Avisar el cambio a quienes siguen la solicitud o el contenedor (al confirmarse la transacción)
+        seguimientoService.publicar(solicitud);
+        
+        // 8. Guardar y retornar el tramo actualizado como DTO
         Tramo tramoGuardado = tramoRepository.save(tramo);
         return tramoMapper.toDTO(tramoGuardado);
     }
@@ -239,45 +294,72 @@ public class TramoService {
      * - Datos del camión (consumo combustible, costo por km)
      * Actualiza el estado del tramo y, si es el último, del contenedor y solicitud.
      * 
+     * La tarifa y el camión se consultan a servicio-flota antes de abrir la transacción de escritura, que
+     * solo aplica el costo, los estados y el outbox: una demora de servicio-flota no retiene una conexión
+     * ni los bloqueos del tramo. Dos finalizaciones simultáneas del mismo tramo las resuelve la versión
+     * del tramo: la segunda en confirmar falla con ObjectOptimisticLockingFailureException.
+     * 
      * @param tramoId ID del tramo a finalizar
      * @return TramoDTO actualizado con costo real calculado
      */
-    @Transactional
     public TramoDTO finalizarTramo(Long tramoId) {
-        // 1. Buscar el tramo
-        Tramo tramo = tramoRepository.findById(tramoId)
-                .orElseThrow(() -> new RuntimeException("Tramo no encontrado con ID: " + tramoId));
-        
-        // 2. Validaciones de negocio
-        if (!"INICIADO".equals(tramo.getEstado())) {
-            throw new RuntimeException("El tramo no está en estado 'INICIADO'. Estado actual: " + tramo.getEstado());
-        }
+        // 1. Buscar el tramo y validarlo (transacción de solo lectura)
+        Long camionIdFlota = lecturaTemplate.execute(status -> camionIdFlotaDeTramoIniciado(tramoId));
         
-        // 3. CALCULAR COSTO REAL (RF#8)
+        // 2. CALCULAR COSTO REAL (RF#8): datos de servicio-flota, fuera de toda transacción
         logger.info("Calculando costo real para tramo ID: {}", tramoId);
         
-        // 3.1 Obtener tarifa actual desde servicio-flota
+        // 2.1 Obtener tarifa actual desde servicio-flota
         TarifaDTO tarifa = flotaServiceClient.obtenerTarifaActiva()
                 .orElseThrow(() -> new RuntimeException("No se pudo obtener la tarifa activa desde servicio-flota"));
         logger.debug("Tarifa obtenida: cargoGestion={}, precioCombustible={}", 
                     tarifa.getCargoGestionPorTramo(), tarifa.getPrecioLitroCombustible());
         
-        // 3.2 Obtener datos del camión desde servicio-flota
+        // 2.2 Obtener datos del camión desde servicio-flota
+        CamionDTO camion = flotaServiceClient.obtenerCamionPorId(camionIdFlota)
+                .orElseThrow(() -> new RuntimeException("No se pudo obtener los datos del camión ID: " + camionIdFlota));
+        logger.debug("Camión obtenido: consumo={} L/km, costoPorKm={}", 
+                    camion.getConsumoCombustiblePorKm(), camion.getCostoPorKm());
+        
+        // 3. Aplicar costo, estados y liberación del camión en una transacción corta
+        return transactionTemplate.execute(status -> aplicarFinalizacion(tramoId, camionIdFlota, tarifa, camion));
+    }
+    
+    /**
+     * Valida que el tramo se pueda finalizar y devuelve el ID en servicio-flota de su camión
+     */
+    private Long camionIdFlotaDeTramoIniciado(Long tramoId) {
+        Tramo tramo = tramoRepository.findById(tramoId)
+                .orElseThrow(() -> new RuntimeException("Tramo no encontrado con ID: " + tramoId));
+        validarFinalizable(tramo);
+        return tramo.getCamionReference().getCamionIdFlota();
+    }
+    
+    private void validarFinalizable(Tramo tramo) {
+        if (tramo.getEstado() != EstadoTramo.INICIADO) {
+            throw new RuntimeException("El tramo no está en estado 'INICIADO'. Estado actual: " + tramo.getEstado());
+        }
         if (tramo.getCamionReference() == null) {
             throw new RuntimeException("El tramo no tiene un camión asignado");
         }
-        
-        Long camionIdFlota = tramo.getCamionReference().getCamionIdFlota();
-        if (camionIdFlota == null) {
+        if (tramo.getCamionReference().getCamionIdFlota() == null) {
             throw new RuntimeException("La referencia del camión no tiene el ID del servicio de flota");
         }
+    }
+    
+    /**
+     * Escritura de finalizarTramo: vuelve a leer el tramo (pudo cambiar mientras se consultaba a
+     * servicio-flota), calcula el costo con la tarifa y el camión ya obtenidos y aplica los cambios
+     */
+    private TramoDTO aplicarFinalizacion(Long tramoId, Long camionIdFlota, TarifaDTO tarifa, CamionDTO camion) {
+        Tramo tramo = tramoRepository.findById(tramoId)
+                .orElseThrow(() -> new RuntimeException("Tramo no encontrado con ID: " + tramoId));
+        validarFinalizable(tramo);
+        if (!camionIdFlota.equals(tramo.getCamionReference().getCamionIdFlota())) {
+            throw new RuntimeException("El camión del tramo cambió mientras se finalizaba");
+        }
         
-        CamionDTO camion = flotaServiceClient.obtenerCamionPorId(camionIdFlota)
-                .orElseThrow(() -> new RuntimeException("No se pudo obtener los datos del camión ID: " + camionIdFlota));
-        logger.debug("Camión obtenido: consumo={} L/km, costoPorKm={}", 
-                    camion.getConsumoCombustiblePorKm(), camion.getCostoPorKm());
-        
-        // 3.3 Calcular componentes del costo según el enunciado:
+        // 3.1 Calcular componentes del costo según el enunciado:
         // Cargo de Gestión por Tramo
         double cargoGestion = tarifa.getCargoGestionPorTramo();
         
@@ -298,11 +380,11 @@ public class TramoService {
         logger.info("Costo real calculado para tramo {}: cargoGestion={}, costoKm={}, combustible={}, estadia={}, TOTAL={}", 
                    tramoId, cargoGestion, costoKilometraje, costoCombustible, costoEstadia, costoTotalTramo);
         
-        // 3.4 Asignar costo real al tramo
+        // 3.2 Asignar costo real al tramo
         tramo.setCostoReal(costoTotalTramo);
         
         // 4. Actualizar estado del Tramo
-        tramo.setEstado("FINALIZADO");
+        tramo.cambiarEstado(EstadoTramo.FINALIZADO);
         tramo.setFechaRealFin(LocalDateTime.now());
         
         // 5. Si el tramo termina en depósito intermedio, actualizar estado del contenedor
@@ -311,7 +393,7 @@ public class TramoService {
         
         if (tramo.getTipo().contains("DEPOSITO")) {
             Contenedor contenedor = solicitud.getContenedor();
-            contenedor.setEstado("EN_DEPOSITO");
+            contenedor.cambiarEstado(EstadoContenedor.EN_DEPOSITO);
             contenedorRepository.save(contenedor);
             logger.info("Contenedor {} marcado como EN_DEPOSITO en tramo intermedio", contenedor.getId());
         }
@@ -319,23 +401,21 @@ public class TramoService {
         // NOTA: La solicitud se finalizará explícitamente con el endpoint PATCH /solicitudes/{id}/finalizar
         // cuando TODOS los tramos estén finalizados. Esto permite al usuario revisar antes de cerrar.
         
-        // 8. Guardar el tramo actualizado
+        // 6. Avisar el cambio a quienes siguen la solicitud o el contenedor (al confirmarse la transacción)
+        seguimientoService.publicar(solicitud);
+        
+        // 7. Guardar el tramo actualizado
         Tramo tramoGuardado = tramoRepository.save(tramo);
         
-        // 9. Liberar el camión en servicio-flota (marca como disponible)
-        try {
-            flotaServiceClient.actualizarDisponibilidadCamion(camionIdFlota, true);
-            logger.info("Camión ID {} marcado como disponible en servicio-flota", camionIdFlota);
-        } catch (Exception e) {
-            logger.warn("No se pudo actualizar disponibilidad del camión en servicio-flota: {}", e.getMessage());
-            // Fallback: actualizar la referencia local
-            CamionReference camionRef = tramo.getCamionReference();
-            camionRef.setDisponible(true);
-            camionReferenceRepository.save(camionRef);
-            logger.debug("Camión {} liberado localmente como fallback", camionRef.getDominio());
-        }
+        // 8. Liberar el camión: la referencia local se actualiza en esta transacción y el cambio queda
+        // registrado en el outbox, que lo envía a servicio-flota después del commit (con reintentos)
+        CamionReference camionRef = tramo.getCamionReference();
+        camionRef.setDisponible(true);
+        camionReferenceRepository.save(camionRef);
+        outboxCamionService.registrarCambioDisponibilidad(camionIdFlota, true);
+        logger.info("Liberación del camión ID {} registrada para servicio-flota", camionIdFlota);
         
-        // 10. Retornar el tramo actualizado como DTO
+        // 9. Retornar el tramo actualizado como DTO
         return tramoMapper.toDTO(tramoGuardado);
     }
     
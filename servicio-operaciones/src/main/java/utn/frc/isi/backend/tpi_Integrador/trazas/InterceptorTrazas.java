@@ -0,0 +1,45 @@
+package utn.frc.isi.backend.tpi_Integrador.trazas;
+
+import org.slf4j.MDC;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+/**
+ * Interceptor de los RestClient salientes: mide cada llamada como span HTTP de la traza actual y,
+ * para los servicios propios, propaga el X-Request-Id para correlacionar los logs de ambos lados.
+ */
+public class InterceptorTrazas implements ClientHttpRequestInterceptor {
+
+    private final RegistroTrazas registroTrazas;
+    private final boolean propagarRequestId;
+
+    public InterceptorTrazas(RegistroTrazas registroTrazas, boolean propagarRequestId) {
+        this.registroTrazas = registroTrazas;
+        this.propagarRequestId = propagarRequestId;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        String requestId = MDC.get(RegistroTrazas.MDC_REQUEST_ID);
+        if (propagarRequestId && requestId != null) {
+            request.getHeaders().set(RegistroTrazas.HEADER_REQUEST_ID, requestId);
+        }
+
+        long inicio = System.nanoTime();
+        boolean error = true;
+        try {
+            ClientHttpResponse respuesta = execution.execute(request, body);
+            error = respuesta.getStatusCode().isError();
+            return respuesta;
+        } finally {
+            registroTrazas.registrarSpan(RegistroTrazas.TIPO_HTTP,
+                    request.getMethod() + " " + request.getURI().getHost() + request.getURI().getPath(),
+                    System.nanoTime() - inicio, error);
+        }
+    }
+}
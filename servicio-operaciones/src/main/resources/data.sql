@@ -17,20 +17,21 @@ VALUES ('Transportes del Sur SRL', 'Calle San Martín 234, Rosario, Santa Fe', '
 -- ============================================
 -- CONTENEDORES
 -- ============================================
+-- estado: 0=EN_ORIGEN, 1=EN_VIAJE, 2=EN_DEPOSITO, 3=ENTREGADO (ver EstadoContenedor)
 -- Contenedor del cliente Juan Perez (ID 1)
 INSERT INTO contenedor (numero, tipo, peso, volumen, estado, cliente_id) 
-VALUES ('CONT-JP-001', 'STANDARD', 1500.0, 33.0, 'EN_ORIGEN', 1);
+VALUES ('CONT-JP-001', 'STANDARD', 1500.0, 33.0, 0, 1);
 
 -- Contenedores de Empresa Logística SA (ID 2)
 INSERT INTO contenedor (numero, tipo, peso, volumen, estado, cliente_id) 
-VALUES ('CONT-001', 'STANDARD', 5000.0, 25.0, 'EN_ORIGEN', 2);
+VALUES ('CONT-001', 'STANDARD', 5000.0, 25.0, 0, 2);
 
 INSERT INTO contenedor (numero, tipo, peso, volumen, estado, cliente_id) 
-VALUES ('CONT-002', 'REFRIGERADO', 3500.0, 18.0, 'EN_DEPOSITO', 2);
+VALUES ('CONT-002', 'REFRIGERADO', 3500.0, 18.0, 2, 2);
 
 -- Contenedor de Transportes del Sur (ID 3)
 INSERT INTO contenedor (numero, tipo, peso, volumen, estado, cliente_id) 
-VALUES ('CONT-003', 'STANDARD', 7500.0, 40.0, 'EN_ORIGEN', 3);
+VALUES ('CONT-003', 'STANDARD', 7500.0, 40.0, 0, 3);
 
 -- ============================================
 -- RUTAS
@@ -46,14 +47,15 @@ VALUES ('Rosario, Santa Fe', 'Mendoza, Argentina', -32.9442, -60.6505, -32.8895,
 -- ============================================
 -- SOLICITUDES
 -- ============================================
+-- estado: 0=BORRADOR, 1=PENDIENTE, 2=PROGRAMADA, 3=EN_TRANSITO, 4=ENTREGADA (ver EstadoSolicitud)
 -- Solicitud 1: Cliente Juan Perez (BORRADOR - sin ruta asignada)
 INSERT INTO solicitud (contenedor_id, cliente_id, ruta_id, fecha_solicitud, estado, observaciones, costo_estimado, tiempo_estimado, costo_final, tiempo_real) 
-VALUES (1, 1, NULL, '2025-10-20', 'BORRADOR', 'Entrega urgente.', 0, 0, 0, 0);
+VALUES (1, 1, NULL, '2025-10-20', 0, 'Entrega urgente.', 0, 0, 0, 0);
 
 -- Solicitud 2: Empresa Logística SA (PENDIENTE - con ruta asignada)
 INSERT INTO solicitud (contenedor_id, cliente_id, ruta_id, fecha_solicitud, estado, observaciones, costo_estimado, tiempo_estimado, costo_final, tiempo_real) 
-VALUES (2, 2, 1, '2025-10-20', 'PENDIENTE', 'Transporte estándar a Buenos Aires', 0, 0, 0, 0);
+VALUES (2, 2, 1, '2025-10-20', 1, 'Transporte estándar a Buenos Aires', 0, 0, 0, 0);
 
 -- Solicitud 3: Transportes del Sur (PENDIENTE - con ruta asignada)
 INSERT INTO solicitud (contenedor_id, cliente_id, ruta_id, fecha_solicitud, estado, observaciones, costo_estimado, tiempo_estimado, costo_final, tiempo_real) 
-VALUES (4, 3, 2, '2025-10-21', 'PENDIENTE', 'Carga pesada a Mendoza', 0, 0, 0, 0);
+VALUES (4, 3, 2, '2025-10-21', 1, 'Carga pesada a Mendoza', 0, 0, 0, 0);
@@ -0,0 +1,201 @@
+package utn.frc.isi.backend.tpi_Integrador;
+
+import org.junit.jupiter.api.Test;
+import utn.frc.isi.backend.tpi_Integrador.services.AlgoritmoHungaro;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Algoritmo húngaro: costo óptimo en matrices conocidas y contra fuerza bruta, matrices rectangulares
+ * (más tramos que camiones se resuelven transpuestas, como en la asignación automática) y pares
+ * imposibles cargados con la misma penalización que usa la asignación automática.
+ */
+class AlgoritmoHungaroTest {
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    void resuelveUnaMatrizConocida() {
+        double[][] costos = {
+                {4, 1, 3},
+                {2, 0, 5},
+                {3, 2, 2}
+        };
+
+        int[] asignacion = AlgoritmoHungaro.resolver(costos);
+
+        assertArrayEquals(new int[]{1, 0, 2}, asignacion);
+        assertEquals(5, costo(costos, asignacion), DELTA);
+    }
+
+    @Test
+    void laSolucionGolosaNoEsLaOptima() {
+        // Tomar el mínimo de la primera fila (1) obliga a pagar 100 en la segunda
+        double[][] costos = {
+                {1, 2},
+                {1, 100}
+        };
+
+        int[] asignacion = AlgoritmoHungaro.resolver(costos);
+
+        assertArrayEquals(new int[]{1, 0}, asignacion);
+        assertEquals(3, costo(costos, asignacion), DELTA);
+    }
+
+    @Test
+    void conMasColumnasQueFilasEligeLasColumnasMasBaratas() {
+        double[][] costos = {
+                {9, 7, 1, 8},
+                {6, 1, 2, 9}
+        };
+
+        int[] asignacion = AlgoritmoHungaro.resolver(costos);
+
+        assertArrayEquals(new int[]{2, 1}, asignacion);
+        assertEquals(2, costo(costos, asignacion), DELTA);
+    }
+
+    @Test
+    void conMasFilasQueColumnasSeResuelveLaTranspuesta() {
+        double[][] costos = {
+                {5, 9},
+                {1, 4},
+                {8, 2},
+                {3, 3}
+        };
+        assertThrows(IllegalArgumentException.class, () -> AlgoritmoHungaro.resolver(costos));
+
+        double[][] transpuesta = transponer(costos);
+        int[] asignacion = AlgoritmoHungaro.resolver(transpuesta);
+
+        // Cada columna original recibe una fila distinta: 1 → columna 0, 2 → columna 1
+        assertArrayEquals(new int[]{1, 2}, asignacion);
+        assertEquals(3, costo(transpuesta, asignacion), DELTA);
+        assertEquals(optimoPorFuerzaBruta(transpuesta), costo(transpuesta, asignacion), DELTA);
+    }
+
+    @Test
+    void coincideConFuerzaBrutaEnMatricesAleatorias() {
+        Random random = new Random(7);
+        for (int prueba = 0; prueba < 200; prueba++) {
+            int filas = 1 + random.nextInt(6);
+            int columnas = filas + random.nextInt(3);
+            double[][] costos = new double[filas][columnas];
+            for (double[] fila : costos) {
+                for (int c = 0; c < columnas; c++) {
+                    // Muchos empates y algunos costos cero
+                    fila[c] = random.nextInt(10) * 12.5;
+                }
+            }
+
+            int[] asignacion = AlgoritmoHungaro.resolver(costos);
+
+            assertEquals(filas, Arrays.stream(asignacion).distinct().count(), "columnas repetidas en la prueba " + prueba);
+            assertEquals(optimoPorFuerzaBruta(costos), costo(costos, asignacion), DELTA, "prueba " + prueba);
+        }
+    }
+
+    @Test
+    void evitaLosParesImposiblesSiHayUnaAsignacionCompletaValida() {
+        // NaN marca un camión sin capacidad para el tramo; el único camino completo válido es el más caro
+        double[][] validos = {
+                {1, Double.NaN, 50},
+                {Double.NaN, 1, Double.NaN},
+                {2, 3, Double.NaN}
+        };
+        double[][] costos = penalizar(validos);
+
+        int[] asignacion = AlgoritmoHungaro.resolver(costos);
+
+        assertArrayEquals(new int[]{2, 1, 0}, asignacion);
+        assertEquals(0, imposibles(validos, asignacion));
+        assertEquals(53, costo(validos, asignacion), DELTA);
+    }
+
+    @Test
+    void sinAsignacionCompletaValidaMaximizaLosParesPosibles() {
+        // Los tramos 0 y 1 solo entran en el camión 0: uno de los dos queda en un par imposible
+        double[][] validos = {
+                {10, Double.NaN, Double.NaN},
+                {1, Double.NaN, Double.NaN},
+                {5, 4, 6}
+        };
+        double[][] costos = penalizar(validos);
+
+        int[] asignacion = AlgoritmoHungaro.resolver(costos);
+
+        assertEquals(1, imposibles(validos, asignacion));
+        // Entre las asignaciones con dos pares válidos, la más barata: tramo 1 → camión 0, tramo 2 → camión 1
+        assertEquals(0, asignacion[1]);
+        assertEquals(1, asignacion[2]);
+    }
+
+    @Test
+    void unaMatrizVaciaNoAsignaNada() {
+        assertEquals(0, AlgoritmoHungaro.resolver(new double[0][0]).length);
+    }
+
+    /**
+     * Reemplaza los pares imposibles (NaN) por la penalización de la asignación automática:
+     * mayor que el costo de cualquier asignación completa válida
+     */
+    private static double[][] penalizar(double[][] validos) {
+        double maxCosto = Arrays.stream(validos).flatMapToDouble(Arrays::stream).filter(c -> !Double.isNaN(c)).max().orElse(0);
+        double penalizacion = maxCosto * validos.length + 1;
+        return Arrays.stream(validos)
+                .map(fila -> Arrays.stream(fila).map(c -> Double.isNaN(c) ? penalizacion : c).toArray())
+                .toArray(double[][]::new);
+    }
+
+    private static long imposibles(double[][] validos, int[] asignacion) {
+        long cantidad = 0;
+        for (int fila = 0; fila < asignacion.length; fila++) {
+            if (Double.isNaN(validos[fila][asignacion[fila]])) {
+                cantidad++;
+            }
+        }
+        return cantidad;
+    }
+
+    private static double costo(double[][] costos, int[] asignacion) {
+        double total = 0;
+        for (int fila = 0; fila < asignacion.length; fila++) {
+            total += costos[fila][asignacion[fila]];
+        }
+        return total;
+    }
+
+    private static double[][] transponer(double[][] matriz) {
+        double[][] transpuesta = new double[matriz[0].length][matriz.length];
+        for (int i = 0; i < matriz.length; i++) {
+            for (int j = 0; j < matriz[0].length; j++) {
+                transpuesta[j][i] = matriz[i][j];
+            }
+        }
+        return transpuesta;
+    }
+
+    private static double optimoPorFuerzaBruta(double[][] costos) {
+        return optimoDesde(costos, 0, new boolean[costos[0].length]);
+    }
+
+    private static double optimoDesde(double[][] costos, int fila, boolean[] usadas) {
+        if (fila == costos.length) {
+            return 0;
+        }
+        double mejor = Double.POSITIVE_INFINITY;
+        for (int columna = 0; columna < usadas.length; columna++) {
+            if (!usadas[columna]) {
+                usadas[columna] = true;
+                mejor = Math.min(mejor, costos[fila][columna] + optimoDesde(costos, fila + 1, usadas));
+                usadas[columna] = false;
+            }
+        }
+        return mejor;
+    }
+}
@@ -0,0 +1,165 @@
+package utn.frc.isi.backend.tpi_Integrador;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import utn.frc.isi.backend.tpi_Integrador.dtos.AsignacionAutomaticaDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.ResultadoAsignacionAutomaticaDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.TramoDTO;
+import utn.frc.isi.backend.tpi_Integrador.exceptions.CamionNoDisponibleException;
+import utn.frc.isi.backend.tpi_Integrador.models.CamionReference;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoTramo;
+import utn.frc.isi.backend.tpi_Integrador.models.Tramo;
+import utn.frc.isi.backend.tpi_Integrador.repositories.CamionReferenceRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.TramoRepository;
+import utn.frc.isi.backend.tpi_Integrador.services.AsignacionAutomaticaService;
+import utn.frc.isi.backend.tpi_Integrador.services.CamionReferenceService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Asignación automática con un conflicto simulado entre el cálculo y la confirmación: justo antes de abrir
+ * la transacción que aplica el resultado, otro proceso toma un camión o un tramo elegido en una transacción
+ * propia. La transacción de la asignación se revierte entera: ningún tramo queda asignado y los camiones
+ * que alcanzó a reservar vuelven a estar disponibles.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:asignacion-automatica",
+        "servicio-flota.outbox.habilitado=false",
+        "servicio-flota.replicacion.habilitada=false"
+})
+class AsignacionAutomaticaServiceTest {
+
+    @Autowired private AsignacionAutomaticaService asignacionAutomaticaService;
+    @Autowired private CamionReferenceService camionReferenceService;
+    @Autowired private TramoRepository tramoRepository;
+    @Autowired private CamionReferenceRepository camionReferenceRepository;
+
+    @MockitoSpyBean private TransactionTemplate transactionTemplate;
+
+    private TransactionTemplate otroProceso;
+
+    @BeforeEach
+    void limpiar() {
+        tramoRepository.deleteAll();
+        camionReferenceRepository.deleteAll();
+        otroProceso = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        otroProceso.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Test
+    void asignaLosTramosConElMenorCostoTotal() {
+        Long barato = crearCamion("AUTO-B", 1).getId();
+        Long caro = crearCamion("AUTO-C", 3).getId();
+        Long largo = crearTramoPendiente(100).getId();
+        Long corto = crearTramoPendiente(10).getId();
+
+        ResultadoAsignacionAutomaticaDTO resultado = asignar(largo, corto);
+
+        // El camión barato va al tramo largo: 1 × 100 + 3 × 10
+        assertEquals(130, resultado.getCostoTotal(), 1e-9);
+        assertEquals(List.of(), resultado.getTramosSinAsignar());
+        Map<Long, Long> camionPorTramo = resultado.getAsignados().stream()
+                .collect(Collectors.toMap(TramoDTO::getId, tramo -> tramoRepository.findById(tramo.getId())
+                        .orElseThrow().getCamionReference().getId()));
+        assertEquals(Map.of(largo, barato, corto, caro), camionPorTramo);
+        assertTrue(camionReferenceRepository.findAllById(List.of(barato, caro)).stream().noneMatch(CamionReference::isDisponible));
+    }
+
+    @Test
+    void siOtroProcesoTomaUnCamionElegidoNoSeAsignaNingunTramo() {
+        Long tomado = crearCamion("AUTO-T1", 1).getId();
+        Long libre = crearCamion("AUTO-T2", 2).getId();
+        Long primero = crearTramoPendiente(100).getId();
+        Long segundo = crearTramoPendiente(10).getId();
+
+        antesDeAplicar(() -> camionReferenceService.reservar(tomado));
+
+        assertThrows(CamionNoDisponibleException.class, () -> asignar(primero, segundo));
+
+        assertSinAsignar(primero, segundo);
+        assertTrue(camionReferenceRepository.findById(libre).orElseThrow().isDisponible());
+    }
+
+    @Test
+    void siOtroProcesoTomaUnTramoSeRevierteLaReservaDeLosCamiones() {
+        Long camion1 = crearCamion("AUTO-R1", 1).getId();
+        Long camion2 = crearCamion("AUTO-R2", 2).getId();
+        Long ajeno = crearCamion("AUTO-R3", 50).getId();
+        Long tomado = crearTramoPendiente(100).getId();
+        Long otro = crearTramoPendiente(10).getId();
+        camionReferenceService.reservar(ajeno);
+
+        // La reserva de los camiones elegidos se concreta, pero uno de los tramos ya no está pendiente
+        antesDeAplicar(() -> {
+            Tramo tramo = tramoRepository.findById(tomado).orElseThrow();
+            tramo.setCamionReference(camionReferenceRepository.findById(ajeno).orElseThrow());
+            tramo.cambiarEstado(EstadoTramo.ASIGNADO);
+        });
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> asignar(tomado, otro));
+
+        assertSinAsignar(otro);
+        assertEquals(ajeno, tramoRepository.findById(tomado).orElseThrow().getCamionReference().getId());
+        assertTrue(camionReferenceRepository.findAllById(List.of(camion1, camion2)).stream().allMatch(CamionReference::isDisponible));
+    }
+
+    /**
+     * Ejecuta el cambio del otro proceso (confirmado en su propia transacción) cuando la asignación
+     * ya calculó el resultado y está por abrir la transacción que lo aplica
+     */
+    private void antesDeAplicar(Runnable cambio) {
+        doAnswer(invocacion -> {
+            otroProceso.executeWithoutResult(status -> cambio.run());
+            return invocacion.callRealMethod();
+        }).when(transactionTemplate).execute(any());
+    }
+
+    private ResultadoAsignacionAutomaticaDTO asignar(Long... tramoIds) {
+        return asignacionAutomaticaService.asignar(new AsignacionAutomaticaDTO(List.of(tramoIds)));
+    }
+
+    private void assertSinAsignar(Long... tramoIds) {
+        for (Tramo tramo : tramoRepository.findAllById(List.of(tramoIds))) {
+            assertEquals(EstadoTramo.PENDIENTE, tramo.getEstado());
+            assertNull(tramo.getCamionReference());
+        }
+    }
+
+    private CamionReference crearCamion(String dominio, double costoPorKm) {
+        CamionReference camion = new CamionReference();
+        camion.setDominio(dominio);
+        camion.setCapacidadPeso(20000);
+        camion.setCapacidadVolumen(80);
+        camion.setCostoPorKm(costoPorKm);
+        camion.setDisponible(true);
+        return camionReferenceRepository.save(camion);
+    }
+
+    private Tramo crearTramoPendiente(double distanciaKm) {
+        Tramo tramo = new Tramo();
+        tramo.setOrden(1);
+        tramo.setTipo("ORIGEN-DESTINO");
+        tramo.setEstado(EstadoTramo.PENDIENTE);
+        tramo.setLatitudInicio(-31.4);
+        tramo.setLongitudInicio(-64.2);
+        tramo.setLatitudFin(-32.9);
+        tramo.setLongitudFin(-60.6);
+        tramo.setDistanciaKm(distanciaKm);
+        return tramoRepository.save(tramo);
+    }
+}
@@ -0,0 +1,178 @@
+package utn.frc.isi.backend.tpi_Integrador;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import utn.frc.isi.backend.tpi_Integrador.dtos.AsignacionCamionDTO;
+import utn.frc.isi.backend.tpi_Integrador.exceptions.CamionNoDisponibleException;
+import utn.frc.isi.backend.tpi_Integrador.models.CamionReference;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoTramo;
+import utn.frc.isi.backend.tpi_Integrador.models.Tramo;
+import utn.frc.isi.backend.tpi_Integrador.repositories.CamionReferenceRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.TramoRepository;
+import utn.frc.isi.backend.tpi_Integrador.services.CamionReferenceService;
+import utn.frc.isi.backend.tpi_Integrador.services.TramoService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Lanza muchas asignaciones y reservas de camiones a la vez y verifica que ningún camión
+ * quede asignado dos veces ni ningún tramo reciba dos camiones.
+ */
+@SpringBootTest(properties = {
+        // Base propia: las transacciones concurrentes no deben mezclarse con los datos de otros tests
+        "spring.datasource.url=jdbc:h2:mem:asignacion-concurrente;LOCK_TIMEOUT=10000",
+        "spring.datasource.hikari.maximum-pool-size=16",
+        "servicio-flota.outbox.habilitado=false",
+        "servicio-flota.replicacion.habilitada=false"
+})
+class AsignacionCamionConcurrenteTest {
+
+    private static final int HILOS = 32;
+
+    @Autowired private TramoService tramoService;
+    @Autowired private CamionReferenceService camionReferenceService;
+    @Autowired private TramoRepository tramoRepository;
+    @Autowired private CamionReferenceRepository camionReferenceRepository;
+
+    /**
+     * Resultado de un intento: EXITOSO si se concretó, CONFLICTO si perdió contra otro intento concurrente
+     */
+    private enum Intento { EXITOSO, CONFLICTO }
+
+    @Test
+    void unCamionPedidoParaMuchosTramosSeAsignaUnaSolaVez() throws Exception {
+        Long camionId = crearCamion("CONC-001").getId();
+        List<Long> tramos = new ArrayList<>();
+        for (int i = 0; i < HILOS; i++) {
+            tramos.add(crearTramoPendiente(i).getId());
+        }
+
+        List<Intento> intentos = ejecutarEnParalelo(i -> () -> {
+            tramoService.asignarCamion(tramos.get(i), new AsignacionCamionDTO(camionId));
+            return Intento.EXITOSO;
+        });
+
+        assertEquals(1, intentos.stream().filter(Intento.EXITOSO::equals).count(), "Asignaciones exitosas");
+        assertFalse(camionReferenceRepository.findById(camionId).orElseThrow().isDisponible());
+        long tramosConElCamion = tramoRepository.findAllById(tramos).stream()
+                .filter(tramo -> tramo.getCamionReference() != null)
+                .peek(tramo -> assertEquals(EstadoTramo.ASIGNADO, tramo.getEstado()))
+                .count();
+        assertEquals(1, tramosConElCamion, "Tramos con el camión asignado");
+    }
+
+    @Test
+    void unTramoPedidoConMuchosCamionesRecibeUnoSolo() throws Exception {
+        Long tramoId = crearTramoPendiente(0).getId();
+        List<Long> camiones = new ArrayList<>();
+        for (int i = 0; i < HILOS; i++) {
+            camiones.add(crearCamion("CONC-T" + i).getId());
+        }
+
+        List<Intento> intentos = ejecutarEnParalelo(i -> () -> {
+            tramoService.asignarCamion(tramoId, new AsignacionCamionDTO(camiones.get(i)));
+            return Intento.EXITOSO;
+        });
+
+        assertEquals(1, intentos.stream().filter(Intento.EXITOSO::equals).count(), "Asignaciones exitosas");
+        Tramo tramo = tramoRepository.findById(tramoId).orElseThrow();
+        assertEquals(EstadoTramo.ASIGNADO, tramo.getEstado());
+        // Las asignaciones perdedoras revierten la reserva de su camión
+        List<CamionReference> ocupados = camionReferenceRepository.findAllById(camiones).stream()
+                .filter(camion -> !camion.isDisponible())
+                .toList();
+        assertEquals(1, ocupados.size(), "Camiones ocupados");
+        assertEquals(ocupados.get(0).getId(), tramo.getCamionReference().getId());
+    }
+
+    @Test
+    void reservasConcurrentesDelMismoCamionObtienenUnaSola() throws Exception {
+        Long camionId = crearCamion("CONC-R01").getId();
+
+        List<Intento> intentos = ejecutarEnParalelo(i -> () -> {
+            assertTrue(camionReferenceService.reservar(camionId).isPresent());
+            return Intento.EXITOSO;
+        });
+
+        assertEquals(1, intentos.stream().filter(Intento.EXITOSO::equals).count(), "Reservas exitosas");
+        assertFalse(camionReferenceRepository.findById(camionId).orElseThrow().isDisponible());
+
+        // Sin tramos activos la reserva se puede liberar, una sola vez
+        assertTrue(camionReferenceService.liberar(camionId).orElseThrow().isDisponible());
+        assertThrows(IllegalStateException.class, () -> camionReferenceService.liberar(camionId));
+    }
+
+    /**
+     * Ejecuta HILOS intentos a la vez (todos arrancan juntos) y devuelve el resultado de cada uno.
+     * Un conflicto de concurrencia cuenta como CONFLICTO; cualquier otra excepción hace fallar el test.
+     */
+    private List<Intento> ejecutarEnParalelo(IntFunction<Callable<Intento>> intento) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch largada = new CountDownLatch(1);
+        try {
+            List<Future<Intento>> futuros = new ArrayList<>();
+            for (int i = 0; i < HILOS; i++) {
+                Callable<Intento> tarea = intento.apply(i);
+                futuros.add(executor.submit(() -> {
+                    largada.await();
+                    try {
+                        return tarea.call();
+                    } catch (CamionNoDisponibleException | ObjectOptimisticLockingFailureException e) {
+                        return Intento.CONFLICTO;
+                    } catch (RuntimeException e) {
+                        // El tramo ya fue asignado por una transacción confirmada antes de leerlo
+                        if ("El tramo ya tiene un camión asignado".equals(e.getMessage())) {
+                            return Intento.CONFLICTO;
+                        }
+                        throw e;
+                    }
+                }));
+            }
+            largada.countDown();
+
+            List<Intento> resultados = new ArrayList<>();
+            for (Future<Intento> futuro : futuros) {
+                resultados.add(futuro.get(30, TimeUnit.SECONDS));
+            }
+            return resultados;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private CamionReference crearCamion(String dominio) {
+        CamionReference camion = new CamionReference();
+        camion.setDominio(dominio);
+        camion.setCapacidadPeso(20000);
+        camion.setCapacidadVolumen(80);
+        camion.setDisponible(true);
+        return camionReferenceRepository.save(camion);
+    }
+
+    private Tramo crearTramoPendiente(int orden) {
+        Tramo tramo = new Tramo();
+        tramo.setOrden(orden + 1);
+        tramo.setTipo("ORIGEN-DESTINO");
+        tramo.setEstado(EstadoTramo.PENDIENTE);
+        tramo.setLatitudInicio(-31.4);
+        tramo.setLongitudInicio(-64.2);
+        tramo.setLatitudFin(-32.9);
+        tramo.setLongitudFin(-60.6);
+        return tramoRepository.save(tramo);
+    }
+}
@@ -0,0 +1,168 @@
+package utn.frc.isi.backend.tpi_Integrador;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utn.frc.isi.backend.tpi_Integrador.clients.GoogleMapsClient;
+import utn.frc.isi.backend.tpi_Integrador.dtos.googlemaps.Distance;
+import utn.frc.isi.backend.tpi_Integrador.dtos.googlemaps.Duration;
+import utn.frc.isi.backend.tpi_Integrador.dtos.googlemaps.Element;
+import utn.frc.isi.backend.tpi_Integrador.models.DistanciaCalculada;
+import utn.frc.isi.backend.tpi_Integrador.repositories.DistanciaCalculadaRepository;
+import utn.frc.isi.backend.tpi_Integrador.services.GoogleMapsService;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Caché de distancias de GoogleMapsService con Google Maps simulado: aciertos en memoria y en el nivel
+ * persistente (también después de reiniciar, con la base en un archivo), TTL, distancias vencidas servidas
+ * si Google Maps no responde y el límite de entradas persistentes. Se arma sin contexto de Spring.
+ */
+class CacheDistanciasTest {
+
+    private static final String ORIGEN = "-31.4201,-64.1888";
+    private static final String DESTINO = "-34.6037,-58.3816";
+    private static final String CLAVE = "-31.4201,-64.1888|-34.6037,-58.3816";
+
+    private final GoogleMapsClient googleMapsClient = mock(GoogleMapsClient.class);
+    private final List<DistanciaCalculadaRepository> repositorios = new ArrayList<>();
+    private SimpleMeterRegistry meterRegistry;
+
+    @AfterEach
+    void cerrarRepositorios() {
+        repositorios.forEach(DistanciaCalculadaRepository::cerrar);
+    }
+
+    @Test
+    void unaDistanciaSeConsultaUnaVezYLuegoSeSirveDeMemoria() {
+        GoogleMapsService service = service(repositorio("jdbc:h2:mem:" + UUID.randomUUID()), true, 100);
+        when(googleMapsClient.getDistance(ORIGEN, DESTINO)).thenReturn(Optional.of(elemento(700_000)));
+
+        assertEquals(700_000, metros(service.obtenerInformacionDistancia(ORIGEN, DESTINO)));
+        // Coordenadas que redondean a la misma clave
+        assertEquals(700_000, metros(service.obtenerInformacionDistancia("-31.42012,-64.18881", DESTINO)));
+
+        verify(googleMapsClient, times(1)).getDistance(ORIGEN, DESTINO);
+        assertEquals(1.0, contador("fallo"));
+        assertEquals(1.0, contador("acierto_memoria"));
+        assertEquals(0.0, contador("acierto_persistente"));
+    }
+
+    @Test
+    void laDistanciaPersistidaSobreviveAUnReinicio(@TempDir Path directorio) {
+        String url = "jdbc:h2:file:" + directorio.resolve("distancias-cache");
+        DistanciaCalculadaRepository antes = repositorio(url);
+        when(googleMapsClient.getDistance(ORIGEN, DESTINO)).thenReturn(Optional.of(elemento(700_000)));
+        service(antes, true, 100).obtenerInformacionDistancia(ORIGEN, DESTINO);
+        antes.cerrar();
+
+        // Otra instancia del servicio, con la memoria vacía y la base reabierta
+        GoogleMapsService reiniciado = service(repositorio(url), true, 100);
+        assertEquals(700_000, metros(reiniciado.obtenerInformacionDistancia(ORIGEN, DESTINO)));
+
+        verify(googleMapsClient, times(1)).getDistance(ORIGEN, DESTINO);
+        assertEquals(1.0, contador("acierto_persistente"));
+        assertEquals(0.0, contador("fallo"));
+    }
+
+    @Test
+    void unaDistanciaVencidaSeVuelveAConsultarYSeSirveSiGoogleMapsNoResponde() {
+        DistanciaCalculadaRepository repositorio = repositorio("jdbc:h2:mem:" + UUID.randomUUID());
+        repositorio.save(calculada(CLAVE, 650_000, LocalDateTime.now().minusHours(200))); // TTL de 168 horas
+        GoogleMapsService service = service(repositorio, true, 100);
+        when(googleMapsClient.getDistance(ORIGEN, DESTINO))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(elemento(700_000)));
+
+        // Google Maps no responde: se sirve la vencida
+        assertEquals(650_000, metros(service.obtenerInformacionDistancia(ORIGEN, DESTINO)));
+        assertEquals(1.0, contador("vencida_servida"));
+
+        // Responde: se reemplaza la vencida y la siguiente consulta ya no va a Google Maps
+        assertEquals(700_000, metros(service.obtenerInformacionDistancia(ORIGEN, DESTINO)));
+        assertEquals(700_000, metros(service.obtenerInformacionDistancia(ORIGEN, DESTINO)));
+        assertEquals(700_000, repositorio.findById(CLAVE).orElseThrow().getDistanciaMetros());
+        verify(googleMapsClient, times(2)).getDistance(ORIGEN, DESTINO);
+        assertEquals(2.0, contador("fallo"));
+        assertEquals(1.0, contador("acierto_memoria"));
+    }
+
+    @Test
+    void sinServirVencidasUnaDistanciaVencidaNoSeUsa() {
+        DistanciaCalculadaRepository repositorio = repositorio("jdbc:h2:mem:" + UUID.randomUUID());
+        repositorio.save(calculada(CLAVE, 650_000, LocalDateTime.now().minusHours(200)));
+        GoogleMapsService service = service(repositorio, false, 100);
+        when(googleMapsClient.getDistance(ORIGEN, DESTINO)).thenReturn(Optional.empty());
+
+        assertEquals(Optional.empty(), service.obtenerInformacionDistancia(ORIGEN, DESTINO));
+        assertEquals(0.0, contador("vencida_servida"));
+
+        // La depuración también la elimina
+        service.depurarCachePersistente();
+        assertEquals(Optional.empty(), repositorio.findById(CLAVE));
+    }
+
+    @Test
+    void laDepuracionConservaSoloLasEntradasMasRecientes() {
+        DistanciaCalculadaRepository repositorio = repositorio("jdbc:h2:mem:" + UUID.randomUUID());
+        for (int i = 0; i < 5; i++) {
+            repositorio.save(calculada("clave-" + i, i, LocalDateTime.now().minusHours(5 - i)));
+        }
+
+        service(repositorio, true, 3).depurarCachePersistente();
+
+        assertEquals(3, repositorio.count());
+        assertEquals(Optional.empty(), repositorio.findById("clave-1"));
+        assertEquals(4, repositorio.findById("clave-4").orElseThrow().getDistanciaMetros());
+    }
+
+    /**
+     * TTL de 168 horas y 100 entradas en memoria
+     */
+    private GoogleMapsService service(DistanciaCalculadaRepository repositorio, boolean servirVencidas, int maxPersistentes) {
+        meterRegistry = new SimpleMeterRegistry();
+        return new GoogleMapsService(googleMapsClient, repositorio, meterRegistry, true, 100, 168, 4,
+                                     servirVencidas, maxPersistentes);
+    }
+
+    private DistanciaCalculadaRepository repositorio(String url) {
+        DistanciaCalculadaRepository repositorio = new DistanciaCalculadaRepository(url);
+        repositorios.add(repositorio);
+        return repositorio;
+    }
+
+    private double contador(String resultado) {
+        return meterRegistry.get("google.maps.distancias.cache").tag("resultado", resultado).counter().count();
+    }
+
+    private static Element elemento(long metros) {
+        return new Element("OK", new Distance(metros / 1000 + " km", metros), new Duration("7 hours", 25_200L));
+    }
+
+    private static long metros(Optional<Element> elemento) {
+        return elemento.orElseThrow().getDistance().getValue();
+    }
+
+    private static DistanciaCalculada calculada(String clave, long metros, LocalDateTime fecha) {
+        DistanciaCalculada entrada = new DistanciaCalculada();
+        entrada.setClave(clave);
+        entrada.setDistanciaMetros(metros);
+        entrada.setDistanciaTexto(metros / 1000 + " km");
+        entrada.setDuracionSegundos(25_200);
+        entrada.setDuracionTexto("7 hours");
+        entrada.setFechaCalculo(fecha);
+        return entrada;
+    }
+}
@@ -0,0 +1,196 @@
+package utn.frc.isi.backend.tpi_Integrador;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionTemplate;
+import utn.frc.isi.backend.tpi_Integrador.controllers.ContenedorController;
+import utn.frc.isi.backend.tpi_Integrador.controllers.RutaController;
+import utn.frc.isi.backend.tpi_Integrador.controllers.SolicitudController;
+import utn.frc.isi.backend.tpi_Integrador.controllers.TramoController;
+import utn.frc.isi.backend.tpi_Integrador.models.CamionReference;
+import utn.frc.isi.backend.tpi_Integrador.models.Cliente;
+import utn.frc.isi.backend.tpi_Integrador.models.Contenedor;
+import utn.frc.isi.backend.tpi_Integrador.models.DepositoReference;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoContenedor;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoSolicitud;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoTramo;
+import utn.frc.isi.backend.tpi_Integrador.models.Ruta;
+import utn.frc.isi.backend.tpi_Integrador.models.Solicitud;
+import utn.frc.isi.backend.tpi_Integrador.models.Tramo;
+import utn.frc.isi.backend.tpi_Integrador.repositories.CamionReferenceRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.ClienteRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.ContenedorRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.DepositoReferenceRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.RutaRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.SolicitudRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.TramoRepository;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica la cantidad exacta de sentencias SQL que ejecuta cada endpoint de listado/detalle.
+ * Los datos de prueba tienen varias filas con asociaciones distintas, de modo que una carga
+ * perezosa o EAGER por fila (N+1) se nota como sentencias de más y hace fallar el test.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        // El envío del outbox y la replicación consultan la base en segundo plano y alterarían el conteo
+        "servicio-flota.outbox.habilitado=false",
+        "servicio-flota.replicacion.habilitada=false"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CantidadConsultasSqlTest {
+
+    private static final int CANTIDAD_SOLICITUDES = 4;
+    private static final int TRAMOS_POR_RUTA = 3;
+
+    @Autowired private TramoController tramoController;
+    @Autowired private SolicitudController solicitudController;
+    @Autowired private ContenedorController contenedorController;
+    @Autowired private RutaController rutaController;
+
+    @Autowired private ClienteRepository clienteRepository;
+    @Autowired private ContenedorRepository contenedorRepository;
+    @Autowired private RutaRepository rutaRepository;
+    @Autowired private SolicitudRepository solicitudRepository;
+    @Autowired private TramoRepository tramoRepository;
+    @Autowired private CamionReferenceRepository camionReferenceRepository;
+    @Autowired private DepositoReferenceRepository depositoReferenceRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    private Statistics estadisticas;
+    private Long camionId;
+    private Long solicitudConRutaId;
+    private Long tramoId;
+
+    @BeforeAll
+    void crearDatos() {
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            CamionReference camion = new CamionReference();
+            camion.setDominio("SQL-001");
+            camion.setCapacidadPeso(20000);
+            camion.setCapacidadVolumen(80);
+            camion.setDisponible(false);
+            camionId = camionReferenceRepository.save(camion).getId();
+
+            for (int i = 0; i < CANTIDAD_SOLICITUDES; i++) {
+                Cliente cliente = new Cliente();
+                cliente.setNombre("Cliente SQL " + i);
+                clienteRepository.save(cliente);
+
+                Contenedor contenedor = new Contenedor();
+                contenedor.setNumero("CONT-SQL-" + i);
+                contenedor.setEstado(EstadoContenedor.EN_ORIGEN);
+                contenedor.setCliente(cliente);
+                contenedorRepository.save(contenedor);
+
+                Ruta ruta = new Ruta();
+                ruta.setOrigen("Origen " + i);
+                ruta.setDestino("Destino " + i);
+                rutaRepository.save(ruta);
+
+                for (int orden = 1; orden <= TRAMOS_POR_RUTA; orden++) {
+                    DepositoReference deposito = new DepositoReference();
+                    deposito.setId(9000L + i * 10 + orden);
+                    deposito.setNombre("Depósito SQL " + i + "-" + orden);
+                    depositoReferenceRepository.save(deposito);
+
+                    Tramo tramo = new Tramo();
+                    tramo.setRuta(ruta);
+                    tramo.setOrden(orden);
+                    tramo.setTipo("ORIGEN-DEPOSITO");
+                    tramo.setEstado(EstadoTramo.ASIGNADO);
+                    tramo.setLatitudInicio(-31.4 - orden);
+                    tramo.setLongitudInicio(-64.2 + orden);
+                    tramo.setLatitudFin(-31.4 - orden - 1);
+                    tramo.setLongitudFin(-64.2 + orden + 1);
+                    tramo.setCamionReference(camion);
+                    tramo.setDepositoDestino(deposito);
+                    tramoId = tramoRepository.save(tramo).getId();
+                }
+
+                Solicitud solicitud = new Solicitud();
+                solicitud.setEstado(EstadoSolicitud.PROGRAMADA);
+                solicitud.setFechaSolicitud("2025-11-0" + (i + 1));
+                solicitud.setCliente(cliente);
+                solicitud.setContenedor(contenedor);
+                solicitud.setRuta(ruta);
+                solicitudConRutaId = solicitudRepository.save(solicitud).getId();
+            }
+        });
+    }
+
+    @BeforeEach
+    void reiniciarEstadisticas() {
+        estadisticas.clear();
+    }
+
+    @Test
+    void listarTramosEjecutaUnaSentencia() {
+        assertSentencias(1, () -> tramoController.obtenerTodos(null, 500, "id", Sort.Direction.ASC));
+    }
+
+    @Test
+    void tramosDeTransportistaEjecutaUnaSentencia() {
+        ResponseEntity<?> respuesta = assertSentencias(1,
+                () -> tramoController.obtenerTramosParaTransportista(camionId));
+        assertTrue(((List<?>) respuesta.getBody()).size() >= CANTIDAD_SOLICITUDES * TRAMOS_POR_RUTA);
+    }
+
+    @Test
+    void detalleDeTramoEjecutaUnaSentencia() {
+        assertSentencias(1, () -> tramoController.obtenerPorId(tramoId));
+    }
+
+    @Test
+    void listarSolicitudesEjecutaDosSentencias() {
+        // Página de solicitudes con sus asociaciones + tramos de todas las rutas de la página
+        assertSentencias(2, () -> solicitudController.obtenerTodas(null, 500, "id", Sort.Direction.ASC));
+    }
+
+    @Test
+    void detalleDeSolicitudEjecutaDosSentencias() {
+        // Solicitud con sus asociaciones + tramos de su ruta
+        assertSentencias(2, () -> solicitudController.obtenerPorId(solicitudConRutaId));
+    }
+
+    @Test
+    void listarRutasEjecutaDosSentencias() {
+        assertSentencias(2, () -> rutaController.obtenerTodas(null, 500, "id", Sort.Direction.ASC));
+    }
+
+    @Test
+    void listarContenedoresEjecutaUnaSentencia() {
+        assertSentencias(1, () -> contenedorController.obtenerTodos(null, 500, "id", Sort.Direction.ASC));
+    }
+
+    @Test
+    void contenedoresPendientesEjecutaUnaSentencia() {
+        ResponseEntity<?> respuesta = assertSentencias(1, () -> contenedorController.consultarContenedoresPendientes());
+        assertTrue(((List<?>) respuesta.getBody()).size() >= CANTIDAD_SOLICITUDES);
+    }
+
+    private ResponseEntity<?> assertSentencias(long esperadas, Supplier<ResponseEntity<?>> endpoint) {
+        ResponseEntity<?> respuesta = endpoint.get();
+        assertEquals(200, respuesta.getStatusCode().value());
+        assertEquals(esperadas, estadisticas.getPrepareStatementCount(),
+                "Cantidad de sentencias SQL ejecutadas por el endpoint");
+        return respuesta;
+    }
+}
@@ -0,0 +1,210 @@
+package utn.frc.isi.backend.tpi_Integrador;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+import utn.frc.isi.backend.tpi_Integrador.clients.GoogleMapsClient;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prueba de carga: compara el throughput y el p99 del pool de hilos de Tomcat (200 hilos de plataforma)
+ * contra el modo hilos virtuales cuando Google Maps responde lento.
+ *
+ * Levanta un Google Maps simulado con latencia fija y, para cada modo, el servicio completo con un endpoint
+ * de prueba que llama a GoogleMapsClient (sin la caché de distancias). Con más requests concurrentes que
+ * hilos de Tomcat, en el modo de plataforma las requests esperan un hilo libre; con hilos virtuales no.
+ *
+ * No corre con el resto de los tests (tarda y depende de la máquina):
+ * mvn test -Dtest=CargaHilosVirtualesTest -Dpruebas.carga=true
+ */
+@EnabledIfSystemProperty(named = "pruebas.carga", matches = "true")
+class CargaHilosVirtualesTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(CargaHilosVirtualesTest.class);
+
+    private static final int LATENCIA_GOOGLE_MAPS_MS = 200;
+    private static final int REQUESTS = 4000;
+    private static final int CONCURRENCIA = 800;
+    private static final int REQUESTS_CALENTAMIENTO = 400;
+
+    private static final String RESPUESTA_GOOGLE_MAPS = """
+            {"status":"OK","origin_addresses":["A"],"destination_addresses":["B"],
+             "rows":[{"elements":[{"status":"OK","distance":{"text":"10 km","value":10000},
+             "duration":{"text":"8 min","value":480}}]}]}""";
+
+    private record Resultado(String modo, double requestsPorSegundo, long p50Ms, long p99Ms, int errores) {
+    }
+
+    /**
+     * Endpoint de prueba fuera de /api: llama directamente al cliente de Google Maps en cada request
+     */
+    @TestConfiguration
+    static class EndpointCarga {
+
+        @Bean
+        @Order(1)
+        SecurityFilterChain cargaSecurityFilterChain(HttpSecurity http) throws Exception {
+            return http.securityMatcher("/prueba-carga/**")
+                    .csrf(csrf -> csrf.disable())
+                    .authorizeHttpRequests(authz -> authz.anyRequest().permitAll())
+                    .build();
+        }
+
+        @Bean
+        RouterFunction<ServerResponse> distanciaCarga(GoogleMapsClient googleMapsClient) {
+            return RouterFunctions.route()
+                    .GET("/prueba-carga/distancia", request -> ServerResponse.ok().body(
+                            googleMapsClient.getDistance(request.param("origen").orElse("0"), "-31.4,-64.2").isPresent()
+                                    ? "OK" : "SIN_DISTANCIA"))
+                    .build();
+        }
+    }
+
+    @Test
+    void hilosVirtualesSostienenMasThroughputConGoogleMapsLento() throws Exception {
+        HttpServer googleMaps = iniciarGoogleMapsLento();
+        try {
+            Resultado plataforma = medir(false, googleMaps.getAddress().getPort());
+            Resultado virtuales = medir(true, googleMaps.getAddress().getPort());
+
+            logger.info("Carga con Google Maps a {} ms ({} requests, {} concurrentes):", LATENCIA_GOOGLE_MAPS_MS, REQUESTS, CONCURRENCIA);
+            for (Resultado resultado : List.of(plataforma, virtuales)) {
+                logger.info("  {}: {} req/s, p50 {} ms, p99 {} ms, {} errores", resultado.modo(),
+                        Math.round(resultado.requestsPorSegundo()), resultado.p50Ms(), resultado.p99Ms(), resultado.errores());
+            }
+
+            assertEquals(0, plataforma.errores(), "Errores con hilos de plataforma");
+            assertEquals(0, virtuales.errores(), "Errores con hilos virtuales");
+            assertTrue(virtuales.requestsPorSegundo() > plataforma.requestsPorSegundo(),
+                    "Los hilos virtuales deberían atender más requests por segundo que el pool de Tomcat");
+            assertTrue(virtuales.p99Ms() < plataforma.p99Ms(),
+                    "Los hilos virtuales deberían tener menor p99 que el pool de Tomcat");
+        } finally {
+            googleMaps.stop(0);
+        }
+    }
+
+    private static HttpServer iniciarGoogleMapsLento() throws Exception {
+        HttpServer servidor = HttpServer.create(new InetSocketAddress("localhost", 0), CONCURRENCIA * 2);
+        servidor.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        byte[] cuerpo = RESPUESTA_GOOGLE_MAPS.getBytes(StandardCharsets.UTF_8);
+        servidor.createContext("/maps/api/distancematrix/json", intercambio -> {
+            try {
+                Thread.sleep(LATENCIA_GOOGLE_MAPS_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            intercambio.getResponseHeaders().set("Content-Type", "application/json");
+            intercambio.sendResponseHeaders(200, cuerpo.length);
+            try (OutputStream salida = intercambio.getResponseBody()) {
+                salida.write(cuerpo);
+            }
+        });
+        servidor.start();
+        return servidor;
+    }
+
+    private static Resultado medir(boolean hilosVirtuales, int puertoGoogleMaps) throws Exception {
+        // Como argumentos de línea de comandos: tienen prioridad sobre application.properties
+        try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(TpiIntegradorApplication.class, EndpointCarga.class)
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + hilosVirtuales,
+                        "--server.tomcat.threads.max=200",
+                        "--google.maps.base-url=http://localhost:" + puertoGoogleMaps,
+                        "--servicio-flota.outbox.habilitado=false",
+                        "--servicio-flota.replicacion.habilitada=false",
+                        "--trazas.habilitadas=false",
+                        "--logging.level.utn.frc.isi.backend.tpi_Integrador.clients=WARN",
+                        "--logging.level.org.springframework.security=WARN")) {
+            int puerto = Integer.parseInt(contexto.getEnvironment().getProperty("local.server.port"));
+            String modo = hilosVirtuales ? "hilos virtuales" : "pool de Tomcat";
+
+            disparar(puerto, REQUESTS_CALENTAMIENTO);
+            List<Long> latencias = new ArrayList<>(REQUESTS);
+            long inicio = System.nanoTime();
+            int errores = disparar(puerto, REQUESTS, latencias);
+            double segundos = (System.nanoTime() - inicio) / 1_000_000_000d;
+
+            Collections.sort(latencias);
+            return new Resultado(modo, REQUESTS / segundos, percentil(latencias, 0.50), percentil(latencias, 0.99), errores);
+        }
+    }
+
+    private static int disparar(int puerto, int cantidad) throws Exception {
+        return disparar(puerto, cantidad, new ArrayList<>());
+    }
+
+    /**
+     * Envía las requests con a lo sumo CONCURRENCIA en vuelo y registra la latencia de cada una
+     * @return cantidad de requests que fallaron o no devolvieron una distancia
+     */
+    private static int disparar(int puerto, int cantidad, List<Long> latencias) throws Exception {
+        List<Long> latenciasSincronizadas = Collections.synchronizedList(latencias);
+        AtomicInteger errores = new AtomicInteger();
+        Semaphore enVuelo = new Semaphore(CONCURRENCIA);
+        try (ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient cliente = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .executor(ejecutor)
+                     .build()) {
+            List<Future<?>> pendientes = new ArrayList<>(cantidad);
+            for (int i = 0; i < cantidad; i++) {
+                enVuelo.acquire();
+                HttpRequest request = HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + puerto + "/prueba-carga/distancia?origen=" + i)).GET().build();
+                pendientes.add(ejecutor.submit(() -> {
+                    long inicio = System.nanoTime();
+                    try {
+                        HttpResponse<String> respuesta = cliente.send(request, HttpResponse.BodyHandlers.ofString());
+                        if (respuesta.statusCode() != 200 || !"OK".equals(respuesta.body())) {
+                            errores.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errores.incrementAndGet();
+                    } finally {
+                        latenciasSincronizadas.add((System.nanoTime() - inicio) / 1_000_000);
+                        enVuelo.release();
+                    }
+                }));
+            }
+            for (Future<?> pendiente : pendientes) {
+                pendiente.get();
+            }
+        }
+        return errores.get();
+    }
+
+    private static long percentil(List<Long> ordenadas, double percentil) {
+        return ordenadas.get((int) Math.ceil(percentil * ordenadas.size()) - 1);
+    }
+}
@@ -0,0 +1,137 @@
+package utn.frc.isi.backend.tpi_Integrador;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import utn.frc.isi.backend.tpi_Integrador.clients.FlotaServiceClient;
+import utn.frc.isi.backend.tpi_Integrador.dtos.AsignacionCamionDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.TramoDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.CamionDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.TarifaDTO;
+import utn.frc.isi.backend.tpi_Integrador.models.CamionReference;
+import utn.frc.isi.backend.tpi_Integrador.models.Contenedor;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoContenedor;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoSolicitud;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoTramo;
+import utn.frc.isi.backend.tpi_Integrador.models.OutboxDisponibilidadCamion;
+import utn.frc.isi.backend.tpi_Integrador.models.Ruta;
+import utn.frc.isi.backend.tpi_Integrador.models.Solicitud;
+import utn.frc.isi.backend.tpi_Integrador.models.Tramo;
+import utn.frc.isi.backend.tpi_Integrador.repositories.CamionReferenceRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.ContenedorRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.OutboxDisponibilidadCamionRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.RutaRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.SolicitudRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.TramoRepository;
+import utn.frc.isi.backend.tpi_Integrador.services.TramoService;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+/**
+ * Ciclo completo de un tramo (asignar, iniciar y finalizar) con la configuración que se distribuye:
+ * el outbox de disponibilidad habilitado con las credenciales de servicio de realm-config.json.
+ * Sin Keycloak ni servicio-flota levantados, los cambios de disponibilidad quedan pendientes en el outbox
+ * y servicio-flota (tarifa y camión) se simula. Al finalizar, servicio-flota se consulta fuera de la transacción.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:ciclo-tramo")
+class CicloTramoTest {
+
+    private static final Long CAMION_ID_FLOTA = 500L;
+
+    @Autowired private TramoService tramoService;
+    @Autowired private TramoRepository tramoRepository;
+    @Autowired private RutaRepository rutaRepository;
+    @Autowired private ContenedorRepository contenedorRepository;
+    @Autowired private SolicitudRepository solicitudRepository;
+    @Autowired private CamionReferenceRepository camionReferenceRepository;
+    @Autowired private OutboxDisponibilidadCamionRepository outboxRepository;
+
+    @MockitoBean private FlotaServiceClient flotaServiceClient;
+
+    @Test
+    void asignarIniciarYFinalizarUnTramoRegistraLaOcupacionYLaLiberacionDelCamion() {
+        TarifaDTO tarifa = new TarifaDTO();
+        tarifa.setCargoGestionPorTramo(1000);
+        tarifa.setPrecioLitroCombustible(10);
+        CamionDTO camion = new CamionDTO();
+        camion.setId(CAMION_ID_FLOTA);
+        camion.setCostoPorKm(2);
+        camion.setConsumoCombustiblePorKm(0.3);
+        // servicio-flota se consulta sin ninguna transacción abierta
+        when(flotaServiceClient.obtenerTarifaActiva()).thenAnswer(invocacion -> {
+            assertFalse(TransactionSynchronizationManager.isActualTransactionActive(), "tarifa consultada dentro de una transacción");
+            return Optional.of(tarifa);
+        });
+        when(flotaServiceClient.obtenerCamionPorId(CAMION_ID_FLOTA)).thenAnswer(invocacion -> {
+            assertFalse(TransactionSynchronizationManager.isActualTransactionActive(), "camión consultado dentro de una transacción");
+            return Optional.of(camion);
+        });
+
+        Long camionId = crearCamion().getId();
+        Long tramoId = crearTramoDeSolicitudProgramada().getId();
+
+        tramoService.asignarCamion(tramoId, new AsignacionCamionDTO(camionId));
+        tramoService.iniciarTramo(tramoId);
+        TramoDTO finalizado = tramoService.finalizarTramo(tramoId);
+
+        // Cargo de gestión + 2 $/km × 100 km + 0,3 L/km × 100 km × 10 $/L
+        assertEquals(1500, finalizado.getCostoReal(), 1e-9);
+        assertEquals(EstadoTramo.FINALIZADO, tramoRepository.findById(tramoId).orElseThrow().getEstado());
+        assertTrue(camionReferenceRepository.findById(camionId).orElseThrow().isDisponible());
+
+        List<OutboxDisponibilidadCamion> cambios = outboxRepository.findAll().stream()
+                .filter(cambio -> CAMION_ID_FLOTA.equals(cambio.getCamionIdFlota()))
+                .sorted((a, b) -> a.getId().compareTo(b.getId()))
+                .toList();
+        assertEquals(List.of(false, true), cambios.stream().map(OutboxDisponibilidadCamion::isDisponible).toList());
+    }
+
+    private CamionReference crearCamion() {
+        CamionReference camion = new CamionReference();
+        camion.setDominio("CICLO-01");
+        camion.setCamionIdFlota(CAMION_ID_FLOTA);
+        camion.setCapacidadPeso(20000);
+        camion.setCapacidadVolumen(80);
+        camion.setDisponible(true);
+        return camionReferenceRepository.save(camion);
+    }
+
+    private Tramo crearTramoDeSolicitudProgramada() {
+        Ruta ruta = new Ruta();
+        ruta.setDistanciaKm(100);
+        ruta = rutaRepository.save(ruta);
+
+        Contenedor contenedor = new Contenedor();
+        contenedor.setNumero("CICLO-CONT-01");
+        contenedor.setPeso(1000);
+        contenedor.setVolumen(10);
+        contenedor.setEstado(EstadoContenedor.EN_ORIGEN);
+        contenedor = contenedorRepository.save(contenedor);
+
+        Solicitud solicitud = new Solicitud();
+        solicitud.setEstado(EstadoSolicitud.PROGRAMADA);
+        solicitud.setContenedor(contenedor);
+        solicitud.setRuta(ruta);
+        solicitudRepository.save(solicitud);
+
+        Tramo tramo = new Tramo();
+        tramo.setOrden(1);
+        tramo.setTipo("ORIGEN-DESTINO");
+        tramo.setEstado(EstadoTramo.PENDIENTE);
+        tramo.setLatitudInicio(-31.4);
+        tramo.setLongitudInicio(-64.2);
+        tramo.setLatitudFin(-32.9);
+        tramo.setLongitudFin(-60.6);
+        tramo.setDistanciaKm(100);
+        tramo.setRuta(ruta);
+        return tramoRepository.save(tramo);
+    }
+}
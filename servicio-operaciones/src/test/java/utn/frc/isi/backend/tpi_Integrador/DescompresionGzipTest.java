@@ -0,0 +1,124 @@
+package utn.frc.isi.backend.tpi_Integrador;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import utn.frc.isi.backend.tpi_Integrador.clients.DescompresionGzip;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Descompresión de respuestas gzip del HttpClient del JDK, incluidas las respuestas que declaran
+ * Content-Encoding: gzip sin tener cuerpo (HEAD, 204, 304 o un cuerpo vacío sin Content-Length).
+ * El interceptor se prueba solo, con requests y respuestas simuladas.
+ */
+class DescompresionGzipTest {
+
+    private static final String JSON = "{\"id\":1,\"dominio\":\"AB123CD\"}";
+
+    private final DescompresionGzip descompresion = new DescompresionGzip();
+
+    @Test
+    void pideGzipSalvoQueLaRequestYaIndiqueOtraCodificacion() throws IOException {
+        MockClientHttpRequest sinCodificacion = request(HttpMethod.GET);
+        descompresion.intercept(sinCodificacion, new byte[0], (req, body) -> respuesta(HttpStatus.OK, new byte[0], null));
+        assertEquals("gzip", sinCodificacion.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING));
+
+        MockClientHttpRequest identidad = request(HttpMethod.GET);
+        identidad.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, "identity");
+        descompresion.intercept(identidad, new byte[0], (req, body) -> respuesta(HttpStatus.OK, new byte[0], null));
+        assertEquals("identity", identidad.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    @Test
+    void descomprimeElCuerpoYQuitaLosHeadersDelCuerpoComprimido() throws IOException {
+        byte[] comprimido = gzip(JSON);
+
+        try (ClientHttpResponse respuesta = descompresion.intercept(request(HttpMethod.GET), new byte[0],
+                (req, body) -> respuesta(HttpStatus.OK, comprimido, "gzip"))) {
+            assertEquals(JSON, new String(respuesta.getBody().readAllBytes(), StandardCharsets.UTF_8));
+            assertNull(respuesta.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+            assertEquals(-1, respuesta.getHeaders().getContentLength());
+        }
+    }
+
+    @Test
+    void unaRespuestaSinGzipQuedaIgual() throws IOException {
+        byte[] plano = JSON.getBytes(StandardCharsets.UTF_8);
+
+        try (ClientHttpResponse respuesta = descompresion.intercept(request(HttpMethod.GET), new byte[0],
+                (req, body) -> respuesta(HttpStatus.OK, plano, null))) {
+            assertArrayEquals(plano, respuesta.getBody().readAllBytes());
+            assertEquals(plano.length, respuesta.getHeaders().getContentLength());
+        }
+    }
+
+    @Test
+    void unHeadConGzipNoIntentaDescomprimir() throws IOException {
+        // La respuesta a HEAD repite los headers del GET (Content-Length del cuerpo comprimido) pero no trae cuerpo
+        try (ClientHttpResponse respuesta = descompresion.intercept(request(HttpMethod.HEAD), new byte[0], (req, body) -> {
+            MockClientHttpResponse sinCuerpo = respuesta(HttpStatus.OK, new byte[0], "gzip");
+            sinCuerpo.getHeaders().setContentLength(128);
+            return sinCuerpo;
+        })) {
+            assertEquals(0, respuesta.getBody().readAllBytes().length);
+        }
+    }
+
+    @Test
+    void respuestasSinContenidoConGzipNoFallan() throws IOException {
+        for (HttpStatus estado : new HttpStatus[]{HttpStatus.NO_CONTENT, HttpStatus.NOT_MODIFIED}) {
+            try (ClientHttpResponse respuesta = descompresion.intercept(request(HttpMethod.GET), new byte[0],
+                    (req, body) -> respuesta(estado, new byte[0], "gzip"))) {
+                assertEquals(estado, respuesta.getStatusCode());
+                assertEquals(0, respuesta.getBody().readAllBytes().length, estado.toString());
+            }
+        }
+    }
+
+    @Test
+    void unCuerpoVacioSinContentLengthConGzipSeLeeVacio() throws IOException {
+        // Ej: 200 chunked sin datos; antes GZIPInputStream fallaba con EOFException al leer el encabezado
+        try (ClientHttpResponse respuesta = descompresion.intercept(request(HttpMethod.GET), new byte[0],
+                (req, body) -> respuesta(HttpStatus.OK, new byte[0], "gzip"))) {
+            assertEquals(0, respuesta.getBody().readAllBytes().length);
+        }
+    }
+
+    private static MockClientHttpRequest request(HttpMethod metodo) {
+        return new MockClientHttpRequest(metodo, URI.create("http://localhost/api/camiones/1"));
+    }
+
+    /**
+     * Respuesta simulada: sin codificación informa su Content-Length; comprimida no lo informa (como una respuesta chunked)
+     */
+    private static MockClientHttpResponse respuesta(HttpStatus estado, byte[] cuerpo, String codificacion) {
+        MockClientHttpResponse respuesta = new MockClientHttpResponse(cuerpo, estado);
+        if (codificacion == null) {
+            respuesta.getHeaders().setContentLength(cuerpo.length);
+        } else {
+            respuesta.getHeaders().set(HttpHeaders.CONTENT_ENCODING, codificacion);
+        }
+        return respuesta;
+    }
+
+    private static byte[] gzip(String texto) throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(texto.getBytes(StandardCharsets.UTF_8));
+        }
+        return salida.toByteArray();
+    }
+}
@@ -0,0 +1,197 @@
+package utn.frc.isi.backend.tpi_Integrador;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import utn.frc.isi.backend.tpi_Integrador.clients.GoogleMapsClient;
+import utn.frc.isi.backend.tpi_Integrador.controllers.SolicitudController;
+import utn.frc.isi.backend.tpi_Integrador.dtos.RutaCreateDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.TramoCreateDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.googlemaps.Element;
+import utn.frc.isi.backend.tpi_Integrador.exceptions.DistanciaNoDisponibleException;
+import utn.frc.isi.backend.tpi_Integrador.exceptions.GlobalExceptionHandler;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoSolicitud;
+import utn.frc.isi.backend.tpi_Integrador.models.Solicitud;
+import utn.frc.isi.backend.tpi_Integrador.repositories.SolicitudRepository;
+import utn.frc.isi.backend.tpi_Integrador.services.RutaService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Distancias de Google Maps con fallas parciales, contra un Distance Matrix simulado: los puntos con latitud
+ * -40 no tienen recorrido (NOT_FOUND) y las consultas con un punto de latitud -50 tardan más que el plazo
+ * (google.maps.matriz.plazo). Sólo esos pares quedan sin distancia, también cuando hay una única consulta,
+ * y al asignar una ruta se informa un 503 con el orden de cada tramo que falló.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:distancias-google-maps",
+        "servicio-flota.outbox.habilitado=false",
+        "servicio-flota.replicacion.habilitada=false",
+        "distancias.modo=GOOGLE",
+        "google.maps.cache.habilitada=false",
+        "google.maps.matriz.plazo=500ms"
+})
+class DistanciasGoogleMapsTest {
+
+    private static final long DEMORA_LENTA_MS = 3_000;
+
+    private static HttpServer googleMaps;
+
+    @Autowired private GoogleMapsClient googleMapsClient;
+    @Autowired private RutaService rutaService;
+    @Autowired private SolicitudController solicitudController;
+    @Autowired private GlobalExceptionHandler globalExceptionHandler;
+    @Autowired private SolicitudRepository solicitudRepository;
+    @Autowired private ObjectMapper objectMapper;
+
+    @BeforeAll
+    static void iniciarGoogleMaps() throws IOException {
+        googleMaps = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        googleMaps.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        googleMaps.createContext("/maps/api/distancematrix/json", DistanciasGoogleMapsTest::responder);
+        googleMaps.start();
+    }
+
+    @AfterAll
+    static void detenerGoogleMaps() {
+        googleMaps.stop(0);
+    }
+
+    @DynamicPropertySource
+    static void urlGoogleMaps(DynamicPropertyRegistry registro) {
+        registro.add("google.maps.base-url", () -> "http://localhost:" + googleMaps.getAddress().getPort());
+    }
+
+    @Test
+    void unaUnicaConsultaQueSuperaElPlazoQuedaVaciaSinEsperarla() {
+        long inicio = System.nanoTime();
+        List<Optional<Element>> distancias = googleMapsClient.getDistancias(
+                List.of("-50.0,-64.0", "-50.0,-64.0"), List.of("-31.0,-64.0", "-32.0,-64.0"));
+        long milisegundos = (System.nanoTime() - inicio) / 1_000_000;
+
+        assertEquals(List.of(Optional.empty(), Optional.empty()), distancias);
+        assertTrue(milisegundos < DEMORA_LENTA_MS / 2, "esperó " + milisegundos + " ms");
+    }
+
+    @Test
+    void entreVariasConsultasSoloQuedanVaciosLosParesQueFallaron() {
+        long inicio = System.nanoTime();
+        List<Optional<Element>> distancias = googleMapsClient.getDistancias(
+                List.of("-31.0,-64.0", "-50.0,-64.0", "-32.0,-64.0"),
+                List.of("-33.0,-64.0", "-34.0,-64.0", "-40.0,-64.0"));
+        long milisegundos = (System.nanoTime() - inicio) / 1_000_000;
+
+        assertTrue(distancias.get(0).isPresent());
+        assertTrue(distancias.get(1).isEmpty(), "par con consulta lenta");
+        assertTrue(distancias.get(2).isEmpty(), "par sin recorrido");
+        assertTrue(milisegundos < DEMORA_LENTA_MS / 2, "esperó " + milisegundos + " ms");
+    }
+
+    @Test
+    void asignarUnaRutaInformaElOrdenDeCadaTramoSinDistancia() throws Exception {
+        Long solicitudId = crearSolicitud();
+        RutaCreateDTO ruta = new RutaCreateDTO();
+        ruta.setTramos(List.of(
+                tramo(1, -31.0, -33.0),   // OK
+                tramo(2, -33.0, -40.0),   // Sin recorrido
+                tramo(3, -50.0, -34.0),   // Supera el plazo
+                tramo(4, -34.0, -35.0))); // OK
+
+        DistanciaNoDisponibleException error = assertThrows(DistanciaNoDisponibleException.class,
+                () -> rutaService.asignarRutaASolicitud(solicitudId, ruta, null));
+        assertEquals(List.of(2, 3), error.getOrdenesTramos());
+
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(solicitudController)
+                .setControllerAdvice(globalExceptionHandler)
+                .build();
+        mockMvc.perform(post("/api/solicitudes/{id}/asignar-ruta", solicitudId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(ruta)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.status").value(503))
+                .andExpect(jsonPath("$.message").value("No se pudo calcular la distancia de 2 de 4 tramos (orden [2, 3])"));
+    }
+
+    private Long crearSolicitud() {
+        Solicitud solicitud = new Solicitud();
+        solicitud.setEstado(EstadoSolicitud.BORRADOR);
+        return solicitudRepository.save(solicitud).getId();
+    }
+
+    private static TramoCreateDTO tramo(int orden, double latitudInicio, double latitudFin) {
+        TramoCreateDTO tramo = new TramoCreateDTO();
+        tramo.setOrden(orden);
+        tramo.setTipo("ORIGEN-DESTINO");
+        tramo.setLatitudInicio(latitudInicio);
+        tramo.setLongitudInicio(-64.0);
+        tramo.setLatitudFin(latitudFin);
+        tramo.setLongitudFin(-64.0);
+        return tramo;
+    }
+
+    /**
+     * Responde una fila por origen y un elemento por destino, con las fallas según la latitud de cada punto
+     */
+    private static void responder(HttpExchange intercambio) throws IOException {
+        String origenes = parametro(intercambio, "origins");
+        String destinos = parametro(intercambio, "destinations");
+        if ((origenes + "|" + destinos).contains("-50.0,")) {
+            try {
+                Thread.sleep(DEMORA_LENTA_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        List<String> filas = new ArrayList<>();
+        for (String origen : origenes.split("\\|")) {
+            List<String> elementos = new ArrayList<>();
+            for (String destino : destinos.split("\\|")) {
+                elementos.add(origen.startsWith("-40.0,") || destino.startsWith("-40.0,")
+                        ? "{\"status\":\"NOT_FOUND\"}"
+                        : "{\"status\":\"OK\",\"distance\":{\"text\":\"100 km\",\"value\":100000},"
+                          + "\"duration\":{\"text\":\"1 h\",\"value\":3600}}");
+            }
+            filas.add("{\"elements\":[" + String.join(",", elementos) + "]}");
+        }
+        byte[] cuerpo = ("{\"status\":\"OK\",\"rows\":[" + String.join(",", filas) + "]}").getBytes(StandardCharsets.UTF_8);
+        intercambio.getResponseHeaders().set("Content-Type", "application/json");
+        intercambio.sendResponseHeaders(200, cuerpo.length);
+        try (OutputStream salida = intercambio.getResponseBody()) {
+            salida.write(cuerpo);
+        }
+    }
+
+    private static String parametro(HttpExchange intercambio, String nombre) {
+        for (String parametro : intercambio.getRequestURI().getQuery().split("&")) {
+            if (parametro.startsWith(nombre + "=")) {
+                return parametro.substring(nombre.length() + 1);
+            }
+        }
+        return "";
+    }
+}
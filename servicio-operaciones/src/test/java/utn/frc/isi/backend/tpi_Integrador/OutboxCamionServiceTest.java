@@ -0,0 +1,261 @@
+package utn.frc.isi.backend.tpi_Integrador;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+import utn.frc.isi.backend.tpi_Integrador.clients.FlotaServiceClient;
+import utn.frc.isi.backend.tpi_Integrador.clients.TokenServicioClient;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.ActualizacionDisponibilidadDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.ResultadoDisponibilidadDTO;
+import utn.frc.isi.backend.tpi_Integrador.models.OutboxDisponibilidadCamion;
+import utn.frc.isi.backend.tpi_Integrador.repositories.OutboxDisponibilidadCamionRepository;
+import utn.frc.isi.backend.tpi_Integrador.services.OutboxCamionService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Envío del outbox de disponibilidad con servicio-flota simulado: reintentos hasta max-intentos y estado FALLIDO,
+ * un único envío por camión con su último estado (los cambios anteriores quedan reemplazados, aunque estuvieran
+ * esperando un reintento), cambios en espera que no le quitan el lugar en el lote a los listos, lotes rechazados por el circuit breaker o el bulkhead que sólo se reprograman
+ * y credenciales de servicio obligatorias.
+ * El envío programado está deshabilitado en la práctica (intervalo de una hora): el test llama a despacharPendientes.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox-camiones",
+        "servicio-flota.outbox.habilitado=true",
+        "servicio-flota.outbox.intervalo-ms=3600000",
+        "servicio-flota.outbox.reintento-base-ms=0",
+        "servicio-flota.outbox.reintento-max-ms=0",
+        "servicio-flota.outbox.max-intentos=3",
+        "servicio-flota.outbox.tamano-lote=2",
+        "servicio-flota.replicacion.habilitada=false"
+})
+class OutboxCamionServiceTest {
+
+    @Autowired private OutboxCamionService outboxCamionService;
+    @Autowired private OutboxDisponibilidadCamionRepository outboxRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    @MockitoBean private FlotaServiceClient flotaServiceClient;
+    @MockitoBean private TokenServicioClient tokenServicioClient;
+
+    @BeforeEach
+    void limpiar() {
+        outboxRepository.deleteAll();
+        reset(flotaServiceClient, tokenServicioClient);
+        when(tokenServicioClient.configurado()).thenReturn(true);
+        when(tokenServicioClient.obtenerToken()).thenReturn(Optional.of("token-servicio"));
+    }
+
+    @Test
+    void unFalloSeReintentaYTrasMaxIntentosQuedaFallido() {
+        registrar(10L, false);
+        when(flotaServiceClient.enviarDisponibilidades(anyList(), eq("token-servicio")))
+                .thenThrow(new RuntimeException("servicio-flota caído"));
+
+        outboxCamionService.despacharPendientes();
+        OutboxDisponibilidadCamion cambio = unico();
+        assertEquals(OutboxDisponibilidadCamion.Estado.PENDIENTE, cambio.getEstado());
+        assertEquals(1, cambio.getIntentos());
+
+        outboxCamionService.despacharPendientes();
+        outboxCamionService.despacharPendientes();
+        cambio = unico();
+        assertEquals(OutboxDisponibilidadCamion.Estado.FALLIDO, cambio.getEstado());
+        assertEquals(3, cambio.getIntentos());
+        assertEquals("servicio-flota caído", cambio.getUltimoError());
+
+        // Un cambio fallido no se vuelve a enviar
+        outboxCamionService.despacharPendientes();
+        verify(flotaServiceClient, times(3)).enviarDisponibilidades(anyList(), eq("token-servicio"));
+    }
+
+    @Test
+    void unReintentoExitosoConfirmaElCambio() {
+        String clave = registrar(11L, true);
+        when(flotaServiceClient.enviarDisponibilidades(anyList(), eq("token-servicio")))
+                .thenThrow(new RuntimeException("timeout"))
+                .thenReturn(List.of(new ResultadoDisponibilidadDTO(clave, 11L, ResultadoDisponibilidadDTO.DUPLICADA)));
+
+        outboxCamionService.despacharPendientes();
+        outboxCamionService.despacharPendientes();
+
+        OutboxDisponibilidadCamion cambio = unico();
+        assertEquals(OutboxDisponibilidadCamion.Estado.ENVIADO, cambio.getEstado());
+        assertEquals(1, cambio.getIntentos());
+    }
+
+    @Test
+    void unLoteRechazadoPorElCircuitoOElBulkheadSoloSeReprograma() {
+        String clave = registrar(12L, true);
+        when(flotaServiceClient.enviarDisponibilidades(anyList(), eq("token-servicio")))
+                .thenThrow(CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("flota-disponibilidad")))
+                .thenThrow(BulkheadFullException.createBulkheadFullException(Bulkhead.ofDefaults("flota-disponibilidad")))
+                .thenThrow(CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("flota-disponibilidad")))
+                .thenReturn(List.of(new ResultadoDisponibilidadDTO(clave, 12L, ResultadoDisponibilidadDTO.APLICADA)));
+
+        // Más rechazos que max-intentos: el lote no salió, así que el cambio no se da por fallido
+        for (int i = 0; i < 3; i++) {
+            outboxCamionService.despacharPendientes();
+            assertEquals(OutboxDisponibilidadCamion.Estado.PENDIENTE, unico().getEstado());
+            assertEquals(0, unico().getIntentos());
+        }
+
+        outboxCamionService.despacharPendientes();
+        assertEquals(OutboxDisponibilidadCamion.Estado.ENVIADO, unico().getEstado());
+    }
+
+    @Test
+    void seEnviaSoloElUltimoCambioDeCadaCamion() {
+        transactionTemplate.executeWithoutResult(status -> {
+            outboxCamionService.registrarCambioDisponibilidad(20L, false);
+            outboxCamionService.registrarCambioDisponibilidad(21L, false);
+            outboxCamionService.registrarCambioDisponibilidad(20L, true);
+        });
+        when(flotaServiceClient.enviarDisponibilidades(anyList(), eq("token-servicio")))
+                .thenAnswer(invocacion -> confirmarTodas(invocacion.getArgument(0)));
+
+        outboxCamionService.despacharPendientes();
+
+        List<ActualizacionDisponibilidadDTO> enviadas = unicoEnvio();
+        assertEquals(List.of(20L, 21L), enviadas.stream().map(ActualizacionDisponibilidadDTO::getCamionId).toList());
+        assertEquals(List.of(true, false), enviadas.stream().map(ActualizacionDisponibilidadDTO::getDisponible).toList());
+        assertEquals(List.of(OutboxDisponibilidadCamion.Estado.REEMPLAZADO, OutboxDisponibilidadCamion.Estado.ENVIADO,
+                             OutboxDisponibilidadCamion.Estado.ENVIADO), estados());
+    }
+
+    @Test
+    void unCambioEsperandoReintentoNoLlegaDespuesDeUnoPosterior() {
+        // Liberar el camión falló y espera su reintento; mientras tanto se lo vuelve a ocupar
+        registrar(30L, true);
+        OutboxDisponibilidadCamion liberacion = unico();
+        liberacion.setIntentos(1);
+        liberacion.setProximoIntento(LocalDateTime.now().plusHours(1));
+        outboxRepository.save(liberacion);
+        registrar(30L, false);
+        when(flotaServiceClient.enviarDisponibilidades(anyList(), eq("token-servicio")))
+                .thenAnswer(invocacion -> confirmarTodas(invocacion.getArgument(0)));
+
+        outboxCamionService.despacharPendientes();
+
+        List<ActualizacionDisponibilidadDTO> enviadas = unicoEnvio();
+        assertEquals(1, enviadas.size());
+        assertEquals(false, enviadas.get(0).getDisponible());
+        assertEquals(List.of(OutboxDisponibilidadCamion.Estado.REEMPLAZADO, OutboxDisponibilidadCamion.Estado.ENVIADO),
+                     estados());
+    }
+
+    @Test
+    void unCambioEsperandoReintentoBloqueaSoloASuCamion() {
+        registrar(40L, true);
+        OutboxDisponibilidadCamion enEspera = unico();
+        enEspera.setProximoIntento(LocalDateTime.now().plusHours(1));
+        outboxRepository.save(enEspera);
+        registrar(41L, true);
+        when(flotaServiceClient.enviarDisponibilidades(anyList(), eq("token-servicio")))
+                .thenAnswer(invocacion -> confirmarTodas(invocacion.getArgument(0)));
+
+        outboxCamionService.despacharPendientes();
+
+        assertEquals(List.of(41L), unicoEnvio().stream().map(ActualizacionDisponibilidadDTO::getCamionId).toList());
+        assertEquals(List.of(OutboxDisponibilidadCamion.Estado.PENDIENTE, OutboxDisponibilidadCamion.Estado.ENVIADO),
+                     estados());
+    }
+
+    @Test
+    void losCambiosEsperandoReintentoNoOcupanElLote() {
+        // Un lote entero (tamano-lote=2) de cambios anteriores esperando su reintento
+        for (Long camionIdFlota : List.of(70L, 71L)) {
+            registrar(camionIdFlota, true);
+        }
+        List<OutboxDisponibilidadCamion> enEspera = outboxRepository.findAll();
+        enEspera.forEach(cambio -> cambio.setProximoIntento(LocalDateTime.now().plusHours(1)));
+        outboxRepository.saveAll(enEspera);
+        registrar(72L, true);
+        when(flotaServiceClient.enviarDisponibilidades(anyList(), eq("token-servicio")))
+                .thenAnswer(invocacion -> confirmarTodas(invocacion.getArgument(0)));
+
+        outboxCamionService.despacharPendientes();
+
+        assertEquals(List.of(72L), unicoEnvio().stream().map(ActualizacionDisponibilidadDTO::getCamionId).toList());
+        assertEquals(List.of(OutboxDisponibilidadCamion.Estado.PENDIENTE, OutboxDisponibilidadCamion.Estado.PENDIENTE,
+                             OutboxDisponibilidadCamion.Estado.ENVIADO), estados());
+    }
+
+    @Test
+    void sinTokenDeServicioNoSeEnviaNiSeCuentaElIntento() {
+        registrar(50L, true);
+        when(tokenServicioClient.obtenerToken()).thenReturn(Optional.empty());
+
+        outboxCamionService.despacharPendientes();
+
+        verify(flotaServiceClient, never()).enviarDisponibilidades(anyList(), any());
+        assertEquals(0, unico().getIntentos());
+    }
+
+    @Test
+    void sinCredencialesDeServicioNoSeRegistranCambios() {
+        when(tokenServicioClient.configurado()).thenReturn(false);
+
+        assertThrows(IllegalStateException.class, () -> registrar(60L, true));
+        assertEquals(0, outboxRepository.count());
+    }
+
+    private String registrar(Long camionIdFlota, boolean disponible) {
+        transactionTemplate.executeWithoutResult(
+                status -> outboxCamionService.registrarCambioDisponibilidad(camionIdFlota, disponible));
+        return outboxRepository.findAll().stream()
+                .filter(cambio -> cambio.getCamionIdFlota().equals(camionIdFlota))
+                .reduce((primero, segundo) -> segundo)
+                .orElseThrow()
+                .getClaveIdempotencia();
+    }
+
+    private OutboxDisponibilidadCamion unico() {
+        List<OutboxDisponibilidadCamion> cambios = outboxRepository.findAll();
+        assertEquals(1, cambios.size());
+        return cambios.get(0);
+    }
+
+    private List<OutboxDisponibilidadCamion.Estado> estados() {
+        return outboxRepository.findAll().stream()
+                .sorted((a, b) -> a.getId().compareTo(b.getId()))
+                .map(OutboxDisponibilidadCamion::getEstado)
+                .toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ActualizacionDisponibilidadDTO> unicoEnvio() {
+        ArgumentCaptor<List<ActualizacionDisponibilidadDTO>> enviadas = ArgumentCaptor.forClass(List.class);
+        verify(flotaServiceClient, times(1)).enviarDisponibilidades(enviadas.capture(), eq("token-servicio"));
+        return enviadas.getValue();
+    }
+
+    private static List<ResultadoDisponibilidadDTO> confirmarTodas(List<ActualizacionDisponibilidadDTO> actualizaciones) {
+        return actualizaciones.stream()
+                .map(a -> new ResultadoDisponibilidadDTO(a.getClaveIdempotencia(), a.getCamionId(),
+                                                          ResultadoDisponibilidadDTO.APLICADA))
+                .toList();
+    }
+}
@@ -0,0 +1,94 @@
+package utn.frc.isi.backend.tpi_Integrador;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+import utn.frc.isi.backend.tpi_Integrador.dtos.PaginaDTO;
+import utn.frc.isi.backend.tpi_Integrador.models.Contenedor;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoContenedor;
+import utn.frc.isi.backend.tpi_Integrador.repositories.ContenedorRepository;
+import utn.frc.isi.backend.tpi_Integrador.repositories.PaginacionKeyset;
+import utn.frc.isi.backend.tpi_Integrador.services.ContenedorService;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Paginación por cursor sobre un campo que admite nulos (tipo de contenedor): recorriendo todas
+ * las páginas se obtiene cada fila exactamente una vez, con los nulos al final en ambas direcciones,
+ * y un tipo que vale literalmente "null" no se confunde con un campo nulo.
+ */
+@SpringBootTest(properties = {
+        "servicio-flota.outbox.habilitado=false",
+        "servicio-flota.replicacion.habilitada=false"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PaginacionKeysetNulosTest {
+
+    @Autowired private ContenedorRepository contenedorRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    void crearDatos() {
+        String[] tipos = {null, "REFRIGERADO", null, "null", "STANDARD", null, "REFRIGERADO", null, "A", null};
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < tipos.length; i++) {
+                Contenedor contenedor = new Contenedor();
+                contenedor.setNumero("CONT-NULOS-" + i);
+                contenedor.setTipo(tipos[i]);
+                contenedor.setEstado(EstadoContenedor.EN_ORIGEN);
+                contenedorRepository.save(contenedor);
+            }
+        });
+    }
+
+    @Test
+    void recorrerPorCampoConNulosAscendenteNoSaltaNiRepiteFilas() {
+        assertEquals(esperado(Sort.Direction.ASC), recorrer(Sort.Direction.ASC, 3));
+    }
+
+    @Test
+    void recorrerPorCampoConNulosDescendenteNoSaltaNiRepiteFilas() {
+        assertEquals(esperado(Sort.Direction.DESC), recorrer(Sort.Direction.DESC, 3));
+    }
+
+    @Test
+    void paginasDeUnaFilaCruzanDeValoresANulos() {
+        assertEquals(esperado(Sort.Direction.ASC), recorrer(Sort.Direction.ASC, 1));
+        assertEquals(esperado(Sort.Direction.DESC), recorrer(Sort.Direction.DESC, 1));
+    }
+
+    private List<Long> recorrer(Sort.Direction direccion, int limite) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            String actual = cursor;
+            PaginaDTO<Long> pagina = transactionTemplate.execute(status -> PaginacionKeyset.paginar(
+                    contenedorRepository, ContenedorService.CAMPOS_ORDENABLES, List.of(), actual, limite,
+                    "tipo", direccion, Contenedor::getId));
+            ids.addAll(pagina.getItems());
+            cursor = pagina.getSiguienteCursor();
+        } while (cursor != null);
+        return ids;
+    }
+
+    // Orden esperado calculado en memoria: tipo (nulos al final) y, para desempatar, id
+    private List<Long> esperado(Sort.Direction direccion) {
+        Comparator<String> porTipo = direccion.isAscending()
+                ? Comparator.<String>naturalOrder()
+                : Comparator.<String>reverseOrder();
+        Comparator<Long> porId = direccion.isAscending() ? Comparator.naturalOrder() : Comparator.reverseOrder();
+        return contenedorRepository.findAll().stream()
+                .sorted(Comparator.comparing(Contenedor::getTipo, Comparator.nullsLast(porTipo))
+                        .thenComparing(Contenedor::getId, porId))
+                .map(Contenedor::getId)
+                .toList();
+    }
+}
@@ -0,0 +1,88 @@
+package utn.frc.isi.backend.tpi_Integrador;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import utn.frc.isi.backend.tpi_Integrador.clients.PoolConexionesHttp;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Límite de conexiones de un cliente HTTP: cada request ocupa una conexión hasta que se cierra su respuesta
+ * (o hasta que falla), y sin conexiones libres la request falla al vencer espera-conexion.
+ * Las conexiones se observan con la métrica clientes.http.conexiones.
+ */
+class PoolConexionesHttpTest {
+
+    private static final ClientHttpRequestExecution RESPONDE_OK =
+            (request, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void laConexionSeLiberaAlCerrarLaRespuestaUnaSolaVez() throws IOException {
+        PoolConexionesHttp pool = new PoolConexionesHttp("flota", 2, Duration.ofMillis(100), meterRegistry);
+
+        ClientHttpResponse respuesta = pool.intercept(request(), new byte[0], RESPONDE_OK);
+        assertEquals(1, conexiones("en-uso"));
+        assertEquals(1, conexiones("libres"));
+
+        respuesta.close();
+        respuesta.close();
+        assertEquals(0, conexiones("en-uso"));
+        assertEquals(2, conexiones("libres"));
+    }
+
+    @Test
+    void laConexionSeLiberaSiLaRequestFalla() {
+        PoolConexionesHttp pool = new PoolConexionesHttp("flota", 1, Duration.ofMillis(100), meterRegistry);
+
+        assertThrows(IOException.class, () -> pool.intercept(request(), new byte[0], (request, body) -> {
+            throw new IOException("Connection refused");
+        }));
+        assertThrows(IllegalStateException.class, () -> pool.intercept(request(), new byte[0], (request, body) -> {
+            throw new IllegalStateException("error inesperado");
+        }));
+
+        assertEquals(1, conexiones("libres"));
+        assertEquals(0, conexiones("en-uso"));
+    }
+
+    @Test
+    void sinConexionesLibresFallaAlVencerLaEspera() throws IOException {
+        PoolConexionesHttp pool = new PoolConexionesHttp("google-maps", 1, Duration.ofMillis(200), meterRegistry);
+        ClientHttpResponse ocupada = pool.intercept(request(), new byte[0], RESPONDE_OK);
+
+        long inicio = System.nanoTime();
+        IOException error = assertThrows(IOException.class, () -> pool.intercept(request(), new byte[0], RESPONDE_OK));
+        long milisegundos = (System.nanoTime() - inicio) / 1_000_000;
+
+        assertEquals("Sin conexiones libres hacia google-maps (1 en uso)", error.getMessage());
+        assertTrue(milisegundos >= 150 && milisegundos < 2_000, "esperó " + milisegundos + " ms");
+        assertEquals(0, conexiones("pendientes"));
+
+        // Al liberarse la conexión ocupada, la siguiente request la obtiene
+        ocupada.close();
+        pool.intercept(request(), new byte[0], RESPONDE_OK).close();
+        assertEquals(1, conexiones("libres"));
+    }
+
+    private double conexiones(String estado) {
+        return meterRegistry.get("clientes.http.conexiones").tag("estado", estado).gauge().value();
+    }
+
+    private static MockClientHttpRequest request() {
+        return new MockClientHttpRequest(HttpMethod.GET, URI.create("http://localhost/api/camiones"));
+    }
+}
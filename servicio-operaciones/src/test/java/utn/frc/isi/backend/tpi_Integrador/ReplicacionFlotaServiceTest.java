@@ -0,0 +1,107 @@
+package utn.frc.isi.backend.tpi_Integrador;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import utn.frc.isi.backend.tpi_Integrador.clients.FlotaServiceClient;
+import utn.frc.isi.backend.tpi_Integrador.clients.TokenServicioClient;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.CambioFlotaDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.CamionDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.FeedCambiosDTO;
+import utn.frc.isi.backend.tpi_Integrador.models.CamionReference;
+import utn.frc.isi.backend.tpi_Integrador.repositories.CamionReferenceRepository;
+import utn.frc.isi.backend.tpi_Integrador.services.CamionReferenceService;
+import utn.frc.isi.backend.tpi_Integrador.services.ReplicacionFlotaService;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Disponibilidad replicada desde el feed de servicio-flota: un cambio del camión que trae disponible=true
+ * no deshace una reserva manual local (sin tramo) que servicio-flota todavía no recibió, pero sí libera
+ * un camión que estaba ocupado porque así lo informó servicio-flota.
+ * El feed se simula y la replicación programada queda fuera (intervalo de una hora): el test llama a replicar.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replicacion-flota",
+        "servicio-flota.outbox.habilitado=false",
+        "servicio-flota.replicacion.habilitada=true",
+        "servicio-flota.replicacion.intervalo-ms=3600000"
+})
+class ReplicacionFlotaServiceTest {
+
+    @Autowired private ReplicacionFlotaService replicacionFlotaService;
+    @Autowired private CamionReferenceService camionReferenceService;
+    @Autowired private CamionReferenceRepository camionReferenceRepository;
+
+    @MockitoBean private FlotaServiceClient flotaServiceClient;
+    @MockitoBean private TokenServicioClient tokenServicioClient;
+
+    private final AtomicLong secuencia = new AtomicLong();
+
+    @BeforeEach
+    void configurar() {
+        when(tokenServicioClient.obtenerToken()).thenReturn(Optional.of("token-servicio"));
+    }
+
+    @Test
+    void unaModificacionDeFlotaNoDeshaceUnaReservaManual() {
+        CamionReference camion = crearCamion(700L);
+        camionReferenceService.reservar(camion.getId());
+
+        // Otro cambio del camión en servicio-flota (ej: su costo), todavía con la disponibilidad anterior a la reserva
+        replicarCamion(700L, true);
+        assertFalse(camionReferenceRepository.findById(camion.getId()).orElseThrow().isDisponible());
+
+        // Al liberarlo deja de ser una reserva local y la replicación vuelve a aplicarse
+        camionReferenceService.liberar(camion.getId());
+        replicarCamion(700L, false);
+        replicarCamion(700L, true);
+        assertTrue(camionReferenceRepository.findById(camion.getId()).orElseThrow().isDisponible());
+    }
+
+    @Test
+    void unCamionOcupadoPorFlotaSeLiberaCuandoFlotaLoLibera() {
+        CamionReference camion = crearCamion(701L);
+
+        replicarCamion(701L, false);
+        assertFalse(camionReferenceRepository.findById(camion.getId()).orElseThrow().isDisponible());
+
+        replicarCamion(701L, true);
+        assertTrue(camionReferenceRepository.findById(camion.getId()).orElseThrow().isDisponible());
+    }
+
+    private CamionReference crearCamion(Long camionIdFlota) {
+        CamionReference camion = new CamionReference();
+        camion.setCamionIdFlota(camionIdFlota);
+        camion.setDominio("REP-" + camionIdFlota);
+        camion.setCapacidadPeso(10000);
+        camion.setCapacidadVolumen(40);
+        camion.setDisponible(true);
+        return camionReferenceRepository.save(camion);
+    }
+
+    private void replicarCamion(Long camionIdFlota, boolean disponible) {
+        CamionDTO camion = new CamionDTO();
+        camion.setId(camionIdFlota);
+        camion.setDominio("REP-" + camionIdFlota);
+        camion.setCapacidadPeso(10000);
+        camion.setCapacidadVolumen(40);
+        camion.setDisponible(disponible);
+        long numero = secuencia.incrementAndGet();
+        FeedCambiosDTO feed = new FeedCambiosDTO("feed-test", numero, false, List.of(
+                new CambioFlotaDTO(numero, CambioFlotaDTO.CAMION, camionIdFlota, "MODIFICACION", camion, null)));
+        when(flotaServiceClient.obtenerCambios(anyLong(), anyInt(), anyInt(), anyString())).thenReturn(feed);
+        replicacionFlotaService.replicar();
+    }
+}
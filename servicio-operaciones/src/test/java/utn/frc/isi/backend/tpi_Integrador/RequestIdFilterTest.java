@@ -0,0 +1,92 @@
+package utn.frc.isi.backend.tpi_Integrador;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import utn.frc.isi.backend.tpi_Integrador.dtos.SpanDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.TrazaDTO;
+import utn.frc.isi.backend.tpi_Integrador.trazas.RegistroTrazas;
+import utn.frc.isi.backend.tpi_Integrador.trazas.RequestIdFilter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cierre de la traza de cada request: al volver la cadena de filtros en una request común y recién al completarse
+ * la respuesta en una asíncrona (SSE), con los spans registrados mientras tanto desde otros hilos.
+ * El filtro y el registro se arman sin contexto de Spring.
+ */
+class RequestIdFilterTest {
+
+    private final RegistroTrazas registroTrazas = new RegistroTrazas(true, 10);
+    private final RequestIdFilter filtro = new RequestIdFilter(registroTrazas);
+
+    @Test
+    void unaRequestComunSeCierraAlVolverLaCadena() throws Exception {
+        MockHttpServletRequest request = request("req-sync");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filtro.doFilter(request, response, (req, res) -> {
+            registroTrazas.registrarSpan(RegistroTrazas.TIPO_REPOSITORIO, "SolicitudRepository.findById", 1_000_000, false);
+            ((MockHttpServletResponse) res).setStatus(201);
+        });
+
+        TrazaDTO traza = registroTrazas.buscar("req-sync").orElseThrow();
+        assertEquals(201, traza.getEstado());
+        assertEquals(1, traza.getSpans().size());
+        assertEquals("req-sync", response.getHeader(RegistroTrazas.HEADER_REQUEST_ID));
+    }
+
+    @Test
+    void unaRequestAsincronaSeCierraAlCompletarseLaRespuesta() throws Exception {
+        MockHttpServletRequest request = request("req-sse");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        List<Future<Object>> pendientes = new ArrayList<>();
+        try {
+            filtro.doFilter(request, response, (req, res) -> {
+                req.startAsync();
+                // Trabajo que sigue en otro hilo con la traza propagada, como el envío de eventos
+                pendientes.add(executor.submit(registroTrazas.propagar(() -> {
+                    registroTrazas.registrarSpan(RegistroTrazas.TIPO_HTTP, "GET flota/camiones", 2_000_000, false);
+                    return null;
+                })));
+            });
+            pendientes.get(0).get();
+
+            // El hilo de la request ya se liberó, pero la respuesta sigue abierta
+            assertTrue(registroTrazas.buscar("req-sse").isEmpty());
+
+            response.setStatus(200);
+            MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+            asyncContext.complete();
+
+            TrazaDTO traza = registroTrazas.buscar("req-sse").orElseThrow();
+            assertEquals(200, traza.getEstado());
+            assertEquals(List.of("GET flota/camiones"), traza.getSpans().stream().map(SpanDTO::getNombre).toList());
+            assertEquals(2.0, traza.getTiempoHttpMs());
+
+            // Un segundo aviso del contenedor no duplica ni pisa la traza
+            response.setStatus(500);
+            asyncContext.complete();
+            assertEquals(200, registroTrazas.buscar("req-sse").orElseThrow().getEstado());
+            assertEquals(1, registroTrazas.recientes(10).size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static MockHttpServletRequest request(String requestId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/seguimiento/solicitudes/1");
+        request.addHeader(RegistroTrazas.HEADER_REQUEST_ID, requestId);
+        request.setAsyncSupported(true);
+        return request;
+    }
+}
@@ -0,0 +1,187 @@
+package utn.frc.isi.backend.tpi_Integrador;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.ResponseCreator;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import utn.frc.isi.backend.tpi_Integrador.clients.FlotaServiceClient;
+import utn.frc.isi.backend.tpi_Integrador.clients.ResilienciaFlota;
+import utn.frc.isi.backend.tpi_Integrador.config.ResilienciaFlotaProperties;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.CamionDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.TarifaDTO;
+import utn.frc.isi.backend.tpi_Integrador.trazas.RegistroTrazas;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.ExpectedCount.times;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withResourceNotFound;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Protecciones de las llamadas a servicio-flota: el circuito se abre con los timeouts y deja de llamar,
+ * los 4xx no cuentan como fallas, y con servicio-flota caído o el circuito abierto FlotaServiceClient
+ * responde con la última tarifa y los últimos camiones conocidos.
+ * Se arma sin contexto de Spring, con servicio-flota simulado por MockRestServiceServer.
+ */
+class ResilienciaFlotaTest {
+
+    private static final String TARIFA = "{\"id\":5,\"costoKmBase\":100.0,\"activa\":true}";
+    private static final String CAMION = "{\"id\":7,\"dominio\":\"AB123CD\",\"capacidadPeso\":20000.0,\"disponible\":true}";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ResilienciaFlota resiliencia = new ResilienciaFlota(propiedades(), new RegistroTrazas(false, 0), meterRegistry);
+
+    @AfterEach
+    void detener() {
+        resiliencia.detener();
+    }
+
+    @Test
+    void losTimeoutsAbrenElCircuitoYLaLlamadaSiguienteNoSeHace() {
+        AtomicInteger llamadas = new AtomicInteger();
+
+        for (int i = 0; i < 4; i++) {
+            long inicio = System.nanoTime();
+            assertThrows(ResourceAccessException.class, () -> resiliencia.ejecutar(ResilienciaFlota.CAMION, () -> {
+                llamadas.incrementAndGet();
+                return demorar(Duration.ofSeconds(5));
+            }));
+            long milisegundos = (System.nanoTime() - inicio) / 1_000_000;
+            assertTrue(milisegundos < 2_000, "esperó " + milisegundos + " ms");
+        }
+
+        assertThrows(CallNotPermittedException.class, () -> resiliencia.ejecutar(ResilienciaFlota.CAMION, () -> {
+            llamadas.incrementAndGet();
+            return "camión";
+        }));
+        assertEquals(4, llamadas.get());
+        assertEquals(1.0, estadoCircuito(ResilienciaFlota.CAMION, "open"));
+
+        // Cada operación tiene su propio circuito
+        assertEquals("tarifa", resiliencia.ejecutar(ResilienciaFlota.TARIFA, () -> "tarifa"));
+    }
+
+    @Test
+    void losErrores4xxNoAbrenElCircuito() {
+        for (int i = 0; i < 10; i++) {
+            HttpClientErrorException error = assertThrows(HttpClientErrorException.class,
+                    () -> resiliencia.ejecutar(ResilienciaFlota.CAMION, () -> {
+                        throw HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", HttpHeaders.EMPTY, null, null);
+                    }));
+            assertEquals(HttpStatus.NOT_FOUND, error.getStatusCode());
+        }
+
+        assertEquals("camión", resiliencia.ejecutar(ResilienciaFlota.CAMION, () -> "camión"));
+        assertEquals(1.0, estadoCircuito(ResilienciaFlota.CAMION, "closed"));
+    }
+
+    @Test
+    void conServicioFlotaCaidoSeUsaLaUltimaTarifaConocida() {
+        RestClient.Builder builder = RestClient.builder();
+        MockRestServiceServer servicioFlota = MockRestServiceServer.bindTo(builder).build();
+        FlotaServiceClient cliente = cliente(builder.build());
+
+        servicioFlota.expect(once(), requestTo("/api/tarifas/actual"))
+                .andRespond(withSuccess(TARIFA, MediaType.APPLICATION_JSON));
+        servicioFlota.expect(times(2), requestTo("/api/tarifas/actual")).andRespond(withServerError());
+        servicioFlota.expect(once(), requestTo("/api/tarifas/actual")).andRespond(demora(Duration.ofSeconds(5)));
+
+        assertEquals(5L, cliente.obtenerTarifaActiva().map(TarifaDTO::getId).orElseThrow());
+        // Dos 500 y un timeout: 3 de las 4 llamadas fallaron y se abre el circuito
+        for (int i = 0; i < 3; i++) {
+            assertEquals(5L, cliente.obtenerTarifaActiva().map(TarifaDTO::getId).orElseThrow());
+        }
+        // Con el circuito abierto tampoco se consulta a servicio-flota
+        assertEquals(5L, cliente.obtenerTarifaActiva().map(TarifaDTO::getId).orElseThrow());
+
+        servicioFlota.verify();
+        assertEquals(1.0, estadoCircuito(ResilienciaFlota.TARIFA, "open"));
+    }
+
+    @Test
+    void conServicioFlotaCaidoSeUsanLosUltimosDatosDelCamionSalvoQueYaNoExista() {
+        RestClient.Builder builder = RestClient.builder();
+        MockRestServiceServer servicioFlota = MockRestServiceServer.bindTo(builder).build();
+        FlotaServiceClient cliente = cliente(builder.build());
+
+        servicioFlota.expect(once(), requestTo("/api/camiones/7")).andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess(CAMION, MediaType.APPLICATION_JSON));
+        servicioFlota.expect(once(), requestTo("/api/camiones/7")).andRespond(withServerError());
+        servicioFlota.expect(once(), requestTo("/api/camiones/7")).andRespond(withResourceNotFound());
+        servicioFlota.expect(once(), requestTo("/api/camiones/7")).andRespond(withServerError());
+
+        assertEquals("AB123CD", cliente.obtenerCamionPorId(7L).map(CamionDTO::getDominio).orElseThrow());
+        assertEquals("AB123CD", cliente.obtenerCamionPorId(7L).map(CamionDTO::getDominio).orElseThrow());
+
+        // Un 404 descarta los datos conocidos: después de eso una falla ya no tiene respaldo
+        assertEquals(Optional.empty(), cliente.obtenerCamionPorId(7L));
+        assertEquals(Optional.empty(), cliente.obtenerCamionPorId(7L));
+
+        servicioFlota.verify();
+    }
+
+    /**
+     * Tarifa consultada en cada llamada (sin TTL) y camiones consultados de a uno (sin agrupar por lote)
+     */
+    private FlotaServiceClient cliente(RestClient restClient) {
+        return new FlotaServiceClient(restClient, restClient, resiliencia, 0, 0, 100);
+    }
+
+    private double estadoCircuito(String operacion, String estado) {
+        return meterRegistry.get("resilience4j.circuitbreaker.state")
+                .tag("name", operacion).tag("state", estado).gauge().value();
+    }
+
+    /**
+     * Plazo de 200 ms y circuito que se abre con 4 llamadas si la mitad falló
+     */
+    private static ResilienciaFlotaProperties propiedades() {
+        ResilienciaFlotaProperties properties = new ResilienciaFlotaProperties();
+        for (ResilienciaFlotaProperties.Operacion operacion :
+                new ResilienciaFlotaProperties.Operacion[]{properties.getTarifa(), properties.getCamion(), properties.getDisponibilidad()}) {
+            operacion.setPlazo(Duration.ofMillis(200));
+            operacion.setVentana(4);
+            operacion.setMinimoLlamadas(4);
+            operacion.setUmbralFallas(50);
+            operacion.setEsperaAbierto(Duration.ofMinutes(1));
+        }
+        return properties;
+    }
+
+    private static ResponseCreator demora(Duration espera) {
+        return request -> {
+            demorar(espera);
+            return withSuccess(TARIFA, MediaType.APPLICATION_JSON).createResponse(request);
+        };
+    }
+
+    /**
+     * Servicio-flota que no responde: la espera termina cuando el time limiter interrumpe la llamada
+     */
+    private static String demorar(Duration espera) {
+        try {
+            Thread.sleep(espera);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "tarde";
+    }
+}
@@ -0,0 +1,159 @@
+package utn.frc.isi.backend.tpi_Integrador;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import utn.frc.isi.backend.tpi_Integrador.clients.FlotaServiceClient;
+import utn.frc.isi.backend.tpi_Integrador.config.RutasTentativasProperties;
+import utn.frc.isi.backend.tpi_Integrador.dtos.Coordenada;
+import utn.frc.isi.backend.tpi_Integrador.dtos.EstimacionDistancia;
+import utn.frc.isi.backend.tpi_Integrador.dtos.ModoCalculoDistancia;
+import utn.frc.isi.backend.tpi_Integrador.dtos.RutaTentativaDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.TramoTentativoDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.DepositoDTO;
+import utn.frc.isi.backend.tpi_Integrador.dtos.flota.TarifaDTO;
+import utn.frc.isi.backend.tpi_Integrador.services.DistanciaService;
+import utn.frc.isi.backend.tpi_Integrador.services.GeneradorRutasService;
+import utn.frc.isi.backend.tpi_Integrador.services.GeodesicDistanceEngine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Generación de rutas tentativas con depósitos fijos entre Córdoba y Rosario y distancias simuladas
+ * (geodésicas, salvo la directa cuando se la alarga): la búsqueda best-first descarta los depósitos que
+ * alejan del destino o se desvían demasiado, respeta el máximo de paradas y los topes de expansiones y de
+ * tiempo, y la ruta directa se devuelve aunque no esté entre las más baratas. Se arma sin contexto de Spring.
+ */
+class RutasTentativasTest {
+
+    private static final Coordenada CORDOBA = new Coordenada(-31.4201, -64.1888);
+    private static final Coordenada ROSARIO = new Coordenada(-32.9442, -60.6505);
+
+    private static final List<DepositoDTO> DEPOSITOS = List.of(
+            new DepositoDTO(1L, "Villa María", null, -32.4075, -63.2402),
+            new DepositoDTO(2L, "Marcos Juárez", null, -32.6978, -62.1047),
+            // Más lejos de Rosario que el origen: nunca acerca al destino
+            new DepositoDTO(3L, "Villa Carlos Paz", null, -31.4241, -64.4978),
+            // Fuera del desvío máximo
+            new DepositoDTO(4L, "Santiago del Estero", null, -27.7834, -64.2642));
+
+    private final FlotaServiceClient flotaServiceClient = mock(FlotaServiceClient.class);
+    private final DistanciaService distanciaService = mock(DistanciaService.class);
+    private final RutasTentativasProperties properties = new RutasTentativasProperties();
+    private double directaKm; // 0: geodésica, como las demás
+
+    @BeforeEach
+    void simularServicios() {
+        TarifaDTO tarifa = new TarifaDTO();
+        tarifa.setCargoGestionPorTramo(1000);
+        tarifa.setCostoKmBase(100);
+        tarifa.setPrecioLitroCombustible(1000);
+        tarifa.setCostoEstadiaDiaria(5000);
+        when(flotaServiceClient.obtenerTarifaActiva()).thenReturn(Optional.of(tarifa));
+        when(flotaServiceClient.obtenerDepositosEnCorredor(anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyDouble()))
+                .thenReturn(DEPOSITOS);
+
+        when(distanciaService.modoEfectivo(any())).thenReturn(ModoCalculoDistancia.GOOGLE);
+        when(distanciaService.estimar(anyList(), anyList(), anyList(), any())).thenAnswer(invocacion -> {
+            List<Coordenada> origenes = invocacion.getArgument(0);
+            List<Coordenada> destinos = invocacion.getArgument(1);
+            List<Optional<EstimacionDistancia>> estimaciones = new ArrayList<>();
+            for (int i = 0; i < origenes.size(); i++) {
+                estimaciones.add(Optional.of(estimar(origenes.get(i), destinos.get(i))));
+            }
+            return estimaciones;
+        });
+    }
+
+    @Test
+    void laBusquedaSoloPasaPorDepositosQueAcercanAlDestino() {
+        List<RutaTentativaDTO> rutas = generar();
+
+        // Villa Carlos Paz aleja del destino y Santiago del Estero excede el desvío
+        assertEquals(Set.of(List.of(), List.of(1L), List.of(2L), List.of(1L, 2L)), depositos(rutas));
+        assertEquals(List.of(), depositos(rutas.get(0)));
+        assertEquals("DIRECTA", rutas.get(0).getTipoRuta());
+        for (int i = 1; i < rutas.size(); i++) {
+            assertTrue(rutas.get(i - 1).getCostoEstimadoTotal() <= rutas.get(i).getCostoEstimadoTotal());
+        }
+    }
+
+    @Test
+    void lasRutasNoSuperanLaCantidadMaximaDeDepositos() {
+        properties.setMaxDepositos(1);
+
+        assertEquals(Set.of(List.of(), List.of(1L), List.of(2L)), depositos(generar()));
+    }
+
+    @Test
+    void laBusquedaSeCortaAlLlegarAlTopeDeExpansiones() {
+        properties.setMaxExpansiones(2);
+
+        // La directa y la de menor desvío, que sale primera de la cola
+        List<RutaTentativaDTO> rutas = generar();
+        assertEquals(2, rutas.size());
+        assertEquals(List.of(), depositos(rutas.get(0)));
+        assertEquals(1, rutas.get(1).getCantidadDepositos());
+    }
+
+    @Test
+    void conElPresupuestoDeTiempoAgotadoSeDevuelveLaDirecta() {
+        properties.setTiempoMaximoMs(0);
+
+        List<RutaTentativaDTO> rutas = generar();
+
+        assertEquals(1, rutas.size());
+        assertEquals("DIRECTA", rutas.get(0).getTipoRuta());
+    }
+
+    @Test
+    void laDirectaSeDevuelveAunqueNoEsteEntreLasMasBaratas() {
+        // Por ruta la directa da un gran rodeo: todas las que pasan por depósitos resultan más baratas
+        directaKm = 2000;
+        properties.setMaxResultados(2);
+
+        List<RutaTentativaDTO> rutas = generar();
+
+        assertEquals(2, rutas.size());
+        assertEquals("CON_DEPOSITOS", rutas.get(0).getTipoRuta());
+        assertEquals("DIRECTA", rutas.get(1).getTipoRuta());
+        assertEquals(2000, rutas.get(1).getDistanciaTotal(), 1e-9);
+    }
+
+    private List<RutaTentativaDTO> generar() {
+        return new GeneradorRutasService(flotaServiceClient, distanciaService, properties)
+                .generar(CORDOBA, ROSARIO, null);
+    }
+
+    private EstimacionDistancia estimar(Coordenada origen, Coordenada destino) {
+        double km = GeodesicDistanceEngine.haversineKm(origen.getLatitud(), origen.getLongitud(),
+                                                       destino.getLatitud(), destino.getLongitud());
+        if (directaKm > 0 && origen.equals(CORDOBA) && destino.equals(ROSARIO)) {
+            km = directaKm;
+        }
+        return new EstimacionDistancia(km, km / 70, "GOOGLE_MAPS");
+    }
+
+    private static Set<List<Long>> depositos(List<RutaTentativaDTO> rutas) {
+        return rutas.stream().map(RutasTentativasTest::depositos).collect(Collectors.toSet());
+    }
+
+    private static List<Long> depositos(RutaTentativaDTO ruta) {
+        return ruta.getTramos().stream()
+                .map(TramoTentativoDTO::getDepositoDestinoId)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
@@ -0,0 +1,255 @@
+package utn.frc.isi.backend.tpi_Integrador;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.Filter;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionTemplate;
+import utn.frc.isi.backend.tpi_Integrador.controllers.SeguimientoController;
+import utn.frc.isi.backend.tpi_Integrador.exceptions.GlobalExceptionHandler;
+import utn.frc.isi.backend.tpi_Integrador.models.EstadoSolicitud;
+import utn.frc.isi.backend.tpi_Integrador.models.Solicitud;
+import utn.frc.isi.backend.tpi_Integrador.repositories.SolicitudRepository;
+import utn.frc.isi.backend.tpi_Integrador.services.SeguimientoService;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Streams de seguimiento (SSE) con un cliente que se puede detener a mitad de un envío: un suscriptor lento
+ * recibe sólo el último de los eventos que se acumularon, las suscripciones se limitan a
+ * seguimiento.max-suscriptores (503 con Retry-After) y un cambio se publica recién cuando se confirma su
+ * transacción (nunca si se revierte). Cada evento se distingue por la ETA de la solicitud.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:seguimiento",
+        "servicio-flota.outbox.habilitado=false",
+        "servicio-flota.replicacion.habilitada=false",
+        "seguimiento.max-suscriptores=3",
+        "seguimiento.intervalo-latido=1h"
+})
+class SeguimientoServiceTest {
+
+    private static final long ESPERA_MAXIMA_MS = 5_000;
+
+    @Autowired private SeguimientoService seguimientoService;
+    @Autowired private SeguimientoController seguimientoController;
+    @Autowired private GlobalExceptionHandler globalExceptionHandler;
+    @Autowired private SolicitudRepository solicitudRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private MeterRegistry meterRegistry;
+
+    // Cliente lento: con la pausa puesta, la escritura de la respuesta se detiene hasta quitarla
+    private volatile CountDownLatch pausa;
+    private volatile CountDownLatch clienteDetenido;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void armar() {
+        Filter clienteLento = (request, response, chain) ->
+                chain.doFilter(request, new RespuestaLenta((HttpServletResponse) response));
+        mockMvc = MockMvcBuilders.standaloneSetup(seguimientoController)
+                .setControllerAdvice(globalExceptionHandler)
+                .addFilters(clienteLento)
+                .build();
+    }
+
+    @Test
+    void unSuscriptorLentoRecibeSoloElUltimoEventoAcumulado() throws Exception {
+        Solicitud solicitud = crearSolicitud();
+        MvcResult stream = suscribir(solicitud.getId());
+        esperarContenido(stream, "Calculando...");
+
+        pausa = new CountDownLatch(1);
+        clienteDetenido = new CountDownLatch(1);
+        double reemplazadosAntes = eventosReemplazados();
+
+        publicar(solicitud, 1);
+        assertTrue(clienteDetenido.await(ESPERA_MAXIMA_MS, TimeUnit.MILLISECONDS), "el envío del evento 1 no empezó");
+        // Mientras el cliente no lee, cada evento reemplaza al pendiente
+        publicar(solicitud, 2);
+        publicar(solicitud, 3);
+        publicar(solicitud, 4);
+        assertEquals(2, eventosReemplazados() - reemplazadosAntes);
+
+        pausa.countDown();
+        String contenido = esperarContenido(stream, "Aproximadamente 4 horas");
+        assertTrue(contenido.contains("Aproximadamente 1 horas"));
+        assertFalse(contenido.contains("Aproximadamente 2 horas"));
+        assertFalse(contenido.contains("Aproximadamente 3 horas"));
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD) // Deja ocupadas todas las suscripciones
+    void alSuperarElMaximoDeSuscriptoresSeRespondeServicioNoDisponible() throws Exception {
+        Long solicitudId = crearSolicitud().getId();
+
+        // Una suscripción a una solicitud inexistente no ocupa lugar
+        assertEquals(Optional.empty(), seguimientoService.suscribirSolicitud(999_999L));
+        while (suscriptores() < 3) {
+            seguimientoService.suscribirSolicitud(solicitudId).orElseThrow();
+        }
+
+        mockMvc.perform(get("/api/seguimiento/solicitudes/{id}", solicitudId).accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "30"))
+                .andExpect(jsonPath("$.status").value(503));
+        assertEquals(3, suscriptores());
+        assertEquals(1.0, meterRegistry.get("seguimiento.suscripciones.rechazadas").counter().count());
+    }
+
+    @Test
+    void unCambioSePublicaRecienAlConfirmarSuTransaccion() throws Exception {
+        Solicitud solicitud = crearSolicitud();
+        MvcResult stream = suscribir(solicitud.getId());
+        esperarContenido(stream, "Calculando...");
+
+        transactionTemplate.executeWithoutResult(estado -> {
+            publicar(solicitud, 1);
+            estado.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(estado -> {
+            publicar(solicitud, 2);
+            esperar(300);
+            assertFalse(contenido(stream).contains("Aproximadamente 2 horas"), "se envió antes del commit");
+        });
+
+        String contenido = esperarContenido(stream, "Aproximadamente 2 horas");
+        assertFalse(contenido.contains("Aproximadamente 1 horas"), "se envió un cambio revertido");
+    }
+
+    private MvcResult suscribir(Long solicitudId) throws Exception {
+        return mockMvc.perform(get("/api/seguimiento/solicitudes/{id}", solicitudId).accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    /**
+     * Publica la solicitud con la ETA "Aproximadamente {horas} horas"
+     */
+    private void publicar(Solicitud solicitud, int horas) {
+        solicitud.setTiempoEstimado(horas);
+        seguimientoService.publicar(solicitud);
+    }
+
+    private Solicitud crearSolicitud() {
+        Solicitud solicitud = new Solicitud();
+        solicitud.setEstado(EstadoSolicitud.EN_TRANSITO);
+        return solicitudRepository.save(solicitud);
+    }
+
+    private int suscriptores() {
+        return (int) meterRegistry.get("seguimiento.suscriptores").gauge().value();
+    }
+
+    private double eventosReemplazados() {
+        return meterRegistry.get("seguimiento.eventos.reemplazados").counter().count();
+    }
+
+    private static String esperarContenido(MvcResult stream, String texto) {
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ESPERA_MAXIMA_MS);
+        while (System.nanoTime() - limite < 0) {
+            String contenido = contenido(stream);
+            if (contenido.contains(texto)) {
+                return contenido;
+            }
+            esperar(10);
+        }
+        return fail("No llegó \"" + texto + "\" al stream: " + contenido(stream));
+    }
+
+    private static String contenido(MvcResult stream) {
+        try {
+            return stream.getResponse().getContentAsString();
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void esperar(long milisegundos) {
+        try {
+            Thread.sleep(milisegundos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Respuesta cuya escritura se detiene mientras haya una pausa puesta, como un cliente que no lee
+     */
+    private final class RespuestaLenta extends HttpServletResponseWrapper {
+
+        private final ServletOutputStream salida;
+
+        RespuestaLenta(HttpServletResponse response) {
+            super(response);
+            this.salida = new ServletOutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    detenerSiHayPausa();
+                    response.getOutputStream().write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    detenerSiHayPausa();
+                    response.getOutputStream().write(b, off, len);
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                }
+            };
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return salida;
+        }
+
+        private void detenerSiHayPausa() throws IOException {
+            CountDownLatch actual = pausa;
+            if (actual == null || actual.getCount() == 0) {
+                return;
+            }
+            clienteDetenido.countDown();
+            try {
+                actual.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Escritura interrumpida", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package utn.frc.isi.backend.tpi_Integrador.clients;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Agrupación de consultas concurrentes: una llamada aislada consulta sin esperar la ventana, las que llegan
+ * durante una consulta en curso se resuelven juntas, un lote lleno (maxLote) se consulta sin esperar,
+ * los grupos no comparten consultas y una consulta que falla completa vacías a todas sus llamadas.
+ * La consulta por lote registra cada conjunto de claves y se puede detener para simular a servicio-flota lento.
+ * Está en el paquete de AgrupadorConsultas porque la clase no es pública.
+ */
+class AgrupadorConsultasTest {
+
+    private static final Duration VENTANA_LARGA = Duration.ofSeconds(10);
+    private static final long ESPERA_MAXIMA_MS = 5_000;
+
+    private final List<Set<Long>> consultas = new CopyOnWriteArrayList<>();
+    private final CountDownLatch liberar = new CountDownLatch(1);
+    private final ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void detener() {
+        liberar.countDown();
+        hilos.shutdownNow();
+    }
+
+    @Test
+    void unaLlamadaAisladaConsultaSinEsperarLaVentana() {
+        AgrupadorConsultas<Long, String> agrupador = new AgrupadorConsultas<>(VENTANA_LARGA, 10, registrar(claves -> false));
+
+        long inicio = System.nanoTime();
+        assertEquals(Optional.of("camión 1"), agrupador.obtener("usuario", 1L));
+        assertEquals(Optional.of("camión 2"), agrupador.obtener("usuario", 2L));
+
+        assertTrue(System.nanoTime() - inicio < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(List.of(Set.of(1L), Set.of(2L)), consultas);
+    }
+
+    @Test
+    void lasLlamadasQueLleganDuranteUnaConsultaSeResuelvenJuntas() throws Exception {
+        AgrupadorConsultas<Long, String> agrupador =
+                new AgrupadorConsultas<>(VENTANA_LARGA, 10, registrar(claves -> claves.contains(1L)));
+
+        Future<Optional<String>> primera = obtener(agrupador, "usuario", 1L);
+        esperarConsultas(1);
+        List<Future<Optional<String>>> siguientes = IntStream.rangeClosed(2, 5)
+                .mapToObj(id -> obtener(agrupador, "usuario", (long) id))
+                .toList();
+        Thread.sleep(200);
+        assertEquals(1, consultas.size(), "se consultó sin esperar a que termine la consulta en curso");
+
+        liberar.countDown();
+        assertEquals(Optional.of("camión 1"), primera.get(ESPERA_MAXIMA_MS, TimeUnit.MILLISECONDS));
+        for (int i = 0; i < siguientes.size(); i++) {
+            assertEquals(Optional.of("camión " + (i + 2)), siguientes.get(i).get(ESPERA_MAXIMA_MS, TimeUnit.MILLISECONDS));
+        }
+        assertEquals(List.of(Set.of(1L), Set.of(2L, 3L, 4L, 5L)), consultas);
+    }
+
+    @Test
+    void unLoteLlenoSeConsultaSinEsperarALaConsultaEnCurso() throws Exception {
+        AgrupadorConsultas<Long, String> agrupador =
+                new AgrupadorConsultas<>(VENTANA_LARGA, 3, registrar(claves -> claves.contains(1L)));
+
+        Future<Optional<String>> primera = obtener(agrupador, "usuario", 1L);
+        esperarConsultas(1);
+        List<Future<Optional<String>>> siguientes = IntStream.rangeClosed(2, 7)
+                .mapToObj(id -> obtener(agrupador, "usuario", (long) id))
+                .toList();
+
+        // Dos lotes de 3 mientras la primera consulta sigue detenida
+        for (Future<Optional<String>> siguiente : siguientes) {
+            assertTrue(siguiente.get(ESPERA_MAXIMA_MS, TimeUnit.MILLISECONDS).isPresent());
+        }
+        assertEquals(List.of(3, 3), consultas.subList(1, consultas.size()).stream().map(Set::size).toList());
+        assertEquals(Set.of(2L, 3L, 4L, 5L, 6L, 7L),
+                     consultas.subList(1, 3).stream().flatMap(Set::stream).collect(Collectors.toSet()));
+
+        liberar.countDown();
+        assertEquals(Optional.of("camión 1"), primera.get(ESPERA_MAXIMA_MS, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void losGruposNoCompartenConsultas() throws Exception {
+        AgrupadorConsultas<Long, String> agrupador =
+                new AgrupadorConsultas<>(VENTANA_LARGA, 10, registrar(claves -> claves.contains(1L)));
+
+        Future<Optional<String>> otroUsuario = obtener(agrupador, "usuario-a", 1L);
+        esperarConsultas(1);
+
+        // El grupo de otro usuario tiene su consulta en curso, pero este no: consulta en el momento
+        assertEquals(Optional.of("camión 2"), obtener(agrupador, "usuario-b", 2L).get(ESPERA_MAXIMA_MS, TimeUnit.MILLISECONDS));
+        assertEquals(List.of(Set.of(1L), Set.of(2L)), consultas);
+
+        liberar.countDown();
+        assertEquals(Optional.of("camión 1"), otroUsuario.get(ESPERA_MAXIMA_MS, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void unaConsultaQueFallaCompletaVaciasASusLlamadas() throws Exception {
+        CountDownLatch fallar = new CountDownLatch(1);
+        AgrupadorConsultas<Long, String> agrupador = new AgrupadorConsultas<>(VENTANA_LARGA, 10, claves -> {
+            consultas.add(Set.copyOf(claves));
+            if (claves.contains(1L)) {
+                esperar(fallar);
+            }
+            if (claves.size() > 1) {
+                throw new IllegalStateException("servicio-flota caído");
+            }
+            return valores(claves);
+        });
+
+        Future<Optional<String>> primera = obtener(agrupador, "usuario", 1L);
+        esperarConsultas(1);
+        Future<Optional<String>> segunda = obtener(agrupador, "usuario", 2L);
+        Future<Optional<String>> tercera = obtener(agrupador, "usuario", 3L);
+        Thread.sleep(200);
+        fallar.countDown();
+
+        assertEquals(Optional.of("camión 1"), primera.get(ESPERA_MAXIMA_MS, TimeUnit.MILLISECONDS));
+        assertEquals(Optional.empty(), segunda.get(ESPERA_MAXIMA_MS, TimeUnit.MILLISECONDS));
+        assertEquals(Optional.empty(), tercera.get(ESPERA_MAXIMA_MS, TimeUnit.MILLISECONDS));
+
+        // El grupo no queda trabado: la llamada siguiente consulta en el momento
+        assertEquals(Optional.of("camión 4"), agrupador.obtener("usuario", 4L));
+    }
+
+    /**
+     * Consulta que registra las claves pedidas y, si detener lo indica, espera a que el test la libere
+     */
+    private Function<Set<Long>, Map<Long, String>> registrar(Function<Set<Long>, Boolean> detener) {
+        return claves -> {
+            consultas.add(Set.copyOf(claves));
+            if (detener.apply(claves)) {
+                esperar(liberar);
+            }
+            return valores(claves);
+        };
+    }
+
+    private Future<Optional<String>> obtener(AgrupadorConsultas<Long, String> agrupador, String grupo, Long clave) {
+        return hilos.submit(() -> agrupador.obtener(grupo, clave));
+    }
+
+    private void esperarConsultas(int cantidad) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ESPERA_MAXIMA_MS);
+        while (consultas.size() < cantidad && System.nanoTime() - limite < 0) {
+            Thread.sleep(5);
+        }
+        assertEquals(cantidad, consultas.size());
+    }
+
+    private static Map<Long, String> valores(Set<Long> claves) {
+        return claves.stream().collect(Collectors.toMap(Function.identity(), id -> "camión " + id));
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            latch.await(ESPERA_MAXIMA_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}